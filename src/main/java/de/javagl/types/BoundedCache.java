@@ -0,0 +1,205 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A simple, thread-safe cache with a maximum size.<br>
+ * <br>
+ * Lookups do not acquire any lock. When the maximum size is exceeded,
+ * entries are evicted with the "clock" (second chance) strategy: 
+ * A sweep visits the entries in the order of the underlying map. An 
+ * entry that was accessed since the last visit is kept, and an entry 
+ * that was not accessed is removed. This approximates the removal of 
+ * the least recently used entries. While one thread is evicting 
+ * entries, other threads may add entries, so the maximum size may
+ * temporarily be exceeded by a few entries.
+ * 
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+class BoundedCache<K, V>
+{
+    /**
+     * A cached value, together with the flag that indicates whether
+     * it was accessed since the last visit of the eviction sweep
+     * 
+     * @param <V> The value type
+     */
+    private static final class Entry<V>
+    {
+        /**
+         * The value
+         */
+        final V value;
+        
+        /**
+         * Whether the entry was accessed since the last visit of
+         * the eviction sweep
+         */
+        volatile boolean referenced;
+        
+        /**
+         * Creates a new entry
+         * 
+         * @param value The value
+         */
+        Entry(V value)
+        {
+            this.value = value;
+        }
+    }
+    
+    /**
+     * The maximum size
+     */
+    private final int maxSize;
+    
+    /**
+     * The map storing the cached entries
+     */
+    private final Map<K, Entry<V>> map;
+    
+    /**
+     * The "clock hand" of the eviction sweep. This is an iterator over 
+     * the entries of the map, which is continued by each sweep, and
+     * only used while holding the monitor of this cache.
+     */
+    private Iterator<Entry<V>> hand;
+    
+    /**
+     * Creates a new cache with the given maximum size
+     * 
+     * @param maxSize The maximum size
+     * @throws IllegalArgumentException If the given size is not positive
+     */
+    BoundedCache(int maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum size must be positive, but is " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<K, Entry<V>>();
+    }
+    
+    /**
+     * Returns the value for the given key, or <code>null</code> if
+     * no value is cached for the given key
+     * 
+     * @param key The key
+     * @return The value
+     */
+    V get(K key)
+    {
+        Entry<V> entry = map.get(key);
+        if (entry == null)
+        {
+            return null;
+        }
+        
+        // Only write the flag when it changes, so that repeated hits 
+        // on the same entry from different threads only read it
+        if (!entry.referenced)
+        {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+    
+    /**
+     * Stores the given value for the given key
+     * 
+     * @param key The key
+     * @param value The value
+     */
+    void put(K key, V value)
+    {
+        map.put(key, new Entry<V>(value));
+        if (map.size() > maxSize)
+        {
+            evict();
+        }
+    }
+    
+    /**
+     * Advance the clock hand and remove entries that have not been 
+     * accessed since the last visit, until the size of this cache is 
+     * at most the maximum size
+     */
+    private synchronized void evict()
+    {
+        // Each entry is visited at most twice: Once to clear the flag,
+        // and once to remove it. Entries that are accessed concurrently
+        // may set their flag again, so the number of steps is limited.
+        int steps = 2 * (maxSize + 1);
+        while (map.size() > maxSize && steps > 0)
+        {
+            if (hand == null || !hand.hasNext())
+            {
+                hand = map.values().iterator();
+                if (!hand.hasNext())
+                {
+                    return;
+                }
+            }
+            Entry<V> entry = hand.next();
+            if (entry.referenced)
+            {
+                entry.referenced = false;
+            }
+            else
+            {
+                hand.remove();
+            }
+            steps--;
+        }
+    }
+    
+    /**
+     * Removes all entries from this cache
+     */
+    synchronized void clear()
+    {
+        map.clear();
+        hand = null;
+    }
+    
+    /**
+     * Returns the number of entries in this cache
+     * 
+     * @return The size
+     */
+    int size()
+    {
+        return map.size();
+    }
+}
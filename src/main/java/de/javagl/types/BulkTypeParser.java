@@ -0,0 +1,98 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Interface for classes that parse many types from strings, in parallel.
+ * Instances of classes implementing this interface may be created with
+ * {@link BulkTypeParsers}.<br>
+ * <br>
+ * Each input line is parsed as described in {@link Types#parse(String)},
+ * taking into account the imports and type variable names that have 
+ * been added to this parser. Lines that are empty or only contain 
+ * whitespace are skipped. Errors are reported for each line individually,
+ * in the {@link TypeParseResult} objects, and do not cause the whole
+ * batch to fail.<br>
+ * <br>
+ * The configuration methods of this interface are not thread-safe. The
+ * parsing methods may be called concurrently, as long as the 
+ * configuration is not modified.
+ */
+public interface BulkTypeParser
+{
+    /**
+     * Add the given import. This may either be a single type name, like
+     * <code>java.util.List</code>, or a package import, like
+     * <code>java.util.*</code>. Class names that are not fully qualified
+     * will be resolved using these imports.
+     * 
+     * @param importString The import string
+     * @return This instance
+     * @throws IllegalArgumentException If the import string is not valid,
+     * or the name of the imported type collides with a type that was
+     * already imported
+     */
+    BulkTypeParser addImport(String importString);
+    
+    /**
+     * Add the given name of a type variable. Names that appear in the 
+     * input and that have been added with this method will be parsed 
+     * as type variables.
+     * 
+     * @param typeVariableName The type variable name
+     * @return This instance
+     * @throws IllegalArgumentException If the given variable name is not
+     * a valid Java identifier
+     */
+    BulkTypeParser addTypeVariableName(String typeVariableName);
+    
+    /**
+     * Parse the types from the lines of the given file, which is read 
+     * with the UTF-8 charset.
+     * 
+     * @param path The path of the file
+     * @return The unmodifiable list of results, in the order of the lines
+     * @throws IOException If the file can not be read
+     */
+    List<TypeParseResult> parse(Path path) throws IOException;
+    
+    /**
+     * Parse the types from the given lines. The given stream will be 
+     * consumed completely before the parsing starts.
+     * 
+     * @param lines The lines
+     * @return The unmodifiable list of results, in the order of the lines
+     * @throws NullPointerException If the given stream is 
+     * <code>null</code> or contains <code>null</code> elements
+     */
+    List<TypeParseResult> parse(Stream<String> lines);
+}
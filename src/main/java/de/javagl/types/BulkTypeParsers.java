@@ -0,0 +1,56 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+/**
+ * Methods to create {@link BulkTypeParser} instances
+ */
+public class BulkTypeParsers
+{
+    /**
+     * Create a new {@link BulkTypeParser}.<br>
+     * <br>
+     * The returned instance splits the input into chunks of lines, and
+     * parses the chunks in parallel, using the common fork-join pool. 
+     * The parsers for the chunks share the results of resolving class 
+     * names, so that each class name is only resolved once per batch.
+     * 
+     * @return The {@link BulkTypeParser}
+     */
+    public static BulkTypeParser create()
+    {
+        return new DefaultBulkTypeParser();
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BulkTypeParsers()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cached information about the class hierarchy
+ */
+class ClassHierarchy
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger = 
+        Logger.getLogger(ClassHierarchy.class.getName());
+    
+    /**
+     * The suffix of the simple names of generated {@link TypeMetadata}
+     * classes
+     */
+    static final String TYPE_METADATA_SUFFIX = "_TypeMetadata";
+    
+    /**
+     * The generated {@link TypeMetadata} of classes. The value will be
+     * <code>null</code> for classes without generated metadata.
+     */
+    private static final ClassValue<TypeMetadata> TYPE_METADATA = 
+        new ClassValue<TypeMetadata>()
+    {
+        @Override
+        protected TypeMetadata computeValue(Class<?> type)
+        {
+            return loadTypeMetadata(type);
+        }
+    };
+    
+    /**
+     * The raw supertypes of classes
+     */
+    private static final ClassValue<Set<Class<?>>> RAW_SUPERTYPES = 
+        new ClassValue<Set<Class<?>>>()
+    {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> type)
+        {
+            Set<Class<?>> result = new LinkedHashSet<Class<?>>();
+            collectRawSupertypes(type, result);
+            result.add(Object.class);
+            return Collections.unmodifiableSet(result);
+        }
+    };
+    
+    /**
+     * The direct raw supertypes of classes
+     */
+    private static final ClassValue<List<Class<?>>> DIRECT_RAW_SUPERTYPES = 
+        new ClassValue<List<Class<?>>>()
+    {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type)
+        {
+            TypeMetadata typeMetadata = getTypeMetadata(type);
+            if (typeMetadata != null)
+            {
+                return typeMetadata.getDirectRawSupertypes();
+            }
+            List<Class<?>> result = new ArrayList<Class<?>>();
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null)
+            {
+                result.add(superclass);
+            }
+            Collections.addAll(result, type.getInterfaces());
+            return Collections.unmodifiableList(result);
+        }
+    };
+    
+    /**
+     * The direct generic supertypes of classes
+     */
+    private static final ClassValue<List<Type>> DIRECT_GENERIC_SUPERTYPES = 
+        new ClassValue<List<Type>>()
+    {
+        @Override
+        protected List<Type> computeValue(Class<?> type)
+        {
+            TypeMetadata typeMetadata = getTypeMetadata(type);
+            if (typeMetadata != null)
+            {
+                return typeMetadata.getDirectGenericSupertypes();
+            }
+            List<Type> result = new ArrayList<Type>();
+            Type genericSuperclass = type.getGenericSuperclass();
+            if (genericSuperclass != null)
+            {
+                result.add(genericSuperclass);
+            }
+            Collections.addAll(result, type.getGenericInterfaces());
+            return Collections.unmodifiableList(result);
+        }
+    };
+    
+    /**
+     * Returns an unmodifiable set containing the given class, all its
+     * superclasses and all interfaces that it implements, directly or 
+     * indirectly. The set will always contain <code>Object.class</code>,
+     * even if the given class is an interface or a primitive type. The 
+     * results of this method are cached.
+     * 
+     * @param c The class
+     * @return The raw supertypes
+     */
+    static Set<Class<?>> getRawSupertypes(Class<?> c)
+    {
+        return RAW_SUPERTYPES.get(c);
+    }
+    
+    /**
+     * Returns an unmodifiable list containing the direct superclass of 
+     * the given class (if it has one), followed by the interfaces that 
+     * it directly implements, as returned by {@link Class#getSuperclass()}
+     * and {@link Class#getInterfaces()}. The results of this method are 
+     * cached.
+     * 
+     * @param c The class
+     * @return The direct raw supertypes
+     */
+    static List<Class<?>> getDirectRawSupertypes(Class<?> c)
+    {
+        return DIRECT_RAW_SUPERTYPES.get(c);
+    }
+    
+    /**
+     * Returns an unmodifiable list containing the generic superclass of 
+     * the given class (if it has one), followed by the generic interfaces
+     * that it directly implements, as returned by 
+     * {@link Class#getGenericSuperclass()} and 
+     * {@link Class#getGenericInterfaces()}. The results of this method 
+     * are cached.
+     * 
+     * @param c The class
+     * @return The direct generic supertypes
+     */
+    static List<Type> getDirectGenericSupertypes(Class<?> c)
+    {
+        return DIRECT_GENERIC_SUPERTYPES.get(c);
+    }
+    
+    /**
+     * Returns the generic superclass of the given class, as returned by 
+     * {@link Class#getGenericSuperclass()}. The results of this method 
+     * are cached.
+     * 
+     * @param c The class
+     * @return The generic superclass, or <code>null</code> if the class
+     * does not have a superclass
+     */
+    static Type getGenericSuperclass(Class<?> c)
+    {
+        if (c.getSuperclass() == null)
+        {
+            return null;
+        }
+        return getDirectGenericSupertypes(c).get(0);
+    }
+    
+    /**
+     * Returns the {@link TypeMetadata} that was generated for the given
+     * class, or <code>null</code> if the class is not annotated with
+     * {@link GenerateTypeMetadata}, or was compiled without generating
+     * the metadata. The results of this method are cached.
+     * 
+     * @param c The class
+     * @return The {@link TypeMetadata}
+     */
+    static TypeMetadata getTypeMetadata(Class<?> c)
+    {
+        return TYPE_METADATA.get(c);
+    }
+    
+    /**
+     * Load the {@link TypeMetadata} that was generated for the given 
+     * class, as described in {@link #getTypeMetadata(Class)}
+     * 
+     * @param c The class
+     * @return The {@link TypeMetadata}
+     */
+    private static TypeMetadata loadTypeMetadata(Class<?> c)
+    {
+        if (c.isPrimitive() || c.isArray() || c.getClassLoader() == null)
+        {
+            return null;
+        }
+        if (!c.isAnnotationPresent(GenerateTypeMetadata.class))
+        {
+            return null;
+        }
+        String name = c.getName();
+        int packageEnd = name.lastIndexOf('.') + 1;
+        String generatedName = name.substring(0, packageEnd) + 
+            name.substring(packageEnd).replace('$', '_') + 
+            TYPE_METADATA_SUFFIX;
+        Object instance = null;
+        try
+        {
+            Class<?> generatedClass = 
+                Class.forName(generatedName, false, c.getClassLoader());
+            instance = generatedClass.getConstructor().newInstance();
+        }
+        catch (ClassNotFoundException e)
+        {
+            // The class was compiled without generating the metadata
+            return null;
+        }
+        catch (ReflectiveOperationException e)
+        {
+            logger.log(Level.WARNING, 
+                "Could not instantiate " + generatedName, e);
+            return null;
+        }
+        if (!(instance instanceof TypeMetadata) || 
+            !c.equals(((TypeMetadata)instance).getDescribedClass()))
+        {
+            logger.warning(generatedName + 
+                " does not contain the type metadata of " + name);
+            return null;
+        }
+        return (TypeMetadata)instance;
+    }
+    
+    /**
+     * Collect the given class and all its raw supertypes in the given set
+     * 
+     * @param c The class
+     * @param result The result set
+     */
+    private static void collectRawSupertypes(Class<?> c, Set<Class<?>> result)
+    {
+        if (!result.add(c))
+        {
+            return;
+        }
+        for (Class<?> supertype : getDirectRawSupertypes(c))
+        {
+            collectRawSupertypes(supertype, result);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ClassHierarchy()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Interface for a chain of conversions from one type into another, 
+ * as obtained from a {@link ConversionRegistry}. Each step of the chain 
+ * either applies a registered converter, or a conversion that is built
+ * into the language, like a widening primitive conversion or a boxing
+ * conversion.
+ */
+public interface ConversionChain
+{
+    /**
+     * Returns the type that this chain converts from
+     * 
+     * @return The source type
+     */
+    Type getSourceType();
+    
+    /**
+     * Returns the type that this chain converts into
+     * 
+     * @return The target type
+     */
+    Type getTargetType();
+    
+    /**
+     * Returns an unmodifiable list containing the types that are passed
+     * by this chain. The first element is the source type, and the last
+     * element is the target type. The number of steps of this chain is
+     * the size of this list minus one.
+     * 
+     * @return The types
+     */
+    List<Type> getTypes();
+    
+    /**
+     * Returns the number of registered converters that are applied by 
+     * this chain
+     * 
+     * @return The number of converters
+     */
+    int getConverterCount();
+    
+    /**
+     * Convert the given value of the source type into a value of the 
+     * target type, by applying all steps of this chain. For the steps
+     * that are built into the language, primitive values are converted
+     * into the boxed type of the respective target type. All other 
+     * values are passed to the next step unmodified.
+     * 
+     * @param value The value
+     * @return The converted value
+     */
+    Object convert(Object value);
+}
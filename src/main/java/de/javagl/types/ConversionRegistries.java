@@ -0,0 +1,60 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+/**
+ * Methods to create {@link ConversionRegistry} instances
+ */
+public class ConversionRegistries
+{
+    /**
+     * Create a new, empty {@link ConversionRegistry}.<br>
+     * <br>
+     * The returned instance is thread-safe. Lookups do not block: They
+     * operate on an immutable snapshot of the registry. For the types 
+     * that converters have been registered for, the shortest chains 
+     * between all pairs of types are precomputed when the first lookup 
+     * is performed on a snapshot. Lookups for other types, and lookups 
+     * that involve converters with type variables, are cached until the
+     * registry is modified. Modifications create and publish a new 
+     * snapshot, and are therefore more expensive. 
+     * 
+     * @return The {@link ConversionRegistry}
+     */
+    public static ConversionRegistry create()
+    {
+        return new DefaultConversionRegistry();
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ConversionRegistries()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
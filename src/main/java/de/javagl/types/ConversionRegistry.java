@@ -0,0 +1,118 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+/**
+ * Interface for a registry of conversions between types. Instances of 
+ * classes implementing this interface may be created with 
+ * {@link ConversionRegistries}.<br>
+ * <br>
+ * The registry contains converters that have been registered for pairs
+ * of types. These converters may be composed into 
+ * {@link ConversionChain}s, together with the conversions that are 
+ * built into the language: Whenever the target type of one step is 
+ * not equal to the source type of the next step, then the source type 
+ * of the next step must be {@link Types#isAssignable(Type, Type) 
+ * assignable} from the target type of the previous step. This includes
+ * widening primitive conversions, boxing and unboxing conversions, and
+ * the assignability of generic types.<br>
+ * <br>
+ * The source type of a converter may contain type variables. Such a 
+ * converter is applicable to all types that the source type is 
+ * assignable from, for the {@link Types#inferTypeVariables(Type, Type)
+ * inferred} types of the type variables. For example, a converter that
+ * is registered for <code>List&lt;T&gt;</code> and 
+ * <code>Set&lt;T&gt;</code> will convert an 
+ * <code>ArrayList&lt;String&gt;</code> into a 
+ * <code>Set&lt;String&gt;</code>. The type variables of the target type
+ * must all appear in the source type.
+ */
+public interface ConversionRegistry
+{
+    /**
+     * Register the given converter for the conversion from the given
+     * source type into the given target type
+     * 
+     * @param from The source type
+     * @param to The target type
+     * @param converter The converter
+     * @return The converter that was previously registered for the types, 
+     * or <code>null</code> if no converter was registered
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the target type contains type
+     * variables that do not appear in the source type
+     */
+    Function<Object, Object> register(Type from, Type to, 
+        Function<Object, Object> converter);
+    
+    /**
+     * Remove the converter that was registered for the given types
+     * 
+     * @param from The source type
+     * @param to The target type
+     * @return The converter that was registered for the types, or 
+     * <code>null</code> if no converter was registered
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    Function<Object, Object> unregister(Type from, Type to);
+    
+    /**
+     * Returns the shortest {@link ConversionChain} from the given source 
+     * type into the given target type. The shortest chain is the one 
+     * that contains the smallest number of registered converters. Among
+     * the chains with the same number of converters, the one with the 
+     * smallest number of steps is returned.<br>
+     * <br>
+     * If the source type is equal to the target type, then a chain 
+     * without any steps is returned. 
+     * 
+     * @param from The source type
+     * @param to The target type
+     * @return The {@link ConversionChain}, or <code>null</code> if the
+     * source type can not be converted into the target type
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    ConversionChain getConversionChain(Type from, Type to);
+    
+    /**
+     * Convert the given value from the given source type into the given
+     * target type, using the {@link #getConversionChain(Type, Type) 
+     * shortest conversion chain}
+     * 
+     * @param value The value
+     * @param from The source type
+     * @param to The target type
+     * @return The converted value
+     * @throws NullPointerException If the given types are <code>null</code>
+     * @throws IllegalArgumentException If the source type can not be 
+     * converted into the target type
+     */
+    Object convert(Object value, Type from, Type to);
+}
@@ -0,0 +1,174 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Default implementation of a {@link BulkTypeParser}
+ */
+final class DefaultBulkTypeParser implements BulkTypeParser
+{
+    /**
+     * The number of lines that are parsed by a single worker
+     */
+    private static final int CHUNK_SIZE = 1024;
+    
+    /**
+     * The parser that stores the configuration, and serves as the 
+     * template for the parsers of the workers
+     */
+    private final DefaultTypeParser template;
+    
+    /**
+     * Creates a new instance
+     */
+    DefaultBulkTypeParser()
+    {
+        this.template = new DefaultTypeParser();
+    }
+    
+    @Override
+    public BulkTypeParser addImport(String importString)
+    {
+        template.addImport(importString);
+        return this;
+    }
+    
+    @Override
+    public BulkTypeParser addTypeVariableName(String typeVariableName)
+    {
+        template.addTypeVariableName(typeVariableName);
+        return this;
+    }
+    
+    @Override
+    public List<TypeParseResult> parse(Path path) throws IOException
+    {
+        Objects.requireNonNull(path, "The path is null");
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = 
+            Files.newBufferedReader(path, StandardCharsets.UTF_8))
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.add(line);
+            }
+        }
+        return parse(lines);
+    }
+    
+    @Override
+    public List<TypeParseResult> parse(Stream<String> lines)
+    {
+        Objects.requireNonNull(lines, "The lines are null");
+        List<String> list = new ArrayList<String>();
+        lines.forEachOrdered(line -> 
+            list.add(Objects.requireNonNull(line, "A line is null")));
+        return parse(list);
+    }
+    
+    /**
+     * Parse the given lines, in parallel
+     * 
+     * @param lines The lines
+     * @return The results
+     */
+    private List<TypeParseResult> parse(List<String> lines)
+    {
+        TypeParseResult results[] = new TypeParseResult[lines.size()];
+        Map<String, Object> classCache = 
+            new ConcurrentHashMap<String, Object>();
+        int numChunks = (lines.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, numChunks).parallel().forEach(chunk ->
+        {
+            DefaultTypeParser parser = 
+                new DefaultTypeParser(template, classCache);
+            int min = chunk * CHUNK_SIZE;
+            int max = Math.min(lines.size(), min + CHUNK_SIZE);
+            for (int i = min; i < max; i++)
+            {
+                String line = lines.get(i).trim();
+                if (!line.isEmpty())
+                {
+                    results[i] = parseLine(parser, i + 1, line);
+                }
+            }
+        });
+        List<TypeParseResult> list = new ArrayList<TypeParseResult>();
+        for (TypeParseResult result : results)
+        {
+            if (result != null)
+            {
+                list.add(result);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+    
+    /**
+     * Parse a single line
+     * 
+     * @param parser The parser
+     * @param lineNumber The line number
+     * @param line The line
+     * @return The result
+     */
+    private static TypeParseResult parseLine(
+        TypeParser parser, int lineNumber, String line)
+    {
+        try
+        {
+            Type type = parser.parse(line);
+            return new TypeParseResult(lineNumber, line, type, null);
+        }
+        catch (ClassNotFoundException | RuntimeException e)
+        {
+            return new TypeParseResult(lineNumber, line, null, e);
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "BulkTypeParser";
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Default implementation of a {@link ConversionChain}
+ */
+final class DefaultConversionChain implements ConversionChain
+{
+    /**
+     * The types that are passed by this chain
+     */
+    private final List<Type> types;
+    
+    /**
+     * The converters of the steps. The elements are <code>null</code> 
+     * for the steps that are built into the language.
+     */
+    private final List<Function<Object, Object>> converters;
+    
+    /**
+     * The number of non-<code>null</code> converters
+     */
+    private final int converterCount;
+    
+    /**
+     * Creates a new chain
+     * 
+     * @param types The types that are passed by this chain. This list
+     * may not be modified afterwards.
+     * @param converters The converters of the steps, which are 
+     * <code>null</code> for the steps that are built into the language.
+     * The size of this list must be one less than the number of types. 
+     * This list may not be modified afterwards.
+     */
+    DefaultConversionChain(List<Type> types, 
+        List<Function<Object, Object>> converters)
+    {
+        this.types = Collections.unmodifiableList(types);
+        this.converters = converters;
+        int count = 0;
+        for (Function<Object, Object> converter : converters)
+        {
+            if (converter != null)
+            {
+                count++;
+            }
+        }
+        this.converterCount = count;
+    }
+    
+    @Override
+    public Type getSourceType()
+    {
+        return types.get(0);
+    }
+    
+    @Override
+    public Type getTargetType()
+    {
+        return types.get(types.size() - 1);
+    }
+    
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+    
+    @Override
+    public int getConverterCount()
+    {
+        return converterCount;
+    }
+    
+    @Override
+    public Object convert(Object value)
+    {
+        Object result = value;
+        for (int i = 0; i < converters.size(); i++)
+        {
+            Function<Object, Object> converter = converters.get(i);
+            if (converter == null)
+            {
+                result = convertBuiltIn(result, types.get(i + 1));
+            }
+            else
+            {
+                result = converter.apply(result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Apply a conversion that is built into the language to the given
+     * value. If the given type is a primitive type or a boxed primitive 
+     * type, then the given (boxed primitive) value is converted into the 
+     * corresponding boxed type. Otherwise, the value is returned 
+     * unmodified.
+     * 
+     * @param value The value
+     * @param to The type to convert into
+     * @return The converted value
+     */
+    private static Object convertBuiltIn(Object value, Type to)
+    {
+        if (!(to instanceof Class<?>))
+        {
+            return value;
+        }
+        Class<?> c = (Class<?>)to;
+        if (PrimitiveTypes.isPrimitiveType(c))
+        {
+            c = PrimitiveTypes.getBoxedType(c);
+        }
+        if (!PrimitiveTypes.isBoxedPrimitiveClass(c) || c.isInstance(value))
+        {
+            return value;
+        }
+        Object result = value;
+        if (result instanceof Character)
+        {
+            result = Integer.valueOf((Character)result);
+        }
+        if (!(result instanceof Number))
+        {
+            return value;
+        }
+        Number number = (Number)result;
+        if (c == Short.class)
+        {
+            return number.shortValue();
+        }
+        if (c == Integer.class)
+        {
+            return number.intValue();
+        }
+        if (c == Long.class)
+        {
+            return number.longValue();
+        }
+        if (c == Float.class)
+        {
+            return number.floatValue();
+        }
+        if (c == Double.class)
+        {
+            return number.doubleValue();
+        }
+        return value;
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < types.size(); i++)
+        {
+            if (i > 0)
+            {
+                sb.append(" -> ");
+            }
+            Types.appendStringFor(sb, types.get(i));
+        }
+        return sb.toString();
+    }
+}
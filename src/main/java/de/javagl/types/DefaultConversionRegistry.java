@@ -0,0 +1,900 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Default implementation of a {@link ConversionRegistry}. All lookups 
+ * operate on an immutable {@link Snapshot}. Modifications create a new 
+ * snapshot and publish it atomically.<br>
+ * <br>
+ * The types that converters without type variables have been registered
+ * for are the nodes of a graph. Its edges are the registered converters
+ * and the built-in conversions between the nodes. The shortest paths 
+ * between all pairs of nodes are computed with the Floyd-Warshall 
+ * algorithm, when the first lookup is performed on a snapshot. Lookups
+ * for other types, or in the presence of converters with type variables,
+ * perform a shortest path search that uses this table for the paths 
+ * between the nodes. Their results are cached in the snapshot.
+ */
+final class DefaultConversionRegistry implements ConversionRegistry
+{
+    /**
+     * The maximum number of lookup results that are cached for a single
+     * snapshot
+     */
+    private static final int MAX_CACHED_LOOKUPS = 1024;
+    
+    /**
+     * The cost of a step that applies a registered converter. This is 
+     * larger than the cost of all built-in steps of any chain, so that 
+     * chains with fewer converters are always preferred.
+     */
+    private static final long CONVERTER_COST = 1L << 32;
+    
+    /**
+     * The cost of a step that is built into the language
+     */
+    private static final long BUILT_IN_COST = 1;
+    
+    /**
+     * The cost for types that can not be reached
+     */
+    private static final long INFINITE_COST = Long.MAX_VALUE;
+    
+    /**
+     * The maximum number of converters in a chain that is searched when
+     * converters with type variables are registered. This ensures that 
+     * the search terminates when such converters may be applied 
+     * repeatedly, as in <code>List&lt;T&gt; -&gt; 
+     * List&lt;List&lt;T&gt;&gt;</code>.
+     */
+    private static final int MAX_CONVERTERS = 16;
+    
+    /**
+     * The value that is cached for lookups that did not find a chain
+     */
+    private static final Object NONE = new Object();
+    
+    /**
+     * The current snapshot
+     */
+    private final AtomicReference<Snapshot> snapshot;
+    
+    /**
+     * Creates a new, empty registry
+     */
+    DefaultConversionRegistry()
+    {
+        Map<Key, Function<Object, Object>> empty = Collections.emptyMap();
+        this.snapshot = new AtomicReference<Snapshot>(new Snapshot(empty));
+    }
+    
+    @Override
+    public Function<Object, Object> register(Type from, Type to, 
+        Function<Object, Object> converter)
+    {
+        Objects.requireNonNull(from, "The from-type is null");
+        Objects.requireNonNull(to, "The to-type is null");
+        Objects.requireNonNull(converter, "The converter is null");
+        if (!typeVariables(from).containsAll(typeVariables(to)))
+        {
+            throw new IllegalArgumentException(
+                "The type " + Types.stringFor(to) + " contains type " + 
+                "variables that do not appear in " + Types.stringFor(from));
+        }
+        Key key = new Key(from, to);
+        while (true)
+        {
+            Snapshot current = snapshot.get();
+            Function<Object, Object> previous = current.entries.get(key);
+            if (converter.equals(previous))
+            {
+                return previous;
+            }
+            Map<Key, Function<Object, Object>> entries = 
+                new LinkedHashMap<Key, Function<Object, Object>>(
+                    current.entries);
+            entries.put(key, converter);
+            if (snapshot.compareAndSet(current, new Snapshot(entries)))
+            {
+                return previous;
+            }
+        }
+    }
+    
+    @Override
+    public Function<Object, Object> unregister(Type from, Type to)
+    {
+        Objects.requireNonNull(from, "The from-type is null");
+        Objects.requireNonNull(to, "The to-type is null");
+        Key key = new Key(from, to);
+        while (true)
+        {
+            Snapshot current = snapshot.get();
+            if (!current.entries.containsKey(key))
+            {
+                return null;
+            }
+            Map<Key, Function<Object, Object>> entries = 
+                new LinkedHashMap<Key, Function<Object, Object>>(
+                    current.entries);
+            Function<Object, Object> previous = entries.remove(key);
+            if (snapshot.compareAndSet(current, new Snapshot(entries)))
+            {
+                return previous;
+            }
+        }
+    }
+    
+    @Override
+    public ConversionChain getConversionChain(Type from, Type to)
+    {
+        Objects.requireNonNull(from, "The from-type is null");
+        Objects.requireNonNull(to, "The to-type is null");
+        return snapshot.get().getConversionChain(from, to);
+    }
+    
+    @Override
+    public Object convert(Object value, Type from, Type to)
+    {
+        ConversionChain conversionChain = getConversionChain(from, to);
+        if (conversionChain == null)
+        {
+            throw new IllegalArgumentException(
+                "Can not convert " + Types.stringFor(from) + 
+                " into " + Types.stringFor(to));
+        }
+        return conversionChain.convert(value);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ConversionRegistry" + snapshot.get().entries.keySet();
+    }
+    
+    /**
+     * Returns the set of type variables that appear in the given type
+     * 
+     * @param type The type
+     * @return The type variables
+     */
+    private static Set<TypeVariable<?>> typeVariables(Type type)
+    {
+        Set<TypeVariable<?>> typeVariables = 
+            new LinkedHashSet<TypeVariable<?>>();
+        TypeVariableInference.collectTypeVariables(type, typeVariables);
+        return typeVariables;
+    }
+    
+    /**
+     * A pair of a source type and a target type
+     */
+    private static final class Key
+    {
+        /**
+         * The source type
+         */
+        final Type from;
+        
+        /**
+         * The target type
+         */
+        final Type to;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param from The source type
+         * @param to The target type
+         */
+        Key(Type from, Type to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return from.hashCode() * 31 + to.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key)object;
+            return from.equals(other.from) && to.equals(other.to);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return Types.stringFor(from) + " -> " + Types.stringFor(to);
+        }
+    }
+    
+    /**
+     * A converter whose source type contains type variables
+     */
+    private static final class GenericConverter
+    {
+        /**
+         * The source type
+         */
+        private final Type from;
+        
+        /**
+         * The target type
+         */
+        private final Type to;
+        
+        /**
+         * The type variables that appear in the target type
+         */
+        private final Set<TypeVariable<?>> targetTypeVariables;
+        
+        /**
+         * The converter
+         */
+        final Function<Object, Object> converter;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param from The source type
+         * @param to The target type
+         * @param converter The converter
+         */
+        GenericConverter(Type from, Type to, 
+            Function<Object, Object> converter)
+        {
+            this.from = from;
+            this.to = to;
+            this.targetTypeVariables = typeVariables(to);
+            this.converter = converter;
+        }
+        
+        /**
+         * Returns the type that this converter converts the given type
+         * into, or <code>null</code> if this converter is not applicable
+         * to the given type
+         * 
+         * @param type The type
+         * @return The target type
+         */
+        Type apply(Type type)
+        {
+            Map<TypeVariable<?>, Type> map = 
+                Types.inferTypeVariables(from, type);
+            if (map == null || !map.keySet().containsAll(targetTypeVariables))
+            {
+                return null;
+            }
+            return Substitutions.substitute(to, map);
+        }
+    }
+    
+    /**
+     * An immutable snapshot of the registry, together with the table of
+     * shortest paths and the cached results of the lookups that have 
+     * been performed on it
+     */
+    private static final class Snapshot
+    {
+        /**
+         * The unmodifiable entries
+         */
+        final Map<Key, Function<Object, Object>> entries;
+        
+        /**
+         * The converters whose source type contains type variables
+         */
+        private final List<GenericConverter> genericConverters;
+        
+        /**
+         * The table of shortest paths, which is computed lazily
+         */
+        private volatile Table table;
+        
+        /**
+         * The cached results of the lookups that are not answered by 
+         * the table. Lookups that did not find a chain are mapped to
+         * {@link DefaultConversionRegistry#NONE}.
+         */
+        private final ConcurrentHashMap<Key, Object> lookups;
+        
+        /**
+         * Creates a new snapshot with the given entries
+         * 
+         * @param entries The entries, which will be wrapped into an
+         * unmodifiable map and may not be modified afterwards
+         */
+        Snapshot(Map<Key, Function<Object, Object>> entries)
+        {
+            this.entries = Collections.unmodifiableMap(entries);
+            this.genericConverters = new ArrayList<GenericConverter>();
+            for (Map.Entry<Key, Function<Object, Object>> entry : 
+                entries.entrySet())
+            {
+                Key key = entry.getKey();
+                if (!typeVariables(key.from).isEmpty())
+                {
+                    genericConverters.add(new GenericConverter(
+                        key.from, key.to, entry.getValue()));
+                }
+            }
+            this.lookups = new ConcurrentHashMap<Key, Object>();
+        }
+        
+        /**
+         * Returns the table of shortest paths, computing it if necessary
+         * 
+         * @return The table
+         */
+        private Table getTable()
+        {
+            Table result = table;
+            if (result == null)
+            {
+                synchronized (this)
+                {
+                    result = table;
+                    if (result == null)
+                    {
+                        result = new Table(entries);
+                        table = result;
+                    }
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Returns the shortest conversion chain between the given types
+         * 
+         * @param from The source type
+         * @param to The target type
+         * @return The chain, or <code>null</code> if there is no chain
+         */
+        ConversionChain getConversionChain(Type from, Type to)
+        {
+            Table currentTable = getTable();
+            if (genericConverters.isEmpty())
+            {
+                Integer i = currentTable.index.get(from);
+                Integer j = currentTable.index.get(to);
+                if (i != null && j != null)
+                {
+                    return currentTable.getChain(i, j);
+                }
+            }
+            Key key = new Key(from, to);
+            Object cached = lookups.get(key);
+            if (cached != null)
+            {
+                return cached == NONE ? null : (ConversionChain)cached;
+            }
+            ConversionChain result = 
+                new Search(currentTable, genericConverters).run(from, to);
+            if (lookups.size() < MAX_CACHED_LOOKUPS)
+            {
+                Object value = result == null ? NONE : result;
+                Object existing = lookups.putIfAbsent(key, value);
+                if (existing != null)
+                {
+                    return existing == NONE ? null : 
+                        (ConversionChain)existing;
+                }
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * The table of the shortest paths between all types that converters 
+     * without type variables have been registered for
+     */
+    private static final class Table
+    {
+        /**
+         * The nodes, which are the source and target types of the 
+         * converters without type variables
+         */
+        final List<Type> nodes;
+        
+        /**
+         * The mapping from nodes to their index in the node list
+         */
+        final Map<Type, Integer> index;
+        
+        /**
+         * The costs of the shortest paths between all pairs of nodes
+         */
+        final long costs[][];
+        
+        /**
+         * The index of the node that follows the node <code>i</code> on
+         * the shortest path from node <code>i</code> to node 
+         * <code>j</code>, or <code>-1</code> if there is no path 
+         */
+        private final int next[][];
+        
+        /**
+         * The converters of the direct edges between the nodes. The 
+         * elements are <code>null</code> for built-in conversions.
+         */
+        private final List<List<Function<Object, Object>>> converters;
+        
+        /**
+         * The chains between all pairs of nodes, which are created 
+         * lazily. Since the chains are immutable, concurrent threads 
+         * may at most create the same chain twice.
+         */
+        private final ConversionChain chains[][];
+        
+        /**
+         * Creates the table for the converters without type variables
+         * among the given entries
+         * 
+         * @param entries The entries
+         */
+        Table(Map<Key, Function<Object, Object>> entries)
+        {
+            this.index = new HashMap<Type, Integer>();
+            this.nodes = new ArrayList<Type>();
+            Map<Key, Function<Object, Object>> edges = 
+                new LinkedHashMap<Key, Function<Object, Object>>();
+            for (Map.Entry<Key, Function<Object, Object>> entry : 
+                entries.entrySet())
+            {
+                Key key = entry.getKey();
+                if (typeVariables(key.from).isEmpty())
+                {
+                    addNode(key.from);
+                    addNode(key.to);
+                    edges.put(key, entry.getValue());
+                }
+            }
+            int n = nodes.size();
+            this.costs = new long[n][n];
+            this.next = new int[n][n];
+            this.converters = new ArrayList<List<Function<Object, Object>>>();
+            this.chains = new ConversionChain[n][n];
+            for (int i = 0; i < n; i++)
+            {
+                Arrays.fill(costs[i], INFINITE_COST);
+                Arrays.fill(next[i], -1);
+                converters.add(new ArrayList<Function<Object, Object>>(
+                    Collections.<Function<Object, Object>>nCopies(n, null)));
+                costs[i][i] = 0;
+                next[i][i] = i;
+            }
+            for (int i = 0; i < n; i++)
+            {
+                for (int j = 0; j < n; j++)
+                {
+                    if (i != j && 
+                        Types.isAssignable(nodes.get(j), nodes.get(i)))
+                    {
+                        costs[i][j] = BUILT_IN_COST;
+                        next[i][j] = j;
+                    }
+                }
+            }
+            for (Map.Entry<Key, Function<Object, Object>> edge : 
+                edges.entrySet())
+            {
+                int i = index.get(edge.getKey().from);
+                int j = index.get(edge.getKey().to);
+                if (CONVERTER_COST < costs[i][j])
+                {
+                    costs[i][j] = CONVERTER_COST;
+                    next[i][j] = j;
+                    converters.get(i).set(j, edge.getValue());
+                }
+            }
+            for (int k = 0; k < n; k++)
+            {
+                for (int i = 0; i < n; i++)
+                {
+                    long costIK = costs[i][k];
+                    if (costIK == INFINITE_COST)
+                    {
+                        continue;
+                    }
+                    for (int j = 0; j < n; j++)
+                    {
+                        long costKJ = costs[k][j];
+                        if (costKJ != INFINITE_COST && 
+                            costIK + costKJ < costs[i][j])
+                        {
+                            costs[i][j] = costIK + costKJ;
+                            next[i][j] = next[i][k];
+                        }
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Add the given type as a node, if it is not yet contained
+         * 
+         * @param type The type
+         */
+        private void addNode(Type type)
+        {
+            if (!index.containsKey(type))
+            {
+                index.put(type, nodes.size());
+                nodes.add(type);
+            }
+        }
+        
+        /**
+         * Returns the shortest chain from node <code>i</code> to node
+         * <code>j</code>
+         * 
+         * @param i The source node index
+         * @param j The target node index
+         * @return The chain, or <code>null</code> if there is no path
+         */
+        ConversionChain getChain(int i, int j)
+        {
+            if (next[i][j] == -1)
+            {
+                return null;
+            }
+            ConversionChain chain = chains[i][j];
+            if (chain == null)
+            {
+                List<Type> types = new ArrayList<Type>();
+                List<Function<Object, Object>> steps = 
+                    new ArrayList<Function<Object, Object>>();
+                types.add(nodes.get(i));
+                appendPath(i, j, types, steps);
+                chain = new DefaultConversionChain(types, steps);
+                chains[i][j] = chain;
+            }
+            return chain;
+        }
+        
+        /**
+         * Append the types and the converters of the shortest path from 
+         * node <code>i</code> to node <code>j</code> to the given lists. 
+         * The type of node <code>i</code> is not appended.
+         * 
+         * @param i The source node index
+         * @param j The target node index
+         * @param types The types
+         * @param steps The converters of the steps
+         */
+        void appendPath(int i, int j, List<Type> types, 
+            List<Function<Object, Object>> steps)
+        {
+            int k = i;
+            while (k != j)
+            {
+                int n = next[k][j];
+                types.add(nodes.get(n));
+                steps.add(converters.get(k).get(n));
+                k = n;
+            }
+        }
+    }
+    
+    /**
+     * A shortest path search for a conversion chain, for types that are
+     * not contained in the {@link Table}, or when converters with type
+     * variables are registered
+     */
+    private static final class Search
+    {
+        /**
+         * The table of shortest paths between the nodes
+         */
+        private final Table table;
+        
+        /**
+         * The converters whose source type contains type variables
+         */
+        private final List<GenericConverter> genericConverters;
+        
+        /**
+         * The costs of the shortest chains to the types found so far
+         */
+        private final Map<Type, Long> costs;
+        
+        /**
+         * The last steps of the shortest chains to the types found so far
+         */
+        private final Map<Type, Step> steps;
+        
+        /**
+         * The queue of types that have to be examined
+         */
+        private final PriorityQueue<Candidate> queue;
+        
+        /**
+         * Creates a new search
+         * 
+         * @param table The table of shortest paths between the nodes
+         * @param genericConverters The converters whose source type 
+         * contains type variables
+         */
+        Search(Table table, List<GenericConverter> genericConverters)
+        {
+            this.table = table;
+            this.genericConverters = genericConverters;
+            this.costs = new HashMap<Type, Long>();
+            this.steps = new HashMap<Type, Step>();
+            this.queue = new PriorityQueue<Candidate>();
+        }
+        
+        /**
+         * Search the shortest chain between the given types
+         * 
+         * @param from The source type
+         * @param to The target type
+         * @return The chain, or <code>null</code> if there is no chain
+         */
+        ConversionChain run(Type from, Type to)
+        {
+            costs.put(from, 0L);
+            queue.add(new Candidate(from, 0));
+            while (!queue.isEmpty())
+            {
+                Candidate candidate = queue.poll();
+                Type type = candidate.type;
+                long cost = candidate.cost;
+                if (cost > costs.get(type))
+                {
+                    continue;
+                }
+                if (type.equals(to))
+                {
+                    return createChain(from, to);
+                }
+                if (Types.isAssignable(to, type))
+                {
+                    relax(to, cost + BUILT_IN_COST, new Step(type, null));
+                }
+                Integer i = table.index.get(type);
+                for (int j = 0; j < table.nodes.size(); j++)
+                {
+                    Type node = table.nodes.get(j);
+                    if (i != null)
+                    {
+                        long pathCost = table.costs[i][j];
+                        if (j != i && pathCost != INFINITE_COST)
+                        {
+                            relax(node, cost + pathCost, new Step(type, i, j));
+                        }
+                    }
+                    else if (Types.isAssignable(node, type))
+                    {
+                        relax(node, cost + BUILT_IN_COST, 
+                            new Step(type, null));
+                    }
+                }
+                if (cost / CONVERTER_COST < MAX_CONVERTERS)
+                {
+                    for (GenericConverter genericConverter : genericConverters)
+                    {
+                        Type next = genericConverter.apply(type);
+                        if (next != null)
+                        {
+                            relax(next, cost + CONVERTER_COST, 
+                                new Step(type, genericConverter.converter));
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * Store the given step as the last step of the chain to the given
+         * type, if the given cost is smaller than the cost of the chain
+         * that was found so far
+         * 
+         * @param type The type
+         * @param cost The cost of the chain
+         * @param step The last step of the chain
+         */
+        private void relax(Type type, long cost, Step step)
+        {
+            Long currentCost = costs.get(type);
+            if (currentCost == null || cost < currentCost)
+            {
+                costs.put(type, cost);
+                steps.put(type, step);
+                queue.add(new Candidate(type, cost));
+            }
+        }
+        
+        /**
+         * Create the chain from the given source type to the given 
+         * target type, from the steps that have been found
+         * 
+         * @param from The source type
+         * @param to The target type
+         * @return The chain
+         */
+        private ConversionChain createChain(Type from, Type to)
+        {
+            List<Type> targets = new ArrayList<Type>();
+            List<Step> path = new ArrayList<Step>();
+            Type current = to;
+            while (!current.equals(from))
+            {
+                Step step = steps.get(current);
+                targets.add(current);
+                path.add(step);
+                current = step.previous;
+            }
+            List<Type> types = new ArrayList<Type>();
+            List<Function<Object, Object>> converters = 
+                new ArrayList<Function<Object, Object>>();
+            types.add(from);
+            for (int k = path.size() - 1; k >= 0; k--)
+            {
+                Step step = path.get(k);
+                if (step.pathStart >= 0)
+                {
+                    table.appendPath(
+                        step.pathStart, step.pathEnd, types, converters);
+                }
+                else
+                {
+                    types.add(targets.get(k));
+                    converters.add(step.converter);
+                }
+            }
+            return new DefaultConversionChain(types, converters);
+        }
+    }
+    
+    /**
+     * The last step of a chain that was found in a {@link Search}. 
+     * This is either a single step, or a path between two nodes of
+     * the {@link Table}.
+     */
+    private static final class Step
+    {
+        /**
+         * The type before this step
+         */
+        final Type previous;
+        
+        /**
+         * The converter of a single step, or <code>null</code> for a
+         * built-in conversion
+         */
+        final Function<Object, Object> converter;
+        
+        /**
+         * The source node index of a path, or <code>-1</code>
+         */
+        final int pathStart;
+        
+        /**
+         * The target node index of a path, or <code>-1</code>
+         */
+        final int pathEnd;
+        
+        /**
+         * Creates a single step
+         * 
+         * @param previous The type before this step
+         * @param converter The converter, or <code>null</code> for
+         * a built-in conversion
+         */
+        Step(Type previous, Function<Object, Object> converter)
+        {
+            this.previous = previous;
+            this.converter = converter;
+            this.pathStart = -1;
+            this.pathEnd = -1;
+        }
+        
+        /**
+         * Creates a step for a path between two nodes
+         * 
+         * @param previous The type before this step
+         * @param pathStart The source node index
+         * @param pathEnd The target node index
+         */
+        Step(Type previous, int pathStart, int pathEnd)
+        {
+            this.previous = previous;
+            this.converter = null;
+            this.pathStart = pathStart;
+            this.pathEnd = pathEnd;
+        }
+    }
+    
+    /**
+     * A type and the cost of the chain that reaches it, ordered by the 
+     * cost
+     */
+    private static final class Candidate implements Comparable<Candidate>
+    {
+        /**
+         * The type
+         */
+        final Type type;
+        
+        /**
+         * The cost
+         */
+        final long cost;
+        
+        /**
+         * Creates a new candidate
+         * 
+         * @param type The type
+         * @param cost The cost
+         */
+        Candidate(Type type, long cost)
+        {
+            this.type = type;
+            this.cost = cost;
+        }
+        
+        @Override
+        public int compareTo(Candidate other)
+        {
+            return Long.compare(cost, other.cost);
+        }
+    }
+}
@@ -38,6 +38,12 @@ final class DefaultGenericArrayType implements GenericArrayType
      * The generic component type
      */
     private final Type genericComponentType;
+
+    /**
+     * The string representation of this type. This is created lazily, 
+     * when it is requested for the first time.
+     */
+    private String string;
     
     /**
      * Creates a new generic array type with the given generic component type
@@ -58,7 +64,13 @@ final class DefaultGenericArrayType implements GenericArrayType
     @Override
     public String toString()
     {
-        return Types.stringFor(genericComponentType)+"[]";
+        String result = string;
+        if (result == null)
+        {
+            result = TypesToString.createString(this);
+            string = result;
+        }
+        return result;
     }
 
     @Override
@@ -30,6 +30,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -41,43 +42,98 @@ import java.util.List;
  * Constructors). This "stand-alone" implementation has very limited 
  * usage. Particularly, it is solely used as an "artificial" 
  * GenericDeclaration that may be referred to by "artificial" 
- * TypeVariable instances.  
+ * TypeVariable instances.<br>
+ * <br>
+ * Due to the circular dependency between type variables and generic 
+ * declarations, the type parameters are added one by one, after the
+ * declaration was created. Once all type parameters have been added,
+ * the declaration is {@link #freeze() frozen}, and may not be modified
+ * any more. 
  */
 final class DefaultGenericDeclaration implements GenericDeclaration
 {
     /**
-     * The type parameters of this generic declaration
+     * An empty array of annotations
+     */
+    private static final Annotation[] EMPTY_ANNOTATIONS = new Annotation[0];
+    
+    /**
+     * The type parameters of this generic declaration, while it is
+     * being built. This will be <code>null</code> after the declaration
+     * was frozen.
      */
-    private List<TypeVariable<?>> typeParameters = 
+    private List<TypeVariable<?>> typeParameterList = 
         new ArrayList<TypeVariable<?>>();
     
+    /**
+     * The type parameters of this generic declaration. This will be
+     * <code>null</code> until the declaration was frozen. It is 
+     * <code>volatile</code> so that the declaration is safely published
+     * to all threads that see the frozen state.
+     */
+    private volatile TypeVariable<?>[] typeParameters;
+    
+    /**
+     * The hash code. Since generic declarations are only equal to 
+     * themselves, this is the identity hash code, computed once
+     */
+    private final int hashCode = System.identityHashCode(this);
+    
     /**
      * Add the given type parameter to this generic declaration
      * 
      * @param typeParameter The type parameter to add
      * @throws IllegalArgumentException If the given type parameter has
      * a generic declaration that is different from 'this'
+     * @throws IllegalStateException If this declaration was already
+     * frozen
      */
     void addTypeParameter(TypeVariable<?> typeParameter)
     {
+        if (typeParameters != null)
+        {
+            throw new IllegalStateException(
+                "The generic declaration was already frozen");
+        }
         if (typeParameter.getGenericDeclaration() != this)
         {
             throw new IllegalArgumentException(
                 "Type parameter has a different generic declaration");
         }
-        typeParameters.add(typeParameter);
+        typeParameterList.add(typeParameter);
+    }
+    
+    /**
+     * Freeze this generic declaration. After this method has been called,
+     * no further type parameters may be added. Calling this method 
+     * multiple times has no effect.
+     */
+    void freeze()
+    {
+        if (typeParameters == null)
+        {
+            typeParameters = 
+                typeParameterList.toArray(new TypeVariable<?>[0]);
+            typeParameterList = null;
+        }
     }
 
     @Override
     public TypeVariable<?>[] getTypeParameters()
     {
-        return typeParameters.toArray(new TypeVariable<?>[0]);
+        TypeVariable<?>[] localTypeParameters = typeParameters;
+        if (localTypeParameters != null)
+        {
+            return localTypeParameters.clone();
+        }
+        return typeParameterList.toArray(new TypeVariable<?>[0]);
     }
     
     @Override
     public String toString()
     {
-        return "DefaultGenericDeclaration[typeParameters="+typeParameters+"]";
+        return "DefaultGenericDeclaration[typeParameters="+
+            Arrays.toString(getTypeParameters())+"]";
     }
 
     @Override
@@ -89,42 +145,25 @@ final class DefaultGenericDeclaration implements GenericDeclaration
     @Override
     public Annotation[] getAnnotations()
     {
-        return new Annotation[0];
+        return EMPTY_ANNOTATIONS;
     }
 
     @Override
     public Annotation[] getDeclaredAnnotations()
     {
-        return new Annotation[0];
+        return EMPTY_ANNOTATIONS;
     }
 
     @Override
     public int hashCode()
     {
-        final int prime = 31;
-        int result = 1;
-        for (TypeVariable<?> typeParameter : typeParameters)
-        {
-            if (typeParameter != null)
-            {
-                String name = typeParameter.getName();
-                if (name != null)
-                {
-                    result = prime * result + name.hashCode();
-                }
-            }
-        }
-        return result;
+        return hashCode;
     }
 
     @Override
     public boolean equals(Object object)
     {
-        if (this == object)
-            return true;
-        if (object == null)
-            return false;
-        return false;
+        return this == object;
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
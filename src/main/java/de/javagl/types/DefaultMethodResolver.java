@@ -0,0 +1,650 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Default implementation of a {@link MethodResolver}.<br>
+ * <br>
+ * The parameter types of all methods are examined once, when the 
+ * resolver is created. The results of the resolution are cached for
+ * the argument types: The most recently added results are kept in a 
+ * small inline cache that is searched linearly, so that a lookup for 
+ * argument types that have been seen before does not allocate any 
+ * objects. All other results are kept in a {@link BoundedCache}, which 
+ * is probed with a per-thread key that refers to the given argument 
+ * types without copying them. The argument types are only copied when 
+ * a new result is stored. When this cache exceeds its maximum size, 
+ * the results that have not been used recently are evicted. Once the
+ * inline cache is full, a lookup does not acquire any lock.<br>
+ * <br>
+ * For methods with parameter types that contain type variables, the 
+ * types of the type variables are inferred from all argument types
+ * together, and the method is only applicable if the inferred types
+ * are within the bounds of the type variables. When such a method is
+ * compared to another one in order to find the most specific method, 
+ * its type variables are inferred from the parameter types of the 
+ * other method, as described in the JLS, section 15.12.2.5. 
+ */
+class DefaultMethodResolver implements MethodResolver
+{
+    /**
+     * The maximum number of entries in the {@link #inlineCache}
+     */
+    private static final int INLINE_CACHE_SIZE = 8;
+    
+    /**
+     * The maximum number of entries in the {@link #cache}
+     */
+    private static final int CACHE_SIZE = 1024;
+    
+    /**
+     * The {@link Resolution} for the case that no method is applicable
+     */
+    private static final Resolution NOT_APPLICABLE = 
+        new Resolution(null, null);
+    
+    /**
+     * The per-thread {@link ArgumentTypes} instances that are used for 
+     * probing the {@link #cache}
+     */
+    private static final ThreadLocal<ArgumentTypes> PROBE_KEYS = 
+        new ThreadLocal<ArgumentTypes>()
+    {
+        @Override
+        protected ArgumentTypes initialValue()
+        {
+            return new ArgumentTypes();
+        }
+    };
+    
+    /**
+     * The candidates for the resolution
+     */
+    private final Candidate[] candidates;
+    
+    /**
+     * The inline cache. This array is never modified. New entries are
+     * added by replacing the array.
+     */
+    private volatile InlineCacheEntry[] inlineCache;
+    
+    /**
+     * The cache for all resolutions
+     */
+    private final BoundedCache<ArgumentTypes, Resolution> cache;
+    
+    /**
+     * Creates a new resolver for the given methods
+     * 
+     * @param methods The methods
+     */
+    DefaultMethodResolver(List<Method> methods)
+    {
+        this.candidates = new Candidate[methods.size()];
+        for (int i = 0; i < candidates.length; i++)
+        {
+            candidates[i] = new Candidate(methods.get(i));
+        }
+        this.inlineCache = new InlineCacheEntry[0];
+        this.cache = new BoundedCache<ArgumentTypes, Resolution>(CACHE_SIZE);
+    }
+    
+    @Override
+    public Method resolve(Type ... argumentTypes)
+    {
+        Objects.requireNonNull(argumentTypes, "The argumentTypes are null");
+        InlineCacheEntry[] entries = inlineCache;
+        for (InlineCacheEntry entry : entries)
+        {
+            if (Arrays.equals(entry.argumentTypes, argumentTypes))
+            {
+                return entry.resolution.getMethod();
+            }
+        }
+        ArgumentTypes probeKey = PROBE_KEYS.get();
+        probeKey.set(argumentTypes);
+        Resolution resolution = cache.get(probeKey);
+        probeKey.set(null);
+        if (resolution == null)
+        {
+            Type[] copy = argumentTypes.clone();
+            resolution = computeResolution(copy);
+            ArgumentTypes key = new ArgumentTypes();
+            key.set(copy);
+            cache.put(key, resolution);
+        }
+        if (entries.length < INLINE_CACHE_SIZE)
+        {
+            addToInlineCache(argumentTypes.clone(), resolution);
+        }
+        return resolution.getMethod();
+    }
+    
+    /**
+     * Add the given resolution to the inline cache, if the inline cache
+     * is not full yet. The given array will be stored in the inline
+     * cache, and may not be modified afterwards.
+     * 
+     * @param argumentTypes The argument types
+     * @param resolution The {@link Resolution}
+     */
+    private synchronized void addToInlineCache(
+        Type[] argumentTypes, Resolution resolution)
+    {
+        InlineCacheEntry[] entries = inlineCache;
+        if (entries.length >= INLINE_CACHE_SIZE)
+        {
+            return;
+        }
+        InlineCacheEntry[] newEntries = 
+            Arrays.copyOf(entries, entries.length + 1);
+        newEntries[entries.length] = 
+            new InlineCacheEntry(argumentTypes, resolution);
+        inlineCache = newEntries;
+    }
+    
+    /**
+     * Compute the {@link Resolution} for the given argument types
+     * 
+     * @param argumentTypes The argument types
+     * @return The {@link Resolution}
+     */
+    private Resolution computeResolution(Type[] argumentTypes)
+    {
+        for (Phase phase : Phase.values())
+        {
+            List<Candidate> applicable = new ArrayList<Candidate>();
+            for (Candidate candidate : candidates)
+            {
+                if (candidate.isApplicable(argumentTypes, phase))
+                {
+                    applicable.add(candidate);
+                }
+            }
+            if (!applicable.isEmpty())
+            {
+                return selectMostSpecific(
+                    applicable, argumentTypes, phase);
+            }
+        }
+        return NOT_APPLICABLE;
+    }
+    
+    /**
+     * Select the most specific of the given applicable candidates, 
+     * according to the JLS, section 15.12.2.5, "Choosing the Most 
+     * Specific Method". If multiple candidates are maximally specific 
+     * and have the same erased parameter types, then the one that is
+     * declared in the most specific class is selected.
+     * 
+     * @param applicable The applicable candidates
+     * @param argumentTypes The argument types
+     * @param phase The phase in which the candidates are applicable
+     * @return The {@link Resolution}
+     */
+    private static Resolution selectMostSpecific(List<Candidate> applicable,
+        Type[] argumentTypes, Phase phase)
+    {
+        int arity = argumentTypes.length;
+        List<Candidate> maximal = new ArrayList<Candidate>();
+        for (Candidate c0 : applicable)
+        {
+            boolean isMaximal = true;
+            for (Candidate c1 : applicable)
+            {
+                if (c0 != c1 && 
+                    c1.isMoreSpecificThan(c0, arity, phase) && 
+                    !c0.isMoreSpecificThan(c1, arity, phase))
+                {
+                    isMaximal = false;
+                    break;
+                }
+            }
+            if (isMaximal)
+            {
+                maximal.add(c0);
+            }
+        }
+        Candidate best = maximal.get(0);
+        for (int i = 1; i < maximal.size(); i++)
+        {
+            Candidate other = maximal.get(i);
+            if (!Arrays.equals(best.erasedParameterTypes, 
+                other.erasedParameterTypes))
+            {
+                List<Method> methods = new ArrayList<Method>();
+                for (Candidate candidate : maximal)
+                {
+                    methods.add(candidate.method);
+                }
+                return new Resolution(null, 
+                    "The methods " + methods + " are ambiguous for " 
+                    + "the argument types " + stringFor(argumentTypes));
+            }
+            Class<?> bestClass = best.method.getDeclaringClass();
+            Class<?> otherClass = other.method.getDeclaringClass();
+            if (bestClass.isAssignableFrom(otherClass))
+            {
+                best = other;
+            }
+        }
+        return new Resolution(best.method, null);
+    }
+    
+    /**
+     * Creates a string representation of the given argument types
+     * 
+     * @param argumentTypes The argument types
+     * @return The string
+     */
+    private static String stringFor(Type[] argumentTypes)
+    {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < argumentTypes.length; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(", ");
+            }
+            Type argumentType = argumentTypes[i];
+            if (argumentType == null)
+            {
+                sb.append("null");
+            }
+            else
+            {
+                Types.appendStringFor(sb, argumentType);
+            }
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+    
+    /**
+     * The phases of the method resolution
+     */
+    private static enum Phase
+    {
+        /**
+         * Identify methods that are applicable by strict invocation
+         */
+        STRICT,
+        
+        /**
+         * Identify methods that are applicable by loose invocation
+         */
+        LOOSE,
+        
+        /**
+         * Identify methods that are applicable by variable arity 
+         * invocation
+         */
+        VARIABLE_ARITY
+    }
+    
+    /**
+     * A method that is a candidate for the resolution, with the
+     * {@link ParameterMatcher} objects for its parameters 
+     */
+    private static final class Candidate
+    {
+        /**
+         * The method
+         */
+        final Method method;
+        
+        /**
+         * The erased parameter types
+         */
+        final Class<?>[] erasedParameterTypes;
+
+        /**
+         * The {@link ParameterMatcher} objects for the parameters
+         */
+        private final ParameterMatcher[] matchers;
+        
+        /**
+         * The {@link ParameterMatcher} for the component type of the
+         * variable arity parameter, or <code>null</code> if the method
+         * is not a variable arity method
+         */
+        private final ParameterMatcher componentMatcher;
+        
+        /**
+         * Whether any parameter type contains type variables
+         */
+        private final boolean generic;
+        
+        /**
+         * Creates a new candidate
+         * 
+         * @param method The method
+         */
+        Candidate(Method method)
+        {
+            this.method = method;
+            this.erasedParameterTypes = method.getParameterTypes();
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            this.matchers = new ParameterMatcher[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++)
+            {
+                matchers[i] = new ParameterMatcher(parameterTypes[i]);
+            }
+            if (method.isVarArgs())
+            {
+                Type lastType = parameterTypes[parameterTypes.length - 1];
+                this.componentMatcher = 
+                    new ParameterMatcher(getComponentType(lastType));
+            }
+            else
+            {
+                this.componentMatcher = null;
+            }
+            boolean anyGeneric = false;
+            for (ParameterMatcher matcher : matchers)
+            {
+                anyGeneric |= matcher.isGeneric();
+            }
+            this.generic = anyGeneric;
+        }
+        
+        /**
+         * Returns the {@link ParameterMatcher} for the argument with the
+         * given index, in the given phase
+         * 
+         * @param index The index
+         * @param phase The phase
+         * @return The {@link ParameterMatcher}
+         */
+        private ParameterMatcher getMatcher(int index, Phase phase)
+        {
+            if (phase == Phase.VARIABLE_ARITY && 
+                index >= matchers.length - 1)
+            {
+                return componentMatcher;
+            }
+            return matchers[index];
+        }
+        
+        /**
+         * Returns whether this candidate is applicable for the given
+         * argument types in the given phase
+         * 
+         * @param argumentTypes The argument types
+         * @param phase The phase
+         * @return Whether the candidate is applicable
+         */
+        boolean isApplicable(Type[] argumentTypes, Phase phase)
+        {
+            if (phase == Phase.VARIABLE_ARITY)
+            {
+                if (componentMatcher == null || 
+                    argumentTypes.length < matchers.length - 1)
+                {
+                    return false;
+                }
+            }
+            else if (argumentTypes.length != matchers.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < argumentTypes.length; i++)
+            {
+                ParameterMatcher matcher = getMatcher(i, phase);
+                boolean matches = phase == Phase.STRICT ?
+                    matcher.matchesStrict(argumentTypes[i]) :
+                    matcher.matchesLoose(argumentTypes[i]);
+                if (!matches)
+                {
+                    return false;
+                }
+            }
+            if (!generic)
+            {
+                return true;
+            }
+            int n = argumentTypes.length;
+            Type[] to = new Type[n];
+            Type[] from = new Type[n];
+            for (int i = 0; i < n; i++)
+            {
+                ParameterMatcher matcher = getMatcher(i, phase);
+                Type argumentType = argumentTypes[i];
+                if (matcher.isGeneric() && argumentType != null)
+                {
+                    // The matcher already checked that a primitive 
+                    // argument may be boxed in this phase
+                    if (PrimitiveTypes.isPrimitiveType(argumentType))
+                    {
+                        argumentType = 
+                            PrimitiveTypes.getBoxedType(argumentType);
+                    }
+                    to[i] = matcher.getType();
+                    from[i] = argumentType;
+                }
+                else
+                {
+                    to[i] = Object.class;
+                }
+            }
+            return TypeVariableInference.inferMap(to, from) != null;
+        }
+        
+        /**
+         * Returns whether this candidate is more specific than the given
+         * one, for an invocation with the given number of arguments in 
+         * the given phase. This is the case when each parameter type of 
+         * the other candidate is a supertype of the corresponding 
+         * parameter type of this candidate. If parameter types of the 
+         * other candidate contain type variables, then this is the case
+         * when the types of these type variables can be inferred from
+         * the parameter types of this candidate.
+         * 
+         * @param other The other candidate
+         * @param arity The number of arguments
+         * @param phase The phase
+         * @return Whether this candidate is more specific
+         */
+        boolean isMoreSpecificThan(Candidate other, int arity, Phase phase)
+        {
+            Type[] to = null;
+            Type[] from = null;
+            for (int i = 0; i < arity; i++)
+            {
+                Type type = getMatcher(i, phase).getType();
+                ParameterMatcher otherMatcher = other.getMatcher(i, phase);
+                if (!otherMatcher.matchesStrict(type))
+                {
+                    return false;
+                }
+                if (otherMatcher.isGeneric())
+                {
+                    if (to == null)
+                    {
+                        to = new Type[arity];
+                        from = new Type[arity];
+                        Arrays.fill(to, Object.class);
+                    }
+                    to[i] = otherMatcher.getType();
+                    from[i] = type;
+                }
+            }
+            if (to == null)
+            {
+                return true;
+            }
+            return TypeVariableInference.inferMap(to, from) != null;
+        }
+        
+        /**
+         * Returns the component type of the given array type
+         * 
+         * @param type The array type
+         * @return The component type
+         */
+        private static Type getComponentType(Type type)
+        {
+            if (type instanceof GenericArrayType)
+            {
+                return ((GenericArrayType)type).getGenericComponentType();
+            }
+            return ((Class<?>)type).getComponentType();
+        }
+    }
+    
+    /**
+     * The result of resolving a method for certain argument types
+     */
+    private static final class Resolution
+    {
+        /**
+         * The method, or <code>null</code>
+         */
+        private final Method method;
+        
+        /**
+         * The message describing an ambiguity, or <code>null</code> 
+         */
+        private final String ambiguityMessage;
+        
+        /**
+         * Creates a new resolution
+         * 
+         * @param method The method
+         * @param ambiguityMessage The message describing an ambiguity
+         */
+        Resolution(Method method, String ambiguityMessage)
+        {
+            this.method = method;
+            this.ambiguityMessage = ambiguityMessage;
+        }
+        
+        /**
+         * Returns the method
+         * 
+         * @return The method, or <code>null</code> if no method is 
+         * applicable
+         * @throws IllegalArgumentException If the resolution was ambiguous
+         */
+        Method getMethod()
+        {
+            if (ambiguityMessage != null)
+            {
+                throw new IllegalArgumentException(ambiguityMessage);
+            }
+            return method;
+        }
+    }
+    
+    /**
+     * An entry of the inline cache
+     */
+    private static final class InlineCacheEntry
+    {
+        /**
+         * The argument types
+         */
+        final Type[] argumentTypes;
+        
+        /**
+         * The {@link Resolution}
+         */
+        final Resolution resolution;
+        
+        /**
+         * Creates a new entry
+         * 
+         * @param argumentTypes The argument types
+         * @param resolution The {@link Resolution}
+         */
+        InlineCacheEntry(Type[] argumentTypes, Resolution resolution)
+        {
+            this.argumentTypes = argumentTypes;
+            this.resolution = resolution;
+        }
+    }
+    
+    /**
+     * The key for the cache of resolutions. The instances that are 
+     * stored in the cache are never modified. The instances that are
+     * used for probing the cache are modified by the thread that owns
+     * them.
+     */
+    private static final class ArgumentTypes
+    {
+        /**
+         * The argument types
+         */
+        private Type[] types;
+        
+        /**
+         * The hash code
+         */
+        private int hashCode;
+        
+        /**
+         * Set the argument types of this key
+         * 
+         * @param types The argument types, or <code>null</code> to
+         * release the reference to the previous argument types
+         */
+        void set(Type[] types)
+        {
+            this.types = types;
+            this.hashCode = Arrays.hashCode(types);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof ArgumentTypes))
+            {
+                return false;
+            }
+            ArgumentTypes other = (ArgumentTypes)object;
+            return Arrays.equals(types, other.types);
+        }
+    }
+}
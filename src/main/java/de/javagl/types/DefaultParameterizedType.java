@@ -49,6 +49,12 @@ final class DefaultParameterizedType implements ParameterizedType
      * The actual type arguments
      */
     private final Type actualTypeArguments[];
+
+    /**
+     * The string representation of this type. This is created lazily, 
+     * when it is requested for the first time.
+     */
+    private String string;
     
     /**
      * Creates a new parameterized type. Assumes that the given raw type
@@ -85,11 +91,28 @@ final class DefaultParameterizedType implements ParameterizedType
     {
         return actualTypeArguments.clone();
     }
+    
+    /**
+     * Returns the internal array of actual type arguments. The caller
+     * may not modify this array.
+     * 
+     * @return The actual type arguments
+     */
+    Type[] actualTypeArguments()
+    {
+        return actualTypeArguments;
+    }
 
     @Override
     public String toString()
     {
-        return Types.stringFor(this); 
+        String result = string;
+        if (result == null)
+        {
+            result = TypesToString.createString(this);
+            string = result;
+        }
+        return result;
     }
 
     @Override
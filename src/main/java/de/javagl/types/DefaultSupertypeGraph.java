@@ -0,0 +1,611 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default implementation of a {@link SupertypeGraph}.<br>
+ * <br>
+ * The direct supertypes of the nodes are determined based on the rules 
+ * of the JLS, section 4.10.2, "Subtyping among Class and Interface 
+ * Types", restricted to the types that are nodes of the graph:
+ * <ul>
+ *   <li>
+ *     The direct supertypes of a class are its superclass and the 
+ *     interfaces that it directly implements. An interface without 
+ *     superinterfaces has the direct supertype <code>Object</code>.
+ *   </li>
+ *   <li>
+ *     The direct supertypes of a parameterized type 
+ *     <code>G&lt;A1...An&gt;</code> are the raw type <code>G</code>, 
+ *     the direct generic supertypes of <code>G</code> where the type 
+ *     parameters are substituted with the type arguments, and the 
+ *     types <code>G&lt;A1...Bi...An&gt;</code> where the type argument 
+ *     <code>Bi</code> is one of the most specific type arguments that 
+ *     contain <code>Ai</code>. 
+ *   </li>
+ *   <li>
+ *     The direct supertypes of wildcard types and type variables are 
+ *     the most specific wildcard types that contain them. 
+ *   </li>
+ *   <li>
+ *     The direct supertype of a generic array type is 
+ *     <code>Object</code>.
+ *   </li>
+ * </ul>
+ */
+final class DefaultSupertypeGraph implements SupertypeGraph
+{
+    /**
+     * The type for which this graph was computed
+     */
+    private final Type type;
+    
+    /**
+     * The nodes of this graph
+     */
+    private final Set<Type> nodes;
+    
+    /**
+     * The mapping from each node to its direct supertypes
+     */
+    private final Map<Type, Set<Type>> directSupertypes;
+    
+    /**
+     * The mapping from each node to its direct subtypes
+     */
+    private final Map<Type, Set<Type>> directSubtypes;
+    
+    /**
+     * The distances of the nodes from the type of this graph
+     */
+    private final Map<Type, Integer> distances;
+    
+    /**
+     * Creates the supertype graph for the given type
+     * 
+     * @param type The type
+     * @throws IllegalArgumentException If the type or one of its 
+     * supertypes is of an unknown type
+     */
+    DefaultSupertypeGraph(Type type)
+    {
+        this.type = type;
+        this.nodes = Supertypes.computeSupertypes(type);
+        
+        Builder builder = new Builder(nodes);
+        Map<Type, Set<Type>> supertypes = 
+            new LinkedHashMap<Type, Set<Type>>();
+        Map<Type, Set<Type>> subtypes = 
+            new LinkedHashMap<Type, Set<Type>>();
+        for (Type node : nodes)
+        {
+            subtypes.put(node, new LinkedHashSet<Type>());
+        }
+        for (Type node : nodes)
+        {
+            Set<Type> direct = builder.computeDirectSupertypes(node);
+            supertypes.put(node, Collections.unmodifiableSet(direct));
+            for (Type supertype : direct)
+            {
+                subtypes.get(supertype).add(node);
+            }
+        }
+        for (Map.Entry<Type, Set<Type>> entry : subtypes.entrySet())
+        {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        this.directSupertypes = supertypes;
+        this.directSubtypes = subtypes;
+        this.distances = computeDistances(type);
+    }
+    
+    /**
+     * Computes the distances of all nodes that are reachable from the 
+     * given node, using a breadth-first search
+     * 
+     * @param start The start node
+     * @return The mapping from nodes to their distances
+     */
+    private Map<Type, Integer> computeDistances(Type start)
+    {
+        Map<Type, Integer> result = new HashMap<Type, Integer>();
+        if (!nodes.contains(start))
+        {
+            return result;
+        }
+        Deque<Type> queue = new ArrayDeque<Type>();
+        result.put(start, 0);
+        queue.add(start);
+        while (!queue.isEmpty())
+        {
+            Type current = queue.poll();
+            int distance = result.get(current) + 1;
+            for (Type supertype : directSupertypes.get(current))
+            {
+                if (!result.containsKey(supertype))
+                {
+                    result.put(supertype, distance);
+                    queue.add(supertype);
+                }
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Type getType()
+    {
+        return type;
+    }
+    
+    @Override
+    public Set<Type> getNodes()
+    {
+        return nodes;
+    }
+    
+    @Override
+    public Set<Type> getDirectSupertypes(Type node)
+    {
+        Set<Type> result = directSupertypes.get(node);
+        if (result == null)
+        {
+            return Collections.emptySet();
+        }
+        return result;
+    }
+    
+    @Override
+    public Set<Type> getDirectSubtypes(Type node)
+    {
+        Set<Type> result = directSubtypes.get(node);
+        if (result == null)
+        {
+            return Collections.emptySet();
+        }
+        return result;
+    }
+    
+    @Override
+    public int getDistance(Type supertype)
+    {
+        Integer distance = distances.get(supertype);
+        if (distance == null)
+        {
+            return -1;
+        }
+        return distance;
+    }
+    
+    @Override
+    public int getDistance(Type subtype, Type supertype)
+    {
+        if (type.equals(subtype))
+        {
+            return getDistance(supertype);
+        }
+        Integer distance = computeDistances(subtype).get(supertype);
+        if (distance == null)
+        {
+            return -1;
+        }
+        return distance;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "SupertypeGraph[" + Types.stringFor(type) + ", " + 
+            nodes.size() + " nodes]";
+    }
+    
+    /**
+     * A class summarizing the information that is required for computing
+     * the direct supertypes of the nodes of a graph
+     */
+    private static final class Builder
+    {
+        /**
+         * The nodes of the graph
+         */
+        private final Set<Type> nodes;
+        
+        /**
+         * The parameterized type nodes, indexed by their raw type and 
+         * their type arguments
+         */
+        private final Map<Class<?>, Map<List<Type>, Type>> parameterized;
+        
+        /**
+         * The wildcard type nodes
+         */
+        private final List<Type> wildcards;
+        
+        /**
+         * The cached supertypes of the bounds of the type arguments
+         */
+        private final Map<Type, Set<Type>> boundSupertypes;
+        
+        /**
+         * The cached most specific containing type arguments, for keys 
+         * consisting of the raw type, the index and the type argument
+         */
+        private final Map<List<Object>, List<Type>> containers;
+        
+        /**
+         * Creates a new builder for the graph with the given nodes
+         * 
+         * @param nodes The nodes
+         */
+        Builder(Set<Type> nodes)
+        {
+            this.nodes = nodes;
+            this.parameterized = 
+                new HashMap<Class<?>, Map<List<Type>, Type>>();
+            this.wildcards = new ArrayList<Type>();
+            this.boundSupertypes = new HashMap<Type, Set<Type>>();
+            this.containers = new HashMap<List<Object>, List<Type>>();
+            for (Type node : nodes)
+            {
+                if (node instanceof ParameterizedType)
+                {
+                    ParameterizedType p = (ParameterizedType)node;
+                    Class<?> rawType = Types.getRawType(p);
+                    Map<List<Type>, Type> byArguments = 
+                        parameterized.get(rawType);
+                    if (byArguments == null)
+                    {
+                        byArguments = new HashMap<List<Type>, Type>();
+                        parameterized.put(rawType, byArguments);
+                    }
+                    byArguments.put(
+                        Arrays.asList(p.getActualTypeArguments()), p);
+                }
+                else if (node instanceof WildcardType)
+                {
+                    wildcards.add(node);
+                }
+            }
+        }
+        
+        /**
+         * Computes the direct supertypes of the given node
+         * 
+         * @param node The node
+         * @return The direct supertypes
+         * @throws IllegalArgumentException If the node has an unknown type
+         */
+        Set<Type> computeDirectSupertypes(Type node)
+        {
+            Set<Type> result = new LinkedHashSet<Type>();
+            if (node instanceof Class<?>)
+            {
+                Class<?> c = (Class<?>)node;
+                for (Class<?> supertype : 
+                    ClassHierarchy.getDirectRawSupertypes(c))
+                {
+                    addIfNode(supertype, result);
+                }
+                if (c.isInterface() && result.isEmpty())
+                {
+                    addIfNode(Object.class, result);
+                }
+            }
+            else if (node instanceof ParameterizedType)
+            {
+                ParameterizedType p = (ParameterizedType)node;
+                collectDirectSupertypes(p, result);
+            }
+            else if (node instanceof WildcardType || 
+                node instanceof TypeVariable<?>)
+            {
+                result.addAll(computeContainers(node, wildcards));
+            }
+            else if (node instanceof GenericArrayType)
+            {
+                addIfNode(Object.class, result);
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unknown type: " + node);
+            }
+            result.remove(node);
+            return result;
+        }
+        
+        /**
+         * Collect the direct supertypes of the given parameterized type 
+         * in the given set
+         * 
+         * @param p The parameterized type
+         * @param result The result set
+         */
+        private void collectDirectSupertypes(
+            ParameterizedType p, Set<Type> result)
+        {
+            Class<?> rawType = Types.getRawType(p);
+            addIfNode(rawType, result);
+            
+            Type arguments[] = p.getActualTypeArguments();
+            TypeVariable<?> parameters[] = rawType.getTypeParameters();
+            Map<Type, Type> substitution = new HashMap<Type, Type>();
+            for (int i = 0; i < parameters.length; i++)
+            {
+                substitution.put(parameters[i], arguments[i]);
+            }
+            for (Type genericSupertype : 
+                ClassHierarchy.getDirectGenericSupertypes(rawType))
+            {
+                addIfNode(Substitutions.substitute(
+                    genericSupertype, substitution), result);
+            }
+            
+            Map<List<Type>, Type> byArguments = parameterized.get(rawType);
+            for (int i = 0; i < arguments.length; i++)
+            {
+                for (Type container : 
+                    getContainers(rawType, i, arguments[i]))
+                {
+                    Type generalized[] = arguments.clone();
+                    generalized[i] = container;
+                    Type supertype = 
+                        byArguments.get(Arrays.asList(generalized));
+                    if (supertype != null)
+                    {
+                        result.add(supertype);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Returns the most specific type arguments that contain the given
+         * type argument, among the type arguments that appear at the 
+         * given index in the parameterized type nodes with the given 
+         * raw type
+         * 
+         * @param rawType The raw type
+         * @param index The index of the type argument
+         * @param argument The type argument
+         * @return The most specific containing type arguments
+         */
+        private List<Type> getContainers(
+            Class<?> rawType, int index, Type argument)
+        {
+            List<Object> key = Arrays.<Object>asList(rawType, index, argument);
+            List<Type> result = containers.get(key);
+            if (result == null)
+            {
+                Set<Type> candidates = new LinkedHashSet<Type>();
+                for (List<Type> arguments : 
+                    parameterized.get(rawType).keySet())
+                {
+                    candidates.add(arguments.get(index));
+                }
+                result = computeContainers(argument, candidates);
+                containers.put(key, result);
+            }
+            return result;
+        }
+        
+        /**
+         * Computes the most specific of the given candidates that 
+         * strictly contain the given type argument
+         * 
+         * @param argument The type argument
+         * @param candidates The candidates
+         * @return The most specific containing candidates
+         */
+        private List<Type> computeContainers(
+            Type argument, Iterable<? extends Type> candidates)
+        {
+            List<Type> containing = new ArrayList<Type>();
+            for (Type candidate : candidates)
+            {
+                if (strictlyContains(candidate, argument))
+                {
+                    containing.add(candidate);
+                }
+            }
+            List<Type> result = new ArrayList<Type>();
+            for (Type candidate : containing)
+            {
+                boolean mostSpecific = true;
+                for (Type other : containing)
+                {
+                    if (strictlyContains(candidate, other))
+                    {
+                        mostSpecific = false;
+                        break;
+                    }
+                }
+                if (mostSpecific)
+                {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Returns whether the given outer type argument strictly contains
+         * the given inner type argument. This is only the case when the 
+         * outer type argument is an upper bounded wildcard type whose 
+         * bounds are supertypes of the upper bounds of the inner type 
+         * argument, and the type arguments are not equal.
+         * 
+         * @param outer The outer type argument
+         * @param inner The inner type argument
+         * @return Whether the outer type argument contains the inner one
+         */
+        private boolean strictlyContains(Type outer, Type inner)
+        {
+            if (!(outer instanceof WildcardType) || outer.equals(inner))
+            {
+                return false;
+            }
+            WildcardType w = (WildcardType)outer;
+            if (w.getLowerBounds().length > 0)
+            {
+                return false;
+            }
+            Set<Type> supertypes = computeUpperBoundSupertypes(inner);
+            for (Type upperBound : w.getUpperBounds())
+            {
+                if (!supertypes.contains(upperBound))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Computes the supertypes of the upper bounds of the given 
+         * type argument. For wildcard types and type variables, these 
+         * are the supertypes of their upper bounds. For lower bounded
+         * wildcard types, this is only <code>Object</code>. For all 
+         * other types, these are their supertypes. 
+         * 
+         * @param argument The type argument
+         * @return The supertypes
+         */
+        private Set<Type> computeUpperBoundSupertypes(Type argument)
+        {
+            if (argument instanceof WildcardType)
+            {
+                WildcardType w = (WildcardType)argument;
+                if (w.getLowerBounds().length > 0)
+                {
+                    return Collections.<Type>singleton(Object.class);
+                }
+                return getBoundSupertypes(w.getUpperBounds());
+            }
+            if (argument instanceof TypeVariable<?>)
+            {
+                TypeVariable<?> t = (TypeVariable<?>)argument;
+                return getBoundSupertypes(t.getBounds());
+            }
+            return getBoundSupertypes(argument);
+        }
+        
+        /**
+         * Returns the union of the supertypes of the given bounds
+         * 
+         * @param bounds The bounds
+         * @return The supertypes
+         */
+        private Set<Type> getBoundSupertypes(Type ... bounds)
+        {
+            if (bounds.length == 1)
+            {
+                return getBoundSupertypes(bounds[0]);
+            }
+            Set<Type> result = new LinkedHashSet<Type>();
+            for (Type bound : bounds)
+            {
+                result.addAll(getBoundSupertypes(bound));
+            }
+            return result;
+        }
+        
+        /**
+         * Returns the supertypes of the given bound, which always include
+         * <code>Object</code>
+         * 
+         * @param bound The bound
+         * @return The supertypes
+         */
+        private Set<Type> getBoundSupertypes(Type bound)
+        {
+            Set<Type> result = boundSupertypes.get(bound);
+            if (result == null)
+            {
+                if (bound instanceof Class<?>)
+                {
+                    Class<?> c = (Class<?>)bound;
+                    result = Collections.<Type>unmodifiableSet(
+                        ClassHierarchy.getRawSupertypes(c));
+                }
+                else
+                {
+                    result = new LinkedHashSet<Type>(
+                        Supertypes.computeSupertypes(bound));
+                    result.add(Object.class);
+                }
+                boundSupertypes.put(bound, result);
+            }
+            return result;
+        }
+        
+        /**
+         * Add the given type to the given set if it is a node of the graph
+         * 
+         * @param type The type
+         * @param result The result set
+         */
+        private void addIfNode(Type type, Set<Type> result)
+        {
+            if (type instanceof ParameterizedType)
+            {
+                ParameterizedType p = (ParameterizedType)type;
+                Map<List<Type>, Type> byArguments = 
+                    parameterized.get(Types.getRawType(p));
+                if (byArguments != null)
+                {
+                    Type node = byArguments.get(
+                        Arrays.asList(p.getActualTypeArguments()));
+                    if (node != null)
+                    {
+                        result.add(node);
+                    }
+                }
+            }
+            else if (nodes.contains(type))
+            {
+                result.add(type);
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.List;
 
 /**
  * Default implementation of a {@link TypeAssignabilityTester}
@@ -63,7 +64,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
      */
     DefaultTypeAssignabilityTester()
     {
-        this(TypeVariableMappings.create(), false, false);
+        this(TypeVariableMappings.createPersistent(), false, false);
     }
 
     /**
@@ -99,6 +100,82 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
     
     @Override
     public boolean isAssignable(Type to, Type from)
+    {
+        Object event = TypeEvents.beginAssignability();
+        if (event == null)
+        {
+            return computeAssignable(to, from);
+        }
+        boolean result = false;
+        try
+        {
+            result = computeAssignable(to, from);
+            return result;
+        }
+        finally
+        {
+            TypeEvents.endAssignability(event, to, from, result);
+        }
+    }
+    
+    /**
+     * Implementation of {@link #isAssignable(Type, Type)}, without 
+     * emitting {@link TypeEvents}
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return Whether the type is assignable
+     */
+    private boolean computeAssignable(Type to, Type from)
+    {
+        if (to instanceof Class<?> && from instanceof Class<?>)
+        {
+            return isClassAssignable((Class<?>)to, (Class<?>)from);
+        }
+        return isAssignableType(to, from);
+    }
+    
+    /**
+     * Returns whether the given class is assignable from the given class.
+     * This is a shortcut for the most common case of 
+     * {@link #isAssignable(Type, Type)}: When neither of the classes is
+     * a primitive type, and they are not both boxed primitive types, 
+     * then the result is that of <code>Class#isAssignableFrom</code>.
+     * Since boxed primitive types are final and unrelated to each other,
+     * the check for boxed primitive types is only necessary when 
+     * <code>Class#isAssignableFrom</code> returns <code>false</code>.
+     * 
+     * @param to The class to assign to
+     * @param from The class to assign from
+     * @return Whether the class is assignable
+     */
+    boolean isClassAssignable(Class<?> to, Class<?> from)
+    {
+        if (to.isPrimitive() || from.isPrimitive())
+        {
+            return isAssignableType(to, from);
+        }
+        if (to.isAssignableFrom(from))
+        {
+            return true;
+        }
+        if (PrimitiveTypes.isBoxedPrimitiveClass(to) && 
+            PrimitiveTypes.isBoxedPrimitiveClass(from))
+        {
+            return isAssignableType(to, from);
+        }
+        return false;
+    }
+    
+    /**
+     * Implementation of {@link #isAssignable(Type, Type)} for arbitrary
+     * types
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return Whether the type is assignable
+     */
+    boolean isAssignableType(Type to, Type from)
     {
         if (to.equals(from))
         {
@@ -186,7 +263,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         else if (from instanceof WildcardType)
         {
             WildcardType fromWildcardType = (WildcardType)from;
-            Type upperBounds[] = fromWildcardType.getUpperBounds();
+            Type upperBounds[] = TypeViews.upperBounds(fromWildcardType);
             return anyAssignable(toClass, upperBounds);
         }
         else if (from instanceof TypeVariable<?>)
@@ -198,7 +275,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 return assumeFreeTypeVariables;
             }
             
-            Type upperBounds[] = fromTypeVariable.getBounds();
+            Type upperBounds[] = TypeViews.bounds(fromTypeVariable);
             return anyAssignable(toClass, upperBounds);
         }
         else if (from instanceof GenericArrayType)
@@ -262,7 +339,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         else if (from instanceof WildcardType)
         {
             WildcardType fromWildcardType = (WildcardType)from;
-            Type upperBounds[] = fromWildcardType.getUpperBounds();
+            Type upperBounds[] = TypeViews.upperBounds(fromWildcardType);
             return anyAssignable(toParameterizedType, upperBounds);
         }
         else if (from instanceof TypeVariable<?>)
@@ -274,7 +351,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 return assumeFreeTypeVariables;
             }
             
-            Type upperBounds[] = fromTypeVariable.getBounds();
+            Type upperBounds[] = TypeViews.bounds(fromTypeVariable);
             return anyAssignable(toParameterizedType, upperBounds);
         }
         else if (from instanceof GenericArrayType)
@@ -296,7 +373,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         ParameterizedType toParameterizedType,
         Class<?> fromClass)
     {
-        Type fromSuperclass = fromClass.getGenericSuperclass();
+        Type fromSuperclass = ClassHierarchy.getGenericSuperclass(fromClass);
         if (fromSuperclass == null)
         {
             Type toRawType = toParameterizedType.getRawType();
@@ -306,9 +383,11 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         {
             return true;
         }
-        Class<?>[] fromInterfaces = fromClass.getInterfaces();
-        for (Class<?> fromInterface : fromInterfaces)
+        List<Class<?>> fromSupertypes = 
+            ClassHierarchy.getDirectRawSupertypes(fromClass);
+        for (int i = 1; i < fromSupertypes.size(); i++)
         {
+            Class<?> fromInterface = fromSupertypes.get(i);
             if (isAssignable(toParameterizedType, fromInterface))
             {
                 return true;
@@ -336,9 +415,9 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
             return false;
         }
         Type toTypeArguments[] = 
-            toParameterizedType.getActualTypeArguments();
+            TypeViews.typeArguments(toParameterizedType);
         Type fromTypeArguments[] = 
-            fromParameterizedType.getActualTypeArguments();
+            TypeViews.typeArguments(fromParameterizedType);
         for (int i=0; i<toTypeArguments.length; i++)
         {
             Type toTypeArgument = toTypeArguments[i];
@@ -399,7 +478,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 {
                     return true;
                 }
-                Type[] toUpperBounds = toTypeVariableArgument.getBounds();
+                Type[] toUpperBounds = TypeViews.bounds(toTypeVariableArgument);
                 return allAssignable(toUpperBounds, fromTypeArgument);
             }
             else
@@ -474,15 +553,15 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         WildcardType toWildcardTypeArgument,
         TypeVariable<?> fromTypeVariableArgument)
     {
-        Type toLowerBounds[] = toWildcardTypeArgument.getLowerBounds();
+        Type toLowerBounds[] = TypeViews.lowerBounds(toWildcardTypeArgument);
 
-        Type toUpperBounds[] = toWildcardTypeArgument.getUpperBounds();
+        Type toUpperBounds[] = TypeViews.upperBounds(toWildcardTypeArgument);
         
         if (toLowerBounds.length != 0)
         {
             return false;
         }
-        Type[] fromUpperBounds = fromTypeVariableArgument.getBounds();
+        Type[] fromUpperBounds = TypeViews.bounds(fromTypeVariableArgument);
         for (Type toUpperBound : toUpperBounds)
         {
             if (anyAssignable(toUpperBound, fromUpperBounds))
@@ -504,7 +583,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
     private boolean isAssignableToWildcardType(
         WildcardType toWildcardType, Type from)
     {
-        Type toUpperBounds[] = toWildcardType.getUpperBounds();
+        Type toUpperBounds[] = TypeViews.upperBounds(toWildcardType);
         for (Type toUpperBound : toUpperBounds)
         {
             if (!isWildcardWithUpperBoundAssignable(toUpperBound, from))
@@ -513,7 +592,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
             }
         }
 
-        Type toLowerBounds[] = toWildcardType.getLowerBounds();
+        Type toLowerBounds[] = TypeViews.lowerBounds(toWildcardType);
         for (Type toLowerBound : toLowerBounds)
         {
             if (!isWildcardWithLowerBoundAssignable(toLowerBound, from))
@@ -552,7 +631,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         else if (from instanceof WildcardType)
         {
             WildcardType fromWildcardType = (WildcardType)from;
-            Type[] fromUpperBounds = fromWildcardType.getUpperBounds();
+            Type[] fromUpperBounds = TypeViews.upperBounds(fromWildcardType);
             return anyAssignable(toUpperBound, fromUpperBounds);
         }
         else if (from instanceof TypeVariable<?>)
@@ -564,7 +643,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 return assumeFreeTypeVariables;
             }
             
-            Type[] fromUpperBounds = fromTypeVariable.getBounds();
+            Type[] fromUpperBounds = TypeViews.bounds(fromTypeVariable);
             return anyAssignable(toUpperBound, fromUpperBounds);
         }
         else if (from instanceof GenericArrayType)
@@ -602,7 +681,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         else if (from instanceof WildcardType)
         {
             WildcardType fromWildcardType = (WildcardType)from;
-            Type[] fromLowerBounds = fromWildcardType.getLowerBounds();
+            Type[] fromLowerBounds = TypeViews.lowerBounds(fromWildcardType);
             return anyAssignable(fromLowerBounds, toLowerBound);
         }
         else if (from instanceof TypeVariable<?>)
@@ -614,7 +693,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 return assumeFreeTypeVariables;
             }
             
-            Type[] fromUpperBounds = fromTypeVariable.getBounds();
+            Type[] fromUpperBounds = TypeViews.bounds(fromTypeVariable);
             return anyAssignable(fromUpperBounds, toLowerBound);
         }
         else if (from instanceof GenericArrayType)
@@ -678,7 +757,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
         else if (from instanceof WildcardType)
         {
             WildcardType fromWildcardType = (WildcardType)from;
-            Type[] fromUpperBounds = fromWildcardType.getUpperBounds();
+            Type[] fromUpperBounds = TypeViews.upperBounds(fromWildcardType);
             return anyAssignable(toGenericArrayType, fromUpperBounds);
         }
         else if (from instanceof TypeVariable<?>)
@@ -690,7 +769,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
                 return assumeFreeTypeVariables;
             }
             
-            Type[] fromUpperBounds = fromTypeVariable.getBounds();
+            Type[] fromUpperBounds = TypeViews.bounds(fromTypeVariable);
             return anyAssignable(toGenericArrayType, fromUpperBounds);
         }
         else if (from instanceof GenericArrayType)
@@ -725,7 +804,7 @@ class DefaultTypeAssignabilityTester implements TypeAssignabilityTester
             {
                 return true;
             }
-            Type[] upperBounds = typeVariable.getBounds();
+            Type[] upperBounds = TypeViews.bounds(typeVariable);
             if (upperBounds.length == 1 && upperBounds[0].equals(Object.class))
             {
                 return true;
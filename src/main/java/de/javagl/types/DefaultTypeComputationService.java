@@ -0,0 +1,469 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Default implementation of a {@link TypeComputationService}.<br>
+ * <br>
+ * Each computation that is in progress is represented by a 
+ * {@link Flight}, which is stored in a map under the {@link Key} of the
+ * computation. Requests for a key that has a flight join this flight. 
+ * When the computation is finished, the result is put into the cache, 
+ * and then the flight is removed from the map. 
+ */
+final class DefaultTypeComputationService implements TypeComputationService
+{
+    /**
+     * The object that is stored in the cache for <code>null</code> results
+     */
+    private static final Object NULL = new Object();
+    
+    /**
+     * The executor for the computations
+     */
+    private final Executor executor;
+    
+    /**
+     * The cache for the results of completed computations
+     */
+    private final BoundedCache<Key, Object> cache;
+    
+    /**
+     * The computations that are currently in progress
+     */
+    private final ConcurrentMap<Key, Flight> flights;
+    
+    /**
+     * The timeout for the futures, in nanoseconds. If this is not 
+     * positive, then there is no timeout.
+     */
+    private final long timeoutNanos;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param executor The executor for the computations
+     * @param maxCacheSize The maximum number of cached results
+     * @param timeoutNanos The timeout, in nanoseconds
+     * @throws IllegalArgumentException If the maximum cache size is not
+     * positive
+     */
+    DefaultTypeComputationService(
+        Executor executor, int maxCacheSize, long timeoutNanos)
+    {
+        this.executor = executor;
+        this.cache = new BoundedCache<Key, Object>(maxCacheSize);
+        this.flights = new ConcurrentHashMap<Key, Flight>();
+        this.timeoutNanos = timeoutNanos;
+    }
+    
+    @Override
+    public CompletableFuture<Set<Type>> computeSupertypes(Type type)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        return submit(new Key("computeSupertypes", type), 
+            () -> Supertypes.computeSupertypes(type));
+    }
+    
+    @Override
+    public CompletableFuture<Type> parse(String string)
+    {
+        Objects.requireNonNull(string, "The string is null");
+        return submit(new Key("parse", string), 
+            () -> TypeParsers.create().parse(string));
+    }
+    
+    @Override
+    public CompletableFuture<Map<TypeVariable<?>, Type>> inferTypeVariables(
+        Type to, Type from)
+    {
+        Objects.requireNonNull(to, "The target type is null");
+        Objects.requireNonNull(from, "The source type is null");
+        return submit(new Key("inferTypeVariables", to, from), 
+            () -> Types.inferTypeVariables(to, from));
+    }
+    
+    @Override
+    public CompletableFuture<List<Type>> leastUpperBound(
+        Collection<? extends Type> types)
+    {
+        Objects.requireNonNull(types, "The types are null");
+        List<Type> typesList = new ArrayList<Type>(types);
+        for (Type type : typesList)
+        {
+            Objects.requireNonNull(type, "The types contain null");
+        }
+        return submit(new Key("leastUpperBound", typesList.toArray()), 
+            () -> Types.leastUpperBound(typesList));
+    }
+    
+    @Override
+    public void clearCache()
+    {
+        cache.clear();
+    }
+    
+    /**
+     * Returns a future for the result of the given computation. If the
+     * result is cached, then a completed future is returned. Otherwise,
+     * the request joins the flight for the given key, starting a new 
+     * flight if necessary.
+     * 
+     * @param <T> The type of the result
+     * @param key The key of the computation
+     * @param computation The computation
+     * @return The future
+     */
+    private <T> CompletableFuture<T> submit(
+        Key key, Callable<T> computation)
+    {
+        Object cached = cache.get(key);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(unmask(cached));
+        }
+        while (true)
+        {
+            Flight flight = flights.get(key);
+            if (flight == null)
+            {
+                Flight newFlight = new Flight(key, computation);
+                flight = flights.putIfAbsent(key, newFlight);
+                if (flight == null)
+                {
+                    flight = newFlight;
+                    start(newFlight);
+                }
+            }
+            CompletableFuture<T> future = flight.join();
+            if (future != null)
+            {
+                return future;
+            }
+            // The flight has been abandoned after it was obtained from
+            // the map. It has already been removed, so try again.
+        }
+    }
+    
+    /**
+     * Start the computation of the given flight with the executor
+     * 
+     * @param flight The flight
+     */
+    private void start(Flight flight)
+    {
+        try
+        {
+            executor.execute(flight::run);
+        }
+        catch (RuntimeException e)
+        {
+            flights.remove(flight.key, flight);
+            flight.result.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Returns the given cached object as a result, converting 
+     * {@link #NULL} to <code>null</code>
+     * 
+     * @param <T> The type of the result
+     * @param cached The cached object
+     * @return The result
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T unmask(Object cached)
+    {
+        return cached == NULL ? null : (T)cached;
+    }
+    
+    /**
+     * A computation that is in progress, and the number of requests that
+     * are waiting for its result
+     */
+    private final class Flight
+    {
+        /**
+         * The key of the computation
+         */
+        final Key key;
+        
+        /**
+         * The computation
+         */
+        private final Callable<?> computation;
+        
+        /**
+         * The future that receives the result of the computation
+         */
+        final CompletableFuture<Object> result;
+        
+        /**
+         * The number of requests that are waiting for the result
+         */
+        private int waiters;
+        
+        /**
+         * Whether all requests stopped waiting before the computation
+         * was started
+         */
+        private boolean abandoned;
+        
+        /**
+         * Whether the computation was started
+         */
+        private boolean started;
+        
+        /**
+         * Creates a new flight
+         * 
+         * @param key The key of the computation
+         * @param computation The computation
+         */
+        Flight(Key key, Callable<?> computation)
+        {
+            this.key = key;
+            this.computation = computation;
+            this.result = new CompletableFuture<Object>();
+        }
+        
+        /**
+         * Add a request to this flight, and return the future for the
+         * request. If the flight was already abandoned, then 
+         * <code>null</code> is returned.
+         * 
+         * @param <T> The type of the result
+         * @return The future
+         */
+        <T> CompletableFuture<T> join()
+        {
+            synchronized (this)
+            {
+                if (abandoned)
+                {
+                    return null;
+                }
+                waiters++;
+            }
+            CompletableFuture<T> future = new CompletableFuture<T>();
+            future.whenComplete((value, throwable) -> leave());
+            result.whenComplete((value, throwable) -> 
+            {
+                if (throwable != null)
+                {
+                    future.completeExceptionally(throwable);
+                }
+                else
+                {
+                    future.complete(unmask(value));
+                }
+            });
+            applyTimeout(future);
+            return future;
+        }
+        
+        /**
+         * Remove a request from this flight. If this was the last request,
+         * and the computation was not started yet, then the flight is
+         * abandoned, and the computation will not be performed.
+         */
+        private void leave()
+        {
+            synchronized (this)
+            {
+                waiters--;
+                if (waiters > 0 || started || result.isDone())
+                {
+                    return;
+                }
+                abandoned = true;
+            }
+            flights.remove(key, this);
+            result.cancel(false);
+        }
+        
+        /**
+         * Perform the computation, unless the flight was abandoned, and
+         * complete the {@link #result}.
+         */
+        void run()
+        {
+            synchronized (this)
+            {
+                if (abandoned)
+                {
+                    return;
+                }
+                started = true;
+            }
+            Object value = null;
+            try
+            {
+                value = computation.call();
+            }
+            catch (Throwable t)
+            {
+                flights.remove(key, this);
+                result.completeExceptionally(t);
+                return;
+            }
+            cache.put(key, value == null ? NULL : value);
+            flights.remove(key, this);
+            result.complete(value);
+        }
+    }
+    
+    /**
+     * Make sure that the given future is completed exceptionally with a
+     * <code>TimeoutException</code> if it is not completed within the
+     * timeout.
+     * 
+     * @param future The future
+     */
+    private void applyTimeout(CompletableFuture<?> future)
+    {
+        if (timeoutNanos <= 0 || future.isDone())
+        {
+            return;
+        }
+        ScheduledFuture<?> timeout = Timeouts.SCHEDULER.schedule(
+            () -> future.completeExceptionally(new TimeoutException(
+                "Timeout after " + timeoutNanos + " ns")), 
+            timeoutNanos, TimeUnit.NANOSECONDS);
+        future.whenComplete((value, throwable) -> timeout.cancel(false));
+    }
+    
+    /**
+     * Holder for the scheduler that is used for the timeouts. The 
+     * scheduler uses a single daemon thread, which is only created 
+     * when a timeout is used for the first time.
+     */
+    private static final class Timeouts
+    {
+        /**
+         * The scheduler
+         */
+        static final ScheduledThreadPoolExecutor SCHEDULER = 
+            createScheduler();
+        
+        /**
+         * Create the scheduler
+         * 
+         * @return The scheduler
+         */
+        private static ScheduledThreadPoolExecutor createScheduler()
+        {
+            ScheduledThreadPoolExecutor scheduler = 
+                new ScheduledThreadPoolExecutor(1, r -> 
+                {
+                    Thread thread = new Thread(r, "TypeComputationTimeouts");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+    
+    /**
+     * The key of a computation, consisting of the name of the operation
+     * and its arguments
+     */
+    private static final class Key
+    {
+        /**
+         * The name of the operation
+         */
+        private final String operation;
+        
+        /**
+         * The arguments
+         */
+        private final Object arguments[];
+        
+        /**
+         * The hash code
+         */
+        private final int hashCode;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param operation The name of the operation
+         * @param arguments The arguments
+         */
+        Key(String operation, Object ... arguments)
+        {
+            this.operation = operation;
+            this.arguments = arguments;
+            this.hashCode = 
+                31 * operation.hashCode() + Arrays.hashCode(arguments);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key)object;
+            return hashCode == other.hashCode &&
+                operation.equals(other.operation) && 
+                Arrays.equals(arguments, other.arguments);
+        }
+    }
+}
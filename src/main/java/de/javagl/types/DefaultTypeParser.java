@@ -26,14 +26,15 @@
  */
 package de.javagl.types;
 
-import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -61,6 +62,19 @@ final class DefaultTypeParser implements TypeParser
      */
     private final List<String> typeVariableNames = new ArrayList<String>();
     
+    /**
+     * The marker for class names that could not be resolved, stored in
+     * the {@link #classCache}
+     */
+    private static final Object CLASS_NOT_FOUND = new Object();
+    
+    /**
+     * An optional cache for the results of {@link #searchClass(String)}.
+     * The values are either classes or the {@link #CLASS_NOT_FOUND} 
+     * marker. This may be shared among parsers with the same imports.
+     */
+    private final Map<String, Object> classCache;
+    
     /**
      * Creates a new type parser instance
      */
@@ -68,6 +82,27 @@ final class DefaultTypeParser implements TypeParser
     {
         importPackageNames.add("");
         importPackageNames.add("java.lang.");
+        this.classCache = null;
+    }
+    
+    /**
+     * Creates a new type parser instance that has the same imports and 
+     * type variable names as the given one, and uses the given cache for
+     * the classes that are resolved from names. The given cache may be 
+     * shared among several parsers that have been created from the same
+     * template parser, but the imports and type variable names of the 
+     * template parser may not be modified while the cache is in use. 
+     * 
+     * @param template The template parser
+     * @param classCache The thread-safe cache for resolved classes
+     */
+    DefaultTypeParser(
+        DefaultTypeParser template, Map<String, Object> classCache)
+    {
+        importPackageNames.addAll(template.importPackageNames);
+        importedTypeNames.addAll(template.importedTypeNames);
+        typeVariableNames.addAll(template.typeVariableNames);
+        this.classCache = classCache;
     }
     
     @Override
@@ -129,22 +164,34 @@ final class DefaultTypeParser implements TypeParser
     public Type parse(String string) 
         throws ClassNotFoundException
      {
-        TypeVariableBuilder typeVariableBuilder = 
-            Types.createTypeVariables();
-        return parse(string, typeVariableBuilder);
+        Object event = TypeEvents.beginParse();
+        Type type = null;
+        try
+        {
+            DefaultGenericDeclaration genericDeclaration = 
+                new DefaultGenericDeclaration();
+            type = parse(string, genericDeclaration);
+            genericDeclaration.freeze();
+            return type;
+        }
+        finally
+        {
+            TypeEvents.endParse(event, string, type);
+        }
      }
     
     /**
-     * Parse the type from the given string, using the given 
-     * {@link TypeVariableBuilder}
+     * Parse the type from the given string, adding all type variables
+     * to the given generic declaration
      * 
      * @param string The string
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @return The type
      * @throws ClassNotFoundException If a class can not be found
      * @throws IllegalArgumentException If the input string is invalid
      */
-    private Type parse(String string, TypeVariableBuilder typeVariableBuilder) 
+    private Type parse(String string, 
+        DefaultGenericDeclaration genericDeclaration) 
         throws ClassNotFoundException
     {
         if (string == null)
@@ -160,7 +207,7 @@ final class DefaultTypeParser implements TypeParser
         int index0 = string.indexOf("<");
         if (index0 == -1)
         {
-            return parseNonParameterizedType(string, typeVariableBuilder);
+            return parseNonParameterizedType(string, genericDeclaration);
         }
         int index1 = string.lastIndexOf(">");
         if (index1 == -1)
@@ -173,7 +220,7 @@ final class DefaultTypeParser implements TypeParser
         Class<?> c = searchClass(typeName);
         TypeBuilder typeBuilder = Types.create(c);
         processTypeParameters(
-            typeBuilder, typeVariableBuilder, typeParametersString);
+            typeBuilder, genericDeclaration, typeParametersString);
         try
         {
             return typeBuilder.build();
@@ -189,25 +236,19 @@ final class DefaultTypeParser implements TypeParser
      * Parse a type that is NOT a parameterized type from the given string.
      * 
      * @param string The input string
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @return The type
      * @throws ClassNotFoundException If a class can not be found
      */
     private Type parseNonParameterizedType(
-        String string, TypeVariableBuilder typeVariableBuilder) 
+        String string, DefaultGenericDeclaration genericDeclaration) 
             throws ClassNotFoundException
     {
         String typeVariableName = 
             getTypeVariableNamePrefix(string);
         if (typeVariableName != null)
         {
-            typeVariableBuilder.add(typeVariableName);
-            GenericDeclaration genericDeclaration =
-                typeVariableBuilder.build();
-            TypeVariable<?>[] typeVariables = 
-                genericDeclaration.getTypeParameters();
-            Type t = typeVariables[typeVariables.length-1];
-            return t;
+            return addTypeVariable(genericDeclaration, typeVariableName);
         }
         if (PrimitiveTypes.isPrimitiveTypeName(string))
         {
@@ -227,13 +268,13 @@ final class DefaultTypeParser implements TypeParser
      * builder
      * 
      * @param typeBuilder The type builder
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @param typeParametersString The type parameters string
      * @throws ClassNotFoundException If a class is specified that
      * can not be loaded
      */
     private void processTypeParameters(
-        TypeBuilder typeBuilder, TypeVariableBuilder typeVariableBuilder, 
+        TypeBuilder typeBuilder, DefaultGenericDeclaration genericDeclaration, 
         String typeParametersString) 
             throws ClassNotFoundException
     {
@@ -242,7 +283,7 @@ final class DefaultTypeParser implements TypeParser
         //System.out.println("Type parameters "+typeParameterStrings);
         for (String typeParameterString : typeParameterStrings)
         {
-            processTypeParameter(typeBuilder, typeVariableBuilder, 
+            processTypeParameter(typeBuilder, genericDeclaration, 
                 typeParameterString);
         }
     }
@@ -252,7 +293,7 @@ final class DefaultTypeParser implements TypeParser
      * and add it to the type using the given builder
      * 
      * @param typeBuilder The type builder
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @param typeParameterString The type parameter string
      * @throws ClassNotFoundException If a class is specified that
      * can not be loaded
@@ -260,7 +301,7 @@ final class DefaultTypeParser implements TypeParser
      * an invalid format
      */
     private void processTypeParameter(
-        TypeBuilder typeBuilder, TypeVariableBuilder typeVariableBuilder, 
+        TypeBuilder typeBuilder, DefaultGenericDeclaration genericDeclaration, 
         String typeParameterString)
             throws ClassNotFoundException
     {
@@ -271,18 +312,18 @@ final class DefaultTypeParser implements TypeParser
         if (typeVariableName != null)
         {
             processTypeVariableParameter(
-                typeBuilder, typeVariableBuilder,
+                typeBuilder, genericDeclaration,
                 typeParameterString, typeVariableName);
         }
         else if (typeParameterString.trim().startsWith("?"))
         {
-            processWildcardTypeParameter(typeBuilder, typeVariableBuilder,
+            processWildcardTypeParameter(typeBuilder, genericDeclaration,
                 typeParameterString);
         }
         else
         {
             Type typeParameter = 
-                parse(typeParameterString, typeVariableBuilder);
+                parse(typeParameterString, genericDeclaration);
             typeBuilder.withType(typeParameter);
         }
     }
@@ -293,7 +334,7 @@ final class DefaultTypeParser implements TypeParser
      * variable to the type- and type variable builder
      * 
      * @param typeBuilder The type builder
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @param typeParameterString The type parameter string
      * @param typeVariableName The type variable name
      * @throws ClassNotFoundException If a class is specified that
@@ -302,8 +343,9 @@ final class DefaultTypeParser implements TypeParser
      * an invalid format
      */
     private void processTypeVariableParameter(TypeBuilder typeBuilder,
-        TypeVariableBuilder typeVariableBuilder, String typeParameterString,
-        String typeVariableName) throws ClassNotFoundException
+        DefaultGenericDeclaration genericDeclaration, 
+        String typeParameterString, String typeVariableName) 
+            throws ClassNotFoundException
     {
         String s = trim(typeParameterString, typeVariableName);
         if (s.startsWith("extends"))
@@ -316,11 +358,12 @@ final class DefaultTypeParser implements TypeParser
             for (String typeVariableBoundString : typeVariableBoundStrings)
             {
                 Type typeVariableBound = 
-                    parse(typeVariableBoundString, typeVariableBuilder);
+                    parse(typeVariableBoundString, genericDeclaration);
                 typeVariableBounds.add(typeVariableBound);
             }
-            typeVariableBuilder.add(typeVariableName, 
-                typeVariableBounds.toArray(new Type[0]));
+            typeBuilder.withType(addTypeVariable(
+                genericDeclaration, typeVariableName, 
+                typeVariableBounds.toArray(new Type[0])));
         }
         else if (!s.isEmpty())
         {
@@ -329,19 +372,41 @@ final class DefaultTypeParser implements TypeParser
         }
         else
         {
-            typeVariableBuilder.add(typeVariableName);
+            typeBuilder.withType(
+                addTypeVariable(genericDeclaration, typeVariableName));
         }
-        
-        // TODO This is not very elegant, and exploiting the fact that
-        // the DefaultTypeVariableBuilder always returns the SAME
-        // GenericDeclaration instance, extended with the most recent 
-        // type variable. Clean this up!
-        GenericDeclaration genericDeclaration =
-            typeVariableBuilder.build();
+    }
+    
+    /**
+     * Create a new type variable with the given name and bounds, add it
+     * to the given generic declaration, and return it
+     * 
+     * @param genericDeclaration The generic declaration
+     * @param typeVariableName The type variable name
+     * @param bounds The bounds of the type variable
+     * @return The type variable
+     * @throws IllegalArgumentException If the generic declaration already
+     * contains a type variable with the given name
+     */
+    private static TypeVariable<?> addTypeVariable(
+        DefaultGenericDeclaration genericDeclaration, 
+        String typeVariableName, Type ... bounds)
+    {
         TypeVariable<?>[] typeVariables = 
             genericDeclaration.getTypeParameters();
-        Type t = typeVariables[typeVariables.length-1];
-        typeBuilder.withType(t);
+        for (TypeVariable<?> typeVariable : typeVariables)
+        {
+            if (typeVariable.getName().equals(typeVariableName))
+            {
+                throw new IllegalArgumentException(
+                    "Variable name '"+typeVariableName+
+                    "' already contained in "+Arrays.toString(typeVariables));
+            }
+        }
+        TypeVariable<?> typeVariable = Types.createTypeVariable(
+            genericDeclaration, typeVariableName, bounds);
+        genericDeclaration.addTypeParameter(typeVariable);
+        return typeVariable;
     }
     
     
@@ -351,7 +416,7 @@ final class DefaultTypeParser implements TypeParser
      * to the type builder.
      * 
      * @param typeBuilder The type builder
-     * @param typeVariableBuilder The {@link TypeVariableBuilder}
+     * @param genericDeclaration The generic declaration for type variables
      * @param typeParameterString The type parameter string
      * @throws ClassNotFoundException If a class is specified that
      * can not be loaded
@@ -359,7 +424,8 @@ final class DefaultTypeParser implements TypeParser
      * an invalid format
      */
     private void processWildcardTypeParameter(TypeBuilder typeBuilder,
-        TypeVariableBuilder typeVariableBuilder, String typeParameterString)
+        DefaultGenericDeclaration genericDeclaration, 
+        String typeParameterString)
         throws ClassNotFoundException
     {
         String s = trim(typeParameterString, "?");
@@ -367,14 +433,14 @@ final class DefaultTypeParser implements TypeParser
         {
             String typeParameterBoundString = trim(s, "extends");
             Type typeParameterBound = 
-                parse(typeParameterBoundString, typeVariableBuilder);
+                parse(typeParameterBoundString, genericDeclaration);
             typeBuilder.withSubtypeOf(typeParameterBound);
         }
         else if (s.startsWith("super"))
         {
             String typeParameterBoundString = trim(s, "super");
             Type typeParameterBound = 
-                parse(typeParameterBoundString, typeVariableBuilder);
+                parse(typeParameterBoundString, genericDeclaration);
             typeBuilder.withSupertypeOf(typeParameterBound);
         }
         else
@@ -399,6 +465,43 @@ final class DefaultTypeParser implements TypeParser
      */
     private Class<?> searchClass(String name) 
         throws ClassNotFoundException
+    {
+        if (classCache == null)
+        {
+            return resolveClass(name);
+        }
+        Object cached = classCache.get(name);
+        if (cached == null)
+        {
+            try
+            {
+                cached = resolveClass(name);
+            }
+            catch (ClassNotFoundException e)
+            {
+                cached = CLASS_NOT_FOUND;
+            }
+            classCache.put(name, cached);
+        }
+        if (cached == CLASS_NOT_FOUND)
+        {
+            throw new ClassNotFoundException(name);
+        }
+        return (Class<?>)cached;
+    }
+    
+    /**
+     * Implementation of {@link #searchClass(String)}, without caching
+     * 
+     * @param name The class name
+     * @return The class
+     * @throws ClassNotFoundException If a class is specified that
+     * can not be loaded
+     * @throws IllegalArgumentException If multiple classes with the
+     * given name exist in the {@link #addImport(String) imports}.
+     */
+    private Class<?> resolveClass(String name) 
+        throws ClassNotFoundException
     {
         // If the name does NOT contain a '.', then try to find an
         // imported type name whose last token is the given name
@@ -409,7 +512,7 @@ final class DefaultTypeParser implements TypeParser
                 String lastToken = getLastToken(importedTypeName);
                 if (lastToken.equals(name))
                 {
-                    return searchClass(importedTypeName);
+                    return resolveClass(importedTypeName);
                 }
             }
         }
@@ -0,0 +1,213 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Default implementation of a {@link TypeRegistry}. All lookups operate 
+ * on an immutable {@link Snapshot}. Modifications create a new snapshot
+ * and publish it atomically.
+ * 
+ * @param <V> The value type
+ */
+final class DefaultTypeRegistry<V> implements TypeRegistry<V>
+{
+    /**
+     * The maximum number of lookup results that are cached for a single
+     * snapshot
+     */
+    private static final int MAX_CACHED_LOOKUPS = 1024;
+    
+    /**
+     * The current snapshot
+     */
+    private final AtomicReference<Snapshot<V>> snapshot;
+    
+    /**
+     * Creates a new, empty registry
+     */
+    DefaultTypeRegistry()
+    {
+        Map<Type, V> empty = Collections.emptyMap();
+        this.snapshot = new AtomicReference<Snapshot<V>>(
+            new Snapshot<V>(empty));
+    }
+    
+    @Override
+    public V register(Type type, V value)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        Objects.requireNonNull(value, "The value is null");
+        while (true)
+        {
+            Snapshot<V> current = snapshot.get();
+            V previous = current.entries.get(type);
+            if (value == previous)
+            {
+                return previous;
+            }
+            Map<Type, V> entries = new LinkedHashMap<Type, V>(current.entries);
+            entries.put(type, value);
+            if (snapshot.compareAndSet(current, new Snapshot<V>(entries)))
+            {
+                return previous;
+            }
+        }
+    }
+    
+    @Override
+    public V unregister(Type type)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        while (true)
+        {
+            Snapshot<V> current = snapshot.get();
+            if (!current.entries.containsKey(type))
+            {
+                return null;
+            }
+            Map<Type, V> entries = new LinkedHashMap<Type, V>(current.entries);
+            V previous = entries.remove(type);
+            if (snapshot.compareAndSet(current, new Snapshot<V>(entries)))
+            {
+                return previous;
+            }
+        }
+    }
+    
+    @Override
+    public V get(Type type)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        return snapshot.get().entries.get(type);
+    }
+    
+    @Override
+    public List<V> lookup(Type type, LookupMode lookupMode)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        Objects.requireNonNull(lookupMode, "The lookupMode is null");
+        Snapshot<V> current = snapshot.get();
+        if (lookupMode == LookupMode.EXACT)
+        {
+            V value = current.entries.get(type);
+            if (value == null)
+            {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(value);
+        }
+        return current.lookupAssignableFrom(type);
+    }
+    
+    @Override
+    public Map<Type, V> getSnapshot()
+    {
+        return snapshot.get().entries;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TypeRegistry" + snapshot.get().entries;
+    }
+    
+    /**
+     * An immutable snapshot of the registry, together with the cached 
+     * results of the lookups that have been performed on it
+     * 
+     * @param <V> The value type
+     */
+    private static final class Snapshot<V>
+    {
+        /**
+         * The unmodifiable entries
+         */
+        final Map<Type, V> entries;
+        
+        /**
+         * The cached results of lookups in 
+         * {@link TypeRegistry.LookupMode#ASSIGNABLE_FROM} mode
+         */
+        private final ConcurrentHashMap<Type, List<V>> assignableFrom;
+        
+        /**
+         * Creates a new snapshot with the given entries
+         * 
+         * @param entries The entries, which will be wrapped into an
+         * unmodifiable map and may not be modified afterwards
+         */
+        Snapshot(Map<Type, V> entries)
+        {
+            this.entries = Collections.unmodifiableMap(entries);
+            this.assignableFrom = new ConcurrentHashMap<Type, List<V>>();
+        }
+        
+        /**
+         * Returns an unmodifiable list containing the values of all 
+         * types that are assignable from the given type
+         * 
+         * @param type The type
+         * @return The values
+         */
+        List<V> lookupAssignableFrom(Type type)
+        {
+            List<V> result = assignableFrom.get(type);
+            if (result != null)
+            {
+                return result;
+            }
+            List<V> values = new ArrayList<V>();
+            for (Map.Entry<Type, V> entry : entries.entrySet())
+            {
+                if (Types.isAssignable(entry.getKey(), type))
+                {
+                    values.add(entry.getValue());
+                }
+            }
+            result = Collections.unmodifiableList(values);
+            if (assignableFrom.size() < MAX_CACHED_LOOKUPS)
+            {
+                List<V> existing = assignableFrom.putIfAbsent(type, result);
+                if (existing != null)
+                {
+                    return existing;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,1335 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Default implementation of a {@link TypeTable}.<br>
+ * <br>
+ * Each type is stored as a record in a {@link TypeStore}, consisting of 
+ * the kind of the type, two kind-specific values, and its child types:
+ * <ul>
+ *   <li>
+ *     Class: The first value is the index of the class in the leaf 
+ *     types of the store. The second value is the handle of the 
+ *     component type for array classes, the handle of the boxed type 
+ *     for primitive classes, or {@link #NONE}. The children are the 
+ *     handle of the generic superclass (or {@link #NONE}), followed 
+ *     by the handles of the directly implemented interfaces.
+ *   </li>
+ *   <li>
+ *     ParameterizedType: The first value is the handle of the raw type. 
+ *     The second value is the handle of the owner type, or 
+ *     {@link #NONE}. The children are the type arguments.
+ *   </li>
+ *   <li>
+ *     WildcardType: The first value is the number of lower bounds. The
+ *     children are the lower bounds, followed by the upper bounds.
+ *   </li>
+ *   <li>
+ *     TypeVariable: The first value is the index of the type variable 
+ *     in the leaf types of the store. The children are the bounds.
+ *   </li>
+ *   <li>
+ *     GenericArrayType: The first value is the handle of the component 
+ *     type.
+ *   </li>
+ * </ul>
+ * Classes and type variables are found via maps. All other types are
+ * found via an open-addressing hash table that stores the handles, 
+ * and compares the stored values. Type objects are only created when
+ * they are requested, and kept in a small cache.<br>
+ * <br>
+ * The assignability test follows the same rules as the 
+ * {@link DefaultTypeAssignabilityTester} that is used in
+ * {@link Types#isAssignable(Type, Type)}. 
+ */
+final class DefaultTypeTable implements TypeTable
+{
+    /**
+     * The kind of a Class
+     */
+    private static final byte CLASS = 0;
+    
+    /**
+     * The kind of a ParameterizedType
+     */
+    private static final byte PARAMETERIZED_TYPE = 1;
+    
+    /**
+     * The kind of a WildcardType
+     */
+    private static final byte WILDCARD_TYPE = 2;
+    
+    /**
+     * The kind of a TypeVariable
+     */
+    private static final byte TYPE_VARIABLE = 3;
+    
+    /**
+     * The kind of a GenericArrayType
+     */
+    private static final byte GENERIC_ARRAY_TYPE = 4;
+    
+    /**
+     * The value that indicates a missing handle
+     */
+    private static final int NONE = -1;
+    
+    /**
+     * An empty array of handles
+     */
+    private static final int EMPTY[] = new int[0];
+    
+    /**
+     * The maximum number of type objects that are cached
+     */
+    private static final int TYPE_CACHE_SIZE = 1024;
+    
+    /**
+     * The store for the type records
+     */
+    private final TypeStore store;
+    
+    /**
+     * The number of types that are stored in the hash table
+     */
+    private int slotsSize;
+    
+    /**
+     * The handles of the classes in this table
+     */
+    private final Map<Class<?>, Integer> classHandles;
+    
+    /**
+     * The handles of the type variables in this table
+     */
+    private final Map<TypeVariable<?>, Integer> typeVariableHandles;
+    
+    /**
+     * The type objects that have been created for handles
+     */
+    private final BoundedCache<Integer, Type> typeCache;
+    
+    /**
+     * The supertypes that have been computed
+     */
+    private final HandleLists supertypes;
+    
+    /**
+     * The raw supertypes that have been computed
+     */
+    private final HandleLists rawSupertypes;
+    
+    /**
+     * The handle of <code>Object.class</code>
+     */
+    private final int objectHandle;
+    
+    /**
+     * Creates a new, empty type table that uses the given store
+     * 
+     * @param store The {@link TypeStore}
+     */
+    DefaultTypeTable(TypeStore store)
+    {
+        this.store = store;
+        this.classHandles = new HashMap<Class<?>, Integer>();
+        this.typeVariableHandles = new HashMap<TypeVariable<?>, Integer>();
+        this.typeCache = new BoundedCache<Integer, Type>(TYPE_CACHE_SIZE);
+        this.supertypes = new HandleLists();
+        this.rawSupertypes = new HandleLists();
+        this.objectHandle = internClass(Object.class);
+    }
+    
+    @Override
+    public int intern(Type type)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        return internType(type);
+    }
+    
+    @Override
+    public Type getType(int handle)
+    {
+        validate(handle);
+        return createType(handle);
+    }
+    
+    /**
+     * Returns the type for the given handle, creating it if necessary
+     * 
+     * @param handle The handle
+     * @return The type
+     */
+    private Type createType(int handle)
+    {
+        byte kind = kind(handle);
+        if (kind == CLASS || kind == TYPE_VARIABLE)
+        {
+            return store.getLeaf(first(handle));
+        }
+        Type type = typeCache.get(handle);
+        if (type != null)
+        {
+            return type;
+        }
+        if (kind == PARAMETERIZED_TYPE)
+        {
+            Type rawType = createType(first(handle));
+            int ownerHandle = second(handle);
+            Type ownerType = 
+                ownerHandle == NONE ? null : createType(ownerHandle);
+            Type typeArguments[] = 
+                createTypes(childOffset(handle), childCount(handle));
+            type = new DefaultParameterizedType(
+                rawType, ownerType, typeArguments);
+        }
+        else if (kind == WILDCARD_TYPE)
+        {
+            int lowerCount = first(handle);
+            int offset = childOffset(handle);
+            Type lowerBounds[] = createTypes(offset, lowerCount);
+            Type upperBounds[] = createTypes(offset + lowerCount, 
+                childCount(handle) - lowerCount);
+            type = new DefaultWildcardType(lowerBounds, upperBounds);
+        }
+        else
+        {
+            type = Types.createGenericArrayType(createType(first(handle)));
+        }
+        typeCache.put(handle, type);
+        return type;
+    }
+    
+    /**
+     * Returns the types for the child handles in the given range
+     * 
+     * @param offset The offset
+     * @param length The length
+     * @return The types
+     */
+    private Type[] createTypes(int offset, int length)
+    {
+        Type result[] = new Type[length];
+        for (int i = 0; i < length; i++)
+        {
+            result[i] = createType(child(offset + i));
+        }
+        return result;
+    }
+    
+    @Override
+    public int size()
+    {
+        return store.size();
+    }
+    
+    @Override
+    public boolean isAssignable(int toHandle, int fromHandle)
+    {
+        validate(toHandle);
+        validate(fromHandle);
+        return assignable(toHandle, fromHandle);
+    }
+    
+    @Override
+    public int getSupertypeCount(int handle)
+    {
+        validate(handle);
+        ensureSupertypes(handle);
+        return supertypes.getCount(handle);
+    }
+    
+    @Override
+    public int getSupertype(int handle, int index)
+    {
+        validate(handle);
+        ensureSupertypes(handle);
+        return supertypes.get(handle, index);
+    }
+    
+    @Override
+    public int getRawSupertypeCount(int handle)
+    {
+        validate(handle);
+        ensureRawSupertypes(handle);
+        return rawSupertypes.getCount(handle);
+    }
+    
+    @Override
+    public int getRawSupertype(int handle, int index)
+    {
+        validate(handle);
+        ensureRawSupertypes(handle);
+        return rawSupertypes.get(handle, index);
+    }
+    
+    /**
+     * Make sure that the given handle is valid
+     * 
+     * @param handle The handle
+     * @throws IllegalArgumentException If the handle is not valid
+     */
+    private void validate(int handle)
+    {
+        int size = store.size();
+        if (handle < 0 || handle >= size)
+        {
+            throw new IllegalArgumentException(
+                "Invalid handle " + handle + " for a table with " + size + 
+                " types");
+        }
+    }
+    
+    /**
+     * Returns the kind of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The kind
+     */
+    private byte kind(int handle)
+    {
+        return store.getKind(handle);
+    }
+    
+    /**
+     * Returns the first value of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The first value
+     */
+    private int first(int handle)
+    {
+        return store.getFirst(handle);
+    }
+    
+    /**
+     * Returns the second value of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The second value
+     */
+    private int second(int handle)
+    {
+        return store.getSecond(handle);
+    }
+    
+    /**
+     * Returns the offset of the children of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The offset
+     */
+    private int childOffset(int handle)
+    {
+        return store.getChildOffset(handle);
+    }
+    
+    /**
+     * Returns the number of children of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The number of children
+     */
+    private int childCount(int handle)
+    {
+        return store.getChildCount(handle);
+    }
+    
+    /**
+     * Returns the child handle at the given index
+     * 
+     * @param index The index
+     * @return The child handle
+     */
+    private int child(int index)
+    {
+        return store.getChild(index);
+    }
+    
+    //=========================================================================
+    // Interning
+    
+    /**
+     * Intern the given type
+     * 
+     * @param type The type
+     * @return The handle
+     * @throws IllegalArgumentException If the type has an unknown type
+     */
+    private int internType(Type type)
+    {
+        if (type instanceof Class<?>)
+        {
+            return internClass((Class<?>)type);
+        }
+        if (type instanceof ParameterizedType)
+        {
+            return internParameterizedType((ParameterizedType)type);
+        }
+        if (type instanceof WildcardType)
+        {
+            return internWildcardType((WildcardType)type);
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            return internTypeVariable((TypeVariable<?>)type);
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            int componentHandle = 
+                internType(genericArrayType.getGenericComponentType());
+            return internComposite(
+                GENERIC_ARRAY_TYPE, componentHandle, NONE, EMPTY);
+        }
+        throw new IllegalArgumentException("Unknown type: " + type);
+    }
+    
+    /**
+     * Intern the given class, its component type or boxed type, and its 
+     * direct supertypes 
+     * 
+     * @param c The class
+     * @return The handle
+     */
+    private int internClass(Class<?> c)
+    {
+        Integer existingHandle = classHandles.get(c);
+        if (existingHandle != null)
+        {
+            return existingHandle;
+        }
+        int handle = store.allocate(CLASS, store.addLeaf(c), NONE);
+        classHandles.put(c, handle);
+        
+        int link = NONE;
+        if (c.isArray())
+        {
+            link = internClass(c.getComponentType());
+        }
+        else if (c.isPrimitive() && c != void.class)
+        {
+            link = internClass(PrimitiveTypes.getBoxedType(c));
+        }
+        Class<?> interfaces[] = c.getInterfaces();
+        int handles[] = new int[1 + interfaces.length];
+        Type genericSuperclass = ClassHierarchy.getGenericSuperclass(c);
+        handles[0] = 
+            genericSuperclass == null ? NONE : internType(genericSuperclass);
+        for (int i = 0; i < interfaces.length; i++)
+        {
+            handles[1 + i] = internClass(interfaces[i]);
+        }
+        store.setSecond(handle, link);
+        store.setChildren(handle, handles);
+        return handle;
+    }
+    
+    /**
+     * Intern the given type variable and its bounds
+     * 
+     * @param typeVariable The type variable
+     * @return The handle
+     */
+    private int internTypeVariable(TypeVariable<?> typeVariable)
+    {
+        Integer existingHandle = typeVariableHandles.get(typeVariable);
+        if (existingHandle != null)
+        {
+            return existingHandle;
+        }
+        int handle = 
+            store.allocate(TYPE_VARIABLE, store.addLeaf(typeVariable), NONE);
+        typeVariableHandles.put(typeVariable, handle);
+        store.setChildren(handle, 
+            internTypes(TypeViews.bounds(typeVariable)));
+        return handle;
+    }
+
+    /**
+     * Intern the given parameterized type
+     * 
+     * @param parameterizedType The parameterized type
+     * @return The handle
+     */
+    private int internParameterizedType(ParameterizedType parameterizedType)
+    {
+        int rawHandle = internType(parameterizedType.getRawType());
+        Type ownerType = parameterizedType.getOwnerType();
+        int ownerHandle = ownerType == null ? NONE : internType(ownerType);
+        int handles[] = 
+            internTypes(TypeViews.typeArguments(parameterizedType));
+        return internComposite(
+            PARAMETERIZED_TYPE, rawHandle, ownerHandle, handles);
+    }
+    
+    /**
+     * Intern the given wildcard type
+     * 
+     * @param wildcardType The wildcard type
+     * @return The handle
+     */
+    private int internWildcardType(WildcardType wildcardType)
+    {
+        Type lowerBounds[] = TypeViews.lowerBounds(wildcardType);
+        Type upperBounds[] = TypeViews.upperBounds(wildcardType);
+        int handles[] = new int[lowerBounds.length + upperBounds.length];
+        for (int i = 0; i < lowerBounds.length; i++)
+        {
+            handles[i] = internType(lowerBounds[i]);
+        }
+        for (int i = 0; i < upperBounds.length; i++)
+        {
+            handles[lowerBounds.length + i] = internType(upperBounds[i]);
+        }
+        return internComposite(
+            WILDCARD_TYPE, lowerBounds.length, NONE, handles);
+    }
+    
+    /**
+     * Intern all the given types
+     * 
+     * @param types The types
+     * @return The handles
+     */
+    private int[] internTypes(Type types[])
+    {
+        int handles[] = new int[types.length];
+        for (int i = 0; i < types.length; i++)
+        {
+            handles[i] = internType(types[i]);
+        }
+        return handles;
+    }
+    
+    /**
+     * Returns the handle of the type that is neither a class nor a type
+     * variable, and has the given values, creating it if necessary
+     * 
+     * @param kind The kind
+     * @param first The first value
+     * @param second The second value
+     * @param handles The child handles
+     * @return The handle
+     */
+    private int internComposite(
+        byte kind, int first, int second, int handles[])
+    {
+        int mask = store.getSlotCount() - 1;
+        int index = hash(kind, first, second, handles);
+        while (true)
+        {
+            index &= mask;
+            int slot = store.getSlot(index);
+            if (slot == 0)
+            {
+                break;
+            }
+            int candidate = slot - 1;
+            if (matches(candidate, kind, first, second, handles))
+            {
+                return candidate;
+            }
+            index++;
+        }
+        int handle = store.allocate(kind, first, second);
+        store.setChildren(handle, handles);
+        store.setSlot(index, handle + 1);
+        slotsSize++;
+        if (slotsSize * 4 > store.getSlotCount() * 3)
+        {
+            rehash();
+        }
+        return handle;
+    }
+    
+    /**
+     * Returns whether the type with the given handle has the given values
+     * 
+     * @param handle The handle
+     * @param kind The kind
+     * @param first The first value
+     * @param second The second value
+     * @param handles The child handles
+     * @return Whether the type has the given values
+     */
+    private boolean matches(
+        int handle, byte kind, int first, int second, int handles[])
+    {
+        if (kind(handle) != kind || 
+            first(handle) != first || 
+            second(handle) != second ||
+            childCount(handle) != handles.length)
+        {
+            return false;
+        }
+        int offset = childOffset(handle);
+        for (int i = 0; i < handles.length; i++)
+        {
+            if (child(offset + i) != handles[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Double the size of the hash table, and re-insert all types
+     */
+    private void rehash()
+    {
+        int slotCount = store.getSlotCount() * 2;
+        store.resetSlots(slotCount);
+        int mask = slotCount - 1;
+        int size = store.size();
+        for (int handle = 0; handle < size; handle++)
+        {
+            byte kind = kind(handle);
+            if (kind == CLASS || kind == TYPE_VARIABLE)
+            {
+                continue;
+            }
+            int index = hash(handle);
+            while (store.getSlot(index & mask) != 0)
+            {
+                index++;
+            }
+            store.setSlot(index & mask, handle + 1);
+        }
+    }
+    
+    /**
+     * Computes the hash code for a type with the given values
+     * 
+     * @param kind The kind
+     * @param first The first value
+     * @param second The second value
+     * @param handles The child handles
+     * @return The hash code
+     */
+    private static int hash(int kind, int first, int second, int handles[])
+    {
+        int h = 31 * (31 * kind + first) + second;
+        for (int i = 0; i < handles.length; i++)
+        {
+            h = 31 * h + handles[i];
+        }
+        return spread(h);
+    }
+    
+    /**
+     * Computes the hash code for the type with the given handle. This
+     * is the same as the hash code that is computed from its values.
+     * 
+     * @param handle The handle
+     * @return The hash code
+     */
+    private int hash(int handle)
+    {
+        int h = 31 * (31 * kind(handle) + first(handle)) + second(handle);
+        int offset = childOffset(handle);
+        int count = childCount(handle);
+        for (int i = 0; i < count; i++)
+        {
+            h = 31 * h + child(offset + i);
+        }
+        return spread(h);
+    }
+    
+    /**
+     * Spread the bits of the given hash code, so that the lower bits 
+     * can be used as an index
+     * 
+     * @param h The hash code
+     * @return The result
+     */
+    private static int spread(int h)
+    {
+        int result = h * 0x9E3779B9;
+        return result ^ (result >>> 16);
+    }
+    
+    //=========================================================================
+    // Supertypes
+    
+    /**
+     * Make sure that the supertypes of the type with the given handle
+     * have been computed
+     * 
+     * @param handle The handle
+     */
+    private void ensureSupertypes(int handle)
+    {
+        if (supertypes.contains(handle))
+        {
+            return;
+        }
+        int handles[];
+        byte kind = kind(handle);
+        if (kind == CLASS || kind == PARAMETERIZED_TYPE)
+        {
+            Type type = createType(handle);
+            Class<?> rawType = kind == CLASS ? 
+                classAt(handle) : classAt(first(handle));
+            Set<Class<?>> rawSupertypeClasses = 
+                ClassHierarchy.getRawSupertypes(rawType);
+            handles = new int[rawSupertypeClasses.size()];
+            int count = 0;
+            for (Class<?> rawSupertypeClass : rawSupertypeClasses)
+            {
+                Type supertype = 
+                    Substitutions.asSupertype(type, rawSupertypeClass);
+                if (supertype != null)
+                {
+                    handles[count] = internType(supertype);
+                    count++;
+                }
+            }
+            handles = Arrays.copyOf(handles, count);
+        }
+        else
+        {
+            handles = new int[] { handle };
+        }
+        supertypes.put(handle, handles, store.size());
+    }
+    
+    /**
+     * Make sure that the raw supertypes of the type with the given handle
+     * have been computed. These are computed from the stored types, 
+     * without creating type objects.
+     * 
+     * @param handle The handle
+     */
+    private void ensureRawSupertypes(int handle)
+    {
+        if (rawSupertypes.contains(handle))
+        {
+            return;
+        }
+        int rawHandle = handle;
+        if (kind(rawHandle) == PARAMETERIZED_TYPE)
+        {
+            rawHandle = first(rawHandle);
+        }
+        int handles[] = new int[8];
+        int count = 0;
+        if (kind(rawHandle) == CLASS)
+        {
+            handles[count++] = rawHandle;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            int offset = childOffset(handles[i]);
+            int childCount = childCount(handles[i]);
+            for (int j = 0; j < childCount; j++)
+            {
+                int supertype = child(offset + j);
+                if (supertype == NONE)
+                {
+                    continue;
+                }
+                if (kind(supertype) == PARAMETERIZED_TYPE)
+                {
+                    supertype = first(supertype);
+                }
+                if (!contains(handles, count, supertype))
+                {
+                    if (count == handles.length)
+                    {
+                        handles = Arrays.copyOf(handles, count * 2);
+                    }
+                    handles[count++] = supertype;
+                }
+            }
+        }
+        if (!contains(handles, count, objectHandle))
+        {
+            handles = Arrays.copyOf(handles, count + 1);
+            handles[count++] = objectHandle;
+        }
+        rawSupertypes.put(handle, Arrays.copyOf(handles, count), 
+            store.size());
+    }
+    
+    /**
+     * Returns whether the given array contains the given value in the
+     * given number of leading elements
+     * 
+     * @param array The array
+     * @param length The number of elements to check
+     * @param value The value
+     * @return Whether the value is contained
+     */
+    private static boolean contains(int array[], int length, int value)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (array[i] == value)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    //=========================================================================
+    // Assignability
+    
+    /**
+     * Returns the class that is stored for the given handle, which must
+     * be the handle of a class
+     * 
+     * @param handle The handle
+     * @return The class
+     */
+    private Class<?> classAt(int handle)
+    {
+        return (Class<?>)store.getLeaf(first(handle));
+    }
+    
+    /**
+     * Returns whether the type with the given handle is a type variable
+     * that only has the implicit upper bound <code>Object</code>
+     * 
+     * @param handle The handle of a type variable
+     * @return Whether the type variable is unbound
+     */
+    private boolean isUnbound(int handle)
+    {
+        return childCount(handle) == 1 && 
+            child(childOffset(handle)) == objectHandle;
+    }
+    
+    /**
+     * Implementation of {@link #isAssignable(int, int)}, without 
+     * validating the handles
+     * 
+     * @param to The handle of the type to assign to
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean assignable(int to, int from)
+    {
+        if (kind(to) == CLASS && kind(from) == CLASS)
+        {
+            return Types.isAssignable(classAt(to), classAt(from));
+        }
+        if (to == from)
+        {
+            return true;
+        }
+        Class<?> fromClass = kind(from) == CLASS ? classAt(from) : null;
+        if (fromClass != null && fromClass.isPrimitive())
+        {
+            // The primitive cases for two classes have been handled by
+            // Types#isAssignable. Check whether the boxed type is 
+            // assignable.
+            int boxedHandle = second(from);
+            if (boxedHandle == NONE)
+            {
+                // Throws the same exception as the assignability tester
+                PrimitiveTypes.getBoxedType(fromClass);
+            }
+            return assignable(to, boxedHandle);
+        }
+        switch (kind(to))
+        {
+            case CLASS:
+                return assignableToClass(to, from);
+                
+            case PARAMETERIZED_TYPE:
+                return assignableToParameterizedType(to, from);
+                
+            case WILDCARD_TYPE:
+                return assignableToWildcardType(to, from);
+                
+            case TYPE_VARIABLE:
+                // Type variables are never bound in the default 
+                // type variable mapping
+                return false;
+                
+            default:
+                return assignableToGenericArrayType(to, from);
+        }
+    }
+    
+    /**
+     * Returns whether the given class is assignable from the given type,
+     * which is not a class
+     * 
+     * @param to The handle of the class to assign to
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean assignableToClass(int to, int from)
+    {
+        Class<?> toClass = classAt(to);
+        switch (kind(from))
+        {
+            case PARAMETERIZED_TYPE:
+                return toClass.isAssignableFrom(classAt(first(from)));
+                
+            case WILDCARD_TYPE:
+                return anyAssignableTo(
+                    to, from, first(from), childCount(from));
+                
+            case TYPE_VARIABLE:
+                if (isUnbound(from))
+                {
+                    return false;
+                }
+                return anyAssignableTo(to, from, 0, childCount(from));
+                
+            case GENERIC_ARRAY_TYPE:
+                if (toClass.isArray())
+                {
+                    return assignable(second(to), first(from));
+                }
+                return toClass.equals(Object.class);
+                
+            default:
+                return toClass.isAssignableFrom(classAt(from));
+        }
+    }
+    
+    /**
+     * Returns whether the given parameterized type is assignable from 
+     * the given type
+     * 
+     * @param to The handle of the parameterized type to assign to
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean assignableToParameterizedType(int to, int from)
+    {
+        switch (kind(from))
+        {
+            case CLASS:
+            {
+                int offset = childOffset(from);
+                int superclassHandle = child(offset);
+                if (superclassHandle == NONE)
+                {
+                    return assignable(first(to), from);
+                }
+                int count = childCount(from);
+                for (int i = 0; i < count; i++)
+                {
+                    if (assignable(to, child(offset + i)))
+                    {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            
+            case PARAMETERIZED_TYPE:
+            {
+                if (!assignable(first(to), first(from)))
+                {
+                    return false;
+                }
+                int toOffset = childOffset(to);
+                int fromOffset = childOffset(from);
+                int toCount = childCount(to);
+                int fromCount = childCount(from);
+                for (int i = 0; i < toCount; i++)
+                {
+                    if (i >= fromCount)
+                    {
+                        throw new ArrayIndexOutOfBoundsException(i);
+                    }
+                    if (!matchingTypeArgument(
+                        child(toOffset + i), child(fromOffset + i)))
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            
+            case WILDCARD_TYPE:
+                return anyAssignableTo(
+                    to, from, first(from), childCount(from));
+                
+            case TYPE_VARIABLE:
+                if (isUnbound(from))
+                {
+                    return false;
+                }
+                return anyAssignableTo(to, from, 0, childCount(from));
+                
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Returns whether the given type argument of a type that is assigned 
+     * to matches the type argument of the type that is assigned from
+     * 
+     * @param to The handle of the type argument to assign to
+     * @param from The handle of the type argument to assign from
+     * @return Whether the type arguments match
+     */
+    private boolean matchingTypeArgument(int to, int from)
+    {
+        if (to == from)
+        {
+            return true;
+        }
+        byte toKind = kind(to);
+        if (toKind == TYPE_VARIABLE)
+        {
+            return false;
+        }
+        if (kind(from) == TYPE_VARIABLE)
+        {
+            if (isUnbound(from) || toKind != WILDCARD_TYPE)
+            {
+                return false;
+            }
+            return matchingFromTypeVariableToWildcardType(to, from);
+        }
+        if (toKind == WILDCARD_TYPE)
+        {
+            return assignableToWildcardType(to, from);
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the given type variable matches the given 
+     * wildcard type, as a type argument
+     * 
+     * @param to The handle of the wildcard type
+     * @param from The handle of the type variable
+     * @return Whether the type arguments match
+     */
+    private boolean matchingFromTypeVariableToWildcardType(int to, int from)
+    {
+        int toLowerCount = first(to);
+        if (toLowerCount != 0)
+        {
+            return false;
+        }
+        int toOffset = childOffset(to);
+        int toCount = childCount(to);
+        for (int i = 0; i < toCount; i++)
+        {
+            int toUpperBound = child(toOffset + i);
+            if (anyAssignableTo(toUpperBound, from, 0, childCount(from)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the given wildcard type is assignable from the 
+     * given type
+     * 
+     * @param to The handle of the wildcard type to assign to
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean assignableToWildcardType(int to, int from)
+    {
+        int toOffset = childOffset(to);
+        int toLowerCount = first(to);
+        int toCount = childCount(to);
+        for (int i = toLowerCount; i < toCount; i++)
+        {
+            if (!wildcardWithUpperBoundAssignable(
+                child(toOffset + i), from))
+            {
+                return false;
+            }
+        }
+        for (int i = 0; i < toLowerCount; i++)
+        {
+            if (!wildcardWithLowerBoundAssignable(
+                child(toOffset + i), from))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether a wildcard type with the given upper bound is 
+     * assignable from the given type
+     * 
+     * @param toUpperBound The handle of the upper bound
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean wildcardWithUpperBoundAssignable(
+        int toUpperBound, int from)
+    {
+        switch (kind(from))
+        {
+            case WILDCARD_TYPE:
+                return anyAssignableTo(
+                    toUpperBound, from, first(from), childCount(from));
+                
+            case TYPE_VARIABLE:
+                if (isUnbound(from))
+                {
+                    return false;
+                }
+                return anyAssignableTo(
+                    toUpperBound, from, 0, childCount(from));
+                
+            default:
+                return assignable(toUpperBound, from);
+        }
+    }
+    
+    /**
+     * Returns whether a wildcard type with the given lower bound is 
+     * assignable from the given type
+     * 
+     * @param toLowerBound The handle of the lower bound
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean wildcardWithLowerBoundAssignable(
+        int toLowerBound, int from)
+    {
+        switch (kind(from))
+        {
+            case WILDCARD_TYPE:
+                return anyAssignableFrom(
+                    from, 0, first(from), toLowerBound);
+                
+            case TYPE_VARIABLE:
+                if (isUnbound(from))
+                {
+                    return false;
+                }
+                return anyAssignableFrom(
+                    from, 0, childCount(from), toLowerBound);
+                
+            default:
+                return assignable(from, toLowerBound);
+        }
+    }
+    
+    /**
+     * Returns whether the given generic array type is assignable from 
+     * the given type
+     * 
+     * @param to The handle of the generic array type to assign to
+     * @param from The handle of the type to assign from
+     * @return Whether the types are assignable
+     */
+    private boolean assignableToGenericArrayType(int to, int from)
+    {
+        switch (kind(from))
+        {
+            case WILDCARD_TYPE:
+                return anyAssignableTo(
+                    to, from, first(from), childCount(from));
+                
+            case TYPE_VARIABLE:
+                if (isUnbound(from))
+                {
+                    return false;
+                }
+                return anyAssignableTo(to, from, 0, childCount(from));
+                
+            case GENERIC_ARRAY_TYPE:
+                return assignable(first(to), first(from));
+                
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Returns whether the given type is assignable from any of the
+     * children of the given type in the given range
+     * 
+     * @param to The handle of the type to assign to
+     * @param parent The handle of the type whose children are assigned
+     * @param start The index of the first child, inclusive
+     * @param end The index of the last child, exclusive
+     * @return Whether any child is assignable
+     */
+    private boolean anyAssignableTo(int to, int parent, int start, int end)
+    {
+        int offset = childOffset(parent);
+        for (int i = start; i < end; i++)
+        {
+            if (assignable(to, child(offset + i)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether any of the children of the given type in the given
+     * range is assignable from the given type 
+     * 
+     * @param parent The handle of the type whose children are assigned to
+     * @param start The index of the first child, inclusive
+     * @param end The index of the last child, exclusive
+     * @param from The handle of the type to assign from
+     * @return Whether the type is assignable to any child
+     */
+    private boolean anyAssignableFrom(
+        int parent, int start, int end, int from)
+    {
+        int offset = childOffset(parent);
+        for (int i = start; i < end; i++)
+        {
+            if (assignable(child(offset + i), from))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Lists of handles that are computed for some of the handles of the 
+     * table, stored in shared arrays
+     */
+    private static final class HandleLists
+    {
+        /**
+         * The offsets of the lists in the {@link #values}, plus one. A 
+         * value of 0 indicates that no list is stored for a handle.
+         */
+        private int offsets[] = new int[0];
+        
+        /**
+         * The lengths of the lists
+         */
+        private int counts[] = new int[0];
+        
+        /**
+         * The handles of all lists
+         */
+        private int values[] = new int[0];
+        
+        /**
+         * The number of elements in the {@link #values} that are used
+         */
+        private int valuesSize;
+        
+        /**
+         * Returns whether a list is stored for the given handle
+         * 
+         * @param handle The handle
+         * @return Whether a list is stored
+         */
+        boolean contains(int handle)
+        {
+            return handle < offsets.length && offsets[handle] != 0;
+        }
+        
+        /**
+         * Store the given list for the given handle
+         * 
+         * @param handle The handle
+         * @param handles The list of handles
+         * @param size The current number of handles in the table
+         */
+        void put(int handle, int handles[], int size)
+        {
+            if (size > offsets.length)
+            {
+                int capacity = Math.max(size, offsets.length * 2);
+                offsets = Arrays.copyOf(offsets, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            int required = valuesSize + handles.length;
+            if (required > values.length)
+            {
+                values = Arrays.copyOf(values, 
+                    Math.max(required, values.length * 2));
+            }
+            System.arraycopy(handles, 0, values, valuesSize, handles.length);
+            offsets[handle] = valuesSize + 1;
+            counts[handle] = handles.length;
+            valuesSize = required;
+        }
+        
+        /**
+         * Returns the length of the list for the given handle
+         * 
+         * @param handle The handle
+         * @return The length
+         */
+        int getCount(int handle)
+        {
+            return counts[handle];
+        }
+        
+        /**
+         * Returns the element with the given index in the list for the
+         * given handle
+         * 
+         * @param handle The handle
+         * @param index The index
+         * @return The element
+         * @throws IndexOutOfBoundsException If the index is negative or 
+         * not smaller than the length of the list
+         */
+        int get(int handle, int index)
+        {
+            int count = counts[handle];
+            if (index < 0 || index >= count)
+            {
+                throw new IndexOutOfBoundsException(
+                    "Index " + index + " for a list with " + count + 
+                    " elements");
+            }
+            return values[offsets[handle] - 1 + index];
+        }
+    }
+}
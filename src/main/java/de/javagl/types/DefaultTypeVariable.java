@@ -62,7 +62,10 @@ final class DefaultTypeVariable<D extends GenericDeclaration>
      * @param name The name
      * @param bounds The upper bounds. If this is <code>null</code> or an 
      * empty array, then <code>Object.class</code> will be used as the 
-     * (implicit) upper bound.
+     * (implicit) upper bound. Duplicate bounds are omitted, as described
+     * in {@link TypeBounds#normalizeTypeVariableBounds(Type[])}. The
+     * order of the bounds and an explicit <code>Object.class</code> 
+     * bound are retained.
      */
     DefaultTypeVariable(D genericDeclaration, String name, Type ... bounds)
     {
@@ -74,7 +77,8 @@ final class DefaultTypeVariable<D extends GenericDeclaration>
         }
         else
         {
-            this.bounds = bounds.clone();
+            this.bounds = 
+                TypeBounds.normalizeTypeVariableBounds(bounds.clone());
         }
     }
     
@@ -90,6 +94,17 @@ final class DefaultTypeVariable<D extends GenericDeclaration>
     {
         return bounds.clone();
     }
+    
+    /**
+     * Returns the internal array of bounds. The caller may not modify 
+     * this array.
+     * 
+     * @return The bounds
+     */
+    Type[] bounds()
+    {
+        return bounds;
+    }
 
     @Override
     public D getGenericDeclaration()
@@ -30,9 +30,7 @@ import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 
@@ -42,16 +40,12 @@ import java.util.Objects;
 final class DefaultTypeVariableBuilder implements TypeVariableBuilder
 {
     /**
-     * The generic declaration that all type variables will belong to
+     * The generic declaration that all type variables will belong to.
+     * If this is <code>null</code>, then a new generic declaration
+     * will be created in each call to {@link #build()}
      */
     private final GenericDeclaration genericDeclaration;
 
-    /**
-     * The generic declaration that may be built by this class,
-     * if no existing generic declaration was given
-     */
-    private final DefaultGenericDeclaration localGenericDeclaration;
-    
     /**
      * The list of variable names
      */
@@ -69,8 +63,7 @@ final class DefaultTypeVariableBuilder implements TypeVariableBuilder
     {
         this.namesList = new ArrayList<String>();        
         this.boundsList = new ArrayList<Type[]>();
-        this.localGenericDeclaration = new DefaultGenericDeclaration();
-        this.genericDeclaration = localGenericDeclaration;
+        this.genericDeclaration = null;
     }
 
     /**
@@ -84,7 +77,6 @@ final class DefaultTypeVariableBuilder implements TypeVariableBuilder
         this.namesList = new ArrayList<String>();        
         this.boundsList = new ArrayList<Type[]>();
         this.genericDeclaration = genericDeclaration;
-        this.localGenericDeclaration = null;
     }
     
     @Override
@@ -112,21 +104,24 @@ final class DefaultTypeVariableBuilder implements TypeVariableBuilder
     @Override
     public GenericDeclaration build()
     {
-        Map<String, TypeVariable<?>> result = 
-            new LinkedHashMap<String, TypeVariable<?>>();
+        if (genericDeclaration != null)
+        {
+            // The caller is responsible for the consistency of the
+            // given generic declaration and its type parameters
+            return genericDeclaration;
+        }
+        DefaultGenericDeclaration localGenericDeclaration = 
+            new DefaultGenericDeclaration();
         for (int i=0; i<namesList.size(); i++)
         {
             String name = namesList.get(i);
             Type[] bounds = boundsList.get(i);
-            TypeVariable<?> typeParameter = 
-                Types.createTypeVariable(genericDeclaration, name, bounds);
-            if (localGenericDeclaration != null)
-            {
-                localGenericDeclaration.addTypeParameter(typeParameter);
-            }
-            result.put(name, typeParameter);
+            TypeVariable<?> typeParameter = Types.createTypeVariable(
+                localGenericDeclaration, name, bounds);
+            localGenericDeclaration.addTypeParameter(typeParameter);
         }
-        return genericDeclaration;
+        localGenericDeclaration.freeze();
+        return localGenericDeclaration;
     }
     
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -44,6 +44,12 @@ final class DefaultWildcardType implements WildcardType
      * The upper bounds
      */
     private final Type upperBounds[];
+
+    /**
+     * The string representation of this type. This is created lazily, 
+     * when it is requested for the first time.
+     */
+    private String string;
     
     
     /**
@@ -51,7 +57,13 @@ final class DefaultWildcardType implements WildcardType
      * If the lower bounds are <code>null</code>, then an empty array will
      * be stored. If the upper bounds are <code>null</code> or an empty
      * array, then an array containing the implicit upper bound
-     * <code>java.lang.Object</code> will be stored.
+     * <code>java.lang.Object</code> will be stored.<br>
+     * <br>
+     * The bounds are stored in a canonical form, as described in 
+     * {@link TypeBounds#normalizeUpperBounds(Type[])} and
+     * {@link TypeBounds#normalizeLowerBounds(Type[])}, so that 
+     * equivalent wildcard types, like <code>? extends Object</code>
+     * and <code>?</code>, are equal.
      * 
      * @param lowerBounds the lower bounds
      * @param upperBounds the upper bounds
@@ -64,7 +76,8 @@ final class DefaultWildcardType implements WildcardType
         }
         else
         {
-            this.lowerBounds = lowerBounds.clone();
+            this.lowerBounds = 
+                TypeBounds.normalizeLowerBounds(lowerBounds.clone());
         }
         if (upperBounds == null || upperBounds.length == 0)
         {
@@ -72,7 +85,8 @@ final class DefaultWildcardType implements WildcardType
         }
         else
         {
-            this.upperBounds = upperBounds.clone();
+            this.upperBounds = 
+                TypeBounds.normalizeUpperBounds(upperBounds.clone());
         }
         
     }
@@ -89,17 +103,43 @@ final class DefaultWildcardType implements WildcardType
         return lowerBounds.clone();
     }
     
+    /**
+     * Returns the internal array of upper bounds. The caller may not 
+     * modify this array.
+     * 
+     * @return The upper bounds
+     */
+    Type[] upperBounds()
+    {
+        return upperBounds;
+    }
+    
+    /**
+     * Returns the internal array of lower bounds. The caller may not 
+     * modify this array.
+     * 
+     * @return The lower bounds
+     */
+    Type[] lowerBounds()
+    {
+        return lowerBounds;
+    }
+    
     @Override
     public String toString()
     {
-        return Types.stringFor(this);
+        String result = string;
+        if (result == null)
+        {
+            result = TypesToString.createString(this);
+            string = result;
+        }
+        return result;
     }
 
     @Override
     public int hashCode()
     {
-        Type lowerBounds[] = getLowerBounds();
-        Type upperBounds[] = getUpperBounds();
         return Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);        
     }
 
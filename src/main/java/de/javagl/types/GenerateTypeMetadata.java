@@ -0,0 +1,62 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which {@link TypeMetadata} should be generated at 
+ * compile time.<br>
+ * <br>
+ * When the annotated class is compiled with the 
+ * <code>de.javagl.types.processor.TypeMetadataProcessor</code>, then a 
+ * class is generated in the same package. Its name is the binary name 
+ * of the annotated class, without the package, where each 
+ * <code>'$'</code> is replaced by <code>'_'</code>, followed by
+ * <code>"_TypeMetadata"</code>. For example, for a class 
+ * <code>com.example.Outer.Inner</code>, the class 
+ * <code>com.example.Outer_Inner_TypeMetadata</code> is generated.<br>
+ * <br>
+ * The methods of this library consult the generated metadata before
+ * falling back to reflection. When the annotated class was compiled 
+ * without the processor, then reflection is used, as for all other 
+ * classes.<br>
+ * <br>
+ * The annotation may only be applied to top-level classes and to 
+ * member classes that are not <code>private</code>.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeMetadata
+{
+    // Marker annotation
+}
@@ -0,0 +1,240 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of a {@link TypeStore} that stores the type records
+ * in <code>int</code> arrays on the heap
+ */
+final class HeapTypeStore implements TypeStore
+{
+    /**
+     * The initial capacity of the arrays
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    
+    /**
+     * The number of type records
+     */
+    private int size;
+    
+    /**
+     * The kinds of the types
+     */
+    private byte kinds[];
+    
+    /**
+     * The first values of the types
+     */
+    private int firsts[];
+    
+    /**
+     * The second values of the types
+     */
+    private int seconds[];
+    
+    /**
+     * The offsets of the children of the types in the {@link #children}
+     */
+    private int childOffsets[];
+    
+    /**
+     * The numbers of children of the types
+     */
+    private int childCounts[];
+    
+    /**
+     * The handles of the children of all types
+     */
+    private int children[];
+    
+    /**
+     * The number of elements in the {@link #children} that are used
+     */
+    private int childrenSize;
+    
+    /**
+     * The slots of the hash table
+     */
+    private int slots[];
+    
+    /**
+     * The classes and type variables
+     */
+    private final List<Type> leaves;
+    
+    /**
+     * Creates a new, empty store
+     */
+    HeapTypeStore()
+    {
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.firsts = new int[INITIAL_CAPACITY];
+        this.seconds = new int[INITIAL_CAPACITY];
+        this.childOffsets = new int[INITIAL_CAPACITY];
+        this.childCounts = new int[INITIAL_CAPACITY];
+        this.children = new int[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY];
+        this.leaves = new ArrayList<Type>();
+    }
+    
+    @Override
+    public int size()
+    {
+        return size;
+    }
+    
+    @Override
+    public int allocate(byte kind, int first, int second)
+    {
+        if (size == kinds.length)
+        {
+            int capacity = grow(kinds.length);
+            kinds = Arrays.copyOf(kinds, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            childOffsets = Arrays.copyOf(childOffsets, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+        }
+        int handle = size;
+        kinds[handle] = kind;
+        firsts[handle] = first;
+        seconds[handle] = second;
+        size++;
+        return handle;
+    }
+    
+    @Override
+    public byte getKind(int handle)
+    {
+        return kinds[handle];
+    }
+    
+    @Override
+    public int getFirst(int handle)
+    {
+        return firsts[handle];
+    }
+    
+    @Override
+    public int getSecond(int handle)
+    {
+        return seconds[handle];
+    }
+    
+    @Override
+    public void setSecond(int handle, int second)
+    {
+        seconds[handle] = second;
+    }
+    
+    @Override
+    public int getChildOffset(int handle)
+    {
+        return childOffsets[handle];
+    }
+    
+    @Override
+    public int getChildCount(int handle)
+    {
+        return childCounts[handle];
+    }
+    
+    @Override
+    public int getChild(int index)
+    {
+        return children[index];
+    }
+    
+    @Override
+    public void setChildren(int handle, int handles[])
+    {
+        int required = childrenSize + handles.length;
+        if (required > children.length)
+        {
+            children = Arrays.copyOf(children, 
+                Math.max(required, grow(children.length)));
+        }
+        System.arraycopy(handles, 0, children, childrenSize, handles.length);
+        childOffsets[handle] = childrenSize;
+        childCounts[handle] = handles.length;
+        childrenSize = required;
+    }
+    
+    @Override
+    public int getSlotCount()
+    {
+        return slots.length;
+    }
+    
+    @Override
+    public int getSlot(int index)
+    {
+        return slots[index];
+    }
+    
+    @Override
+    public void setSlot(int index, int value)
+    {
+        slots[index] = value;
+    }
+    
+    @Override
+    public void resetSlots(int slotCount)
+    {
+        slots = new int[slotCount];
+    }
+    
+    @Override
+    public int addLeaf(Type type)
+    {
+        leaves.add(type);
+        return leaves.size() - 1;
+    }
+    
+    @Override
+    public Type getLeaf(int index)
+    {
+        return leaves.get(index);
+    }
+    
+    /**
+     * Returns the new capacity for an array that has to be enlarged
+     * 
+     * @param capacity The current capacity
+     * @return The new capacity
+     */
+    private static int grow(int capacity)
+    {
+        return capacity + (capacity >> 1);
+    }
+}
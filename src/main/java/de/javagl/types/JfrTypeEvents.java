@@ -0,0 +1,370 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.Threshold;
+
+/**
+ * The {@link TypeEventRecorder} that emits JFR events. This class is 
+ * only loaded when the JFR API is available.<br>
+ * <br>
+ * This class requires Java 11. It is compiled separately from the other
+ * classes, which are compiled for Java 8, and it is only instantiated 
+ * via reflection, in {@link TypeEvents}.
+ */
+final class JfrTypeEvents implements TypeEventRecorder
+{
+    /**
+     * The depth of the nested computations in the current thread
+     */
+    private static final ThreadLocal<int[]> DEPTH = 
+        new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1];
+        }
+    };
+    
+    /**
+     * The event classes
+     */
+    private static final List<Class<? extends Event>> EVENT_CLASSES = 
+        Arrays.<Class<? extends Event>>asList(
+            AssignabilityEvent.class, SupertypesEvent.class, 
+            ParseEvent.class, BoundsMergeEvent.class);
+    
+    /**
+     * Creates a new instance, and installs the listener that updates 
+     * the state of the {@link TypeEvents} when a recording changes
+     */
+    JfrTypeEvents()
+    {
+        FlightRecorder.addListener(new FlightRecorderListener()
+        {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder)
+            {
+                update();
+            }
+            
+            @Override
+            public void recordingStateChanged(Recording recording)
+            {
+                update();
+            }
+        });
+    }
+    
+    /**
+     * Update the state of the {@link TypeEvents}, based on whether any
+     * of the events is enabled
+     */
+    private static void update()
+    {
+        boolean enabled = false;
+        for (Class<? extends Event> eventClass : EVENT_CLASSES)
+        {
+            enabled |= EventType.getEventType(eventClass).isEnabled();
+        }
+        TypeEvents.setActive(enabled);
+    }
+    
+    /**
+     * Increase the depth for the current thread, and return the new depth
+     * 
+     * @return The depth
+     */
+    private static int enter()
+    {
+        int depth[] = DEPTH.get();
+        depth[0]++;
+        return depth[0];
+    }
+    
+    /**
+     * Decrease the depth for the current thread
+     */
+    private static void exit()
+    {
+        DEPTH.get()[0]--;
+    }
+    
+    /**
+     * Returns the string representation of the given type, or 
+     * <code>null</code> if the type is <code>null</code>
+     * 
+     * @param type The type
+     * @return The string
+     */
+    private static String stringFor(Type type)
+    {
+        return type == null ? null : Types.stringFor(type);
+    }
+    
+    @Override
+    public Object beginAssignability()
+    {
+        AssignabilityEvent event = new AssignabilityEvent();
+        event.depth = enter();
+        event.begin();
+        return event;
+    }
+    
+    @Override
+    public void endAssignability(
+        Object object, Type to, Type from, boolean result)
+    {
+        exit();
+        AssignabilityEvent event = (AssignabilityEvent)object;
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.toType = stringFor(to);
+            event.fromType = stringFor(from);
+            event.result = result;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public Object beginSupertypes()
+    {
+        SupertypesEvent event = new SupertypesEvent();
+        event.begin();
+        return event;
+    }
+    
+    @Override
+    public void endSupertypes(
+        Object object, Type type, int depth, int resultSize)
+    {
+        SupertypesEvent event = (SupertypesEvent)object;
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.type = stringFor(type);
+            event.depth = depth;
+            event.resultSize = resultSize;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public Object beginParse()
+    {
+        ParseEvent event = new ParseEvent();
+        event.depth = enter();
+        event.begin();
+        return event;
+    }
+    
+    @Override
+    public void endParse(Object object, String input, Type type)
+    {
+        exit();
+        ParseEvent event = (ParseEvent)object;
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.input = input;
+            event.type = stringFor(type);
+            event.commit();
+        }
+    }
+    
+    @Override
+    public Object beginBoundsMerge()
+    {
+        BoundsMergeEvent event = new BoundsMergeEvent();
+        event.begin();
+        return event;
+    }
+    
+    @Override
+    public void endBoundsMerge(
+        Object object, boolean upper, List<Type> bounds)
+    {
+        BoundsMergeEvent event = (BoundsMergeEvent)object;
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.upper = upper;
+            if (bounds != null)
+            {
+                StringBuilder sb = new StringBuilder();
+                for (Type bound : bounds)
+                {
+                    if (sb.length() > 0)
+                    {
+                        sb.append(", ");
+                    }
+                    sb.append(stringFor(bound));
+                }
+                event.bounds = sb.toString();
+                event.resultSize = bounds.size();
+            }
+            event.commit();
+        }
+    }
+    
+    /**
+     * An event for {@link TypeAssignabilityTester#isAssignable(Type, Type)}
+     */
+    @Name("de.javagl.types.Assignability")
+    @Label("Type Assignability")
+    @Description("A slow assignability test")
+    @Category("Types")
+    @Threshold("1 ms")
+    static final class AssignabilityEvent extends Event
+    {
+        /**
+         * The type to assign to
+         */
+        @Label("To Type")
+        String toType;
+        
+        /**
+         * The type to assign from
+         */
+        @Label("From Type")
+        String fromType;
+        
+        /**
+         * The result
+         */
+        @Label("Result")
+        boolean result;
+        
+        /**
+         * The number of nested assignability tests
+         */
+        @Label("Depth")
+        int depth;
+    }
+    
+    /**
+     * An event for {@link Supertypes#computeSupertypes(Type)}
+     */
+    @Name("de.javagl.types.Supertypes")
+    @Label("Supertypes")
+    @Description("A slow computation of supertypes")
+    @Category("Types")
+    @Threshold("10 ms")
+    static final class SupertypesEvent extends Event
+    {
+        /**
+         * The type
+         */
+        @Label("Type")
+        String type;
+        
+        /**
+         * The maximum number of nested parameterized types
+         */
+        @Label("Depth")
+        int depth;
+        
+        /**
+         * The number of supertypes
+         */
+        @Label("Result Size")
+        int resultSize;
+    }
+    
+    /**
+     * An event for {@link TypeParser#parse(String)}
+     */
+    @Name("de.javagl.types.Parse")
+    @Label("Type Parse")
+    @Description("A slow parsing of a type")
+    @Category("Types")
+    @Threshold("1 ms")
+    static final class ParseEvent extends Event
+    {
+        /**
+         * The input string
+         */
+        @Label("Input")
+        String input;
+        
+        /**
+         * The parsed type
+         */
+        @Label("Type")
+        String type;
+        
+        /**
+         * The number of nested parsing operations
+         */
+        @Label("Depth")
+        int depth;
+    }
+    
+    /**
+     * An event for the methods that merge bounds in {@link TypeBounds}
+     */
+    @Name("de.javagl.types.BoundsMerge")
+    @Label("Bounds Merge")
+    @Description("A slow merge of type bounds")
+    @Category("Types")
+    @Threshold("1 ms")
+    static final class BoundsMergeEvent extends Event
+    {
+        /**
+         * Whether upper bounds have been merged
+         */
+        @Label("Upper")
+        boolean upper;
+        
+        /**
+         * The resulting bounds
+         */
+        @Label("Bounds")
+        String bounds;
+        
+        /**
+         * The number of resulting bounds
+         */
+        @Label("Result Size")
+        int resultSize;
+    }
+}
@@ -0,0 +1,829 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Methods for resolving the types of members of generic classes against
+ * a concrete owner type. For example, the return type <code>E</code>
+ * of the method <code>List#get</code> is resolved to <code>String</code>
+ * for the owner type <code>ArrayList&lt;String&gt;</code>.<br>
+ * <br>
+ * The type arguments of the owner type are propagated to all its 
+ * generic supertypes and to the owner types of inner classes. When a 
+ * type variable is assigned a wildcard type, then it is replaced by 
+ * this wildcard type when it appears as a type argument, and by the 
+ * upper bound of the wildcard type in all other positions. Type 
+ * variables that are not assigned a type, for example, the type 
+ * parameters of a raw owner type or of a generic method, remain 
+ * unresolved.<br>
+ * <br>
+ * The results are cached. Results that only refer to classes that are 
+ * loaded by the class loader of this library, or one of its parents, 
+ * are stored in global caches, which are checked first. Other results are stored in caches that
+ * are associated with one of the classes that they refer to, namely,
+ * the class whose class loader is a child of the class loaders of all
+ * other classes. These caches are released together with this class, 
+ * so that the caches do not keep other class loaders alive. When no 
+ * such class exists, the results are not cached.
+ */
+class MemberTypes
+{
+    /**
+     * The maximum number of owner types for which the assignments of
+     * type variables are cached
+     */
+    private static final int OWNER_CACHE_SIZE = 256;
+    
+    /**
+     * The maximum number of resolved member types that are cached
+     */
+    private static final int MEMBER_CACHE_SIZE = 1024;
+    
+    /**
+     * The maximum number of owner types for which the assignments of
+     * type variables are cached, for each class that hosts a cache
+     */
+    private static final int HOSTED_OWNER_CACHE_SIZE = 16;
+    
+    /**
+     * The maximum number of resolved member types that are cached, for 
+     * each class that hosts a cache
+     */
+    private static final int HOSTED_MEMBER_CACHE_SIZE = 64;
+    
+    /**
+     * The marker that is returned by {@link #findHost(Type, Class)} when
+     * no class can host the cache entries. This is a class of the 
+     * bootstrap class loader, which is never a host itself.
+     */
+    private static final Class<?> NO_HOST = Void.class;
+    
+    /**
+     * The caches for results that only refer to classes that are loaded
+     * by the class loader of this library, or one of its parents
+     */
+    private static final Caches GLOBAL_CACHES = 
+        new Caches(OWNER_CACHE_SIZE, MEMBER_CACHE_SIZE);
+    
+    /**
+     * The caches for results that refer to classes of other class 
+     * loaders, associated with their host class
+     */
+    private static final ClassValue<Caches> HOSTED_CACHES = 
+        new ClassValue<Caches>()
+    {
+        @Override
+        protected Caches computeValue(Class<?> type)
+        {
+            return new Caches(
+                HOSTED_OWNER_CACHE_SIZE, HOSTED_MEMBER_CACHE_SIZE);
+        }
+    };
+    
+    /**
+     * The caches for the results of the computations
+     */
+    private static final class Caches
+    {
+        /**
+         * The cache for the information about owner types
+         */
+        final BoundedCache<Type, Owner> owners;
+        
+        /**
+         * The cache for resolved member types, for keys consisting of 
+         * the owner type and the member type or field
+         */
+        final BoundedCache<CacheKey, Type> types;
+        
+        /**
+         * The cache for resolved method signatures, for keys consisting 
+         * of the owner type and the method. The values contain the 
+         * return type, followed by the parameter types.
+         */
+        final BoundedCache<CacheKey, Type[]> methods;
+        
+        /**
+         * Creates new caches
+         * 
+         * @param ownerCacheSize The maximum number of owner types
+         * @param memberCacheSize The maximum number of member types
+         */
+        Caches(int ownerCacheSize, int memberCacheSize)
+        {
+            this.owners = new BoundedCache<Type, Owner>(ownerCacheSize);
+            this.types = new BoundedCache<CacheKey, Type>(memberCacheSize);
+            this.methods = 
+                new BoundedCache<CacheKey, Type[]>(memberCacheSize);
+        }
+    }
+    
+    /**
+     * Resolves the given member type against the given owner type
+     * 
+     * @param owner The owner type
+     * @param memberType The member type
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    static Type resolve(Type owner, Type memberType)
+    {
+        Objects.requireNonNull(owner, "The owner is null");
+        Objects.requireNonNull(memberType, "The memberType is null");
+        CacheKey key = new CacheKey(owner, memberType);
+        Type result = GLOBAL_CACHES.types.get(key);
+        if (result != null)
+        {
+            return result;
+        }
+        Caches caches = getCaches(owner, findHost(memberType, null));
+        if (caches == null)
+        {
+            return resolve(memberType, new Owner(owner).assignments, false);
+        }
+        result = caches.types.get(key);
+        if (result == null)
+        {
+            Owner info = getOwner(owner, caches);
+            result = resolve(memberType, info.assignments, false);
+            caches.types.put(key, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Resolves the type of the given field against the given owner type
+     * 
+     * @param owner The owner type
+     * @param field The field
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the field is not declared
+     * in a supertype of the owner type
+     */
+    static Type resolveFieldType(Type owner, Field field)
+    {
+        Objects.requireNonNull(owner, "The owner is null");
+        Objects.requireNonNull(field, "The field is null");
+        CacheKey key = new CacheKey(owner, field);
+        Type result = GLOBAL_CACHES.types.get(key);
+        if (result != null)
+        {
+            return result;
+        }
+        Caches caches = getCaches(owner, 
+            findHost(field.getDeclaringClass(), null));
+        if (caches == null)
+        {
+            return resolveFieldType(new Owner(owner), field);
+        }
+        result = caches.types.get(key);
+        if (result == null)
+        {
+            result = resolveFieldType(getOwner(owner, caches), field);
+            caches.types.put(key, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Resolves the type of the given field against the given owner
+     * 
+     * @param info The owner
+     * @param field The field
+     * @return The resolved type
+     * @throws IllegalArgumentException If the field is not declared
+     * in a supertype of the owner type
+     */
+    private static Type resolveFieldType(Owner info, Field field)
+    {
+        info.validate(field.getDeclaringClass(), field);
+        return resolve(field.getGenericType(), info.assignments, false);
+    }
+    
+    /**
+     * Resolves the return type of the given method against the given 
+     * owner type
+     * 
+     * @param owner The owner type
+     * @param method The method
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the method is not declared
+     * in a supertype of the owner type
+     */
+    static Type resolveReturnType(Type owner, Method method)
+    {
+        return resolveSignature(owner, method)[0];
+    }
+    
+    /**
+     * Resolves the parameter types of the given method against the given 
+     * owner type
+     * 
+     * @param owner The owner type
+     * @param method The method
+     * @return The resolved types
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the method is not declared
+     * in a supertype of the owner type
+     */
+    static Type[] resolveParameterTypes(Type owner, Method method)
+    {
+        Type signature[] = resolveSignature(owner, method);
+        Type result[] = new Type[signature.length - 1];
+        System.arraycopy(signature, 1, result, 0, result.length);
+        return result;
+    }
+    
+    /**
+     * Resolves the return type and the parameter types of the given 
+     * method against the given owner type. The returned array contains
+     * the return type, followed by the parameter types. It is shared
+     * by all callers, and may not be modified. 
+     * 
+     * @param owner The owner type
+     * @param method The method
+     * @return The resolved types
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the method is not declared
+     * in a supertype of the owner type
+     */
+    private static Type[] resolveSignature(Type owner, Method method)
+    {
+        Objects.requireNonNull(owner, "The owner is null");
+        Objects.requireNonNull(method, "The method is null");
+        CacheKey key = new CacheKey(owner, method);
+        Type result[] = GLOBAL_CACHES.methods.get(key);
+        if (result != null)
+        {
+            return result;
+        }
+        Caches caches = getCaches(owner, 
+            findHost(method.getDeclaringClass(), null));
+        if (caches == null)
+        {
+            return resolveSignature(new Owner(owner), method);
+        }
+        result = caches.methods.get(key);
+        if (result == null)
+        {
+            result = resolveSignature(getOwner(owner, caches), method);
+            caches.methods.put(key, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Resolves the return type and the parameter types of the given 
+     * method against the given owner
+     * 
+     * @param info The owner
+     * @param method The method
+     * @return The resolved types
+     * @throws IllegalArgumentException If the method is not declared
+     * in a supertype of the owner type
+     */
+    private static Type[] resolveSignature(Owner info, Method method)
+    {
+        info.validate(method.getDeclaringClass(), method);
+        Type parameterTypes[] = method.getGenericParameterTypes();
+        Type result[] = new Type[parameterTypes.length + 1];
+        result[0] = resolve(
+            method.getGenericReturnType(), info.assignments, false);
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            result[i + 1] = resolve(
+                parameterTypes[i], info.assignments, false);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the (cached) information about the given owner type
+     * 
+     * @param owner The owner type
+     * @param caches The caches
+     * @return The information
+     */
+    private static Owner getOwner(Type owner, Caches caches)
+    {
+        Owner info = caches.owners.get(owner);
+        if (info == null)
+        {
+            info = new Owner(owner);
+            caches.owners.put(owner, info);
+        }
+        return info;
+    }
+    
+    /**
+     * Returns the caches for the results that refer to the given owner
+     * type, and to the classes for which the given host was found. 
+     * The information about the owner type refers to the supertypes 
+     * of the owner type, and the resolved types of members refer to 
+     * the classes that are visible for the classes that declare them. 
+     * These classes are loaded by the same class loaders as the owner 
+     * type and the member, or by their parents.
+     * 
+     * @param owner The owner type
+     * @param host The host that was found for the member
+     * @return The caches, or <code>null</code> if the results may not 
+     * be cached
+     */
+    private static Caches getCaches(Type owner, Class<?> host)
+    {
+        Class<?> ownerHost = findHost(owner, host);
+        if (ownerHost == null)
+        {
+            return GLOBAL_CACHES;
+        }
+        if (ownerHost == NO_HOST)
+        {
+            return null;
+        }
+        return HOSTED_CACHES.get(ownerHost);
+    }
+    
+    /**
+     * Find the class that may host the cache entries that refer to the 
+     * given type, and to the classes for which the given host was found.
+     * This is the class whose class loader is a child of the class 
+     * loaders of all other classes that are not visible for this 
+     * library, including the classes that implement the type interfaces.
+     * 
+     * @param type The type
+     * @param host The host that was found for other types. This is 
+     * <code>null</code> if they only refer to classes that are visible 
+     * for this library, and {@link #NO_HOST} if no host exists.
+     * @return The host class, <code>null</code>, or {@link #NO_HOST}
+     */
+    private static Class<?> findHost(Type type, Class<?> host)
+    {
+        if (type == null || host == NO_HOST)
+        {
+            return host;
+        }
+        if (type instanceof Class<?>)
+        {
+            return findHost((Class<?>)type, host);
+        }
+        Class<?> result = findHost(type.getClass(), host);
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            result = findHost(parameterizedType.getRawType(), result);
+            result = findHost(parameterizedType.getOwnerType(), result);
+            return findHost(
+                TypeViews.typeArguments(parameterizedType), result);
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            result = findHost(TypeViews.upperBounds(wildcardType), result);
+            return findHost(TypeViews.lowerBounds(wildcardType), result);
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            return findHost(
+                genericArrayType.getGenericComponentType(), result);
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            GenericDeclaration genericDeclaration = 
+                typeVariable.getGenericDeclaration();
+            if (genericDeclaration instanceof Class<?>)
+            {
+                return findHost((Class<?>)genericDeclaration, result);
+            }
+            if (genericDeclaration instanceof Member)
+            {
+                Member member = (Member)genericDeclaration;
+                result = findHost(member.getDeclaringClass(), result);
+            }
+            if (genericDeclaration != null)
+            {
+                result = findHost(genericDeclaration.getClass(), result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Find the host for the given types, as described in
+     * {@link #findHost(Type, Class)}
+     * 
+     * @param types The types
+     * @param host The host that was found for other types
+     * @return The host class, <code>null</code>, or {@link #NO_HOST}
+     */
+    private static Class<?> findHost(Type types[], Class<?> host)
+    {
+        Class<?> result = host;
+        for (Type type : types)
+        {
+            result = findHost(type, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Find the host for the given class, as described in
+     * {@link #findHost(Type, Class)}
+     * 
+     * @param c The class
+     * @param host The host that was found for other types
+     * @return The host class, <code>null</code>, or {@link #NO_HOST}
+     */
+    private static Class<?> findHost(Class<?> c, Class<?> host)
+    {
+        if (host == NO_HOST || TypeViews.isLibraryVisible(c))
+        {
+            return host;
+        }
+        if (host == null)
+        {
+            return c;
+        }
+        ClassLoader hostClassLoader = host.getClassLoader();
+        ClassLoader classLoader = c.getClassLoader();
+        if (TypeViews.isParentOrSelf(hostClassLoader, classLoader))
+        {
+            return host;
+        }
+        if (TypeViews.isParentOrSelf(classLoader, hostClassLoader))
+        {
+            return c;
+        }
+        return NO_HOST;
+    }
+    
+    /**
+     * Resolves the given type, by replacing the type variables that are
+     * contained in the given map with the types that they are mapped to.
+     * 
+     * @param type The type
+     * @param assignments The assignments of type variables
+     * @param argument Whether the type appears as a type argument
+     * @return The resolved type
+     */
+    private static Type resolve(Type type, 
+        Map<TypeVariable<?>, Type> assignments, boolean argument)
+    {
+        if (assignments.isEmpty())
+        {
+            return type;
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            Type assigned = assignments.get(type);
+            if (assigned == null)
+            {
+                return type;
+            }
+            if (argument || !(assigned instanceof WildcardType))
+            {
+                return assigned;
+            }
+            return resolveUpperBound(
+                (TypeVariable<?>)type, (WildcardType)assigned, assignments);
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type ownerType = parameterizedType.getOwnerType();
+            Type newOwnerType = null;
+            boolean changed = false;
+            if (ownerType != null)
+            {
+                newOwnerType = resolve(ownerType, assignments, false);
+                changed = newOwnerType != ownerType;
+            }
+            Type arguments[] = parameterizedType.getActualTypeArguments();
+            Type newArguments[] = new Type[arguments.length];
+            for (int i = 0; i < arguments.length; i++)
+            {
+                newArguments[i] = resolve(arguments[i], assignments, true);
+                changed |= newArguments[i] != arguments[i];
+            }
+            if (!changed)
+            {
+                return type;
+            }
+            return Types.createParameterizedType(
+                Types.getRawType(parameterizedType), newOwnerType, 
+                newArguments);
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            Type componentType = genericArrayType.getGenericComponentType();
+            Type newComponentType = resolve(componentType, assignments, false);
+            if (newComponentType == componentType)
+            {
+                return type;
+            }
+            return Substitutions.createArrayType(newComponentType);
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            Type upperBounds[] = wildcardType.getUpperBounds();
+            Type lowerBounds[] = wildcardType.getLowerBounds();
+            Type newUpperBounds[] = new Type[upperBounds.length];
+            boolean changed = false;
+            for (int i = 0; i < upperBounds.length; i++)
+            {
+                newUpperBounds[i] = resolve(upperBounds[i], assignments, false);
+                changed |= newUpperBounds[i] != upperBounds[i];
+            }
+            Type newLowerBounds[] = new Type[lowerBounds.length];
+            for (int i = 0; i < lowerBounds.length; i++)
+            {
+                newLowerBounds[i] = resolve(lowerBounds[i], assignments, true);
+                if (newLowerBounds[i] instanceof WildcardType)
+                {
+                    // A lower bound that is only known to be a wildcard 
+                    // can not be expressed: Use an unbounded wildcard.
+                    return Types.createWildcardType(null, null);
+                }
+                changed |= newLowerBounds[i] != lowerBounds[i];
+            }
+            if (!changed)
+            {
+                return type;
+            }
+            return Types.createWildcardType(newLowerBounds, newUpperBounds);
+        }
+        return type;
+    }
+    
+    /**
+     * Returns the type that a type variable that was assigned the given
+     * wildcard type is resolved to, when it does not appear as a type
+     * argument. This is the upper bound of the wildcard, or the resolved
+     * bound of the type variable, if the wildcard does not have an upper
+     * bound other than <code>Object</code>.
+     * 
+     * @param typeVariable The type variable
+     * @param wildcardType The wildcard type
+     * @param assignments The assignments of type variables
+     * @return The resolved type
+     */
+    private static Type resolveUpperBound(TypeVariable<?> typeVariable, 
+        WildcardType wildcardType, Map<TypeVariable<?>, Type> assignments)
+    {
+        Type upperBound = wildcardType.getUpperBounds()[0];
+        if (!Object.class.equals(upperBound))
+        {
+            return upperBound;
+        }
+        Type bound = typeVariable.getBounds()[0];
+        if (bound instanceof TypeVariable<?>)
+        {
+            return resolve(bound, assignments, false);
+        }
+        // Type variables in the bound are resolved as type arguments,
+        // to avoid infinite recursion for bounds like T extends Foo<T>
+        return resolve(bound, assignments, true);
+    }
+    
+    /**
+     * Information about an owner type: The assignments of the type
+     * variables of the owner type and its supertypes, and the raw 
+     * types in which members of the owner type may be declared
+     */
+    private static final class Owner
+    {
+        /**
+         * The owner type
+         */
+        private final Type type;
+        
+        /**
+         * The assignments of type variables
+         */
+        final Map<TypeVariable<?>, Type> assignments;
+        
+        /**
+         * The raw types of the owner type and its supertypes
+         */
+        private final Set<Class<?>> rawTypes;
+        
+        /**
+         * Creates the information for the given owner type
+         * 
+         * @param type The owner type
+         */
+        Owner(Type type)
+        {
+            this.type = type;
+            Map<TypeVariable<?>, Type> map = 
+                new HashMap<TypeVariable<?>, Type>();
+            Set<Class<?>> raw = new LinkedHashSet<Class<?>>();
+            collect(type, map, raw);
+            this.assignments = Collections.unmodifiableMap(map);
+            this.rawTypes = Collections.unmodifiableSet(raw);
+        }
+        
+        /**
+         * Make sure that a member that is declared in the given class 
+         * is a member of the owner type
+         * 
+         * @param declaringClass The declaring class of the member
+         * @param member The member
+         * @throws IllegalArgumentException If the member is not declared
+         * in a supertype of the owner type
+         */
+        void validate(Class<?> declaringClass, Object member)
+        {
+            if (declaringClass != Object.class && 
+                !rawTypes.contains(declaringClass))
+            {
+                throw new IllegalArgumentException(
+                    "The member " + member + " is not declared in a " 
+                    + "supertype of " + Types.stringFor(type));
+            }
+        }
+        
+        /**
+         * Collect the assignments of type variables for the given type,
+         * its owner types and its supertypes
+         * 
+         * @param type The type
+         * @param map The map storing the assignments
+         * @param raw The set storing the raw types
+         */
+        private static void collect(Type type, 
+            Map<TypeVariable<?>, Type> map, Set<Class<?>> raw)
+        {
+            if (type instanceof Class<?>)
+            {
+                Class<?> c = (Class<?>)type;
+                if (raw.add(c))
+                {
+                    collectSupertypes(c, map, raw);
+                }
+            }
+            else if (type instanceof ParameterizedType)
+            {
+                ParameterizedType parameterizedType = (ParameterizedType)type;
+                Class<?> c = Types.getRawType(parameterizedType);
+                if (!raw.add(c))
+                {
+                    return;
+                }
+                TypeVariable<?> parameters[] = c.getTypeParameters();
+                Type arguments[] = parameterizedType.getActualTypeArguments();
+                for (int i = 0; i < parameters.length; i++)
+                {
+                    map.put(parameters[i], arguments[i]);
+                }
+                Type ownerType = parameterizedType.getOwnerType();
+                if (ownerType != null)
+                {
+                    collect(ownerType, map, raw);
+                }
+                collectSupertypes(c, map, raw);
+            }
+            else if (type instanceof WildcardType)
+            {
+                WildcardType wildcardType = (WildcardType)type;
+                for (Type upperBound : wildcardType.getUpperBounds())
+                {
+                    collect(upperBound, map, raw);
+                }
+            }
+            else if (type instanceof TypeVariable<?>)
+            {
+                TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+                for (Type bound : typeVariable.getBounds())
+                {
+                    collect(bound, map, raw);
+                }
+            }
+        }
+        
+        /**
+         * Collect the assignments of type variables for the generic 
+         * supertypes of the given class
+         * 
+         * @param c The class
+         * @param map The map storing the assignments
+         * @param raw The set storing the raw types
+         */
+        private static void collectSupertypes(Class<?> c, 
+            Map<TypeVariable<?>, Type> map, Set<Class<?>> raw)
+        {
+            for (Type supertype : ClassHierarchy.getDirectGenericSupertypes(c))
+            {
+                collect(Substitutions.substitute(supertype, map), map, raw);
+            }
+        }
+    }
+    
+    /**
+     * The key for the caches of resolved member types
+     */
+    private static final class CacheKey
+    {
+        /**
+         * The owner type
+         */
+        private final Type owner;
+        
+        /**
+         * The member type, field or method
+         */
+        private final Object member;
+        
+        /**
+         * The hash code
+         */
+        private final int hashCode;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param owner The owner type
+         * @param member The member type, field or method
+         */
+        CacheKey(Type owner, Object member)
+        {
+            this.owner = owner;
+            this.member = member;
+            this.hashCode = 31 * owner.hashCode() + member.hashCode();
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof CacheKey))
+            {
+                return false;
+            }
+            CacheKey other = (CacheKey)object;
+            return owner.equals(other.owner) && member.equals(other.member);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MemberTypes()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * Interface for classes that select one of several overloaded methods, 
+ * based on the types of the arguments of an invocation.
+ */
+public interface MethodResolver
+{
+    /**
+     * Returns the most specific method that is applicable for arguments
+     * of the given types, following the phases that are described in 
+     * the JLS, section 15.12.2, "Compile-Time Step 2: Determine Method 
+     * Signature":
+     * <ul>
+     *   <li>Phase 1: Applicable without boxing, unboxing or varargs</li>
+     *   <li>Phase 2: Applicable with boxing and unboxing</li>
+     *   <li>Phase 3: Applicable as a variable arity method</li>
+     * </ul>
+     * A <code>null</code> element in the given array stands for the 
+     * type of the <code>null</code> literal, which is assignable to 
+     * all non-primitive types.
+     * 
+     * @param argumentTypes The argument types
+     * @return The most specific method, or <code>null</code> if no 
+     * method is applicable
+     * @throws NullPointerException If the given array is <code>null</code>
+     * @throws IllegalArgumentException If there are multiple applicable
+     * methods, and none of them is more specific than all others
+     */
+    Method resolve(Type ... argumentTypes);
+}
@@ -0,0 +1,96 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Methods to create {@link MethodResolver} instances
+ */
+public class MethodResolvers
+{
+    /**
+     * Create a new {@link MethodResolver} that selects among the given 
+     * methods.<br>
+     * <br>
+     * The returned instance is thread-safe. It caches the resolved 
+     * methods for the argument types that it was called with. It is 
+     * intended to be used for a single call site, where the same 
+     * argument types are likely to appear repeatedly. 
+     * 
+     * @param methods The methods
+     * @return The {@link MethodResolver}
+     * @throws NullPointerException If the given sequence is 
+     * <code>null</code> or contains <code>null</code> elements
+     */
+    public static MethodResolver create(Iterable<? extends Method> methods)
+    {
+        Objects.requireNonNull(methods, "The methods are null");
+        List<Method> list = new ArrayList<Method>();
+        for (Method method : methods)
+        {
+            list.add(Objects.requireNonNull(method, "A method is null"));
+        }
+        return new DefaultMethodResolver(list);
+    }
+    
+    /**
+     * Create a new {@link MethodResolver} that selects among the public 
+     * methods of the given class that have the given name, as described
+     * in {@link #create(Iterable)}
+     * 
+     * @param c The class
+     * @param name The method name
+     * @return The {@link MethodResolver}
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static MethodResolver create(Class<?> c, String name)
+    {
+        Objects.requireNonNull(c, "The class is null");
+        Objects.requireNonNull(name, "The name is null");
+        List<Method> list = new ArrayList<Method>();
+        for (Method method : c.getMethods())
+        {
+            if (method.getName().equals(name) && !method.isBridge())
+            {
+                list.add(method);
+            }
+        }
+        return new DefaultMethodResolver(list);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MethodResolvers()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of a {@link TypeStore} that stores the type records
+ * outside of the Java heap, in direct buffers.<br>
+ * <br>
+ * Each record consists of four <code>int</code> values: The first value,
+ * the second value, the offset of the children, and the number of 
+ * children combined with the kind. The records and the child handles 
+ * are stored in segments of fixed size, so that the stored data never 
+ * has to be copied when the store grows.<br>
+ * <br>
+ * Classes are stored in a constant pool, as their UTF-8 encoded names,
+ * and are resolved with a class loader when they are accessed. The 
+ * most recently resolved classes are kept in a small cache. Classes 
+ * that can not be found by their name with the class loader, and
+ * all type variables, are stored on the heap.
+ */
+final class OffHeapTypeStore implements TypeStore
+{
+    /**
+     * The number of <code>int</code> values of each record
+     */
+    private static final int RECORD_SIZE = 4;
+    
+    /**
+     * The number of bits by which an index has to be shifted to obtain
+     * the index of its segment
+     */
+    private static final int SEGMENT_SHIFT = 16;
+    
+    /**
+     * The number of <code>int</code> values in each segment
+     */
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    
+    /**
+     * The mask for computing the index inside a segment
+     */
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    
+    /**
+     * The number of bits by which the number of children is shifted
+     * in the last value of a record
+     */
+    private static final int COUNT_SHIFT = 3;
+    
+    /**
+     * The mask for obtaining the kind from the last value of a record
+     */
+    private static final int KIND_MASK = (1 << COUNT_SHIFT) - 1;
+    
+    /**
+     * The size of the cache for resolved classes. This must be a 
+     * power of 2.
+     */
+    private static final int CLASS_CACHE_SIZE = 1024;
+    
+    /**
+     * The class loader that is used for resolving classes
+     */
+    private final ClassLoader classLoader;
+    
+    /**
+     * The number of type records
+     */
+    private int size;
+    
+    /**
+     * The segments containing the records
+     */
+    private final Segments records;
+    
+    /**
+     * The segments containing the child handles
+     */
+    private final Segments children;
+    
+    /**
+     * The number of child handles
+     */
+    private int childrenSize;
+    
+    /**
+     * The slots of the hash table
+     */
+    private IntBuffer slots;
+    
+    /**
+     * The number of slots of the hash table
+     */
+    private int slotCount;
+    
+    /**
+     * The segments containing the entries for the leaf types. An entry 
+     * that is not negative is the position of a name in the 
+     * {@link #constantPool}. Otherwise, it is <code>-(index+1)</code> 
+     * for the index of the type in the {@link #heapLeaves}.
+     */
+    private final Segments leaves;
+    
+    /**
+     * The number of leaf types
+     */
+    private int leavesSize;
+    
+    /**
+     * The constant pool, containing the names of classes, each 
+     * preceded by its length in bytes
+     */
+    private ByteBuffer constantPool;
+    
+    /**
+     * The leaf types that are stored on the heap
+     */
+    private final List<Type> heapLeaves;
+    
+    /**
+     * The indices of the leaf types in the {@link #classCache}, plus one
+     */
+    private final int classCacheIndices[];
+    
+    /**
+     * The cache for the most recently resolved classes
+     */
+    private final Class<?> classCache[];
+    
+    /**
+     * Creates a new, empty store that resolves classes with the given
+     * class loader
+     * 
+     * @param classLoader The class loader
+     */
+    OffHeapTypeStore(ClassLoader classLoader)
+    {
+        this.classLoader = classLoader;
+        this.records = new Segments();
+        this.children = new Segments();
+        this.leaves = new Segments();
+        this.constantPool = allocate(SEGMENT_SIZE);
+        this.heapLeaves = new ArrayList<Type>();
+        this.classCacheIndices = new int[CLASS_CACHE_SIZE];
+        this.classCache = new Class<?>[CLASS_CACHE_SIZE];
+        resetSlots(64);
+    }
+    
+    @Override
+    public int size()
+    {
+        return size;
+    }
+    
+    @Override
+    public int allocate(byte kind, int first, int second)
+    {
+        int handle = size;
+        int index = handle * RECORD_SIZE;
+        records.ensure(index + RECORD_SIZE - 1);
+        records.set(index, first);
+        records.set(index + 1, second);
+        records.set(index + 2, 0);
+        records.set(index + 3, kind);
+        size++;
+        return handle;
+    }
+    
+    @Override
+    public byte getKind(int handle)
+    {
+        return (byte)(records.get(handle * RECORD_SIZE + 3) & KIND_MASK);
+    }
+    
+    @Override
+    public int getFirst(int handle)
+    {
+        return records.get(handle * RECORD_SIZE);
+    }
+    
+    @Override
+    public int getSecond(int handle)
+    {
+        return records.get(handle * RECORD_SIZE + 1);
+    }
+    
+    @Override
+    public void setSecond(int handle, int second)
+    {
+        records.set(handle * RECORD_SIZE + 1, second);
+    }
+    
+    @Override
+    public int getChildOffset(int handle)
+    {
+        return records.get(handle * RECORD_SIZE + 2);
+    }
+    
+    @Override
+    public int getChildCount(int handle)
+    {
+        return records.get(handle * RECORD_SIZE + 3) >>> COUNT_SHIFT;
+    }
+    
+    @Override
+    public int getChild(int index)
+    {
+        return children.get(index);
+    }
+    
+    @Override
+    public void setChildren(int handle, int handles[])
+    {
+        int offset = childrenSize;
+        for (int i = 0; i < handles.length; i++)
+        {
+            children.ensure(offset + i);
+            children.set(offset + i, handles[i]);
+        }
+        childrenSize += handles.length;
+        int index = handle * RECORD_SIZE;
+        records.set(index + 2, offset);
+        int kind = records.get(index + 3) & KIND_MASK;
+        records.set(index + 3, (handles.length << COUNT_SHIFT) | kind);
+    }
+    
+    @Override
+    public int getSlotCount()
+    {
+        return slotCount;
+    }
+    
+    @Override
+    public int getSlot(int index)
+    {
+        return slots.get(index);
+    }
+    
+    @Override
+    public void setSlot(int index, int value)
+    {
+        slots.put(index, value);
+    }
+    
+    @Override
+    public void resetSlots(int slotCount)
+    {
+        this.slots = allocate(slotCount * Integer.BYTES).asIntBuffer();
+        this.slotCount = slotCount;
+    }
+    
+    @Override
+    public int addLeaf(Type type)
+    {
+        int entry;
+        if (type instanceof Class<?> && isResolvable((Class<?>)type))
+        {
+            entry = addName(((Class<?>)type).getName());
+        }
+        else
+        {
+            heapLeaves.add(type);
+            entry = -heapLeaves.size();
+        }
+        int index = leavesSize;
+        leaves.ensure(index);
+        leaves.set(index, entry);
+        leavesSize++;
+        return index;
+    }
+    
+    @Override
+    public Type getLeaf(int index)
+    {
+        int entry = leaves.get(index);
+        if (entry < 0)
+        {
+            return heapLeaves.get(-entry - 1);
+        }
+        int cacheIndex = index & (CLASS_CACHE_SIZE - 1);
+        if (classCacheIndices[cacheIndex] == index + 1)
+        {
+            return classCache[cacheIndex];
+        }
+        Class<?> c = resolve(readName(entry));
+        classCacheIndices[cacheIndex] = index + 1;
+        classCache[cacheIndex] = c;
+        return c;
+    }
+    
+    /**
+     * Returns whether the given class can be obtained from its name, 
+     * using the class loader of this store
+     * 
+     * @param c The class
+     * @return Whether the class can be resolved
+     */
+    private boolean isResolvable(Class<?> c)
+    {
+        try
+        {
+            return resolve(c.getName()) == c;
+        }
+        catch (IllegalStateException e)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the class with the given name
+     * 
+     * @param name The name
+     * @return The class
+     * @throws IllegalStateException If the class can not be found
+     */
+    private Class<?> resolve(String name)
+    {
+        if (PrimitiveTypes.isPrimitiveTypeName(name))
+        {
+            return PrimitiveTypes.getPrimitiveType(name);
+        }
+        if ("void".equals(name))
+        {
+            return void.class;
+        }
+        try
+        {
+            return Class.forName(name, false, classLoader);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IllegalStateException(
+                "Could not resolve class " + name, e);
+        }
+    }
+    
+    /**
+     * Add the given name to the constant pool, and return its position
+     * 
+     * @param name The name
+     * @return The position
+     */
+    private int addName(String name)
+    {
+        byte bytes[] = name.getBytes(StandardCharsets.UTF_8);
+        int required = Integer.BYTES + bytes.length;
+        if (constantPool.remaining() < required)
+        {
+            int capacity = Math.max(
+                constantPool.capacity() + required, 
+                constantPool.capacity() * 2);
+            ByteBuffer newConstantPool = allocate(capacity);
+            constantPool.flip();
+            newConstantPool.put(constantPool);
+            constantPool = newConstantPool;
+        }
+        int position = constantPool.position();
+        constantPool.putInt(bytes.length);
+        constantPool.put(bytes);
+        return position;
+    }
+    
+    /**
+     * Read the name at the given position of the constant pool
+     * 
+     * @param position The position
+     * @return The name
+     */
+    private String readName(int position)
+    {
+        int length = constantPool.getInt(position);
+        byte bytes[] = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = constantPool.get(position + Integer.BYTES + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Allocate a direct buffer with the given capacity, in native
+     * byte order
+     * 
+     * @param capacity The capacity, in bytes
+     * @return The buffer
+     */
+    private static ByteBuffer allocate(int capacity)
+    {
+        return ByteBuffer.allocateDirect(capacity).order(
+            ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * A sequence of <code>int</code> values that is stored in segments 
+     * of fixed size
+     */
+    private static final class Segments
+    {
+        /**
+         * The segments
+         */
+        private IntBuffer segments[] = new IntBuffer[0];
+        
+        /**
+         * Make sure that a segment exists for the given index
+         * 
+         * @param index The index
+         */
+        void ensure(int index)
+        {
+            int segmentIndex = index >>> SEGMENT_SHIFT;
+            if (segmentIndex < segments.length)
+            {
+                return;
+            }
+            int oldLength = segments.length;
+            segments = Arrays.copyOf(segments, segmentIndex + 1);
+            for (int i = oldLength; i <= segmentIndex; i++)
+            {
+                segments[i] = 
+                    allocate(SEGMENT_SIZE * Integer.BYTES).asIntBuffer();
+            }
+        }
+        
+        /**
+         * Returns the value at the given index
+         * 
+         * @param index The index
+         * @return The value
+         */
+        int get(int index)
+        {
+            return segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+        }
+        
+        /**
+         * Set the value at the given index
+         * 
+         * @param index The index
+         * @param value The value
+         */
+        void set(int index, int value)
+        {
+            segments[index >>> SEGMENT_SHIFT].put(index & SEGMENT_MASK, value);
+        }
+    }
+}
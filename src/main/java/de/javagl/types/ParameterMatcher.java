@@ -0,0 +1,243 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A class that checks whether an argument of a certain type may be 
+ * passed to a parameter of a certain type, in the different phases
+ * of the method resolution that are described in the JLS, section 
+ * 15.12.2, "Compile-Time Step 2: Determine Method Signature".<br>
+ * <br>
+ * For a parameter type that contains type variables, this class only
+ * checks the conditions that do not depend on the type variables, 
+ * namely whether a primitive argument requires boxing. Whether the 
+ * argument types are compatible with such parameter types has to be 
+ * checked by inferring the types of the type variables from all 
+ * arguments, via {@link TypeVariableInference#inferMap(Type[], Type[])}.
+ */
+final class ParameterMatcher
+{
+    /**
+     * The {@link TypeAssignabilityTester} for parameter types that are
+     * not classes and do not contain type variables. Type variables in
+     * the argument types are not free, and only assignable according
+     * to their bounds.
+     */
+    private static final TypeAssignabilityTester TESTER = 
+        TypeAssignabilityTesters.create();
+    
+    /**
+     * The parameter type
+     */
+    private final Type type;
+    
+    /**
+     * Whether the parameter type is primitive
+     */
+    private final boolean primitive;
+    
+    /**
+     * The parameter type, if it is a class, or <code>null</code>
+     */
+    private final Class<?> parameterClass;
+    
+    /**
+     * Whether the parameter type contains type variables
+     */
+    private final boolean generic;
+    
+    /**
+     * Creates a new matcher for the given parameter type
+     * 
+     * @param type The parameter type
+     */
+    ParameterMatcher(Type type)
+    {
+        this.type = type;
+        this.primitive = isPrimitive(type);
+        if (type instanceof Class<?>)
+        {
+            this.parameterClass = (Class<?>)type;
+        }
+        else
+        {
+            this.parameterClass = null;
+        }
+        Set<TypeVariable<?>> typeVariables = 
+            new LinkedHashSet<TypeVariable<?>>();
+        TypeVariableInference.collectTypeVariables(type, typeVariables);
+        this.generic = !typeVariables.isEmpty();
+    }
+    
+    /**
+     * Returns the parameter type
+     * 
+     * @return The parameter type
+     */
+    Type getType()
+    {
+        return type;
+    }
+    
+    /**
+     * Returns whether the parameter type contains type variables. In 
+     * this case, the matching methods only check whether the argument
+     * is a reference type.
+     * 
+     * @return Whether the parameter type is generic
+     */
+    boolean isGeneric()
+    {
+        return generic;
+    }
+    
+    /**
+     * Returns whether an argument of the given type may be passed to the
+     * parameter in a strict invocation context, which does not allow 
+     * boxing or unboxing conversions. A <code>null</code> argument type
+     * stands for the type of the <code>null</code> literal.
+     * 
+     * @param argumentType The argument type
+     * @return Whether the argument may be passed to the parameter
+     */
+    boolean matchesStrict(Type argumentType)
+    {
+        if (argumentType == null)
+        {
+            return !primitive;
+        }
+        boolean argumentPrimitive = isPrimitive(argumentType);
+        if (primitive)
+        {
+            return argumentPrimitive && 
+                isPrimitiveAssignable(type, argumentType);
+        }
+        if (argumentPrimitive)
+        {
+            return false;
+        }
+        return isReferenceAssignable(argumentType);
+    }
+    
+    /**
+     * Returns whether an argument of the given type may be passed to the
+     * parameter in a loose invocation context, which allows boxing 
+     * and unboxing conversions. A <code>null</code> argument type
+     * stands for the type of the <code>null</code> literal.
+     * 
+     * @param argumentType The argument type
+     * @return Whether the argument may be passed to the parameter
+     */
+    boolean matchesLoose(Type argumentType)
+    {
+        if (matchesStrict(argumentType))
+        {
+            return true;
+        }
+        if (argumentType == null)
+        {
+            return false;
+        }
+        if (primitive)
+        {
+            // Unboxing, followed by a widening primitive conversion
+            if (PrimitiveTypes.isBoxedPrimitiveType(argumentType))
+            {
+                return isPrimitiveAssignable(type, 
+                    PrimitiveTypes.getUnboxedType(argumentType));
+            }
+            return false;
+        }
+        if (isPrimitive(argumentType))
+        {
+            // Boxing, followed by a widening reference conversion
+            return isReferenceAssignable(
+                PrimitiveTypes.getBoxedType(argumentType));
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the parameter type, which is not primitive, is 
+     * assignable from the given reference type. If the parameter type
+     * is generic, then this is always the case, because the check has
+     * to be done by the inference.
+     * 
+     * @param argumentType The argument type
+     * @return Whether the parameter type is assignable
+     */
+    private boolean isReferenceAssignable(Type argumentType)
+    {
+        if (generic)
+        {
+            return true;
+        }
+        if (parameterClass != null && argumentType instanceof Class<?>)
+        {
+            return parameterClass.isAssignableFrom((Class<?>)argumentType);
+        }
+        return TESTER.isAssignable(type, argumentType);
+    }
+    
+    /**
+     * Returns whether the given primitive type to assign to is assignable
+     * from the given primitive type to assign from, via an identity or
+     * widening primitive conversion
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return Whether the type is assignable
+     */
+    private static boolean isPrimitiveAssignable(Type to, Type from)
+    {
+        if (to.equals(from))
+        {
+            return true;
+        }
+        if (to.equals(boolean.class) || from.equals(boolean.class))
+        {
+            return false;
+        }
+        return PrimitiveTypes.isPrimitiveAssignable(to, from);
+    }
+    
+    /**
+     * Returns whether the given type is a primitive type
+     * 
+     * @param type The type
+     * @return Whether the type is primitive
+     */
+    private static boolean isPrimitive(Type type)
+    {
+        return type instanceof Class<?> && ((Class<?>)type).isPrimitive();
+    }
+}
@@ -0,0 +1,588 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of a {@link TypeVariableMapping} that is immutable and
+ * persistent: New mappings are created with 
+ * {@link #with(TypeVariable, Type)}, which returns a new instance that
+ * shares most of its structure with this instance. This allows creating
+ * cheap snapshots of a mapping, trying out additional bindings, and 
+ * backtracking by simply going back to an earlier instance.<br>
+ * <br>
+ * The mapping is stored in a hash array mapped trie, so that 
+ * {@link #with(TypeVariable, Type)} and the direct lookups require
+ * O(log32(n)) steps.<br>
+ * <br>
+ * The chains of type variables that are followed in 
+ * {@link #get(TypeVariable)} are resolved only once per instance. 
+ * Instances of this class are thread-safe, and may therefore be 
+ * shared among multiple {@link TypeAssignabilityTester} instances.
+ */
+final class PersistentTypeVariableMapping implements TypeVariableMapping
+{
+    /**
+     * The empty mapping
+     */
+    private static final PersistentTypeVariableMapping EMPTY = 
+        new PersistentTypeVariableMapping(BitmapNode.EMPTY, 0);
+    
+    /**
+     * The number of bits of the hash code that are consumed on each 
+     * level of the trie
+     */
+    private static final int BITS_PER_LEVEL = 5;
+    
+    /**
+     * The mask for the bits of the hash code on each level of the trie
+     */
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    
+    /**
+     * The value that is stored in the {@link #resolved} map for type
+     * variables that can not be resolved to a type
+     */
+    private static final Object UNRESOLVED = new Object();
+    
+    /**
+     * Returns the empty mapping
+     * 
+     * @return The empty mapping
+     */
+    static PersistentTypeVariableMapping empty()
+    {
+        return EMPTY;
+    }
+    
+    /**
+     * The root node of the trie
+     */
+    private final Node root;
+    
+    /**
+     * The number of type variables that are mapped
+     */
+    private final int size;
+    
+    /**
+     * The results of resolving the chains of type variables in
+     * {@link #get(TypeVariable)}. This map is created lazily.
+     */
+    private volatile ConcurrentMap<TypeVariable<?>, Object> resolved;
+    
+    /**
+     * Creates a new mapping
+     * 
+     * @param root The root node
+     * @param size The size
+     */
+    private PersistentTypeVariableMapping(Node root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+    
+    /**
+     * Returns a new mapping that contains all mappings of this instance,
+     * and the given type variable mapped to the given type. If the given
+     * type is equal to the given type variable, or the type variable 
+     * already is mapped to the given type, then this instance is returned.
+     * 
+     * @param typeVariable The type variable
+     * @param type The type
+     * @return The new mapping
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    PersistentTypeVariableMapping with(
+        TypeVariable<?> typeVariable, Type type)
+    {
+        Objects.requireNonNull(typeVariable, "The typeVariable is null");
+        Objects.requireNonNull(type, "The type is null");
+        if (typeVariable.equals(type))
+        {
+            return this;
+        }
+        int hash = hash(typeVariable);
+        Node newRoot = root.with(hash, 0, typeVariable, type);
+        if (newRoot == root)
+        {
+            return this;
+        }
+        boolean added = root.find(hash, 0, typeVariable) == null;
+        return new PersistentTypeVariableMapping(
+            newRoot, added ? size + 1 : size);
+    }
+    
+    /**
+     * Returns the number of type variables that are mapped
+     * 
+     * @return The size
+     */
+    int size()
+    {
+        return size;
+    }
+    
+    /**
+     * Returns the type that the given type variable is directly mapped
+     * to, without following chains of type variables, or <code>null</code>
+     * if the given type variable is not mapped
+     * 
+     * @param typeVariable The type variable
+     * @return The type
+     */
+    Type getDirect(TypeVariable<?> typeVariable)
+    {
+        return root.find(hash(typeVariable), 0, typeVariable);
+    }
+    
+    /**
+     * Returns a list containing all type variables that are mapped
+     * 
+     * @return The type variables
+     */
+    List<TypeVariable<?>> getTypeVariables()
+    {
+        List<TypeVariable<?>> result = new ArrayList<TypeVariable<?>>(size);
+        root.collectKeys(result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * This operation is not supported. New mappings are created with 
+     * {@link #with(TypeVariable, Type)}.
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void put(TypeVariable<?> typeVariable, Type type)
+    {
+        throw new UnsupportedOperationException(
+            "The mapping is immutable");
+    }
+    
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * If the chain of type variables contains a cycle, then 
+     * <code>null</code> is returned.
+     */
+    @Override
+    public Type get(TypeVariable<?> typeVariable)
+    {
+        ConcurrentMap<TypeVariable<?>, Object> r = resolved;
+        if (r != null)
+        {
+            Object cached = r.get(typeVariable);
+            if (cached != null)
+            {
+                return cached == UNRESOLVED ? null : (Type)cached;
+            }
+        }
+        Type type = getDirect(typeVariable);
+        if (!(type instanceof TypeVariable<?>))
+        {
+            return type;
+        }
+        List<TypeVariable<?>> chain = new ArrayList<TypeVariable<?>>();
+        chain.add(typeVariable);
+        while (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> next = (TypeVariable<?>)type;
+            if (chain.contains(next))
+            {
+                type = null;
+                break;
+            }
+            chain.add(next);
+            type = getDirect(next);
+        }
+        
+        // Compress the path: All type variables in the chain are 
+        // resolved to the same type
+        if (r == null)
+        {
+            r = new ConcurrentHashMap<TypeVariable<?>, Object>();
+            resolved = r;
+        }
+        Object value = type == null ? UNRESOLVED : type;
+        for (TypeVariable<?> t : chain)
+        {
+            if (getDirect(t) != null)
+            {
+                r.put(t, value);
+            }
+        }
+        return type;
+    }
+    
+    /**
+     * Returns the hash code for the given type variable that is used
+     * in the trie.
+     * 
+     * @param typeVariable The type variable
+     * @return The hash code
+     */
+    private static int hash(TypeVariable<?> typeVariable)
+    {
+        int h = typeVariable.hashCode();
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Returns the bit that represents the given hash code on the level
+     * of the trie that is given by the shift
+     * 
+     * @param hash The hash code
+     * @param shift The shift
+     * @return The bit
+     */
+    private static int bit(int hash, int shift)
+    {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+    
+    /**
+     * A single entry of the mapping
+     */
+    private static final class Entry
+    {
+        /**
+         * The hash code of the key
+         */
+        final int hash;
+        
+        /**
+         * The key
+         */
+        final TypeVariable<?> key;
+        
+        /**
+         * The value
+         */
+        final Type value;
+        
+        /**
+         * Creates a new entry
+         * 
+         * @param hash The hash code of the key
+         * @param key The key
+         * @param value The value
+         */
+        Entry(int hash, TypeVariable<?> key, Type value)
+        {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    /**
+     * Interface for the nodes of the trie
+     */
+    private static interface Node
+    {
+        /**
+         * Find the value for the given key
+         * 
+         * @param hash The hash code of the key
+         * @param shift The shift for the level of this node
+         * @param key The key
+         * @return The value, or <code>null</code>
+         */
+        Type find(int hash, int shift, TypeVariable<?> key);
+        
+        /**
+         * Returns a node that contains all entries of this node, and
+         * the given mapping. If this node already contains the given
+         * mapping, then this node is returned.
+         * 
+         * @param hash The hash code of the key
+         * @param shift The shift for the level of this node
+         * @param key The key
+         * @param value The value
+         * @return The node
+         */
+        Node with(int hash, int shift, TypeVariable<?> key, Type value);
+        
+        /**
+         * Add all keys of this node to the given list
+         * 
+         * @param keys The keys
+         */
+        void collectKeys(List<TypeVariable<?>> keys);
+    }
+    
+    /**
+     * A node of the trie that stores its elements in a dense array that
+     * is indexed via a bitmap. The elements are either {@link Entry} 
+     * objects or child {@link Node} objects.
+     */
+    private static final class BitmapNode implements Node
+    {
+        /**
+         * The empty node
+         */
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+        
+        /**
+         * The bitmap
+         */
+        private final int bitmap;
+        
+        /**
+         * The elements
+         */
+        private final Object[] elements;
+        
+        /**
+         * Creates a new node
+         * 
+         * @param bitmap The bitmap
+         * @param elements The elements
+         */
+        BitmapNode(int bitmap, Object[] elements)
+        {
+            this.bitmap = bitmap;
+            this.elements = elements;
+        }
+        
+        /**
+         * Returns the index of the element for the given bit
+         * 
+         * @param bit The bit
+         * @return The index
+         */
+        private int index(int bit)
+        {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+        
+        @Override
+        public Type find(int hash, int shift, TypeVariable<?> key)
+        {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0)
+            {
+                return null;
+            }
+            Object element = elements[index(bit)];
+            if (element instanceof Entry)
+            {
+                Entry entry = (Entry)element;
+                if (entry.hash == hash && entry.key.equals(key))
+                {
+                    return entry.value;
+                }
+                return null;
+            }
+            Node child = (Node)element;
+            return child.find(hash, shift + BITS_PER_LEVEL, key);
+        }
+        
+        @Override
+        public Node with(int hash, int shift, TypeVariable<?> key, Type value)
+        {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0)
+            {
+                Object[] newElements = new Object[elements.length + 1];
+                System.arraycopy(elements, 0, newElements, 0, index);
+                newElements[index] = new Entry(hash, key, value);
+                System.arraycopy(elements, index, newElements, index + 1, 
+                    elements.length - index);
+                return new BitmapNode(bitmap | bit, newElements);
+            }
+            Object element = elements[index];
+            Object newElement = null;
+            if (element instanceof Entry)
+            {
+                Entry entry = (Entry)element;
+                if (entry.hash == hash && entry.key.equals(key))
+                {
+                    if (entry.value.equals(value))
+                    {
+                        return this;
+                    }
+                    newElement = new Entry(hash, key, value);
+                }
+                else
+                {
+                    newElement = createNode(entry, 
+                        new Entry(hash, key, value), shift + BITS_PER_LEVEL);
+                }
+            }
+            else
+            {
+                Node child = (Node)element;
+                Node newChild = 
+                    child.with(hash, shift + BITS_PER_LEVEL, key, value);
+                if (newChild == child)
+                {
+                    return this;
+                }
+                newElement = newChild;
+            }
+            Object[] newElements = elements.clone();
+            newElements[index] = newElement;
+            return new BitmapNode(bitmap, newElements);
+        }
+        
+        /**
+         * Create a node that contains the given entries
+         * 
+         * @param e0 The first entry
+         * @param e1 The second entry
+         * @param shift The shift for the level of the new node
+         * @return The node
+         */
+        private static Node createNode(Entry e0, Entry e1, int shift)
+        {
+            if (e0.hash == e1.hash)
+            {
+                return new CollisionNode(e0.hash, new Entry[] { e0, e1 });
+            }
+            return EMPTY
+                .with(e0.hash, shift, e0.key, e0.value)
+                .with(e1.hash, shift, e1.key, e1.value);
+        }
+        
+        @Override
+        public void collectKeys(List<TypeVariable<?>> keys)
+        {
+            for (Object element : elements)
+            {
+                if (element instanceof Entry)
+                {
+                    keys.add(((Entry)element).key);
+                }
+                else
+                {
+                    ((Node)element).collectKeys(keys);
+                }
+            }
+        }
+    }
+    
+    /**
+     * A node of the trie that stores entries whose keys have the
+     * same hash code
+     */
+    private static final class CollisionNode implements Node
+    {
+        /**
+         * The hash code of all entries
+         */
+        private final int hash;
+        
+        /**
+         * The entries
+         */
+        private final Entry[] entries;
+        
+        /**
+         * Creates a new node
+         * 
+         * @param hash The hash code of all entries
+         * @param entries The entries
+         */
+        CollisionNode(int hash, Entry[] entries)
+        {
+            this.hash = hash;
+            this.entries = entries;
+        }
+        
+        @Override
+        public Type find(int hash, int shift, TypeVariable<?> key)
+        {
+            if (this.hash != hash)
+            {
+                return null;
+            }
+            for (Entry entry : entries)
+            {
+                if (entry.key.equals(key))
+                {
+                    return entry.value;
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public Node with(int hash, int shift, TypeVariable<?> key, Type value)
+        {
+            if (this.hash != hash)
+            {
+                // Push this node one level down, into a bitmap node
+                // that may then also contain the new entry
+                BitmapNode node = new BitmapNode(
+                    bit(this.hash, shift), new Object[] { this });
+                return node.with(hash, shift, key, value);
+            }
+            for (int i = 0; i < entries.length; i++)
+            {
+                Entry entry = entries[i];
+                if (entry.key.equals(key))
+                {
+                    if (entry.value.equals(value))
+                    {
+                        return this;
+                    }
+                    Entry[] newEntries = entries.clone();
+                    newEntries[i] = new Entry(hash, key, value);
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            Entry[] newEntries = new Entry[entries.length + 1];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            newEntries[entries.length] = new Entry(hash, key, value);
+            return new CollisionNode(hash, newEntries);
+        }
+        
+        @Override
+        public void collectKeys(List<TypeVariable<?>> keys)
+        {
+            for (Entry entry : entries)
+            {
+                keys.add(entry.key);
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,110 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Methods for initializing the internal tables and caches ahead of the 
+ * first calls to the main entry points, to reduce the latency of these
+ * calls.
+ */
+class Preloading
+{
+    /**
+     * Initializes the classes that are involved in the main entry points,
+     * and the caches for the given classes and their supertypes.
+     * 
+     * @param classes The classes
+     * @throws NullPointerException If the given array is <code>null</code>
+     * or contains <code>null</code> elements
+     */
+    static void preload(Class<?> ... classes)
+    {
+        Objects.requireNonNull(classes, "The classes are null");
+        for (Class<?> c : classes)
+        {
+            Objects.requireNonNull(c, "A class is null");
+        }
+        EntryPoints.initialize();
+        for (Class<?> c : classes)
+        {
+            for (Class<?> supertype : ClassHierarchy.getRawSupertypes(c))
+            {
+                ClassHierarchy.getDirectRawSupertypes(supertype);
+                ClassHierarchy.getDirectGenericSupertypes(supertype);
+                supertype.getTypeParameters();
+            }
+            Type type = Types.asParameterizedType(c);
+            Types.isAssignable(type, type);
+        }
+    }
+    
+    /**
+     * A class whose initialization calls the main entry points once. The 
+     * JVM guarantees that this happens only once, and that concurrent 
+     * callers of {@link #initialize()} wait until it is completed.
+     */
+    private static final class EntryPoints
+    {
+        static
+        {
+            Type number = Types.parse("java.lang.Number");
+            Type list = Types.parse(
+                "java.util.List<? extends java.lang.Number>");
+            Type arrayList = Types.create(ArrayList.class, Integer.class);
+            Types.isAssignable(number, int.class);
+            Types.isAssignable(list, arrayList);
+            Types.isAssignable(int.class, Integer.class);
+            Types.stringFor(list);
+            Types.inferTypeVariables(
+                Types.asParameterizedType(List.class), arrayList);
+            Supertypes.computeSupertypes(arrayList);
+            Types.leastUpperBound(Arrays.asList(Integer.class, Long.class));
+        }
+        
+        /**
+         * Makes sure that this class is initialized
+         */
+        static void initialize()
+        {
+            // Calling this method triggers the class initialization
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Preloading()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -74,6 +74,20 @@ public class PrimitiveTypes
         boxedToUnboxed.put(Double.class, double.class);
     }
     
+    /**
+     * The table storing whether a class is a boxed primitive type. This
+     * avoids the hashing of the class in the {@link #boxedToUnboxed} map.
+     */
+    private static final ClassValue<Boolean> boxedClasses = 
+        new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> c)
+        {
+            return boxedToUnboxed.containsKey(c);
+        }
+    };
+    
     /**
      * The map from primitive types to their direct primitive supertypes.
      * 
@@ -194,6 +208,20 @@ public class PrimitiveTypes
         return boxedToUnboxed.keySet().contains(type);
     }
     
+    /**
+     * Returns whether the given class is a boxed primitive type, like
+     * <code>Integer.class</code> or <code>Boolean.class</code>. This 
+     * is equivalent to {@link #isBoxedPrimitiveType(Type)}, but uses
+     * a precomputed table for the classes.
+     * 
+     * @param c The class
+     * @return Whether the class is a boxed primitive type
+     */
+    static boolean isBoxedPrimitiveClass(Class<?> c)
+    {
+        return boxedClasses.get(c);
+    }
+    
     /**
      * Returns the boxed type of the given type. That is, this method
      * returns <code>Boolean.class</code> for a given 
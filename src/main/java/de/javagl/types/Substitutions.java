@@ -0,0 +1,246 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility methods for substituting type variables in types
+ */
+class Substitutions
+{
+    /**
+     * Returns the type that results from replacing all type variables 
+     * in the given type that are contained in the given map with the
+     * types that they are mapped to. Type variables that are not 
+     * contained in the map remain unmodified. If the type does not
+     * contain any type variable that has to be replaced, then the 
+     * given type is returned.<br>
+     * <br>
+     * The map is not consulted recursively: If <code>T</code> is mapped 
+     * to <code>U</code>, and <code>U</code> is mapped to 
+     * <code>String</code>, then <code>T</code> will be replaced with 
+     * <code>U</code>. 
+     * 
+     * @param type The type
+     * @param map The mapping from type variables to types
+     * @return The resulting type
+     */
+    static Type substitute(Type type, Map<? extends Type, ? extends Type> map)
+    {
+        if (map.isEmpty())
+        {
+            return type;
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            Type mapped = map.get(type);
+            if (mapped != null)
+            {
+                return mapped;
+            }
+            return type;
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type ownerType = parameterizedType.getOwnerType();
+            Type newOwnerType = null;
+            boolean changed = false;
+            if (ownerType != null)
+            {
+                newOwnerType = substitute(ownerType, map);
+                changed = newOwnerType != ownerType;
+            }
+            Type[] typeArguments = 
+                parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < typeArguments.length; i++)
+            {
+                Type typeArgument = typeArguments[i];
+                typeArguments[i] = substitute(typeArgument, map);
+                changed |= typeArguments[i] != typeArgument;
+            }
+            if (!changed)
+            {
+                return type;
+            }
+            return new DefaultParameterizedType(
+                parameterizedType.getRawType(), newOwnerType, typeArguments);
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            Type[] lowerBounds = wildcardType.getLowerBounds();
+            Type[] upperBounds = wildcardType.getUpperBounds();
+            boolean changed = substituteAll(lowerBounds, map);
+            changed |= substituteAll(upperBounds, map);
+            if (!changed)
+            {
+                return type;
+            }
+            return new DefaultWildcardType(lowerBounds, upperBounds);
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            Type componentType = genericArrayType.getGenericComponentType();
+            Type newComponentType = substitute(componentType, map);
+            if (newComponentType == componentType)
+            {
+                return type;
+            }
+            return createArrayType(newComponentType);
+        }
+        return type;
+    }
+    
+    /**
+     * Substitute the type variables in all elements of the given array,
+     * as described in {@link #substitute(Type, Map)}, and store the
+     * results in the given array.
+     * 
+     * @param types The types
+     * @param map The mapping from type variables to types
+     * @return Whether any element of the array was changed
+     */
+    private static boolean substituteAll(
+        Type[] types, Map<? extends Type, ? extends Type> map)
+    {
+        boolean changed = false;
+        for (int i = 0; i < types.length; i++)
+        {
+            Type type = types[i];
+            types[i] = substitute(type, map);
+            changed |= types[i] != type;
+        }
+        return changed;
+    }
+    
+    /**
+     * Creates an array type with the given component type. If the 
+     * component type is a class, then the array class is returned.
+     * Otherwise, a GenericArrayType is returned.
+     * 
+     * @param componentType The component type
+     * @return The array type
+     */
+    static Type createArrayType(Type componentType)
+    {
+        if (componentType instanceof Class<?>)
+        {
+            Class<?> componentClass = (Class<?>)componentType;
+            return Array.newInstance(componentClass, 0).getClass();
+        }
+        return new DefaultGenericArrayType(componentType);
+    }
+    
+    /**
+     * Returns the supertype of the given type whose raw type is the
+     * given class, with all type variables of the supertype replaced 
+     * by the type arguments that are given by the given type.<br>
+     * <br>
+     * For example, for the type <code>HashMap&lt;String, Float&gt;</code>
+     * and the class <code>Map</code>, this method returns the type
+     * <code>Map&lt;String, Float&gt;</code>.<br>
+     * <br>
+     * If the given type is a raw type of a generic class, then the 
+     * given class is returned. If the given type is neither a class 
+     * nor a parameterized type, or the given class is not a supertype 
+     * of the given type, then <code>null</code> is returned.
+     * 
+     * @param type The type
+     * @param target The raw type of the supertype
+     * @return The supertype
+     */
+    static Type asSupertype(Type type, Class<?> target)
+    {
+        Class<?> rawType = null;
+        if (type instanceof Class<?>)
+        {
+            rawType = (Class<?>)type;
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            rawType = Types.getRawType((ParameterizedType)type);
+        }
+        if (rawType == null || !target.isAssignableFrom(rawType))
+        {
+            return null;
+        }
+        if (rawType.equals(target))
+        {
+            return type;
+        }
+        if (target.equals(Object.class))
+        {
+            return Object.class;
+        }
+        if (type instanceof Class<?> && 
+            rawType.getTypeParameters().length > 0)
+        {
+            return target;
+        }
+        Map<TypeVariable<?>, Type> map = new HashMap<TypeVariable<?>, Type>();
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type[] typeArguments = 
+                parameterizedType.getActualTypeArguments();
+            TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+            for (int i = 0; i < typeParameters.length; i++)
+            {
+                map.put(typeParameters[i], typeArguments[i]);
+            }
+        }
+        for (Type genericSupertype : 
+            ClassHierarchy.getDirectGenericSupertypes(rawType))
+        {
+            Type result = 
+                asSupertype(substitute(genericSupertype, map), target);
+            if (result != null)
+            {
+                return result;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Substitutions()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits for the computation of supertypes with
+ * {@link Supertypes#computeSupertypes(java.lang.reflect.Type, 
+ * SupertypeBudget)}.<br>
+ * <br>
+ * Instances of this class are immutable. A budget without limits may be 
+ * obtained with {@link #unlimited()}, and budgets with limits may be 
+ * derived from it:
+ * <pre><code>
+ * SupertypeBudget budget = SupertypeBudget.unlimited()
+ *     .withMaxResults(10000)
+ *     .withMaxDomainProductSize(1000)
+ *     .withTimeout(50, TimeUnit.MILLISECONDS);
+ * </code></pre>
+ */
+public final class SupertypeBudget
+{
+    /**
+     * The budget without limits
+     */
+    private static final SupertypeBudget UNLIMITED = 
+        new SupertypeBudget(Integer.MAX_VALUE, Long.MAX_VALUE, 0);
+    
+    /**
+     * Returns a budget without limits
+     * 
+     * @return The budget
+     */
+    public static SupertypeBudget unlimited()
+    {
+        return UNLIMITED;
+    }
+    
+    /**
+     * The maximum number of supertypes
+     */
+    private final int maxResults;
+    
+    /**
+     * The maximum size of the cartesian product of type argument domains
+     */
+    private final long maxDomainProductSize;
+    
+    /**
+     * The timeout, in nanoseconds, or 0 if there is no timeout
+     */
+    private final long timeoutNanos;
+    
+    /**
+     * Creates a new budget
+     * 
+     * @param maxResults The maximum number of supertypes
+     * @param maxDomainProductSize The maximum product size
+     * @param timeoutNanos The timeout in nanoseconds, or 0
+     */
+    private SupertypeBudget(
+        int maxResults, long maxDomainProductSize, long timeoutNanos)
+    {
+        this.maxResults = maxResults;
+        this.maxDomainProductSize = maxDomainProductSize;
+        this.timeoutNanos = timeoutNanos;
+    }
+    
+    /**
+     * Returns a budget that is equal to this one, but with the given 
+     * maximum number of supertypes that may be computed
+     * 
+     * @param maxResults The maximum number of supertypes
+     * @return The new budget
+     * @throws IllegalArgumentException If the given number is not positive
+     */
+    public SupertypeBudget withMaxResults(int maxResults)
+    {
+        if (maxResults <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum number of results must be positive, but is "
+                + maxResults);
+        }
+        return new SupertypeBudget(
+            maxResults, maxDomainProductSize, timeoutNanos);
+    }
+    
+    /**
+     * Returns a budget that is equal to this one, but with the given
+     * maximum size of the cartesian product of the type argument domains. 
+     * For a parameterized type like <code>Map&lt;K,V&gt;</code>, this is
+     * the maximum number of parameterized supertypes that are created 
+     * for each generic supertype, from the combinations of the supertypes 
+     * of <code>K</code> and <code>V</code>.  
+     * 
+     * @param maxDomainProductSize The maximum product size
+     * @return The new budget
+     * @throws IllegalArgumentException If the given size is not positive
+     */
+    public SupertypeBudget withMaxDomainProductSize(long maxDomainProductSize)
+    {
+        if (maxDomainProductSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum domain product size must be positive, but is "
+                + maxDomainProductSize);
+        }
+        return new SupertypeBudget(
+            maxResults, maxDomainProductSize, timeoutNanos);
+    }
+    
+    /**
+     * Returns a budget that is equal to this one, but with the given
+     * timeout. The deadline of the computation is determined from the
+     * timeout when the computation starts.
+     * 
+     * @param timeout The timeout
+     * @param unit The unit of the timeout
+     * @return The new budget
+     * @throws NullPointerException If the unit is <code>null</code>
+     * @throws IllegalArgumentException If the timeout is not positive
+     */
+    public SupertypeBudget withTimeout(long timeout, TimeUnit unit)
+    {
+        Objects.requireNonNull(unit, "The unit is null");
+        if (timeout <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The timeout must be positive, but is " + timeout);
+        }
+        return new SupertypeBudget(
+            maxResults, maxDomainProductSize, unit.toNanos(timeout));
+    }
+    
+    /**
+     * Returns the maximum number of supertypes that may be computed
+     * 
+     * @return The maximum number of supertypes
+     */
+    public int getMaxResults()
+    {
+        return maxResults;
+    }
+    
+    /**
+     * Returns the maximum size of the cartesian product of the type 
+     * argument domains
+     * 
+     * @return The maximum product size
+     */
+    public long getMaxDomainProductSize()
+    {
+        return maxDomainProductSize;
+    }
+    
+    /**
+     * Returns the timeout, in the given unit, or 0 if there is no timeout
+     * 
+     * @param unit The unit
+     * @return The timeout
+     * @throws NullPointerException If the unit is <code>null</code>
+     */
+    public long getTimeout(TimeUnit unit)
+    {
+        Objects.requireNonNull(unit, "The unit is null");
+        return unit.convert(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Returns the timeout in nanoseconds, or 0 if there is no timeout
+     * 
+     * @return The timeout
+     */
+    long getTimeoutNanos()
+    {
+        return timeoutNanos;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "SupertypeBudget[maxResults=" + maxResults
+            + ", maxDomainProductSize=" + maxDomainProductSize
+            + ", timeoutNanos=" + timeoutNanos + "]";
+    }
+}
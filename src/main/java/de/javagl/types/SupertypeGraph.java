@@ -0,0 +1,103 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Interface for a directed acyclic graph that describes the supertypes of
+ * a type. The nodes of the graph are the supertypes of the type, as 
+ * computed by {@link Supertypes#computeSupertypes(Type)}. The edges of
+ * the graph connect each node with its direct supertypes. Instances of
+ * classes implementing this interface may be obtained with
+ * {@link Supertypes#computeSupertypeGraph(Type)}.
+ */
+public interface SupertypeGraph
+{
+    /**
+     * Returns the type for which this graph was computed. This is the
+     * only node of the graph that has no subtypes in the graph.
+     * 
+     * @return The type
+     */
+    Type getType();
+    
+    /**
+     * Returns an unmodifiable set containing all nodes of this graph. 
+     * The iteration order of this set is the order of the set that is
+     * returned by {@link Supertypes#computeSupertypes(Type)}.
+     * 
+     * @return The nodes
+     */
+    Set<Type> getNodes();
+    
+    /**
+     * Returns an unmodifiable set containing the direct supertypes of 
+     * the given node. This will be an empty set if the given type is 
+     * not a node of this graph, or if it has no supertypes in this graph.
+     * 
+     * @param node The node
+     * @return The direct supertypes
+     */
+    Set<Type> getDirectSupertypes(Type node);
+    
+    /**
+     * Returns an unmodifiable set containing the direct subtypes of 
+     * the given node. This will be an empty set if the given type is 
+     * not a node of this graph, or if it has no subtypes in this graph.
+     * 
+     * @param node The node
+     * @return The direct subtypes
+     */
+    Set<Type> getDirectSubtypes(Type node);
+    
+    /**
+     * Returns the distance between the {@link #getType() type} of this
+     * graph and the given supertype. This is the length of the shortest
+     * path from the type to the given supertype. The distance of the 
+     * type to itself is 0, and the distance to its direct supertypes 
+     * is 1. 
+     * 
+     * @param supertype The supertype
+     * @return The distance, or -1 if the given type is not a node
+     * of this graph
+     */
+    int getDistance(Type supertype);
+    
+    /**
+     * Returns the length of the shortest path from the given subtype
+     * to the given supertype in this graph.
+     * 
+     * @param subtype The subtype
+     * @param supertype The supertype
+     * @return The distance, or -1 if either type is not a node of this 
+     * graph, or the given supertype is not reachable from the given
+     * subtype
+     */
+    int getDistance(Type subtype, Type supertype);
+}
@@ -0,0 +1,90 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * The result of a computation of supertypes with a 
+ * {@link SupertypeBudget}, as returned by
+ * {@link Supertypes#computeSupertypes(Type, SupertypeBudget)}
+ */
+public final class SupertypeResult
+{
+    /**
+     * The supertypes
+     */
+    private final Set<Type> supertypes;
+    
+    /**
+     * Whether the computation was truncated
+     */
+    private final boolean truncated;
+    
+    /**
+     * Creates a new result
+     * 
+     * @param supertypes The supertypes
+     * @param truncated Whether the computation was truncated
+     */
+    SupertypeResult(Set<Type> supertypes, boolean truncated)
+    {
+        this.supertypes = supertypes;
+        this.truncated = truncated;
+    }
+    
+    /**
+     * Returns an unmodifiable set containing the supertypes that have 
+     * been computed. If the computation was {@link #isTruncated() 
+     * truncated}, then this will only be a subset of all supertypes.
+     * 
+     * @return The supertypes
+     */
+    public Set<Type> getSupertypes()
+    {
+        return supertypes;
+    }
+    
+    /**
+     * Returns whether the computation was stopped because one of the 
+     * limits of the budget was reached
+     * 
+     * @return Whether the computation was truncated
+     */
+    public boolean isTruncated()
+    {
+        return truncated;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "SupertypeResult[" + supertypes.size() + " supertypes"
+            + (truncated ? ", truncated" : "") + "]";
+    }
+}
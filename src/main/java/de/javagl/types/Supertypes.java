@@ -33,10 +33,13 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -92,11 +95,9 @@ public class Supertypes
         }
         Class<?> c = Types.asClass(type);
         result.add(c);
-        Type superclass = c.getSuperclass();
-        collectRawSupertypes(superclass, result);
-        for (Type i : c.getInterfaces())
+        for (Type supertype : ClassHierarchy.getDirectRawSupertypes(c))
         {
-            collectRawSupertypes(i, result);
+            collectRawSupertypes(supertype, result);
         }
     }
     
@@ -158,11 +159,10 @@ public class Supertypes
             throw new IllegalArgumentException(
                 "Can not extract generic supertypes from "+type);
         }
-        Type genericSuperclass = c.getGenericSuperclass();
-        collectGenericSupertypes(genericSuperclass, result);
-        for (Type genericInterface : c.getGenericInterfaces())
+        for (Type genericSupertype : 
+            ClassHierarchy.getDirectGenericSupertypes(c))
         {
-            collectGenericSupertypes(genericInterface, result);
+            collectGenericSupertypes(genericSupertype, result);
         }
     }
     
@@ -232,52 +232,145 @@ public class Supertypes
      */
     public static Set<Type> computeSupertypes(Type type)
     {
+        Object event = TypeEvents.beginSupertypes();
         Set<Type> result = new LinkedHashSet<Type>();
-        collectSupertypes(new LinkedHashSet<Type>(), type, result);
+        Context context = new Context(SupertypeBudget.unlimited());
+        try
+        {
+            collectSupertypes(context, type, result);
+        }
+        finally
+        {
+            TypeEvents.endSupertypes(
+                event, type, context.maxDepth, result.size());
+        }
         return Collections.unmodifiableSet(result);
     }
     
+    /**
+     * Computes the supertypes of the given type, as described in 
+     * {@link #computeSupertypes(Type)}, but stops the computation when
+     * one of the limits of the given budget is reached.<br>
+     * <br>
+     * The number of supertypes of a type with nested type arguments may 
+     * be very large. For example, a type like 
+     * <code>Map&lt;Map&lt;String, Integer&gt;, Map&lt;Long, 
+     * List&lt;Double&gt;&gt;&gt;</code> has millions of supertypes, 
+     * due to the combinations of the supertypes of the type arguments. 
+     * This method may be used to compute a subset of the supertypes in 
+     * bounded time and memory. If the returned result is 
+     * {@link SupertypeResult#isTruncated() truncated}, then it contains 
+     * only a subset of the supertypes.
+     * 
+     * @param type The type
+     * @param budget The budget
+     * @return The result
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static SupertypeResult computeSupertypes(
+        Type type, SupertypeBudget budget)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        Objects.requireNonNull(budget, "The budget is null");
+        Object event = TypeEvents.beginSupertypes();
+        Set<Type> result = new LinkedHashSet<Type>();
+        Context context = new Context(budget);
+        try
+        {
+            collectSupertypes(context, type, result);
+        }
+        finally
+        {
+            TypeEvents.endSupertypes(
+                event, type, context.maxDepth, result.size());
+        }
+        if (result.size() > budget.getMaxResults())
+        {
+            Set<Type> limited = new LinkedHashSet<Type>();
+            for (Type supertype : result)
+            {
+                if (limited.size() == budget.getMaxResults())
+                {
+                    break;
+                }
+                limited.add(supertype);
+            }
+            result = limited;
+            context.truncated = true;
+        }
+        return new SupertypeResult(
+            Collections.unmodifiableSet(result), context.truncated);
+    }
+    
+    /**
+     * Computes the {@link SupertypeGraph} for the given type. The nodes 
+     * of this graph are the supertypes that are computed with 
+     * {@link #computeSupertypes(Type)}, and the edges connect each 
+     * supertype with its direct supertypes. For example, in the graph of
+     * <code>Set&lt;Integer&gt;</code>, the direct supertypes of
+     * <code>Set&lt;Integer&gt;</code> are the raw type <code>Set</code>,
+     * the generic parent <code>Collection&lt;Integer&gt;</code> and 
+     * the wildcard generalizations like 
+     * <code>Set&lt;? extends Number&gt;</code>.<br>
+     * <br>
+     * The graph allows computing the distance between a type and its
+     * supertypes, which may be used for selecting the most specific 
+     * one among several supertypes.
+     * 
+     * @param type The type
+     * @return The supertype graph
+     * @throws NullPointerException If the given type is <code>null</code>
+     * @throws IllegalArgumentException If the type or one of its 
+     * supertypes is of an unknown type
+     */
+    public static SupertypeGraph computeSupertypeGraph(Type type)
+    {
+        Objects.requireNonNull(type, "The type is null");
+        return new DefaultSupertypeGraph(type);
+    }
+    
     /**
      * Returns an unmodifiable set containing all supertypes of the
      * given type. <br>
      * <br>
-     * The given stack stores all parameterized types for which the 
-     * computation of supertypes is currently in progress. This stack is 
-     * used to resolve the cases where a type has an infinite number of
-     * supertypes. Whenever this method is called with a type that is
-     * already on the stack, the computation will stop and an empty
-     * set will be returned.
+     * The given context keeps track of all parameterized types for 
+     * which the computation of supertypes is currently in progress. 
+     * This is used to resolve the cases where a type has an infinite 
+     * number of supertypes. Whenever this method is called with a type 
+     * whose computation is already in progress, the computation will 
+     * stop and an empty set will be returned.
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param type The type
      * @return The set containing all supertypes of the given type
      */
     private static Set<Type> collectSupertypes(
-        Set<Type> typeStack, Type type)
+        Context context, Type type)
     {
-        // TODO This type stack thing is not very elegant and should be reviewed
         Set<Type> result = new LinkedHashSet<Type>();
-        collectSupertypes(typeStack, type, result);
+        collectSupertypes(context, type, result);
         return Collections.unmodifiableSet(result);
     }
     
     /**
      * Stores all supertypes of the given type in the given set
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param type The type
      * @param result The set storing all supertypes
      */
     private static void collectSupertypes(
-        Set<Type> typeStack, Type type, Set<Type> result)
+        Context context, Type type, Set<Type> result)
     {
         if (type == null)
         {
             return;
         }
-        if (typeStack.contains(type))
+        if (context.isInProgress(type))
+        {
+            return;
+        }
+        if (context.isExhausted(result, type))
         {
             return;
         }
@@ -286,27 +379,27 @@ public class Supertypes
         if (type instanceof Class<?>)
         {
             Class<?> c = (Class<?>)type;
-            collectSupertypesOfClass(typeStack, c, result);
+            collectSupertypesOfClass(context, c, result);
         }     
         else if (type instanceof ParameterizedType)
         {
-            typeStack.add(type);
             ParameterizedType parameterizedType = (ParameterizedType)type;
+            context.enter(parameterizedType);
             collectSupertypesOfParameterizedType(
-                typeStack, parameterizedType, result);
-            typeStack.remove(type);
+                context, parameterizedType, result);
+            context.exit();
         }
         else if (type instanceof WildcardType)
         {
             WildcardType wildcardType = (WildcardType)type;
             collectSupertypesOfUpperBoundedType(
-                typeStack, wildcardType.getUpperBounds(), result);
+                context, TypeViews.upperBounds(wildcardType), result);
         }
         else if (type instanceof TypeVariable<?>)
         {
             TypeVariable<?> typeVariable = (TypeVariable<?>)type;
             collectSupertypesOfUpperBoundedType(
-                typeStack, typeVariable.getBounds(), result);
+                context, TypeViews.bounds(typeVariable), result);
         }
         else if (type instanceof GenericArrayType)
         {
@@ -326,19 +419,16 @@ public class Supertypes
     /**
      * Stores all supertypes of the given class in the given set
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param c The class
      * @param result The set storing all supertypes
      */
     private static void collectSupertypesOfClass(
-        Set<Type> typeStack, Class<?> c, Set<Type> result)
+        Context context, Class<?> c, Set<Type> result)
     {
-        Type superclass = c.getSuperclass();
-        collectSupertypes(typeStack, superclass, result);
-        for (Type i : c.getInterfaces())
+        for (Type supertype : ClassHierarchy.getDirectRawSupertypes(c))
         {
-            collectSupertypes(typeStack, i, result);
+            collectSupertypes(context, supertype, result);
         }
     }
 
@@ -347,42 +437,51 @@ public class Supertypes
      * Collect all supertypes of the given parameterized type, and store
      * them in the given set
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param parameterizedType The parameterized type
      * @param result The set storing all supertypes of the given type
      */
     private static void collectSupertypesOfParameterizedType(
-        Set<Type> typeStack, ParameterizedType parameterizedType, 
+        Context context, ParameterizedType parameterizedType, 
         Set<Type> result)
     {
         Set<Type> rawSupertypes = computeRawSupertypes(parameterizedType);
         result.addAll(rawSupertypes);
         
+        Set<ParameterizedType> parameterizedSupertypes = 
+            context.getGenericSupertypes(parameterizedType);
         Map<Type, Type> typeParameterToTypeArgumentMap = 
-            createTypeParameterToTypeArgumentMap(parameterizedType);
+            context.getTypeParameterToTypeArgumentMap(parameterizedType);
         
-        Set<ParameterizedType> parameterizedSupertypes = 
-            computeGenericSupertypes(parameterizedType);
         for (ParameterizedType parameterizedSupertype : parameterizedSupertypes)
         {
             Class<?> rawSupertype = Types.getRawType(parameterizedSupertype);
 
             List<List<Type>> supertypeTypeArgumentDomain = 
                 computeSupertypeTypeArgumentDomain(
-                    typeStack,  
+                    context,  
                     parameterizedSupertype, typeParameterToTypeArgumentMap);
             
             Iterable<List<Type>> supertypeTypeArgumentCombinationIterable =
                 Iterables.cartesianProduct(supertypeTypeArgumentDomain);
             
+            long remaining = context.maxDomainProductSize;
             for (List<Type> supertypeTypeArgumentCombination : 
                 supertypeTypeArgumentCombinationIterable)
             {
+                if (remaining-- == 0)
+                {
+                    context.truncated = true;
+                    break;
+                }
                 Type[] supertypeTypeArguments = 
                     supertypeTypeArgumentCombination.toArray(new Type[0]);
                 Type supertype = Types.createParameterizedType(
                     rawSupertype, null, supertypeTypeArguments);
+                if (context.isExhausted(result, supertype))
+                {
+                    return;
+                }
                 result.add(supertype);
             }
         }
@@ -419,19 +518,35 @@ public class Supertypes
      */
     static Map<Type, Type> createTypeParameterToTypeArgumentMap(
         Type type)
+    {
+        return createTypeParameterToTypeArgumentMap(
+            computeGenericSupertypes(type));
+    }
+    
+    /**
+     * Creates an unmodifiable map from the type parameters of the given 
+     * parameterized supertypes of a type to the actual type arguments,
+     * as described in {@link #createTypeParameterToTypeArgumentMap(Type)}
+     * 
+     * @param parameterizedSupertypes The 
+     * {@link #computeGenericSupertypes(Type) generic supertypes} of a type
+     * @return The mapping of type parameters to type arguments
+     * @throws IllegalArgumentException If the raw type of one of the 
+     * parameterized types is not a Class.
+     */
+    private static Map<Type, Type> createTypeParameterToTypeArgumentMap(
+        Set<ParameterizedType> parameterizedSupertypes)
     {
         Map<Type, Type> typeParameterToTypeArgument = 
             new LinkedHashMap<Type, Type>();
-
-        Set<ParameterizedType> parameterizedSupertypes = 
-            computeGenericSupertypes(type);
         for (ParameterizedType parameterizedSupertype : parameterizedSupertypes)
         {
             Type[] typeArguments = 
-                parameterizedSupertype.getActualTypeArguments();
+                TypeViews.typeArguments(parameterizedSupertype);
             
             Class<?> rawType = Types.getRawType(parameterizedSupertype);
-            TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+            TypeVariable<?>[] typeParameters = 
+                TypeViews.typeParameters(rawType);
             for (int i = 0; i < typeParameters.length; i++)
             {
                 Type typeParameter = typeParameters[i];
@@ -503,8 +618,7 @@ public class Supertypes
      * {@link #computeGenericSupertypes(Type) generic supertypes} of 
      * <code>HashMap</code>. 
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param parameterizedSupertype The parameterized type for which the
      * domain should be computed
      * @param typeParameterToTypeArgumentMap The map from type parameters
@@ -512,13 +626,13 @@ public class Supertypes
      * @return The type argument domain
      */
     private static List<List<Type>> computeSupertypeTypeArgumentDomain(
-        Set<Type> typeStack,  
+        Context context,  
         ParameterizedType parameterizedSupertype, 
         Map<Type, Type> typeParameterToTypeArgumentMap)
     {
         List<List<Type>> domain = new ArrayList<List<Type>>();
         Type supertypeArguments[] = 
-            parameterizedSupertype.getActualTypeArguments();
+            TypeViews.typeArguments(parameterizedSupertype);
         for (Type supertypeArgument : supertypeArguments)
         {
             Type instantiatedSupertypeArgument = supertypeArgument;
@@ -527,16 +641,39 @@ public class Supertypes
                 instantiatedSupertypeArgument = 
                     typeParameterToTypeArgumentMap.get(supertypeArgument);
             }
-            Set<Type> supertypeTypeArguments = 
-                computeSupertypesWithWildcards(
-                    typeStack,  
-                    instantiatedSupertypeArgument);
-            
-            domain.add(Collections.unmodifiableList(
-                new ArrayList<Type>(supertypeTypeArguments)));
+            domain.add(computeTypeArgumentDomain(
+                context, instantiatedSupertypeArgument));
         }
         return Collections.unmodifiableList(domain);
     }
+    
+    /**
+     * Returns an unmodifiable list containing the elements of the
+     * {@link #computeSupertypesWithWildcards(Context, Type) supertypes
+     * with wildcards} of the given type argument. The result is 
+     * memoized in the given context. 
+     * 
+     * @param context The context of the computation
+     * @param typeArgument The type argument
+     * @return The list of possible type arguments for supertypes
+     */
+    private static List<Type> computeTypeArgumentDomain(
+        Context context, Type typeArgument)
+    {
+        Map<Type, List<Type>> typeArgumentDomains = 
+            context.getTypeArgumentDomains(typeArgument);
+        List<Type> typeArgumentDomain = 
+            typeArgumentDomains.get(typeArgument);
+        if (typeArgumentDomain == null)
+        {
+            Set<Type> supertypesWithWildcards = 
+                computeSupertypesWithWildcards(context, typeArgument);
+            typeArgumentDomain = Collections.unmodifiableList(
+                new ArrayList<Type>(supertypesWithWildcards));
+            typeArgumentDomains.put(typeArgument, typeArgumentDomain);
+        }
+        return typeArgumentDomain;
+    }
 
     /**
      * Compute the unmodifiable set containing all supertypes of the
@@ -564,28 +701,27 @@ public class Supertypes
      * {@link #computeGenericSupertypes(Type) generic supertypes} of 
      * <code>List</code>. 
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param type The type
      * @return The supertypes, including wildcard types
      */
     private static Set<Type> computeSupertypesWithWildcards(
-        Set<Type> typeStack, Type type)
+        Context context, Type type)
     {
         if (type instanceof WildcardType)
         {
             WildcardType wildcardType = (WildcardType)type;
             return computeSupertypesOfUpperBoundedType(
-                typeStack, wildcardType.getUpperBounds());
+                context, TypeViews.upperBounds(wildcardType));
         }
         else if (type instanceof TypeVariable<?>)
         {
             TypeVariable<?> typeVariable = (TypeVariable<?>)type;
             return computeSupertypesOfUpperBoundedType(
-                typeStack, typeVariable.getBounds());
+                context, TypeViews.bounds(typeVariable));
         }
         
-        Set<Type> supertypes = collectSupertypes(typeStack, type);
+        Set<Type> supertypes = collectSupertypes(context, type);
         Set<Type> supertypesWithWildcards = new LinkedHashSet<Type>();
         for (Type supertype : supertypes)
         {
@@ -608,19 +744,18 @@ public class Supertypes
     
     /**
      * Creates and returns an unmodifiable set that was filled with
-     * {@link #collectSupertypesOfUpperBoundedType(Set, Type[], Set)}
+     * {@link #collectSupertypesOfUpperBoundedType(Context, Type[], Set)}
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param upperBounds The upper bounds of the type
      * @return The set of supertypes, including wildcard types
      */
     private static Set<Type> computeSupertypesOfUpperBoundedType(
-        Set<Type> typeStack, Type upperBounds[])
+        Context context, Type upperBounds[])
     {
         Set<Type> result = new LinkedHashSet<Type>();
         collectSupertypesOfUpperBoundedType(
-            typeStack, upperBounds, result);
+            context, upperBounds, result);
         return Collections.unmodifiableSet(result);
     }
     
@@ -628,14 +763,13 @@ public class Supertypes
      * Collect all supertypes of a type with the given upper bounds, 
      * including wildcard types, and store them in the given set.
      * 
-     * @param typeStack The stack storing the types for which the 
-     * computation of supertypes is currently in progress.
+     * @param context The context of the computation
      * @param upperBounds The upper bounds of the type
      * @param result The set that will store all supertypes, including 
      * wildcard types
      */
     private static void collectSupertypesOfUpperBoundedType(
-        Set<Type> typeStack, Type upperBounds[], Set<Type> result)
+        Context context, Type upperBounds[], Set<Type> result)
     {
         // Compute the set of all possible upper bounds, 
         // including their respective supertypes
@@ -643,7 +777,7 @@ public class Supertypes
         for (Type upperBound : upperBounds)
         {
             allUpperBounds.addAll(
-                collectSupertypes(typeStack, upperBound));
+                collectSupertypes(context, upperBound));
         }
         
         // Each upper bound may be used as the single upper bound
@@ -656,6 +790,294 @@ public class Supertypes
         }
     }
     
+    /**
+     * The context of a single computation of supertypes, storing the
+     * state that is shared by the recursive calls.<br>
+     * <br>
+     * The context keeps track of the parameterized types for which the
+     * computation of supertypes is currently in progress, in a stack 
+     * of {@link Frame} objects. It memoizes the generic supertypes and 
+     * the mappings from type parameters to type arguments of 
+     * parameterized types, which only depend on the type itself.<br>
+     * <br>
+     * The domains of type arguments are memoized as well. For a class, 
+     * the domain only depends on the class itself, because classes never
+     * take part in a cycle. For all other types, the domain depends on 
+     * the types whose computation is in progress, and is therefore 
+     * only memoized in the current frame. This covers the common case
+     * where several generic supertypes of a type share the same type 
+     * argument.
+     */
+    private static final class Context
+    {
+        /**
+         * The mask for the number of operations after which the deadline
+         * is checked
+         */
+        private static final int DEADLINE_CHECK_MASK = 0xFF;
+        
+        /**
+         * The types for which the computation of supertypes is currently
+         * in progress
+         */
+        private final Set<Type> typesInProgress;
+        
+        /**
+         * The frame of the type whose computation of supertypes was
+         * started most recently, or <code>null</code>
+         */
+        private Frame currentFrame;
+        
+        /**
+         * The generic supertypes of parameterized types
+         */
+        private final Map<Type, Set<ParameterizedType>> genericSupertypes;
+        
+        /**
+         * The mappings from type parameters to type arguments of 
+         * parameterized types
+         */
+        private final Map<Type, Map<Type, Type>> 
+            typeParameterToTypeArgumentMaps;
+        
+        /**
+         * The domains of type arguments that do not depend on the types
+         * whose computation is in progress
+         */
+        private final Map<Type, List<Type>> typeArgumentDomains;
+        
+        /**
+         * The maximum number of types in a set of supertypes
+         */
+        private final int maxResults;
+        
+        /**
+         * The maximum number of type argument combinations for a single
+         * generic supertype
+         */
+        final long maxDomainProductSize;
+        
+        /**
+         * Whether there is a deadline
+         */
+        private final boolean hasDeadline;
+        
+        /**
+         * The deadline, as a value of {@link System#nanoTime()}
+         */
+        private final long deadline;
+        
+        /**
+         * The number of operations since the computation started
+         */
+        private int operations;
+        
+        /**
+         * Whether the deadline has passed
+         */
+        private boolean expired;
+        
+        /**
+         * Whether the computation was truncated
+         */
+        boolean truncated;
+        
+        /**
+         * The maximum number of types whose computation was in progress
+         * at the same time
+         */
+        int maxDepth;
+        
+        /**
+         * Creates a new context for a computation with the given budget
+         * 
+         * @param budget The budget
+         */
+        Context(SupertypeBudget budget)
+        {
+            this.typesInProgress = new HashSet<Type>();
+            this.genericSupertypes = 
+                new HashMap<Type, Set<ParameterizedType>>();
+            this.typeParameterToTypeArgumentMaps = 
+                new HashMap<Type, Map<Type, Type>>();
+            this.typeArgumentDomains = new HashMap<Type, List<Type>>();
+            this.maxResults = budget.getMaxResults();
+            this.maxDomainProductSize = budget.getMaxDomainProductSize();
+            long timeoutNanos = budget.getTimeoutNanos();
+            this.hasDeadline = timeoutNanos > 0;
+            this.deadline = hasDeadline ? System.nanoTime() + timeoutNanos : 0;
+        }
+        
+        /**
+         * Returns whether the computation of the supertypes of the given 
+         * type is currently in progress
+         * 
+         * @param type The type
+         * @return Whether the computation is in progress
+         */
+        boolean isInProgress(Type type)
+        {
+            return typesInProgress.contains(type);
+        }
+        
+        /**
+         * Mark the computation of the supertypes of the given type as
+         * being in progress. The type may not already be in progress.
+         * 
+         * @param type The type
+         */
+        void enter(ParameterizedType type)
+        {
+            typesInProgress.add(type);
+            currentFrame = new Frame(type, currentFrame);
+            maxDepth = Math.max(maxDepth, typesInProgress.size());
+        }
+        
+        /**
+         * Mark the computation of the supertypes of the type that was 
+         * passed to the most recent call to {@link #enter} as being 
+         * finished
+         */
+        void exit()
+        {
+            typesInProgress.remove(currentFrame.type);
+            currentFrame = currentFrame.parent;
+        }
+        
+        /**
+         * Returns the {@link #computeGenericSupertypes(Type) generic 
+         * supertypes} of the given type, computing them if necessary
+         * 
+         * @param type The type
+         * @return The generic supertypes
+         */
+        Set<ParameterizedType> getGenericSupertypes(Type type)
+        {
+            Set<ParameterizedType> result = genericSupertypes.get(type);
+            if (result == null)
+            {
+                result = computeGenericSupertypes(type);
+                genericSupertypes.put(type, result);
+            }
+            return result;
+        }
+        
+        /**
+         * Returns the {@link #createTypeParameterToTypeArgumentMap(Type)
+         * mapping from type parameters to type arguments} for the given 
+         * type, computing it if necessary
+         * 
+         * @param type The type
+         * @return The mapping
+         */
+        Map<Type, Type> getTypeParameterToTypeArgumentMap(Type type)
+        {
+            Map<Type, Type> result = typeParameterToTypeArgumentMaps.get(type);
+            if (result == null)
+            {
+                result = createTypeParameterToTypeArgumentMap(
+                    getGenericSupertypes(type));
+                typeParameterToTypeArgumentMaps.put(type, result);
+            }
+            return result;
+        }
+        
+        /**
+         * Returns the map that stores the memoized domain of the given
+         * type argument. This is a map that is shared by the whole 
+         * computation if the type argument is a class (or 
+         * <code>null</code>), and the map of the current frame otherwise.
+         * 
+         * @param typeArgument The type argument
+         * @return The map of type argument domains
+         */
+        Map<Type, List<Type>> getTypeArgumentDomains(Type typeArgument)
+        {
+            if (typeArgument == null || typeArgument instanceof Class<?> ||
+                currentFrame == null)
+            {
+                return typeArgumentDomains;
+            }
+            if (currentFrame.typeArgumentDomains == null)
+            {
+                currentFrame.typeArgumentDomains = 
+                    new HashMap<Type, List<Type>>();
+            }
+            return currentFrame.typeArgumentDomains;
+        }
+        
+        /**
+         * Returns whether the computation has to stop before the given 
+         * type is added to the given set, because the set already 
+         * contains the maximum number of types, or because the deadline
+         * has passed. If this is the case, then the computation is marked
+         * as being truncated. The deadline is only checked periodically, 
+         * to avoid the overhead of querying the time for each type.
+         * 
+         * @param result The set of supertypes
+         * @param type The type that is about to be added
+         * @return Whether the computation has to stop
+         */
+        boolean isExhausted(Set<Type> result, Type type)
+        {
+            if (expired)
+            {
+                return true;
+            }
+            if (result.size() >= maxResults && !result.contains(type))
+            {
+                truncated = true;
+                return true;
+            }
+            if (hasDeadline && (++operations & DEADLINE_CHECK_MASK) == 0)
+            {
+                if (System.nanoTime() - deadline >= 0)
+                {
+                    expired = true;
+                    truncated = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * A frame of the computation of the supertypes of a parameterized
+     * type, in a {@link Context}
+     */
+    private static final class Frame
+    {
+        /**
+         * The type whose supertypes are computed
+         */
+        final ParameterizedType type;
+        
+        /**
+         * The frame of the type whose computation caused the computation
+         * of this type, or <code>null</code>
+         */
+        final Frame parent;
+        
+        /**
+         * The domains of type arguments that have been computed in this
+         * frame. This is created lazily.
+         */
+        Map<Type, List<Type>> typeArgumentDomains;
+        
+        /**
+         * Creates a new frame
+         * 
+         * @param type The type whose supertypes are computed
+         * @param parent The parent frame
+         */
+        Frame(ParameterizedType type, Frame parent)
+        {
+            this.type = type;
+            this.parent = parent;
+        }
+    }
+    
     /**
      * Private constructor to prevent instantiation
      */
@@ -39,7 +39,7 @@ public class TypeAssignabilityTesters
     public static TypeAssignabilityTester create()
     {
         return new DefaultTypeAssignabilityTester(
-            TypeVariableMappings.create());
+            TypeVariableMappings.createPersistent());
     }
 
     /**
@@ -52,7 +52,7 @@ public class TypeAssignabilityTesters
     public static TypeAssignabilityTester createForFreeTypeVariables()
     {
         return new DefaultTypeAssignabilityTester(
-            TypeVariableMappings.create(), true, false);
+            TypeVariableMappings.createPersistent(), true, false);
     }
     
     /**
@@ -65,7 +65,7 @@ public class TypeAssignabilityTesters
     public static TypeAssignabilityTester createForFreeUnboundedTypeVariables()
     {
         return new DefaultTypeAssignabilityTester(
-            TypeVariableMappings.create(), true, true);
+            TypeVariableMappings.createPersistent(), true, true);
     }
     
     /**
@@ -26,12 +26,18 @@
  */
 package de.javagl.types;
 
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -59,7 +65,11 @@ class TypeBounds
      * the upper bounds to add, but removes any bounds that are obsolete. 
      * An upper bound is obsolete when it is assignable from (but not equal
      * to) another upper bound. The order of the returned elements is 
-     * unspecified.
+     * unspecified.<br>
+     * <br>
+     * The bounds to add are added one after the other. Each bound is 
+     * compared to the bounds that are present at the time when it is
+     * added. The old bounds are not compared to each other.
      * 
      * @param oldUpperBounds The old upper bounds. 
      * @param upperBoundsToAdd The upper bounds to add
@@ -69,128 +79,461 @@ class TypeBounds
         Collection<? extends Type> oldUpperBounds, 
         Iterable<? extends Type> upperBoundsToAdd)
     {
-        Set<Type> result = new LinkedHashSet<Type>(oldUpperBounds);
-        for (Type upperBoundToAdd : upperBoundsToAdd)
+        return merge(oldUpperBounds, upperBoundsToAdd, true);
+    }
+
+    /**
+     * Creates an unmodifiable list containing the given old lower bounds and 
+     * the lower bounds to add, but removes any bounds that are obsolete. 
+     * A lower bound is obsolete when another lower bound is assignable 
+     * from (but not equal to) it.<br>
+     * <br>
+     * The bounds to add are added one after the other. Each bound is 
+     * compared to the bounds that are present at the time when it is
+     * added. The old bounds are not compared to each other.
+     * 
+     * @param oldLowerBounds The old lower bounds. 
+     * @param lowerBoundsToAdd The lower bounds to add
+     * @return The new lower bounds
+     */
+    public static List<Type> mergeLowerBounds(
+        Collection<? extends Type> oldLowerBounds, 
+        Iterable<? extends Type> lowerBoundsToAdd)
+    {
+        return merge(oldLowerBounds, lowerBoundsToAdd, false);
+    }
+    
+    /**
+     * Implementation of {@link #mergeUpperBounds(Collection, Iterable)} 
+     * and {@link #mergeLowerBounds(Collection, Iterable)}.<br>
+     * <br>
+     * The old bounds are copied once. The assignability is only tested 
+     * for pairs of bounds that may be assignable, based on the raw 
+     * supertypes of the bounds. 
+     * 
+     * @param oldBounds The old bounds
+     * @param boundsToAdd The bounds to add
+     * @param upper Whether the bounds are upper bounds
+     * @return The new bounds
+     */
+    private static List<Type> merge(
+        Collection<? extends Type> oldBounds, 
+        Iterable<? extends Type> boundsToAdd, boolean upper)
+    {
+        Object event = TypeEvents.beginBoundsMerge();
+        List<Type> result = null;
+        try
+        {
+            BoundSet boundSet = new BoundSet(oldBounds);
+            for (Type boundToAdd : boundsToAdd)
+            {
+                boundSet.add(boundToAdd, upper);
+            }
+            result = Collections.unmodifiableList(
+                new ArrayList<Type>(boundSet.bounds));
+            return result;
+        }
+        finally
         {
-            result = addUpperBound(result, upperBoundToAdd);
+            TypeEvents.endBoundsMerge(event, upper, result);
         }
-        return Collections.unmodifiableList(new ArrayList<Type>(result));
     }
-
+    
     /**
-     * Creates a set containing the given old upper bounds and  
-     * the upper bound to add, but removes any bounds that are obsolete. 
-     * An upper bound is obsolete when it is assignable from (but not 
-     * equal to) another upper bound. 
+     * Returns whether the given bound is obsolete in view of the given 
+     * other bound. For upper bounds, this is the case when the bound is
+     * assignable from (but not equal to) the other bound. For lower
+     * bounds, this is the case when the other bound is assignable from
+     * (but not equal to) the bound.
      * 
-     * @param oldUpperBounds The old upper bounds.
-     * @param upperBoundToAdd The upper bound to add
-     * @return The new upper bounds
+     * @param bound The bound
+     * @param other The other bound
+     * @param upper Whether the bounds are upper bounds
+     * @return Whether the bound is obsolete
+     */
+    private static boolean isObsolete(Type bound, Type other, boolean upper)
+    {
+        if (bound.equals(other))
+        {
+            return false;
+        }
+        if (upper)
+        {
+            return Types.isAssignable(bound, other);
+        }
+        return Types.isAssignable(other, bound);
+    }
+    
+    /**
+     * Returns the raw type of the given type, if the given type is 
+     * a class or a parameterized type whose assignability to other
+     * classes and parameterized types is determined by the raw 
+     * supertypes. Otherwise, <code>null</code> is returned.
+     * 
+     * @param type The type
+     * @return The raw type, or <code>null</code>
+     */
+    private static Class<?> getIndexableRawType(Type type)
+    {
+        Class<?> rawType = null;
+        if (type instanceof Class<?>)
+        {
+            rawType = (Class<?>)type;
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            Type t = ((ParameterizedType)type).getRawType();
+            if (t instanceof Class<?>)
+            {
+                rawType = (Class<?>)t;
+            }
+        }
+        if (rawType == null || rawType.isPrimitive() || rawType.isArray() || 
+            PrimitiveTypes.isBoxedPrimitiveType(rawType))
+        {
+            return null;
+        }
+        return rawType;
+    }
+    
+    /**
+     * The comparator that establishes the canonical order of bounds:
+     * Classes come first, followed by interfaces, followed by all
+     * other types. Bounds of the same kind are sorted by their 
+     * string representation. Distinct types may have the same string
+     * representation, for example, type variables with the same name
+     * that belong to different generic declarations. These are sorted
+     * by the string representation of the generic declaration, if they
+     * are type variables, and by their hash code otherwise.
      */
-    private static Set<Type> addUpperBound(
-        Collection<? extends Type> oldUpperBounds, Type upperBoundToAdd)
+    private static final Comparator<Type> BOUNDS_ORDER = 
+        new Comparator<Type>()
     {
-        Set<Type> newUpperBounds = new LinkedHashSet<Type>(oldUpperBounds);
-        List<Type> obsoleteUpperBounds = new ArrayList<Type>();
-        for (Type oldUpperBound : newUpperBounds)
+        @Override
+        public int compare(Type t0, Type t1)
         {
-            if (Types.isAssignable(oldUpperBound, upperBoundToAdd) &&
-                !oldUpperBound.equals(upperBoundToAdd))
+            int r0 = rank(t0);
+            int r1 = rank(t1);
+            if (r0 != r1)
+            {
+                return Integer.compare(r0, r1);
+            }
+            int result = 
+                Types.stringFor(t0).compareTo(Types.stringFor(t1));
+            if (result != 0)
             {
-                obsoleteUpperBounds.add(oldUpperBound);
+                return result;
             }
-            if (Types.isAssignable(upperBoundToAdd, oldUpperBound) &&
-                !upperBoundToAdd.equals(oldUpperBound))
+            if (t0 instanceof TypeVariable<?> && 
+                t1 instanceof TypeVariable<?>)
             {
-                obsoleteUpperBounds.add(upperBoundToAdd);
+                String d0 = String.valueOf(
+                    ((TypeVariable<?>)t0).getGenericDeclaration());
+                String d1 = String.valueOf(
+                    ((TypeVariable<?>)t1).getGenericDeclaration());
+                result = d0.compareTo(d1);
+                if (result != 0)
+                {
+                    return result;
+                }
             }
+            return Integer.compare(t0.hashCode(), t1.hashCode());
         }
         
-        if (logger.isLoggable(OBSOLETE_BOUNDS_LEVEL))
+        /**
+         * Returns the rank of the given type in the order of bounds
+         * 
+         * @param type The type
+         * @return The rank
+         */
+        private int rank(Type type)
         {
-            if (!obsoleteUpperBounds.isEmpty()) 
+            Class<?> rawType = null;
+            if (type instanceof Class<?>)
+            {
+                rawType = (Class<?>)type;
+            }
+            else if (type instanceof ParameterizedType)
+            {
+                Type t = ((ParameterizedType)type).getRawType();
+                if (t instanceof Class<?>)
+                {
+                    rawType = (Class<?>)t;
+                }
+            }
+            if (rawType == null)
             {
-                logger.log(OBSOLETE_BOUNDS_LEVEL,
-                    "Old upper bounds: "+oldUpperBounds+", "+
-                    "adding "+upperBoundToAdd+", "+
-                    "obsolete: "+obsoleteUpperBounds);  
+                return 2;
             }
+            return rawType.isInterface() ? 1 : 0;
         }
-
-        newUpperBounds.add(upperBoundToAdd);
-        newUpperBounds.removeAll(obsoleteUpperBounds);
-        return newUpperBounds;
+    };
+    
+    /**
+     * Returns the canonical form of the given upper bounds of a wildcard
+     * type: Duplicate bounds are removed, <code>Object</code> is removed 
+     * if there are other bounds, and the remaining bounds are sorted, so 
+     * that classes come before interfaces. If the given bounds are 
+     * empty, then an array containing <code>Object</code> is returned. 
+     * If the given array already is in the canonical form, then it is
+     * returned.
+     * 
+     * @param upperBounds The upper bounds
+     * @return The canonical upper bounds
+     */
+    static Type[] normalizeUpperBounds(Type[] upperBounds)
+    {
+        if (upperBounds.length == 0)
+        {
+            return new Type[] { Object.class };
+        }
+        if (upperBounds.length == 1)
+        {
+            return upperBounds;
+        }
+        Set<Type> set = new LinkedHashSet<Type>(Arrays.asList(upperBounds));
+        set.remove(Object.class);
+        if (set.isEmpty())
+        {
+            return new Type[] { Object.class };
+        }
+        return toCanonicalArray(upperBounds, set, true);
     }
     
-
     /**
-     * Creates an unmodifiable list containing the given old lower bounds and 
-     * the lower bounds to add, but removes any bounds that are obsolete. 
-     * A lower bound is obsolete when another lower bound is assignable 
-     * from (but not equal to) it. 
+     * Returns the given bounds of a type variable, with duplicate bounds
+     * removed. The bounds are not sorted, and an explicit 
+     * <code>Object</code> bound is retained, because the erasure of a 
+     * type variable is the erasure of its first bound. If the given 
+     * array does not contain duplicates, then it is returned.
      * 
-     * @param oldLowerBounds The old lower bounds. 
-     * @param lowerBoundsToAdd The lower bounds to add
-     * @return The new lower bounds
+     * @param bounds The bounds
+     * @return The bounds without duplicates
      */
-    public static List<Type> mergeLowerBounds(
-        Collection<? extends Type> oldLowerBounds, 
-        Iterable<? extends Type> lowerBoundsToAdd)
+    static Type[] normalizeTypeVariableBounds(Type[] bounds)
     {
-        Set<Type> result = new LinkedHashSet<Type>(oldLowerBounds);
-        for (Type lowerBoundToAdd : lowerBoundsToAdd)
+        if (bounds.length <= 1)
         {
-            result = addLowerBound(result, lowerBoundToAdd);
+            return bounds;
         }
-        return Collections.unmodifiableList(new ArrayList<Type>(result));
+        Set<Type> set = new LinkedHashSet<Type>(Arrays.asList(bounds));
+        return toCanonicalArray(bounds, set, false);
     }
     
     /**
-     * Creates a set containing the given old lower bounds and the 
-     * lower bound to add, but removes any bounds that are obsolete. 
-     * A lower bound is obsolete when another lower bound is assignable 
-     * from (but not equal to) it. 
+     * Returns the canonical form of the given lower bounds of a wildcard
+     * type: Duplicate bounds are removed, and the remaining bounds are 
+     * sorted. If the given array already is in the canonical form, then 
+     * it is returned.
      * 
-     * @param oldLowerBounds The old lower bounds. 
-     * @param lowerBoundToAdd The lower bound to add
-     * @return The new lower bounds
+     * @param lowerBounds The lower bounds
+     * @return The canonical lower bounds
+     */
+    static Type[] normalizeLowerBounds(Type[] lowerBounds)
+    {
+        if (lowerBounds.length <= 1)
+        {
+            return lowerBounds;
+        }
+        Set<Type> set = new LinkedHashSet<Type>(Arrays.asList(lowerBounds));
+        return toCanonicalArray(lowerBounds, set, true);
+    }
+    
+    /**
+     * Returns an array containing the elements of the given set, sorted
+     * if requested, or the given original array if it has the same 
+     * elements in the same order
+     * 
+     * @param original The original array
+     * @param set The set
+     * @param sort Whether the elements should be sorted
+     * @return The array
+     */
+    private static Type[] toCanonicalArray(
+        Type[] original, Set<Type> set, boolean sort)
+    {
+        Type[] result = set.toArray(new Type[set.size()]);
+        if (sort)
+        {
+            Arrays.sort(result, BOUNDS_ORDER);
+        }
+        if (Arrays.equals(original, result))
+        {
+            return original;
+        }
+        return result;
+    }
+    
+    /**
+     * A set of bounds that is indexed by the raw supertypes of the bounds
      */
-    private static Set<Type> addLowerBound(
-        Collection<? extends Type> oldLowerBounds, Type lowerBoundToAdd)
+    private static final class BoundSet
     {
-        Set<Type> newLowerBounds = new LinkedHashSet<Type>(oldLowerBounds);
-        List<Type> obsoleteLowerBounds = new ArrayList<Type>();
-        for (Type oldLowerBound : newLowerBounds)
+        /**
+         * The current bounds
+         */
+        private final Set<Type> bounds;
+        
+        /**
+         * The bounds that have been added, indexed by their raw type. 
+         * This may contain bounds that have been removed from the 
+         * {@link #bounds}.
+         */
+        private final Map<Class<?>, List<Type>> byRawType;
+        
+        /**
+         * The bounds that have been added, indexed by all their raw
+         * supertypes. This may contain bounds that have been removed 
+         * from the {@link #bounds}.
+         */
+        private final Map<Class<?>, List<Type>> byRawSupertype;
+        
+        /**
+         * The bounds that can not be indexed, and therefore have to be
+         * compared to all other bounds. This may contain bounds that 
+         * have been removed from the {@link #bounds}.
+         */
+        private final List<Type> unindexed;
+        
+        /**
+         * Creates a new bound set containing the given bounds
+         * 
+         * @param initialBounds The initial bounds
+         */
+        BoundSet(Collection<? extends Type> initialBounds)
+        {
+            this.bounds = new LinkedHashSet<Type>(initialBounds);
+            this.byRawType = new HashMap<Class<?>, List<Type>>();
+            this.byRawSupertype = new HashMap<Class<?>, List<Type>>();
+            this.unindexed = new ArrayList<Type>();
+            for (Type bound : bounds)
+            {
+                index(bound);
+            }
+        }
+        
+        /**
+         * Add the given bound to the index
+         * 
+         * @param bound The bound
+         */
+        private void index(Type bound)
         {
-            if (Types.isAssignable(lowerBoundToAdd, oldLowerBound) &&
-                !lowerBoundToAdd.equals(oldLowerBound))
+            Class<?> rawType = getIndexableRawType(bound);
+            if (rawType == null)
             {
-                obsoleteLowerBounds.add(oldLowerBound);
+                unindexed.add(bound);
+                return;
             }
-            if (Types.isAssignable(oldLowerBound, lowerBoundToAdd) &&
-                !oldLowerBound.equals(lowerBoundToAdd))
+            get(byRawType, rawType).add(bound);
+            for (Class<?> c : ClassHierarchy.getRawSupertypes(rawType))
             {
-                obsoleteLowerBounds.add(lowerBoundToAdd);
+                get(byRawSupertype, c).add(bound);
             }
         }
         
-        if (logger.isLoggable(OBSOLETE_BOUNDS_LEVEL))
+        /**
+         * Returns the list that is stored for the given key in the given
+         * map, creating it if necessary
+         * 
+         * @param map The map
+         * @param key The key
+         * @return The list
+         */
+        private static List<Type> get(
+            Map<Class<?>, List<Type>> map, Class<?> key)
         {
-            if (obsoleteLowerBounds.size()>0) 
+            List<Type> list = map.get(key);
+            if (list == null)
             {
-                logger.log(OBSOLETE_BOUNDS_LEVEL,
-                    "Old lower bounds: "+oldLowerBounds+", "+
-                    "adding "+lowerBoundToAdd+", "+
-                    "obsolete: "+obsoleteLowerBounds);  
+                list = new ArrayList<Type>();
+                map.put(key, list);
+            }
+            return list;
+        }
+        
+        /**
+         * Add the given bound, removing all bounds that are obsolete
+         * 
+         * @param boundToAdd The bound to add
+         * @param upper Whether the bounds are upper bounds
+         */
+        void add(Type boundToAdd, boolean upper)
+        {
+            List<Type> obsoleteBounds = new ArrayList<Type>();
+            Class<?> rawType = getIndexableRawType(boundToAdd);
+            if (rawType == null)
+            {
+                check(bounds, boundToAdd, upper, obsoleteBounds);
+            }
+            else
+            {
+                for (Class<?> c : ClassHierarchy.getRawSupertypes(rawType))
+                {
+                    if (!c.equals(rawType))
+                    {
+                        check(byRawType.get(c), boundToAdd, upper, 
+                            obsoleteBounds);
+                    }
+                }
+                check(byRawSupertype.get(rawType), boundToAdd, upper, 
+                    obsoleteBounds);
+                check(unindexed, boundToAdd, upper, obsoleteBounds);
+            }
+            
+            if (logger.isLoggable(OBSOLETE_BOUNDS_LEVEL))
+            {
+                if (!obsoleteBounds.isEmpty()) 
+                {
+                    logger.log(OBSOLETE_BOUNDS_LEVEL,
+                        "Old " + (upper ? "upper" : "lower") + " bounds: " + 
+                        bounds + ", adding " + boundToAdd + ", " +
+                        "obsolete: " + obsoleteBounds);  
+                }
+            }
+            
+            if (bounds.add(boundToAdd))
+            {
+                index(boundToAdd);
+            }
+            bounds.removeAll(obsoleteBounds);
+        }
+        
+        /**
+         * Compare the given bound to add with all given candidates that
+         * are contained in the current bounds, and collect the obsolete 
+         * bounds in the given list
+         * 
+         * @param candidates The candidates. May be <code>null</code>.
+         * @param boundToAdd The bound to add
+         * @param upper Whether the bounds are upper bounds
+         * @param obsoleteBounds The list of obsolete bounds
+         */
+        private void check(Collection<Type> candidates, Type boundToAdd, 
+            boolean upper, List<Type> obsoleteBounds)
+        {
+            if (candidates == null)
+            {
+                return;
+            }
+            for (Type candidate : candidates)
+            {
+                if (candidates != bounds && !bounds.contains(candidate))
+                {
+                    continue;
+                }
+                if (isObsolete(candidate, boundToAdd, upper))
+                {
+                    obsoleteBounds.add(candidate);
+                }
+                if (isObsolete(boundToAdd, candidate, upper))
+                {
+                    obsoleteBounds.add(boundToAdd);
+                }
             }
         }
-
-        newLowerBounds.add(lowerBoundToAdd);
-        newLowerBounds.removeAll(obsoleteLowerBounds);
-        return newLowerBounds;
     }
     
-    
     /**
      * Private constructor to prevent instantiation
      */
@@ -0,0 +1,114 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for a service that performs expensive type computations
+ * asynchronously. Instances of classes implementing this interface may 
+ * be created with {@link TypeComputationServices}.<br>
+ * <br>
+ * Concurrent requests for the same computation are coalesced: Only 
+ * one computation is performed, and all requests receive its result. 
+ * The results of completed computations are cached. Failed computations
+ * are not cached.<br>
+ * <br>
+ * Each request receives its own future. Cancelling this future does not
+ * affect the futures of other requests. When all futures that are 
+ * waiting for a computation have been cancelled or have timed out 
+ * before the computation was started, then the computation is not 
+ * performed at all.
+ */
+public interface TypeComputationService
+{
+    /**
+     * Computes the supertypes of the given type, as described in 
+     * {@link Supertypes#computeSupertypes(Type)}
+     * 
+     * @param type The type
+     * @return The future that will contain the result
+     * @throws NullPointerException If the given type is <code>null</code>
+     */
+    CompletableFuture<Set<Type>> computeSupertypes(Type type);
+    
+    /**
+     * Parses the given string, as described in 
+     * {@link TypeParser#parse(String)}. If the string can not be parsed,
+     * then the returned future will be completed exceptionally, with
+     * the <code>ClassNotFoundException</code> or the 
+     * <code>IllegalArgumentException</code> that was caused by the 
+     * string.
+     * 
+     * @param string The string
+     * @return The future that will contain the result
+     * @throws NullPointerException If the given string is <code>null</code>
+     */
+    CompletableFuture<Type> parse(String string);
+    
+    /**
+     * Infers the types of the type variables for the given target and 
+     * source type, as described in 
+     * {@link Types#inferTypeVariables(Type, Type)}. The returned future
+     * will contain <code>null</code> if the target type is not 
+     * assignable from the source type. 
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return The future that will contain the result
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    CompletableFuture<Map<TypeVariable<?>, Type>> inferTypeVariables(
+        Type to, Type from);
+    
+    /**
+     * Computes the least upper bound of the given types, as described
+     * in {@link Types#leastUpperBound(Collection)}. The given collection
+     * is copied. If the collection is empty, then the returned future 
+     * will be completed exceptionally with an 
+     * <code>IllegalArgumentException</code>.
+     * 
+     * @param types The types
+     * @return The future that will contain the result
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     */
+    CompletableFuture<List<Type>> leastUpperBound(
+        Collection<? extends Type> types);
+    
+    /**
+     * Remove all cached results. Computations that are currently in
+     * progress are not affected.
+     */
+    void clearCache();
+}
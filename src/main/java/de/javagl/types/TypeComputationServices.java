@@ -0,0 +1,101 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Methods to create {@link TypeComputationService} instances
+ */
+public class TypeComputationServices
+{
+    /**
+     * The default maximum number of cached results
+     */
+    private static final int DEFAULT_MAX_CACHE_SIZE = 1024;
+    
+    /**
+     * Create a new {@link TypeComputationService} that performs the 
+     * computations in the common <code>ForkJoinPool</code>, caches
+     * up to 1024 results, and does not have a timeout.
+     * 
+     * @return The {@link TypeComputationService}
+     */
+    public static TypeComputationService create()
+    {
+        return create(ForkJoinPool.commonPool(), 
+            DEFAULT_MAX_CACHE_SIZE, 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Create a new {@link TypeComputationService}.<br>
+     * <br>
+     * The computations are performed with the given executor. The 
+     * service does not block any threads, so the executor may, for 
+     * example, be one that creates a virtual thread for each task. 
+     * The service does not shut down the executor.<br>
+     * <br>
+     * When the given timeout is positive, then each future that is 
+     * returned by the service will be completed exceptionally with a 
+     * <code>TimeoutException</code> if its result is not available 
+     * after the timeout. The computation itself will then still be 
+     * completed for other requests that are waiting for it.<br>
+     * <br>
+     * The returned instance is thread-safe.
+     * 
+     * @param executor The executor for the computations
+     * @param maxCacheSize The maximum number of cached results. When 
+     * this number is exceeded, the least recently used result is removed.
+     * @param timeout The timeout. If this is not positive, then there 
+     * is no timeout.
+     * @param unit The unit of the timeout
+     * @return The {@link TypeComputationService}
+     * @throws NullPointerException If the executor or the unit is 
+     * <code>null</code>
+     * @throws IllegalArgumentException If the maximum cache size is not
+     * positive
+     */
+    public static TypeComputationService create(Executor executor, 
+        int maxCacheSize, long timeout, TimeUnit unit)
+    {
+        Objects.requireNonNull(executor, "The executor is null");
+        Objects.requireNonNull(unit, "The unit is null");
+        return new DefaultTypeComputationService(
+            executor, maxCacheSize, unit.toNanos(timeout));
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeComputationServices()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Methods for checking whether types are equivalent modulo renaming of
+ * type variables (alpha-equivalence), and for computing hash codes that
+ * are consistent with this equivalence.<br>
+ * <br>
+ * Two types are equivalent when they are structurally equal, and there
+ * is a one-to-one correspondence between the type variables that appear
+ * in them, so that corresponding type variables have equivalent bounds.
+ * The names and generic declarations of the type variables are ignored.
+ * For example, the types <code>List&lt;T extends Number&gt;</code> 
+ * that result from parsing the same string with two different
+ * {@link TypeParser} instances are equivalent, although they are not 
+ * equal, because their type variables are declared by different 
+ * generic declarations.<br>
+ * <br>
+ * The bounds of each type variable are examined only once. This allows
+ * handling recursive bounds like <code>T extends Comparable&lt;T&gt;</code>
+ * in time that is linear in the size of the types.
+ */
+class TypeEquivalence
+{
+    /**
+     * Returns whether the given types are equivalent
+     * 
+     * @param type0 The first type
+     * @param type1 The second type
+     * @return Whether the types are equivalent
+     */
+    static boolean areEquivalent(Type type0, Type type1)
+    {
+        return new Matcher().areEquivalent(type0, type1);
+    }
+    
+    /**
+     * Computes a hash code for the given type that is consistent with
+     * the equivalence: Equivalent types have equal hash codes.
+     * 
+     * @param type The type
+     * @return The hash code
+     */
+    static int equivalenceHashCode(Type type)
+    {
+        return new Hasher().hashCode(type);
+    }
+    
+    /**
+     * Returns an object for the given type whose <code>equals</code> 
+     * and <code>hashCode</code> methods are based on the equivalence
+     * of types
+     * 
+     * @param type The type
+     * @return The key
+     */
+    static Object equivalenceKey(Type type)
+    {
+        return new Key(type);
+    }
+    
+    /**
+     * A class for checking the equivalence of two types, which keeps 
+     * track of the one-to-one correspondence of type variables
+     */
+    private static final class Matcher
+    {
+        /**
+         * The mapping from type variables of the first type to type 
+         * variables of the second type
+         */
+        private final Map<TypeVariable<?>, TypeVariable<?>> forward = 
+            new HashMap<TypeVariable<?>, TypeVariable<?>>();
+        
+        /**
+         * The mapping from type variables of the second type to type 
+         * variables of the first type
+         */
+        private final Map<TypeVariable<?>, TypeVariable<?>> backward = 
+            new HashMap<TypeVariable<?>, TypeVariable<?>>();
+        
+        /**
+         * Returns whether the given types are equivalent
+         * 
+         * @param type0 The first type
+         * @param type1 The second type
+         * @return Whether the types are equivalent
+         */
+        boolean areEquivalent(Type type0, Type type1)
+        {
+            if (type0 == null || type1 == null)
+            {
+                return type0 == type1;
+            }
+            if (type0 instanceof Class<?> || type1 instanceof Class<?>)
+            {
+                return type0.equals(type1);
+            }
+            if (type0 instanceof ParameterizedType)
+            {
+                if (!(type1 instanceof ParameterizedType))
+                {
+                    return false;
+                }
+                ParameterizedType p0 = (ParameterizedType)type0;
+                ParameterizedType p1 = (ParameterizedType)type1;
+                return p0.getRawType().equals(p1.getRawType()) &&
+                    allEquivalent(p0.getActualTypeArguments(), 
+                        p1.getActualTypeArguments()) &&
+                    areEquivalent(p0.getOwnerType(), p1.getOwnerType());
+            }
+            if (type0 instanceof WildcardType)
+            {
+                if (!(type1 instanceof WildcardType))
+                {
+                    return false;
+                }
+                WildcardType w0 = (WildcardType)type0;
+                WildcardType w1 = (WildcardType)type1;
+                return allEquivalent(w0.getLowerBounds(), w1.getLowerBounds())
+                    && allEquivalent(w0.getUpperBounds(), w1.getUpperBounds());
+            }
+            if (type0 instanceof GenericArrayType)
+            {
+                if (!(type1 instanceof GenericArrayType))
+                {
+                    return false;
+                }
+                GenericArrayType g0 = (GenericArrayType)type0;
+                GenericArrayType g1 = (GenericArrayType)type1;
+                return areEquivalent(g0.getGenericComponentType(), 
+                    g1.getGenericComponentType());
+            }
+            if (type0 instanceof TypeVariable<?>)
+            {
+                if (!(type1 instanceof TypeVariable<?>))
+                {
+                    return false;
+                }
+                return areEquivalentTypeVariables(
+                    (TypeVariable<?>)type0, (TypeVariable<?>)type1);
+            }
+            return type0.equals(type1);
+        }
+        
+        /**
+         * Returns whether the given type variables are equivalent. If 
+         * neither of them has been encountered before, then they are 
+         * recorded as corresponding to each other, and their bounds 
+         * are compared.
+         * 
+         * @param t0 The first type variable
+         * @param t1 The second type variable
+         * @return Whether the type variables are equivalent
+         */
+        private boolean areEquivalentTypeVariables(
+            TypeVariable<?> t0, TypeVariable<?> t1)
+        {
+            TypeVariable<?> mapped0 = forward.get(t0);
+            TypeVariable<?> mapped1 = backward.get(t1);
+            if (mapped0 != null || mapped1 != null)
+            {
+                return t1.equals(mapped0) && t0.equals(mapped1);
+            }
+            forward.put(t0, t1);
+            backward.put(t1, t0);
+            return allEquivalent(t0.getBounds(), t1.getBounds());
+        }
+        
+        /**
+         * Returns whether the given arrays have the same length and
+         * contain equivalent types
+         * 
+         * @param types0 The first array
+         * @param types1 The second array
+         * @return Whether the arrays contain equivalent types
+         */
+        private boolean allEquivalent(Type types0[], Type types1[])
+        {
+            if (types0.length != types1.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < types0.length; i++)
+            {
+                if (!areEquivalent(types0[i], types1[i]))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * A class for computing the hash code of a type. Type variables are
+     * identified by the order in which they are encountered.
+     */
+    private static final class Hasher
+    {
+        /**
+         * The indices of the type variables that have been encountered
+         */
+        private final Map<TypeVariable<?>, Integer> indices = 
+            new HashMap<TypeVariable<?>, Integer>();
+        
+        /**
+         * Computes the hash code of the given type
+         * 
+         * @param type The type
+         * @return The hash code
+         */
+        int hashCode(Type type)
+        {
+            if (type == null)
+            {
+                return 0;
+            }
+            if (type instanceof ParameterizedType)
+            {
+                ParameterizedType p = (ParameterizedType)type;
+                int result = p.getRawType().hashCode();
+                result = 31 * result + hashCodes(p.getActualTypeArguments());
+                result = 31 * result + hashCode(p.getOwnerType());
+                return result;
+            }
+            if (type instanceof WildcardType)
+            {
+                WildcardType w = (WildcardType)type;
+                int result = 17;
+                result = 31 * result + hashCodes(w.getLowerBounds());
+                result = 31 * result + hashCodes(w.getUpperBounds());
+                return result;
+            }
+            if (type instanceof GenericArrayType)
+            {
+                GenericArrayType g = (GenericArrayType)type;
+                return 37 * hashCode(g.getGenericComponentType()) + 1;
+            }
+            if (type instanceof TypeVariable<?>)
+            {
+                TypeVariable<?> t = (TypeVariable<?>)type;
+                Integer index = indices.get(t);
+                if (index != null)
+                {
+                    return 41 * index + 3;
+                }
+                index = indices.size();
+                indices.put(t, index);
+                return (41 * index + 3) * 31 + hashCodes(t.getBounds());
+            }
+            return type.hashCode();
+        }
+        
+        /**
+         * Computes the combined hash code of the given types
+         * 
+         * @param types The types
+         * @return The hash code
+         */
+        private int hashCodes(Type types[])
+        {
+            int result = 1;
+            for (Type type : types)
+            {
+                result = 31 * result + hashCode(type);
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * A wrapper around a type whose <code>equals</code> and 
+     * <code>hashCode</code> methods are based on the equivalence 
+     * of types
+     */
+    private static final class Key
+    {
+        /**
+         * The type
+         */
+        private final Type type;
+        
+        /**
+         * The hash code
+         */
+        private final int hashCode;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param type The type
+         */
+        Key(Type type)
+        {
+            this.type = type;
+            this.hashCode = equivalenceHashCode(type);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key)object;
+            return hashCode == other.hashCode && 
+                areEquivalent(type, other.type);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return Types.stringFor(type);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeEquivalence()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Interface for classes that record the events that are emitted via 
+ * {@link TypeEvents}. The <code>begin...</code> methods return an 
+ * object that represents the event, and that has to be passed to the 
+ * corresponding <code>end...</code> method.
+ */
+interface TypeEventRecorder
+{
+    /**
+     * Begin an assignability event
+     * 
+     * @return The event
+     */
+    Object beginAssignability();
+    
+    /**
+     * End the given assignability event
+     * 
+     * @param event The event
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @param result The result
+     */
+    void endAssignability(Object event, Type to, Type from, boolean result);
+    
+    /**
+     * Begin a supertypes event
+     * 
+     * @return The event
+     */
+    Object beginSupertypes();
+    
+    /**
+     * End the given supertypes event
+     * 
+     * @param event The event
+     * @param type The type
+     * @param depth The maximum depth of the recursion
+     * @param resultSize The number of supertypes
+     */
+    void endSupertypes(Object event, Type type, int depth, int resultSize);
+    
+    /**
+     * Begin a parse event
+     * 
+     * @return The event
+     */
+    Object beginParse();
+    
+    /**
+     * End the given parse event
+     * 
+     * @param event The event
+     * @param input The input string
+     * @param type The parsed type, or <code>null</code> if parsing failed
+     */
+    void endParse(Object event, String input, Type type);
+    
+    /**
+     * Begin a bounds merge event
+     * 
+     * @return The event
+     */
+    Object beginBoundsMerge();
+    
+    /**
+     * End the given bounds merge event
+     * 
+     * @param event The event
+     * @param upper Whether upper bounds have been merged
+     * @param bounds The resulting bounds, or <code>null</code> if the
+     * merge failed
+     */
+    void endBoundsMerge(Object event, boolean upper, List<Type> bounds);
+}
@@ -0,0 +1,259 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Methods for emitting Java Flight Recorder (JFR) events for type 
+ * computations.<br>
+ * <br>
+ * The events are only created while a flight recording is running that
+ * enables at least one of them. Otherwise, the <code>begin...</code> 
+ * methods return <code>null</code>, and the only cost is reading a 
+ * field. The events are emitted when the computation takes longer than
+ * the threshold of the event. The default thresholds can be changed in
+ * the settings of the recording. The names of the events are
+ * <ul>
+ *   <li><code>de.javagl.types.Assignability</code></li>
+ *   <li><code>de.javagl.types.Supertypes</code></li>
+ *   <li><code>de.javagl.types.Parse</code></li>
+ *   <li><code>de.javagl.types.BoundsMerge</code></li>
+ * </ul>
+ * The string representations of the types are only computed for events
+ * that are actually emitted.<br>
+ * <br>
+ * The events are emitted by the {@link JfrTypeEvents} class, which
+ * requires Java 11, and is instantiated via reflection. When JFR is 
+ * not available, no events are emitted.
+ */
+class TypeEvents
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger = 
+        Logger.getLogger(TypeEvents.class.getName());
+    
+    /**
+     * The name of the {@link TypeEventRecorder} class that emits JFR 
+     * events
+     */
+    private static final String JFR_RECORDER_CLASS_NAME = 
+        "de.javagl.types.JfrTypeEvents";
+    
+    /**
+     * Whether any of the events is currently enabled in a recording.
+     * This is updated by the {@link JfrTypeEvents} when the state of
+     * a recording changes. It is only <code>true</code> when the
+     * {@link #recorder} is not <code>null</code>.
+     */
+    private static volatile boolean active = false;
+    
+    /**
+     * The {@link TypeEventRecorder}, or <code>null</code> if JFR is not
+     * available
+     */
+    private static final TypeEventRecorder recorder = createRecorder();
+    
+    /**
+     * Creates the {@link TypeEventRecorder} that emits JFR events, or
+     * returns <code>null</code> if JFR is not available
+     * 
+     * @return The {@link TypeEventRecorder}
+     */
+    private static TypeEventRecorder createRecorder()
+    {
+        if (!isJfrAvailable())
+        {
+            return null;
+        }
+        try
+        {
+            Class<?> c = Class.forName(JFR_RECORDER_CLASS_NAME, true, 
+                TypeEvents.class.getClassLoader());
+            Object instance = c.getDeclaredConstructor().newInstance();
+            return (TypeEventRecorder)instance;
+        }
+        catch (ReflectiveOperationException | RuntimeException 
+            | LinkageError e)
+        {
+            logger.log(Level.FINE, "Could not install JFR events", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns whether the JFR API is available
+     * 
+     * @return Whether JFR is available
+     */
+    private static boolean isJfrAvailable()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.FlightRecorder", false, 
+                TypeEvents.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Set whether any of the events is currently enabled
+     * 
+     * @param newActive Whether events are enabled
+     */
+    static void setActive(boolean newActive)
+    {
+        active = newActive;
+    }
+    
+    /**
+     * Begin an assignability event
+     * 
+     * @return The event, or <code>null</code> if no event is recorded
+     */
+    static Object beginAssignability()
+    {
+        return active ? recorder.beginAssignability() : null;
+    }
+    
+    /**
+     * End the given assignability event. If the event is 
+     * <code>null</code>, then nothing is done.
+     * 
+     * @param event The event
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @param result The result
+     */
+    static void endAssignability(
+        Object event, Type to, Type from, boolean result)
+    {
+        if (event != null)
+        {
+            recorder.endAssignability(event, to, from, result);
+        }
+    }
+    
+    /**
+     * Begin a supertypes event
+     * 
+     * @return The event, or <code>null</code> if no event is recorded
+     */
+    static Object beginSupertypes()
+    {
+        return active ? recorder.beginSupertypes() : null;
+    }
+    
+    /**
+     * End the given supertypes event. If the event is <code>null</code>,
+     * then nothing is done.
+     * 
+     * @param event The event
+     * @param type The type
+     * @param depth The maximum depth of the recursion
+     * @param resultSize The number of supertypes
+     */
+    static void endSupertypes(
+        Object event, Type type, int depth, int resultSize)
+    {
+        if (event != null)
+        {
+            recorder.endSupertypes(event, type, depth, resultSize);
+        }
+    }
+    
+    /**
+     * Begin a parse event
+     * 
+     * @return The event, or <code>null</code> if no event is recorded
+     */
+    static Object beginParse()
+    {
+        return active ? recorder.beginParse() : null;
+    }
+    
+    /**
+     * End the given parse event. If the event is <code>null</code>, then
+     * nothing is done.
+     * 
+     * @param event The event
+     * @param input The input string
+     * @param type The parsed type, or <code>null</code> if parsing failed
+     */
+    static void endParse(Object event, String input, Type type)
+    {
+        if (event != null)
+        {
+            recorder.endParse(event, input, type);
+        }
+    }
+    
+    /**
+     * Begin a bounds merge event
+     * 
+     * @return The event, or <code>null</code> if no event is recorded
+     */
+    static Object beginBoundsMerge()
+    {
+        return active ? recorder.beginBoundsMerge() : null;
+    }
+    
+    /**
+     * End the given bounds merge event. If the event is <code>null</code>,
+     * then nothing is done.
+     * 
+     * @param event The event
+     * @param upper Whether upper bounds have been merged
+     * @param bounds The resulting bounds, or <code>null</code> if the
+     * merge failed
+     */
+    static void endBoundsMerge(
+        Object event, boolean upper, List<Type> bounds)
+    {
+        if (event != null)
+        {
+            recorder.endBoundsMerge(event, upper, bounds);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeEvents()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,707 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Methods for computing the least upper bound and the greatest lower 
+ * bound of types.<br>
+ * <br>
+ * The least upper bound is computed as described in the JLS, section 
+ * 4.10.4, "Least Upper Bound". Since the least upper bound may be an
+ * intersection type, it is represented as a list of types. Each element
+ * of this list is called a "conjunct" here. The least upper bound of
+ * types with recursive bounds, like <code>Integer</code> and 
+ * <code>Long</code>, is infinite. Its nesting depth is limited to
+ * {@link #MAX_DEPTH}: Beyond this depth, an unbounded wildcard is used
+ * as the type argument.<br>
+ * <br>
+ * The greatest lower bound is computed as described in the JLS, section
+ * 5.1.10, "Capture Conversion", as the intersection of the types, 
+ * omitting types that are supertypes of other types.<br>
+ * <br>
+ * The results of the computations for pairs of types are cached. For
+ * more than two types, the results are computed by a pairwise 
+ * reduction, which is performed in parallel for large inputs. The
+ * parallel reduction stores its intermediate results in a memo that 
+ * is local to the reduction, and publishes them to the cache once, 
+ * at the end, so that the workers do not contend for the cache.
+ */
+class TypeLattice
+{
+    /**
+     * The maximum nesting depth of the type arguments of the least 
+     * upper bound
+     */
+    static final int MAX_DEPTH = 3;
+    
+    /**
+     * The minimum number of types for which the reduction is performed
+     * in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+    
+    /**
+     * The maximum number of results that are cached
+     */
+    private static final int CACHE_SIZE = 1024;
+
+    /**
+     * The cache for the results of the computations for pairs of types
+     */
+    private static final BoundedCache<CacheKey, List<Type>> CACHE = 
+        new BoundedCache<CacheKey, List<Type>>(CACHE_SIZE);
+    
+    /**
+     * The comparator that establishes the order of the conjuncts in
+     * the least upper bound: Classes come before interfaces, and 
+     * otherwise, the types are sorted by their name
+     */
+    private static final Comparator<Class<?>> CONJUNCT_ORDER = 
+        new Comparator<Class<?>>()
+    {
+        @Override
+        public int compare(Class<?> c0, Class<?> c1)
+        {
+            if (c0.isInterface() != c1.isInterface())
+            {
+                return c0.isInterface() ? 1 : -1;
+            }
+            return c0.getName().compareTo(c1.getName());
+        }
+    };
+    
+    /**
+     * The unbounded wildcard type
+     */
+    private static final WildcardType UNBOUNDED = 
+        new DefaultWildcardType(null, null);
+    
+    /**
+     * Computes the least upper bound of the given types
+     * 
+     * @param types The types
+     * @return An unmodifiable list containing the conjuncts of the least
+     * upper bound
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     * @throws IllegalArgumentException If the given collection is empty
+     */
+    static List<Type> leastUpperBound(Collection<? extends Type> types)
+    {
+        return reduce(types, new Operator()
+        {
+            @Override
+            public List<Type> apply(List<Type> x, List<Type> y, 
+                Map<CacheKey, List<Type>> memo)
+            {
+                return lub(x, y, 0, memo);
+            }
+        });
+    }
+    
+    /**
+     * Computes the greatest lower bound of the given types
+     * 
+     * @param types The types
+     * @return An unmodifiable list containing the conjuncts of the 
+     * greatest lower bound
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     * @throws IllegalArgumentException If the given collection is empty
+     */
+    static List<Type> greatestLowerBound(Collection<? extends Type> types)
+    {
+        return reduce(types, new Operator()
+        {
+            @Override
+            public List<Type> apply(List<Type> x, List<Type> y, 
+                Map<CacheKey, List<Type>> memo)
+            {
+                return glb(x, y, memo);
+            }
+        });
+    }
+    
+    /**
+     * Interface for the operators of the reduction
+     */
+    private interface Operator
+    {
+        /**
+         * Apply this operator to the given lists of conjuncts
+         * 
+         * @param x The first list
+         * @param y The second list
+         * @param memo The memo for intermediate results. If this is 
+         * <code>null</code>, then the {@link #CACHE} is used directly.
+         * @return The result
+         */
+        List<Type> apply(List<Type> x, List<Type> y, 
+            Map<CacheKey, List<Type>> memo);
+    }
+    
+    /**
+     * Reduce the given types with the given operator, which receives
+     * and returns lists of conjuncts
+     * 
+     * @param types The types
+     * @param operator The operator
+     * @return The result
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     * @throws IllegalArgumentException If the given collection is empty
+     */
+    private static List<Type> reduce(Collection<? extends Type> types,
+        final Operator operator)
+    {
+        Objects.requireNonNull(types, "The types are null");
+        if (types.isEmpty())
+        {
+            throw new IllegalArgumentException("The types are empty");
+        }
+        List<List<Type>> conjuncts = new ArrayList<List<Type>>();
+        for (Type type : types)
+        {
+            Objects.requireNonNull(type, "A type is null");
+            conjuncts.add(Collections.singletonList(type));
+        }
+        Stream<List<Type>> stream = conjuncts.stream();
+        final Map<CacheKey, List<Type>> memo;
+        if (conjuncts.size() >= PARALLEL_THRESHOLD)
+        {
+            stream = stream.parallel();
+            memo = new ConcurrentHashMap<CacheKey, List<Type>>();
+        }
+        else
+        {
+            memo = null;
+        }
+        List<Type> result = stream.reduce(new BinaryOperator<List<Type>>()
+        {
+            @Override
+            public List<Type> apply(List<Type> x, List<Type> y)
+            {
+                return operator.apply(x, y, memo);
+            }
+        }).get();
+        if (memo != null)
+        {
+            for (Map.Entry<CacheKey, List<Type>> entry : memo.entrySet())
+            {
+                CACHE.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<Type>(result));
+    }
+    
+    /**
+     * Returns the result for the given key from the given memo or the
+     * {@link #CACHE}, or <code>null</code> if there is no result for
+     * the given key
+     * 
+     * @param key The key
+     * @param memo The optional memo
+     * @return The result
+     */
+    private static List<Type> lookup(
+        CacheKey key, Map<CacheKey, List<Type>> memo)
+    {
+        if (memo != null)
+        {
+            List<Type> result = memo.get(key);
+            if (result != null)
+            {
+                return result;
+            }
+        }
+        return CACHE.get(key);
+    }
+    
+    /**
+     * Store the given result in the given memo, or in the {@link #CACHE}
+     * if the memo is <code>null</code>
+     * 
+     * @param key The key
+     * @param result The result
+     * @param memo The optional memo
+     */
+    private static void store(CacheKey key, List<Type> result, 
+        Map<CacheKey, List<Type>> memo)
+    {
+        if (memo != null)
+        {
+            memo.put(key, result);
+        }
+        else
+        {
+            CACHE.put(key, result);
+        }
+    }
+    
+    /**
+     * Computes the greatest lower bound of the given lists of conjuncts
+     * 
+     * @param x The first list
+     * @param y The second list
+     * @param memo The optional memo
+     * @return The conjuncts of the greatest lower bound
+     */
+    private static List<Type> glb(List<Type> x, List<Type> y, 
+        Map<CacheKey, List<Type>> memo)
+    {
+        CacheKey key = new CacheKey(x, y, -1);
+        List<Type> result = lookup(key, memo);
+        if (result == null)
+        {
+            List<Type> all = new ArrayList<Type>(x);
+            all.addAll(y);
+            result = TypeBounds.mergeUpperBounds(
+                Collections.<Type>emptyList(), all);
+            store(key, result, memo);
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the least upper bound of the given lists of conjuncts
+     * 
+     * @param x The first list
+     * @param y The second list
+     * @param depth The nesting depth of the computation
+     * @param memo The optional memo
+     * @return The conjuncts of the least upper bound
+     */
+    private static List<Type> lub(List<Type> x, List<Type> y, int depth, 
+        Map<CacheKey, List<Type>> memo)
+    {
+        if (x.equals(y))
+        {
+            return x;
+        }
+        CacheKey key = new CacheKey(x, y, depth);
+        List<Type> result = lookup(key, memo);
+        if (result == null)
+        {
+            result = computeLub(x, y, depth, memo);
+            store(key, result, memo);
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the least upper bound of the given lists of conjuncts
+     * 
+     * @param x The first list
+     * @param y The second list
+     * @param depth The nesting depth of the computation
+     * @param memo The optional memo
+     * @return The conjuncts of the least upper bound
+     */
+    private static List<Type> computeLub(List<Type> x, List<Type> y, 
+        int depth, Map<CacheKey, List<Type>> memo)
+    {
+        List<Type> nx = normalize(x);
+        List<Type> ny = normalize(y);
+        
+        List<Type> componentTypesX = getComponentTypes(nx);
+        List<Type> componentTypesY = getComponentTypes(ny);
+        if (componentTypesX != null && componentTypesY != null)
+        {
+            List<Type> componentLub = 
+                lub(componentTypesX, componentTypesY, depth, memo);
+            List<Type> result = new ArrayList<Type>();
+            for (Type componentType : componentLub)
+            {
+                result.add(Substitutions.createArrayType(componentType));
+            }
+            return result;
+        }
+        
+        // Compute the minimal erased candidates
+        Set<Class<?>> erasedCandidates = computeErasedSupertypes(nx);
+        erasedCandidates.retainAll(computeErasedSupertypes(ny));
+        List<Type> minimalErasedCandidates = TypeBounds.mergeUpperBounds(
+            Collections.<Type>emptyList(), erasedCandidates);
+        List<Class<?>> sortedCandidates = new ArrayList<Class<?>>();
+        for (Type candidate : minimalErasedCandidates)
+        {
+            sortedCandidates.add((Class<?>)candidate);
+        }
+        Collections.sort(sortedCandidates, CONJUNCT_ORDER);
+        
+        List<Type> result = new ArrayList<Type>();
+        for (Class<?> candidate : sortedCandidates)
+        {
+            result.add(computeCandidateInvocation(
+                candidate, nx, ny, depth, memo));
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the least containing invocation of the given generic class
+     * for the given lists of conjuncts. If the given class is not generic,
+     * then it is returned directly.
+     * 
+     * @param c The class
+     * @param x The first list
+     * @param y The second list
+     * @param depth The nesting depth of the computation
+     * @param memo The optional memo
+     * @return The invocation
+     */
+    private static Type computeCandidateInvocation(Class<?> c, 
+        List<Type> x, List<Type> y, int depth, 
+        Map<CacheKey, List<Type>> memo)
+    {
+        if (c.getTypeParameters().length == 0)
+        {
+            return c;
+        }
+        Type invocationX = findInvocation(c, x);
+        Type invocationY = findInvocation(c, y);
+        if (!(invocationX instanceof ParameterizedType) || 
+            !(invocationY instanceof ParameterizedType))
+        {
+            return c;
+        }
+        if (invocationX.equals(invocationY))
+        {
+            return invocationX;
+        }
+        ParameterizedType px = (ParameterizedType)invocationX;
+        ParameterizedType py = (ParameterizedType)invocationY;
+        Type[] argumentsX = px.getActualTypeArguments();
+        Type[] argumentsY = py.getActualTypeArguments();
+        Type[] arguments = new Type[argumentsX.length];
+        for (int i = 0; i < arguments.length; i++)
+        {
+            arguments[i] = 
+                lcta(argumentsX[i], argumentsY[i], depth + 1, memo);
+        }
+        return new DefaultParameterizedType(c, px.getOwnerType(), arguments);
+    }
+    
+    /**
+     * Find the invocation of the given generic class among the supertypes
+     * of the given conjuncts
+     * 
+     * @param c The class
+     * @param conjuncts The conjuncts
+     * @return The invocation, or <code>null</code>
+     */
+    private static Type findInvocation(Class<?> c, List<Type> conjuncts)
+    {
+        for (Type conjunct : conjuncts)
+        {
+            Type supertype = Substitutions.asSupertype(conjunct, c);
+            if (supertype != null)
+            {
+                return supertype;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Computes the least containing type argument of the given type
+     * arguments, as defined in the JLS, section 4.10.4
+     * 
+     * @param u The first type argument
+     * @param v The second type argument
+     * @param depth The nesting depth of the computation
+     * @param memo The optional memo
+     * @return The least containing type argument
+     */
+    private static Type lcta(Type u, Type v, int depth, 
+        Map<CacheKey, List<Type>> memo)
+    {
+        if (u.equals(v))
+        {
+            return u;
+        }
+        if (depth >= MAX_DEPTH)
+        {
+            return UNBOUNDED;
+        }
+        boolean superU = isLowerBounded(u);
+        boolean superV = isLowerBounded(v);
+        if (superU && superV)
+        {
+            List<Type> glb = 
+                glb(getLowerBounds(u), getLowerBounds(v), memo);
+            return new DefaultWildcardType(glb.toArray(new Type[0]), null);
+        }
+        if (superU || superV)
+        {
+            Type s = superU ? u : v;
+            Type t = superU ? v : u;
+            if (t instanceof WildcardType)
+            {
+                // lcta(? extends U, ? super V) = U if U = V, otherwise ?
+                List<Type> upper = getUpperBounds(t);
+                List<Type> lower = getLowerBounds(s);
+                if (upper.equals(lower))
+                {
+                    return upper.get(0);
+                }
+                return UNBOUNDED;
+            }
+            List<Type> glb = 
+                glb(Collections.singletonList(t), getLowerBounds(s), memo);
+            return new DefaultWildcardType(glb.toArray(new Type[0]), null);
+        }
+        List<Type> lub = 
+            lub(getUpperBounds(u), getUpperBounds(v), depth, memo);
+        if (lub.equals(Collections.singletonList(Object.class)))
+        {
+            return UNBOUNDED;
+        }
+        return new DefaultWildcardType(null, lub.toArray(new Type[0]));
+    }
+    
+    /**
+     * Returns whether the given type is a wildcard type with lower bounds
+     * 
+     * @param type The type
+     * @return Whether the type is a lower bounded wildcard type
+     */
+    private static boolean isLowerBounded(Type type)
+    {
+        return type instanceof WildcardType && 
+            ((WildcardType)type).getLowerBounds().length > 0;
+    }
+    
+    /**
+     * Returns the lower bounds of the given wildcard type
+     * 
+     * @param type The wildcard type
+     * @return The lower bounds
+     */
+    private static List<Type> getLowerBounds(Type type)
+    {
+        return Arrays.asList(((WildcardType)type).getLowerBounds());
+    }
+    
+    /**
+     * Returns the upper bounds of the given type, if it is a wildcard 
+     * type, or a list containing the given type otherwise
+     * 
+     * @param type The type
+     * @return The upper bounds
+     */
+    private static List<Type> getUpperBounds(Type type)
+    {
+        if (type instanceof WildcardType)
+        {
+            return Arrays.asList(((WildcardType)type).getUpperBounds());
+        }
+        return Collections.singletonList(type);
+    }
+
+    /**
+     * Normalize the given conjuncts: Primitive types are replaced by their
+     * boxed types, and type variables and wildcard types are replaced by 
+     * their upper bounds.
+     * 
+     * @param conjuncts The conjuncts
+     * @return The normalized conjuncts
+     */
+    private static List<Type> normalize(List<Type> conjuncts)
+    {
+        List<Type> result = new ArrayList<Type>();
+        for (Type conjunct : conjuncts)
+        {
+            if (PrimitiveTypes.isPrimitiveType(conjunct))
+            {
+                result.add(PrimitiveTypes.getBoxedType(conjunct));
+            }
+            else if (conjunct instanceof TypeVariable<?>)
+            {
+                TypeVariable<?> typeVariable = (TypeVariable<?>)conjunct;
+                result.addAll(normalize(
+                    Arrays.asList(typeVariable.getBounds())));
+            }
+            else if (conjunct instanceof WildcardType)
+            {
+                result.addAll(normalize(getUpperBounds(conjunct)));
+            }
+            else
+            {
+                result.add(conjunct);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * If all the given conjuncts are array types with non-primitive 
+     * component types, then the list of component types is returned.
+     * Otherwise, <code>null</code> is returned.
+     * 
+     * @param conjuncts The conjuncts
+     * @return The component types
+     */
+    private static List<Type> getComponentTypes(List<Type> conjuncts)
+    {
+        List<Type> result = new ArrayList<Type>();
+        for (Type conjunct : conjuncts)
+        {
+            Type componentType = null;
+            if (conjunct instanceof Class<?>)
+            {
+                componentType = ((Class<?>)conjunct).getComponentType();
+            }
+            else if (conjunct instanceof GenericArrayType)
+            {
+                componentType = 
+                    ((GenericArrayType)conjunct).getGenericComponentType();
+            }
+            if (componentType == null || 
+                PrimitiveTypes.isPrimitiveType(componentType))
+            {
+                return null;
+            }
+            result.add(componentType);
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the set of erased supertypes of the given conjuncts
+     * 
+     * @param conjuncts The conjuncts
+     * @return The erased supertypes
+     */
+    private static Set<Class<?>> computeErasedSupertypes(List<Type> conjuncts)
+    {
+        Set<Class<?>> result = new LinkedHashSet<Class<?>>();
+        for (Type conjunct : conjuncts)
+        {
+            Class<?> rawType = null;
+            if (conjunct instanceof Class<?>)
+            {
+                rawType = (Class<?>)conjunct;
+            }
+            else if (conjunct instanceof ParameterizedType)
+            {
+                rawType = Types.getRawType((ParameterizedType)conjunct);
+            }
+            else
+            {
+                // Generic array types
+                rawType = Object[].class;
+            }
+            result.addAll(ClassHierarchy.getRawSupertypes(rawType));
+        }
+        return result;
+    }
+    
+    /**
+     * The key for the cache of results
+     */
+    private static final class CacheKey
+    {
+        /**
+         * The first list of conjuncts
+         */
+        private final List<Type> x;
+        
+        /**
+         * The second list of conjuncts
+         */
+        private final List<Type> y;
+        
+        /**
+         * The nesting depth, or -1 for the greatest lower bound
+         */
+        private final int depth;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param x The first list of conjuncts
+         * @param y The second list of conjuncts
+         * @param depth The nesting depth
+         */
+        CacheKey(List<Type> x, List<Type> y, int depth)
+        {
+            this.x = x;
+            this.y = y;
+            this.depth = depth;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return (31 * x.hashCode() + y.hashCode()) * 31 + depth;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof CacheKey))
+            {
+                return false;
+            }
+            CacheKey other = (CacheKey)object;
+            return depth == other.depth && 
+                x.equals(other.x) && y.equals(other.y);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeLattice()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
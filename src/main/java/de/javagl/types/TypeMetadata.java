@@ -0,0 +1,82 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Interface for the information about a class that is usually obtained
+ * via reflection. Implementations of this interface are generated at 
+ * compile time for classes that are annotated with 
+ * {@link GenerateTypeMetadata}, and are not supposed to be implemented 
+ * manually.<br>
+ * <br>
+ * Each method returns the same result as the reflective equivalent 
+ * that is mentioned in its documentation. The types that are returned
+ * are equal to the types that are returned via reflection. Type 
+ * variables are always the instances that are obtained via reflection.
+ */
+public interface TypeMetadata
+{
+    /**
+     * Returns the class that this metadata describes
+     * 
+     * @return The class
+     */
+    Class<?> getDescribedClass();
+    
+    /**
+     * Returns an unmodifiable list containing the direct superclass of 
+     * the described class (if it has one), followed by the interfaces 
+     * that it directly implements, as returned by 
+     * {@link Class#getSuperclass()} and {@link Class#getInterfaces()}.
+     * 
+     * @return The direct raw supertypes
+     */
+    List<Class<?>> getDirectRawSupertypes();
+    
+    /**
+     * Returns an unmodifiable list containing the generic superclass of 
+     * the described class (if it has one), followed by the generic 
+     * interfaces that it directly implements, as returned by 
+     * {@link Class#getGenericSuperclass()} and 
+     * {@link Class#getGenericInterfaces()}.
+     * 
+     * @return The direct generic supertypes
+     */
+    List<Type> getDirectGenericSupertypes();
+    
+    /**
+     * Returns the described class as a parameterized type, as returned by
+     * {@link Types#asParameterizedType(Class)}. If the class does not 
+     * have type parameters, then the class itself is returned.
+     * 
+     * @return The parameterized type, or the class itself
+     */
+    Type getParameterizedType();
+}
@@ -0,0 +1,137 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+
+/**
+ * The result of parsing a single line with a {@link BulkTypeParser}. 
+ * This either contains the parsed type, or the error that was caused
+ * by the line.
+ */
+public final class TypeParseResult
+{
+    /**
+     * The line number, starting at 1
+     */
+    private final int lineNumber;
+    
+    /**
+     * The input line
+     */
+    private final String input;
+    
+    /**
+     * The parsed type, or <code>null</code> if parsing failed
+     */
+    private final Type type;
+    
+    /**
+     * The error, or <code>null</code> if parsing succeeded
+     */
+    private final Exception error;
+    
+    /**
+     * Creates a new result
+     * 
+     * @param lineNumber The line number
+     * @param input The input line
+     * @param type The type
+     * @param error The error
+     */
+    TypeParseResult(int lineNumber, String input, Type type, Exception error)
+    {
+        this.lineNumber = lineNumber;
+        this.input = input;
+        this.type = type;
+        this.error = error;
+    }
+    
+    /**
+     * Returns the number of the line that this result was created from,
+     * starting at 1. This also counts the lines that have been skipped
+     * because they are empty.
+     * 
+     * @return The line number
+     */
+    public int getLineNumber()
+    {
+        return lineNumber;
+    }
+    
+    /**
+     * Returns the line that this result was created from
+     * 
+     * @return The input line
+     */
+    public String getInput()
+    {
+        return input;
+    }
+    
+    /**
+     * Returns whether the line was parsed successfully
+     * 
+     * @return Whether parsing succeeded
+     */
+    public boolean isSuccess()
+    {
+        return error == null;
+    }
+    
+    /**
+     * Returns the type that was parsed from the line
+     * 
+     * @return The type, or <code>null</code> if parsing failed
+     */
+    public Type getType()
+    {
+        return type;
+    }
+    
+    /**
+     * Returns the error that was caused by parsing the line. This will
+     * usually be a <code>ClassNotFoundException</code> or an
+     * <code>IllegalArgumentException</code>.
+     * 
+     * @return The error, or <code>null</code> if parsing succeeded
+     */
+    public Exception getError()
+    {
+        return error;
+    }
+    
+    @Override
+    public String toString()
+    {
+        if (error == null)
+        {
+            return lineNumber + ": " + Types.stringFor(type);
+        }
+        return lineNumber + ": " + error;
+    }
+}
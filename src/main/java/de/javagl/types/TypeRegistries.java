@@ -0,0 +1,59 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+/**
+ * Methods to create {@link TypeRegistry} instances
+ */
+public class TypeRegistries
+{
+    /**
+     * Create a new, empty {@link TypeRegistry}.<br>
+     * <br>
+     * The returned instance is thread-safe. Lookups do not block: They
+     * operate on an immutable snapshot of the registry, and their results
+     * are cached until the registry is modified. Modifications create and 
+     * publish a new snapshot, and are therefore more expensive. The 
+     * returned instance is intended for registries that are read 
+     * frequently by many threads, and modified rarely. 
+     * 
+     * @param <V> The value type
+     * @return The {@link TypeRegistry}
+     */
+    public static <V> TypeRegistry<V> create()
+    {
+        return new DefaultTypeRegistry<V>();
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeRegistries()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
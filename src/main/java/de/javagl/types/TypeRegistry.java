@@ -0,0 +1,114 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface for a registry that maps types to values, and allows looking
+ * up the values for types that are equal to or assignable from a given 
+ * type. Instances of classes implementing this interface may be created
+ * with {@link TypeRegistries}. 
+ * 
+ * @param <V> The value type
+ */
+public interface TypeRegistry<V>
+{
+    /**
+     * The modes for looking up values in a {@link TypeRegistry}
+     */
+    enum LookupMode
+    {
+        /**
+         * Look up the value of the type that is equal to the given type
+         */
+        EXACT,
+        
+        /**
+         * Look up the values of all types that are assignable from the
+         * given type, as determined by 
+         * {@link Types#isAssignable(Type, Type)}
+         */
+        ASSIGNABLE_FROM
+    }
+    
+    /**
+     * Register the given value for the given type. If a value is already
+     * registered for the type, then it is replaced with the given value,
+     * even if both values are equal. Only if the given value is the same
+     * instance as the registered value, the registry is not modified.
+     * 
+     * @param type The type
+     * @param value The value
+     * @return The value that was previously registered for the type, 
+     * or <code>null</code> if no value was registered
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    V register(Type type, V value);
+    
+    /**
+     * Remove the value that was registered for the given type
+     * 
+     * @param type The type
+     * @return The value that was registered for the type, or 
+     * <code>null</code> if no value was registered
+     * @throws NullPointerException If the given type is <code>null</code>
+     */
+    V unregister(Type type);
+    
+    /**
+     * Returns the value that is registered for the given type
+     * 
+     * @param type The type
+     * @return The value, or <code>null</code> if no value is registered
+     * @throws NullPointerException If the given type is <code>null</code>
+     */
+    V get(Type type);
+    
+    /**
+     * Returns an unmodifiable list containing the values that are found 
+     * for the given type with the given lookup mode. The values are 
+     * returned in the order in which they have been registered.
+     * 
+     * @param type The type
+     * @param lookupMode The {@link LookupMode}
+     * @return The values
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    List<V> lookup(Type type, LookupMode lookupMode);
+    
+    /**
+     * Returns an unmodifiable map containing the current mappings of 
+     * this registry. The map will not reflect later modifications of 
+     * this registry.
+     * 
+     * @return The mappings
+     */
+    Map<Type, V> getSnapshot();
+}
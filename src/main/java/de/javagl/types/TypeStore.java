@@ -0,0 +1,177 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+
+/**
+ * Interface for the storage of the packed type data of a 
+ * {@link DefaultTypeTable}.<br>
+ * <br>
+ * Each type is stored as a record that is identified by its handle, 
+ * consisting of the kind of the type, two kind-specific values, and 
+ * the offset and number of its children in a shared array of child 
+ * handles. Additionally, the storage contains the slots of the hash 
+ * table that is used for finding existing types, and the leaf types 
+ * (classes and type variables) that can not be represented with
+ * <code>int</code> values.
+ */
+interface TypeStore
+{
+    /**
+     * Returns the number of type records
+     * 
+     * @return The number of type records
+     */
+    int size();
+    
+    /**
+     * Add a new type record with the given values, and without children,
+     * and return its handle 
+     * 
+     * @param kind The kind
+     * @param first The first value
+     * @param second The second value
+     * @return The handle
+     */
+    int allocate(byte kind, int first, int second);
+    
+    /**
+     * Returns the kind of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The kind
+     */
+    byte getKind(int handle);
+    
+    /**
+     * Returns the first value of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The first value
+     */
+    int getFirst(int handle);
+    
+    /**
+     * Returns the second value of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The second value
+     */
+    int getSecond(int handle);
+    
+    /**
+     * Set the second value of the type with the given handle
+     * 
+     * @param handle The handle
+     * @param second The second value
+     */
+    void setSecond(int handle, int second);
+    
+    /**
+     * Returns the offset of the children of the type with the given 
+     * handle, for {@link #getChild(int)}
+     * 
+     * @param handle The handle
+     * @return The offset
+     */
+    int getChildOffset(int handle);
+    
+    /**
+     * Returns the number of children of the type with the given handle
+     * 
+     * @param handle The handle
+     * @return The number of children
+     */
+    int getChildCount(int handle);
+    
+    /**
+     * Returns the child handle at the given index of the shared array
+     * of child handles
+     * 
+     * @param index The index
+     * @return The child handle
+     */
+    int getChild(int index);
+    
+    /**
+     * Store the given child handles for the type with the given handle.
+     * This may only be called once for each type.
+     * 
+     * @param handle The handle
+     * @param handles The child handles
+     */
+    void setChildren(int handle, int handles[]);
+    
+    /**
+     * Returns the number of slots of the hash table. This is always
+     * a power of 2.
+     * 
+     * @return The number of slots
+     */
+    int getSlotCount();
+    
+    /**
+     * Returns the value of the given slot of the hash table
+     * 
+     * @param index The index of the slot
+     * @return The value
+     */
+    int getSlot(int index);
+    
+    /**
+     * Set the value of the given slot of the hash table
+     * 
+     * @param index The index of the slot
+     * @param value The value
+     */
+    void setSlot(int index, int value);
+    
+    /**
+     * Replace the hash table with an empty one that has the given 
+     * number of slots
+     * 
+     * @param slotCount The number of slots, which must be a power of 2
+     */
+    void resetSlots(int slotCount);
+    
+    /**
+     * Add the given class or type variable, and return its index
+     * 
+     * @param type The type
+     * @return The index
+     */
+    int addLeaf(Type type);
+    
+    /**
+     * Returns the class or type variable with the given index
+     * 
+     * @param index The index
+     * @return The type
+     */
+    Type getLeaf(int index);
+}
@@ -0,0 +1,157 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+
+/**
+ * Interface for a table of types, where each type is identified by an 
+ * <code>int</code> handle. Instances of classes implementing this 
+ * interface may be created with {@link TypeTables}.<br>
+ * <br>
+ * Types that are equal receive the same handle. The types are not stored
+ * as objects, but in a packed form, so that a table may hold a large 
+ * number of types with a small memory footprint. The algorithms that 
+ * operate on handles do not create new objects, except for the first
+ * time that the supertypes of a type are requested.<br>
+ * <br>
+ * Tables that are created with {@link TypeTables#createOffHeap()} store 
+ * the types outside of the Java heap, and only create type objects 
+ * when they are requested.
+ */
+public interface TypeTable
+{
+    /**
+     * Add the given type to this table, if it is not yet contained, and
+     * return its handle. This will also add all types that the given 
+     * type is composed of, and the supertypes of all classes that it
+     * refers to.
+     * 
+     * @param type The type
+     * @return The handle of the type
+     * @throws NullPointerException If the given type is <code>null</code>
+     * @throws IllegalArgumentException If the given type is not a
+     * Class, ParameterizedType, WildcardType, TypeVariable or 
+     * GenericArrayType
+     */
+    int intern(Type type);
+    
+    /**
+     * Returns the type for the given handle. The returned type will be
+     * equal to the type that the handle was obtained from, but not 
+     * necessarily identical to it.
+     * 
+     * @param handle The handle
+     * @return The type
+     * @throws IllegalArgumentException If the handle is not valid
+     */
+    Type getType(int handle);
+    
+    /**
+     * Returns the number of types in this table. The valid handles are
+     * the values between 0 (inclusive) and this size (exclusive).
+     * 
+     * @return The number of types
+     */
+    int size();
+    
+    /**
+     * Returns whether the type with the given handle is assignable from
+     * the type with the other given handle. This is equivalent to 
+     * {@link Types#isAssignable(Type, Type)} for the respective types.
+     * 
+     * @param toHandle The handle of the type to assign to 
+     * @param fromHandle The handle of the type to assign from
+     * @return Whether the types are assignable
+     * @throws IllegalArgumentException If any handle is not valid
+     */
+    boolean isAssignable(int toHandle, int fromHandle);
+    
+    /**
+     * Returns the number of supertypes of the type with the given handle.
+     * <br>
+     * <br>
+     * For a class or a parameterized type, the supertypes are the 
+     * type itself, and all its superclasses and implemented interfaces, 
+     * with their type variables replaced by the type arguments of the
+     * given type. For example, the supertypes of 
+     * <code>ArrayList&lt;String&gt;</code> include
+     * <code>List&lt;String&gt;</code> and <code>Iterable&lt;String&gt;</code>.
+     * For all other types, the only supertype is the type itself.<br>
+     * <br>
+     * The supertypes are computed and added to this table when they 
+     * are requested for the first time.
+     * 
+     * @param handle The handle
+     * @return The number of supertypes
+     * @throws IllegalArgumentException If the handle is not valid
+     */
+    int getSupertypeCount(int handle);
+    
+    /**
+     * Returns the handle of the supertype with the given index of the 
+     * type with the given handle. 
+     * 
+     * @param handle The handle
+     * @param index The index of the supertype
+     * @return The handle of the supertype
+     * @throws IllegalArgumentException If the handle is not valid
+     * @throws IndexOutOfBoundsException If the index is negative or not 
+     * smaller than the {@link #getSupertypeCount(int) supertype count}
+     */
+    int getSupertype(int handle, int index);
+    
+    /**
+     * Returns the number of raw supertypes of the type with the given 
+     * handle.<br>
+     * <br>
+     * For a class or a parameterized type, the raw supertypes are the 
+     * (raw) type itself, and all its superclasses and implemented 
+     * interfaces, as classes. For all other types, the only raw 
+     * supertype is <code>Object</code>. The raw supertypes are computed
+     * from the stored types, without creating any type objects.
+     * 
+     * @param handle The handle
+     * @return The number of raw supertypes
+     * @throws IllegalArgumentException If the handle is not valid
+     */
+    int getRawSupertypeCount(int handle);
+    
+    /**
+     * Returns the handle of the raw supertype with the given index of the 
+     * type with the given handle. 
+     * 
+     * @param handle The handle
+     * @param index The index of the raw supertype
+     * @return The handle of the raw supertype
+     * @throws IllegalArgumentException If the handle is not valid
+     * @throws IndexOutOfBoundsException If the index is negative or not 
+     * smaller than the {@link #getRawSupertypeCount(int) raw supertype 
+     * count}
+     */
+    int getRawSupertype(int handle, int index);
+}
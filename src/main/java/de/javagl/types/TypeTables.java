@@ -0,0 +1,96 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.util.Objects;
+
+/**
+ * Methods to create {@link TypeTable} instances
+ */
+public class TypeTables
+{
+    /**
+     * Create a new, empty {@link TypeTable}.<br>
+     * <br>
+     * The returned instance is not thread-safe. If it is accessed by 
+     * multiple threads, it must be synchronized externally.
+     * 
+     * @return The {@link TypeTable}
+     */
+    public static TypeTable create()
+    {
+        return new DefaultTypeTable(new HeapTypeStore());
+    }
+    
+    /**
+     * Create a new, empty {@link TypeTable} that stores the types outside 
+     * of the Java heap. Classes will be resolved with the class loader 
+     * that loaded this class.<br>
+     * <br>
+     * See {@link #createOffHeap(ClassLoader)} for details.
+     * 
+     * @return The {@link TypeTable}
+     */
+    public static TypeTable createOffHeap()
+    {
+        return createOffHeap(TypeTables.class.getClassLoader());
+    }
+    
+    /**
+     * Create a new, empty {@link TypeTable} that stores the types outside 
+     * of the Java heap.<br>
+     * <br>
+     * The structure of the types is stored in direct buffers, and classes
+     * are stored by their names, and resolved with the given class loader
+     * when they are accessed. Type objects are only created when they are
+     * requested, and only a small number of them is cached. This allows 
+     * large numbers of types to be stored without putting pressure on the
+     * garbage collector. Classes that can not be found by their name with 
+     * the given class loader, and type variables, are stored on the 
+     * heap.<br>
+     * <br>
+     * The returned instance is not thread-safe. If it is accessed by 
+     * multiple threads, it must be synchronized externally.
+     * 
+     * @param classLoader The class loader for resolving classes
+     * @return The {@link TypeTable}
+     * @throws NullPointerException If the class loader is <code>null</code>
+     */
+    public static TypeTable createOffHeap(ClassLoader classLoader)
+    {
+        Objects.requireNonNull(classLoader, "The class loader is null");
+        return new DefaultTypeTable(new OffHeapTypeStore(classLoader));
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeTables()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
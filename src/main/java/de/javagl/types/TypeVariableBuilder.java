@@ -57,9 +57,17 @@ public interface TypeVariableBuilder
     
     /**
      * Build the generic declaration that contains the type variables
-     * that have been built with this instance.
+     * that have been built with this instance.<br>
+     * <br>
+     * If this builder was created for an existing generic declaration,
+     * then each call to this method returns this generic declaration. 
+     * The caller that provided this generic declaration is responsible
+     * for its consistency with the type variables that have been added.
+     * Otherwise, each call to this method returns a new, unmodifiable 
+     * generic declaration that contains all type variables that have 
+     * been added until then.
      * 
      * @return The GenericDeclaration containing the type variables
      */
     GenericDeclaration build();
-}
\ No newline at end of file
+}
\ No newline at end of file
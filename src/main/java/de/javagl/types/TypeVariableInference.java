@@ -0,0 +1,871 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Methods for inferring the types of type variables from an assignment.
+ * <br>
+ * Given a type that contains type variables, like 
+ * <code>Map&lt;K, ? extends List&lt;V&gt;&gt;</code>, and a type that
+ * should be assigned to this type, like 
+ * <code>HashMap&lt;String, ArrayList&lt;Integer&gt;&gt;</code>, the
+ * inference computes the types for the type variables, namely
+ * <code>K := String</code> and <code>V := Integer</code>.<br>
+ * <br>
+ * The inference consists of three steps:
+ * <ul>
+ *   <li>
+ *     The assignment is reduced to constraints for the type variables,
+ *     which are solved on the fly: A type variable that appears in an 
+ *     invariant position is bound to the corresponding type argument 
+ *     (which may be a wildcard type). A type variable that appears at
+ *     the top level or as the bound of a wildcard type is bound to the
+ *     most specific type that satisfies all constraints.
+ *   </li>
+ *   <li>
+ *     The types of the type variables are checked against the declared
+ *     bounds of the type variables.
+ *   </li>
+ *   <li>
+ *     The type variables in the target type are substituted with the
+ *     inferred types, and it is verified that the resulting type is
+ *     assignable from the source type.
+ *   </li>
+ * </ul>
+ * The results of the inference are cached.
+ */
+class TypeVariableInference
+{
+    /**
+     * The maximum number of results that are cached
+     */
+    private static final int CACHE_SIZE = 1024;
+    
+    /**
+     * The {@link Solution} that indicates that no solution was found
+     */
+    private static final Solution NO_SOLUTION = new Solution(null, null);
+    
+    /**
+     * The cache for the results of the inference
+     */
+    private static final BoundedCache<CacheKey, Solution> CACHE = 
+        new BoundedCache<CacheKey, Solution>(CACHE_SIZE);
+    
+    /**
+     * The {@link TypeAssignabilityTester} that is used for the checks
+     * that may involve type variables
+     */
+    private static final TypeAssignabilityTester TESTER = 
+        TypeAssignabilityTesters.createForFreeTypeVariables();
+    
+    /**
+     * Infer the types of the type variables that appear in the given
+     * target type, so that the target type is assignable from the
+     * given source type. The returned mapping contains the type 
+     * variables that could be bound to a type. Type variables that 
+     * are not constrained by the source type are not contained in the 
+     * mapping. If the target type is not assignable from the source
+     * type for any types of the type variables, then <code>null</code>
+     * is returned.
+     * 
+     * @param to The target type
+     * @param from The source type
+     * @return The mapping, or <code>null</code>
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    static PersistentTypeVariableMapping infer(Type to, Type from)
+    {
+        return solve(to, from).mapping;
+    }
+    
+    /**
+     * Returns an unmodifiable map containing the types that the type
+     * variables of the given target type have to be bound to, as 
+     * described in {@link #infer(Type, Type)}. The iteration order
+     * of the map is the order in which the type variables appear in
+     * the target type.
+     * 
+     * @param to The target type
+     * @param from The source type
+     * @return The map, or <code>null</code>
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    static Map<TypeVariable<?>, Type> inferMap(Type to, Type from)
+    {
+        return solve(to, from).map;
+    }
+    
+    /**
+     * Returns an unmodifiable map containing the types that the type
+     * variables of the given target types have to be bound to, so that
+     * each target type is assignable from the source type at the same
+     * index. This is the inference for all arguments of an invocation
+     * of a generic method: The type variables are bound consistently
+     * across all target types, and the declared bounds are checked for
+     * the combined result. A <code>null</code> source type does not
+     * impose any constraint. The iteration order of the map is the 
+     * order in which the type variables appear in the target types. 
+     * If there is no solution, then <code>null</code> is returned.<br>
+     * <br>
+     * The results of this method are not cached.
+     * 
+     * @param to The target types
+     * @param from The source types
+     * @return The map, or <code>null</code>
+     * @throws NullPointerException If any array is <code>null</code>, 
+     * or the target types contain <code>null</code> elements
+     * @throws IllegalArgumentException If the arrays have different
+     * lengths
+     */
+    static Map<TypeVariable<?>, Type> inferMap(Type[] to, Type[] from)
+    {
+        Objects.requireNonNull(to, "The to types are null");
+        Objects.requireNonNull(from, "The from types are null");
+        if (to.length != from.length)
+        {
+            throw new IllegalArgumentException(
+                "Expected " + to.length + " from types, but found " 
+                + from.length);
+        }
+        for (Type type : to)
+        {
+            Objects.requireNonNull(type, "A to type is null");
+        }
+        TypeVariableInference inference = new TypeVariableInference(to);
+        return inference.solve(from).map;
+    }
+    
+    /**
+     * Returns the {@link Solution} of the inference problem for the given
+     * types, from the cache if possible
+     * 
+     * @param to The target type
+     * @param from The source type
+     * @return The {@link Solution}
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    private static Solution solve(Type to, Type from)
+    {
+        Objects.requireNonNull(to, "The to type is null");
+        Objects.requireNonNull(from, "The from type is null");
+        CacheKey key = new CacheKey(to, from);
+        Solution solution = CACHE.get(key);
+        if (solution == null)
+        {
+            TypeVariableInference inference = 
+                new TypeVariableInference(new Type[] { to });
+            solution = inference.solve(new Type[] { from });
+            CACHE.put(key, solution);
+        }
+        return solution;
+    }
+    
+    /**
+     * The target types
+     */
+    private final Type[] to;
+    
+    /**
+     * The type variables that appear in the target type
+     */
+    private final Set<TypeVariable<?>> freeTypeVariables;
+    
+    /**
+     * The current mapping of type variables to types
+     */
+    private PersistentTypeVariableMapping mapping;
+    
+    /**
+     * Creates a new inference for the given target types
+     * 
+     * @param to The target types
+     */
+    private TypeVariableInference(Type[] to)
+    {
+        this.to = to;
+        this.freeTypeVariables = new LinkedHashSet<TypeVariable<?>>();
+        for (Type type : to)
+        {
+            collectTypeVariables(type, freeTypeVariables);
+        }
+        this.mapping = TypeVariableMappings.createPersistent();
+    }
+    
+    /**
+     * Solve the inference problem for the given source types. Source
+     * types that are <code>null</code> are ignored.
+     * 
+     * @param from The source types
+     * @return The {@link Solution}
+     */
+    private Solution solve(Type[] from)
+    {
+        for (int i = 0; i < to.length; i++)
+        {
+            if (from[i] != null && !reduceAssignable(to[i], from[i]))
+            {
+                return NO_SOLUTION;
+            }
+        }
+        Map<TypeVariable<?>, Type> map = toMap(freeTypeVariables, mapping);
+        if (!checkBounds(map))
+        {
+            return NO_SOLUTION;
+        }
+        for (int i = 0; i < to.length; i++)
+        {
+            if (from[i] == null)
+            {
+                continue;
+            }
+            Type substituted = Substitutions.substitute(to[i], map);
+            if (!TESTER.isAssignable(substituted, from[i]))
+            {
+                return NO_SOLUTION;
+            }
+        }
+        return new Solution(mapping, Collections.unmodifiableMap(map));
+    }
+    
+    /**
+     * Reduce the constraint that the given target type is assignable 
+     * from the given source type
+     * 
+     * @param to The target type
+     * @param from The source type
+     * @return Whether the constraint may be satisfied
+     */
+    private boolean reduceAssignable(Type to, Type from)
+    {
+        if (isFree(to))
+        {
+            return bindLower((TypeVariable<?>)to, from);
+        }
+        if (to instanceof ParameterizedType)
+        {
+            if (from instanceof TypeVariable<?>)
+            {
+                TypeVariable<?> typeVariable = (TypeVariable<?>)from;
+                return reduceAssignableFromAny(to, typeVariable.getBounds());
+            }
+            if (from instanceof WildcardType)
+            {
+                WildcardType wildcardType = (WildcardType)from;
+                return reduceAssignableFromAny(
+                    to, wildcardType.getUpperBounds());
+            }
+            ParameterizedType parameterizedType = (ParameterizedType)to;
+            Class<?> rawType = Types.getRawType(parameterizedType);
+            Type supertype = Substitutions.asSupertype(from, rawType);
+            if (supertype == null)
+            {
+                return false;
+            }
+            if (!(supertype instanceof ParameterizedType))
+            {
+                // Unchecked conversion from a raw type
+                return true;
+            }
+            return reduceContainedAll(
+                parameterizedType.getActualTypeArguments(),
+                ((ParameterizedType)supertype).getActualTypeArguments());
+        }
+        if (to instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)to;
+            Type fromComponentType = getComponentType(from);
+            if (fromComponentType == null)
+            {
+                return false;
+            }
+            return reduceAssignable(
+                genericArrayType.getGenericComponentType(), 
+                fromComponentType);
+        }
+        if (to instanceof WildcardType)
+        {
+            return reduceContained(to, from);
+        }
+        return true;
+    }
+    
+    /**
+     * Reduce the constraint that the given target type is assignable 
+     * from any of the given source types. The first source type for
+     * which the constraint can be reduced will be used. 
+     * 
+     * @param to The target type
+     * @param froms The source types
+     * @return Whether the constraint may be satisfied
+     */
+    private boolean reduceAssignableFromAny(Type to, Type[] froms)
+    {
+        PersistentTypeVariableMapping snapshot = mapping;
+        for (Type from : froms)
+        {
+            if (reduceAssignable(to, from))
+            {
+                return true;
+            }
+            mapping = snapshot;
+        }
+        return false;
+    }
+    
+    /**
+     * Reduce the constraints that each of the given target type arguments
+     * contains the corresponding source type argument
+     * 
+     * @param toArguments The target type arguments
+     * @param fromArguments The source type arguments
+     * @return Whether the constraints may be satisfied
+     */
+    private boolean reduceContainedAll(
+        Type[] toArguments, Type[] fromArguments)
+    {
+        if (toArguments.length != fromArguments.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < toArguments.length; i++)
+        {
+            if (!reduceContained(toArguments[i], fromArguments[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reduce the constraint that the given target type argument contains
+     * the given source type argument
+     * 
+     * @param to The target type argument
+     * @param from The source type argument
+     * @return Whether the constraint may be satisfied
+     */
+    private boolean reduceContained(Type to, Type from)
+    {
+        if (isFree(to))
+        {
+            return bindExact((TypeVariable<?>)to, from);
+        }
+        if (to instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)to;
+            Type[] lowerBounds = wildcardType.getLowerBounds();
+            if (lowerBounds.length > 0)
+            {
+                Type fromLowerBound = from;
+                if (from instanceof WildcardType)
+                {
+                    Type[] fromLowerBounds = 
+                        ((WildcardType)from).getLowerBounds();
+                    if (fromLowerBounds.length == 0)
+                    {
+                        return false;
+                    }
+                    fromLowerBound = fromLowerBounds[0];
+                }
+                return reduceSubtype(lowerBounds[0], fromLowerBound);
+            }
+            Type[] fromUpperBounds = new Type[] { from };
+            if (from instanceof WildcardType)
+            {
+                WildcardType fromWildcardType = (WildcardType)from;
+                fromUpperBounds = fromWildcardType.getUpperBounds();
+                if (fromWildcardType.getLowerBounds().length > 0)
+                {
+                    fromUpperBounds = new Type[] { Object.class };
+                }
+            }
+            for (Type upperBound : wildcardType.getUpperBounds())
+            {
+                if (!reduceAssignableFromAny(upperBound, fromUpperBounds))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (from instanceof WildcardType)
+        {
+            return false;
+        }
+        if (to instanceof ParameterizedType)
+        {
+            if (!(from instanceof ParameterizedType))
+            {
+                return false;
+            }
+            ParameterizedType toType = (ParameterizedType)to;
+            ParameterizedType fromType = (ParameterizedType)from;
+            if (!toType.getRawType().equals(fromType.getRawType()))
+            {
+                return false;
+            }
+            return reduceContainedAll(
+                toType.getActualTypeArguments(), 
+                fromType.getActualTypeArguments());
+        }
+        if (to instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)to;
+            Type fromComponentType = getComponentType(from);
+            if (fromComponentType == null)
+            {
+                return false;
+            }
+            return reduceContained(
+                genericArrayType.getGenericComponentType(), 
+                fromComponentType);
+        }
+        return true;
+    }
+    
+    /**
+     * Reduce the constraint that the given target type is a subtype 
+     * of the given source type. This is the constraint that results
+     * from a lower bound of a wildcard type in the target type.
+     * 
+     * @param to The target type
+     * @param from The source type
+     * @return Whether the constraint may be satisfied
+     */
+    private boolean reduceSubtype(Type to, Type from)
+    {
+        if (isFree(to))
+        {
+            return bindUpper((TypeVariable<?>)to, from);
+        }
+        if (to instanceof ParameterizedType && 
+            from instanceof ParameterizedType)
+        {
+            ParameterizedType fromType = (ParameterizedType)from;
+            Type supertype = Substitutions.asSupertype(
+                to, Types.getRawType(fromType));
+            if (supertype == null)
+            {
+                return false;
+            }
+            if (!(supertype instanceof ParameterizedType))
+            {
+                return true;
+            }
+            Type[] toArguments = 
+                ((ParameterizedType)supertype).getActualTypeArguments();
+            Type[] fromArguments = fromType.getActualTypeArguments();
+            for (int i = 0; i < toArguments.length; i++)
+            {
+                Type toArgument = toArguments[i];
+                Type fromArgument = fromArguments[i];
+                if (fromArgument instanceof WildcardType)
+                {
+                    // The remaining cases are covered by the 
+                    // final verification
+                    continue;
+                }
+                if (!reduceContained(toArgument, fromArgument))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Bind the given type variable to a type that is assignable from
+     * the given type. If the type variable is already bound to a type
+     * that is assignable from the given type, then the binding is not
+     * changed. If the type variable is bound to a type that the given
+     * type is assignable from, then it will be bound to the given type.
+     * Otherwise, it will be bound to the least upper bound of both 
+     * types, as computed with {@link Types#leastUpperBound}. If this 
+     * least upper bound is an intersection type, then the type variable
+     * is bound to its first conjunct, which is the class, if there is 
+     * one. This is a supertype of all types that the type variable was 
+     * bound to, but the bounds check may reject it when only the full 
+     * intersection type would satisfy the declared bounds. Primitive 
+     * types are bound as their boxed types.
+     * 
+     * @param typeVariable The type variable
+     * @param type The type
+     * @return Whether the binding was possible
+     */
+    private boolean bindLower(TypeVariable<?> typeVariable, Type type)
+    {
+        Type boxedType = type;
+        if (PrimitiveTypes.isPrimitiveType(type))
+        {
+            boxedType = PrimitiveTypes.getBoxedType(type);
+        }
+        Type bound = mapping.getDirect(typeVariable);
+        if (bound == null)
+        {
+            mapping = mapping.with(typeVariable, boxedType);
+            return true;
+        }
+        if (TESTER.isAssignable(bound, boxedType))
+        {
+            return true;
+        }
+        if (TESTER.isAssignable(boxedType, bound))
+        {
+            mapping = mapping.with(typeVariable, boxedType);
+            return true;
+        }
+        List<Type> leastUpperBound = 
+            Types.leastUpperBound(Arrays.asList(bound, boxedType));
+        mapping = mapping.with(typeVariable, leastUpperBound.get(0));
+        return true;
+    }
+
+    /**
+     * Bind the given type variable to a type that is assignable to 
+     * the given type. If the type variable is already bound to a type
+     * that is assignable to the given type, then the binding is not
+     * changed.
+     * 
+     * @param typeVariable The type variable
+     * @param type The type
+     * @return Whether the binding was possible
+     */
+    private boolean bindUpper(TypeVariable<?> typeVariable, Type type)
+    {
+        Type bound = mapping.getDirect(typeVariable);
+        if (bound == null)
+        {
+            mapping = mapping.with(typeVariable, type);
+            return true;
+        }
+        return TESTER.isAssignable(type, bound);
+    }
+    
+    /**
+     * Bind the given type variable to exactly the given type. If the 
+     * type variable is already bound to a type that is assignable to 
+     * the given type, then it will be bound to the given type, and the
+     * final verification will check whether this is consistent with
+     * the previous constraints. 
+     * 
+     * @param typeVariable The type variable
+     * @param type The type
+     * @return Whether the binding was possible
+     */
+    private boolean bindExact(TypeVariable<?> typeVariable, Type type)
+    {
+        Type bound = mapping.getDirect(typeVariable);
+        if (bound == null || bound.equals(type))
+        {
+            mapping = mapping.with(typeVariable, type);
+            return true;
+        }
+        if (TESTER.isAssignable(type, bound))
+        {
+            mapping = mapping.with(typeVariable, type);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Check whether the types that the type variables are bound to in
+     * the given map are within the declared bounds of the respective
+     * type variables. Bounds that refer to type variables that could
+     * not be inferred are not checked.
+     * 
+     * @param map The mapping from type variables to types
+     * @return Whether all bounds are satisfied
+     */
+    private boolean checkBounds(Map<TypeVariable<?>, Type> map)
+    {
+        for (Map.Entry<TypeVariable<?>, Type> entry : map.entrySet())
+        {
+            TypeVariable<?> typeVariable = entry.getKey();
+            Type type = entry.getValue();
+            Type[] types = new Type[] { type };
+            if (type instanceof WildcardType)
+            {
+                WildcardType wildcardType = (WildcardType)type;
+                if (wildcardType.getLowerBounds().length > 0)
+                {
+                    continue;
+                }
+                types = wildcardType.getUpperBounds();
+            }
+            for (Type bound : typeVariable.getBounds())
+            {
+                Type substitutedBound = Substitutions.substitute(bound, map);
+                if (containsFree(substitutedBound))
+                {
+                    continue;
+                }
+                if (!isAssignableFromAny(substitutedBound, types))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether the given target type is assignable from any of 
+     * the given source types
+     * 
+     * @param to The target type
+     * @param froms The source types
+     * @return Whether the target type is assignable
+     */
+    private static boolean isAssignableFromAny(Type to, Type[] froms)
+    {
+        for (Type from : froms)
+        {
+            if (TESTER.isAssignable(to, from))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the given type is one of the type variables that
+     * have to be inferred
+     * 
+     * @param type The type
+     * @return Whether the type is a free type variable
+     */
+    private boolean isFree(Type type)
+    {
+        return type instanceof TypeVariable<?> && 
+            freeTypeVariables.contains(type);
+    }
+    
+    /**
+     * Returns whether the given type contains any of the type variables
+     * that have to be inferred
+     * 
+     * @param type The type
+     * @return Whether the type contains a free type variable
+     */
+    private boolean containsFree(Type type)
+    {
+        Set<TypeVariable<?>> typeVariables = 
+            new LinkedHashSet<TypeVariable<?>>();
+        collectTypeVariables(type, typeVariables);
+        return !Collections.disjoint(typeVariables, freeTypeVariables);
+    }
+    
+    /**
+     * Creates a map that contains the types that the given type variables
+     * are mapped to in the given mapping
+     * 
+     * @param typeVariables The type variables
+     * @param mapping The mapping
+     * @return The map
+     */
+    private static Map<TypeVariable<?>, Type> toMap(
+        Set<TypeVariable<?>> typeVariables, TypeVariableMapping mapping)
+    {
+        Map<TypeVariable<?>, Type> map = 
+            new LinkedHashMap<TypeVariable<?>, Type>();
+        for (TypeVariable<?> typeVariable : typeVariables)
+        {
+            Type type = mapping.get(typeVariable);
+            if (type != null)
+            {
+                map.put(typeVariable, type);
+            }
+        }
+        return map;
+    }
+    
+    /**
+     * Returns the component type of the given type, if it is an array
+     * type, or <code>null</code> otherwise
+     * 
+     * @param type The type
+     * @return The component type
+     */
+    private static Type getComponentType(Type type)
+    {
+        if (type instanceof Class<?>)
+        {
+            return ((Class<?>)type).getComponentType();
+        }
+        if (type instanceof GenericArrayType)
+        {
+            return ((GenericArrayType)type).getGenericComponentType();
+        }
+        return null;
+    }
+    
+    /**
+     * Collect all type variables that appear in the given type. The
+     * bounds of type variables are not examined.
+     * 
+     * @param type The type
+     * @param typeVariables The set that receives the type variables
+     */
+    static void collectTypeVariables(
+        Type type, Set<TypeVariable<?>> typeVariables)
+    {
+        if (type instanceof TypeVariable<?>)
+        {
+            typeVariables.add((TypeVariable<?>)type);
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            for (Type typeArgument : 
+                parameterizedType.getActualTypeArguments())
+            {
+                collectTypeVariables(typeArgument, typeVariables);
+            }
+        }
+        else if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            for (Type bound : wildcardType.getLowerBounds())
+            {
+                collectTypeVariables(bound, typeVariables);
+            }
+            for (Type bound : wildcardType.getUpperBounds())
+            {
+                collectTypeVariables(bound, typeVariables);
+            }
+        }
+        else if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            collectTypeVariables(
+                genericArrayType.getGenericComponentType(), typeVariables);
+        }
+    }
+    
+    /**
+     * The solution of an inference problem
+     */
+    private static final class Solution
+    {
+        /**
+         * The mapping, or <code>null</code> if there is no solution
+         */
+        final PersistentTypeVariableMapping mapping;
+        
+        /**
+         * The map, or <code>null</code> if there is no solution
+         */
+        final Map<TypeVariable<?>, Type> map;
+        
+        /**
+         * Creates a new solution
+         * 
+         * @param mapping The mapping
+         * @param map The map
+         */
+        Solution(PersistentTypeVariableMapping mapping, 
+            Map<TypeVariable<?>, Type> map)
+        {
+            this.mapping = mapping;
+            this.map = map;
+        }
+    }
+    
+    /**
+     * The key for the cache of inference results
+     */
+    private static final class CacheKey
+    {
+        /**
+         * The target type
+         */
+        private final Type to;
+        
+        /**
+         * The source type
+         */
+        private final Type from;
+        
+        /**
+         * The hash code
+         */
+        private final int hashCode;
+        
+        /**
+         * Creates a new key
+         * 
+         * @param to The target type
+         * @param from The source type
+         */
+        CacheKey(Type to, Type from)
+        {
+            this.to = to;
+            this.from = from;
+            this.hashCode = 31 * to.hashCode() + from.hashCode();
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof CacheKey))
+            {
+                return false;
+            }
+            CacheKey other = (CacheKey)object;
+            return to.equals(other.to) && from.equals(other.from);
+        }
+    }
+}
@@ -37,9 +37,13 @@ interface TypeVariableMapping
     /**
      * Map the given type variable to the given type. If the given type is
      * equal to the given type variable, then this call will have no effect.
+     * <br>
+     * This is an optional operation. Immutable implementations may throw
+     * an <code>UnsupportedOperationException</code>.
      * 
      * @param typeVariable The type variable
      * @param type The type
+     * @throws UnsupportedOperationException If this mapping is immutable
      */
     void put(TypeVariable<?> typeVariable, Type type);
     
@@ -41,6 +41,18 @@ class TypeVariableMappings
         return new DefaultTypeVariableMapping();
     }
     
+    /**
+     * Return an empty, immutable {@link PersistentTypeVariableMapping}.
+     * New mappings may be created from this instance by calling
+     * {@link PersistentTypeVariableMapping#with}.
+     * 
+     * @return The {@link PersistentTypeVariableMapping}
+     */
+    public static PersistentTypeVariableMapping createPersistent()
+    {
+        return PersistentTypeVariableMapping.empty();
+    }
+    
     /**
      * Private constructor to prevent instantiation
      */
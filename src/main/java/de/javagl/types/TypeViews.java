@@ -0,0 +1,596 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Member;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+
+/**
+ * Methods for accessing the components of types without creating 
+ * copies of the arrays that are returned by the methods of the 
+ * <code>java.lang.reflect</code> interfaces.<br>
+ * <br>
+ * For the implementations of this package, the internal arrays are 
+ * returned directly. For other implementations, the arrays are obtained
+ * once and stored in a small cache that is keyed by the identity of
+ * the type instance. Only types that exclusively refer to classes that
+ * are loaded by the class loader of this library, or one of its parent
+ * class loaders, are cached. The cache therefore does not keep other 
+ * class loaders alive, for example, the class loaders of applications
+ * that have been undeployed. Whether a class is visible in this sense
+ * is computed once for each class. The types that a type refers to
+ * are examined with the methods of this class, so that this check 
+ * does not create further copies of arrays. For types that are not
+ * cached, an entry that refers to the type weakly records this result,
+ * so that the check is not repeated.<br>
+ * <br>
+ * The arrays that are returned by these methods are shared, and 
+ * <b>must not be modified</b> by the caller.
+ */
+class TypeViews
+{
+    /**
+     * The kind of a cache entry for type arguments
+     */
+    private static final int TYPE_ARGUMENTS = 0;
+
+    /**
+     * The kind of a cache entry for upper bounds of wildcard types
+     */
+    private static final int UPPER_BOUNDS = 1;
+    
+    /**
+     * The kind of a cache entry for lower bounds of wildcard types
+     */
+    private static final int LOWER_BOUNDS = 2;
+    
+    /**
+     * The kind of a cache entry for bounds of type variables
+     */
+    private static final int BOUNDS = 3;
+    
+    /**
+     * The size of the cache. Must be a power of 2.
+     */
+    private static final int CACHE_SIZE = 1024;
+    
+    /**
+     * The direct-mapped cache for the arrays of types that are not 
+     * implemented in this package. Races on this array are benign: 
+     * The entries are immutable, and an entry that is overwritten
+     * by another thread is only computed again.
+     */
+    private static final Entry CACHE[] = new Entry[CACHE_SIZE];
+    
+    /**
+     * The class loader of this library
+     */
+    private static final ClassLoader LIBRARY_CLASS_LOADER = 
+        TypeViews.class.getClassLoader();
+    
+    /**
+     * Whether classes are loaded by the class loader of this library 
+     * or one of its parents
+     */
+    private static final ClassValue<Boolean> LIBRARY_VISIBLE =
+        new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> c)
+        {
+            return isParentOrSelf(LIBRARY_CLASS_LOADER, c.getClassLoader());
+        }
+    };
+    
+    /**
+     * The type parameters of classes
+     */
+    private static final ClassValue<TypeVariable<?>[]> TYPE_PARAMETERS =
+        new ClassValue<TypeVariable<?>[]>()
+    {
+        @Override
+        protected TypeVariable<?>[] computeValue(Class<?> type)
+        {
+            return type.getTypeParameters();
+        }
+    };
+    
+    /**
+     * An entry of the cache
+     */
+    private static final class Entry
+    {
+        /**
+         * The type, or <code>null</code> if the type may not be cached
+         */
+        private final Type type;
+        
+        /**
+         * A weak reference to the type, if the type may not be cached
+         */
+        private final WeakReference<Type> foreignType;
+        
+        /**
+         * The kind of the array
+         */
+        final int kind;
+        
+        /**
+         * The array, or <code>null</code> if the type may not be cached
+         */
+        final Type array[];
+
+        /**
+         * Creates a new entry for a type that may be cached
+         * 
+         * @param type The type
+         * @param kind The kind of the array
+         * @param array The array
+         */
+        Entry(Type type, int kind, Type array[])
+        {
+            this.type = type;
+            this.foreignType = null;
+            this.kind = kind;
+            this.array = array;
+        }
+        
+        /**
+         * Creates a new entry for a type that may not be cached
+         * 
+         * @param foreignType The reference to the type
+         * @param kind The kind of the array
+         */
+        Entry(WeakReference<Type> foreignType, int kind)
+        {
+            this.type = null;
+            this.foreignType = foreignType;
+            this.kind = kind;
+            this.array = null;
+        }
+        
+        /**
+         * Returns whether this entry is the entry for the given type
+         * and kind
+         * 
+         * @param type The type
+         * @param kind The kind
+         * @return Whether this entry matches
+         */
+        boolean matches(Type type, int kind)
+        {
+            if (this.kind != kind)
+            {
+                return false;
+            }
+            if (this.type != null)
+            {
+                return this.type == type;
+            }
+            return foreignType.get() == type;
+        }
+    }
+    
+    /**
+     * Returns the actual type arguments of the given type
+     * 
+     * @param parameterizedType The type
+     * @return The shared array of type arguments
+     */
+    static Type[] typeArguments(ParameterizedType parameterizedType)
+    {
+        if (parameterizedType instanceof DefaultParameterizedType)
+        {
+            DefaultParameterizedType defaultParameterizedType = 
+                (DefaultParameterizedType)parameterizedType;
+            return defaultParameterizedType.actualTypeArguments();
+        }
+        return array(parameterizedType, TYPE_ARGUMENTS);
+    }
+    
+    /**
+     * Returns the number of actual type arguments of the given type
+     * 
+     * @param parameterizedType The type
+     * @return The number of type arguments
+     */
+    static int typeArgumentCount(ParameterizedType parameterizedType)
+    {
+        return typeArguments(parameterizedType).length;
+    }
+    
+    /**
+     * Returns the actual type argument of the given type with the
+     * given index
+     * 
+     * @param parameterizedType The type
+     * @param index The index
+     * @return The type argument
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #typeArgumentCount(ParameterizedType)}
+     */
+    static Type typeArgument(ParameterizedType parameterizedType, int index)
+    {
+        return typeArguments(parameterizedType)[index];
+    }
+    
+    /**
+     * Returns the upper bounds of the given wildcard type
+     * 
+     * @param wildcardType The type
+     * @return The shared array of upper bounds
+     */
+    static Type[] upperBounds(WildcardType wildcardType)
+    {
+        if (wildcardType instanceof DefaultWildcardType)
+        {
+            return ((DefaultWildcardType)wildcardType).upperBounds();
+        }
+        return array(wildcardType, UPPER_BOUNDS);
+    }
+    
+    /**
+     * Returns the lower bounds of the given wildcard type
+     * 
+     * @param wildcardType The type
+     * @return The shared array of lower bounds
+     */
+    static Type[] lowerBounds(WildcardType wildcardType)
+    {
+        if (wildcardType instanceof DefaultWildcardType)
+        {
+            return ((DefaultWildcardType)wildcardType).lowerBounds();
+        }
+        return array(wildcardType, LOWER_BOUNDS);
+    }
+    
+    /**
+     * Returns the bounds of the given type variable
+     * 
+     * @param typeVariable The type variable
+     * @return The shared array of bounds
+     */
+    static Type[] bounds(TypeVariable<?> typeVariable)
+    {
+        if (typeVariable instanceof DefaultTypeVariable<?>)
+        {
+            return ((DefaultTypeVariable<?>)typeVariable).bounds();
+        }
+        return array(typeVariable, BOUNDS);
+    }
+    
+    /**
+     * Returns the type parameters of the given class
+     * 
+     * @param c The class
+     * @return The shared array of type parameters
+     */
+    static TypeVariable<?>[] typeParameters(Class<?> c)
+    {
+        return TYPE_PARAMETERS.get(c);
+    }
+    
+    /**
+     * Returns the array of the given kind for the given type, which is 
+     * either taken from the cache, or obtained from the type and stored
+     * in the cache, if the type may be cached
+     * 
+     * @param type The type
+     * @param kind The kind
+     * @return The array
+     */
+    private static Type[] array(Type type, int kind)
+    {
+        Entry entry = CACHE[index(type, kind)];
+        if (entry != null && entry.matches(type, kind))
+        {
+            if (entry.array != null)
+            {
+                return entry.array;
+            }
+            return fetch(type, kind);
+        }
+        Type array[] = fetch(type, kind);
+        store(type, kind, array);
+        return array;
+    }
+    
+    /**
+     * Returns the cached array of the given kind for the given type, or 
+     * <code>null</code> if it is not cached
+     * 
+     * @param type The type
+     * @param kind The kind
+     * @return The array
+     */
+    private static Type[] lookup(Type type, int kind)
+    {
+        Entry entry = CACHE[index(type, kind)];
+        if (entry != null && entry.matches(type, kind))
+        {
+            return entry.array;
+        }
+        return null;
+    }
+    
+    /**
+     * Obtain a new array of the given kind from the given type
+     * 
+     * @param type The type
+     * @param kind The kind
+     * @return The array
+     */
+    private static Type[] fetch(Type type, int kind)
+    {
+        switch (kind)
+        {
+            case TYPE_ARGUMENTS:
+                return ((ParameterizedType)type).getActualTypeArguments();
+            case UPPER_BOUNDS:
+                return ((WildcardType)type).getUpperBounds();
+            case LOWER_BOUNDS:
+                return ((WildcardType)type).getLowerBounds();
+            default:
+                return ((TypeVariable<?>)type).getBounds();
+        }
+    }
+    
+    /**
+     * Store the given array of the given kind for the given type. If 
+     * the type may not be cached, then only a weak reference to the 
+     * type is stored, to indicate that the type was already examined.
+     * 
+     * @param type The type
+     * @param kind The kind
+     * @param array The array
+     */
+    private static void store(Type type, int kind, Type array[])
+    {
+        Entry entry;
+        if (isLibraryVisible(type, kind, array))
+        {
+            entry = new Entry(type, kind, array);
+        }
+        else
+        {
+            entry = new Entry(new WeakReference<Type>(type), kind);
+        }
+        CACHE[index(type, kind)] = entry;
+    }
+    
+    /**
+     * Returns whether the given type, the given array that was obtained 
+     * from the type, and all types that they refer to, only consist of 
+     * classes that are loaded by the class loader of this library or 
+     * one of its parents. This includes the classes that implement the 
+     * type interfaces. The bounds of type variables are not examined: 
+     * They can only refer to classes that are visible for the class that
+     * declares the type variable.
+     * 
+     * @param type The type
+     * @param kind The kind of the array
+     * @param array The array of the given kind, obtained from the type
+     * @return Whether the type only refers to classes of this library
+     */
+    private static boolean isLibraryVisible(
+        Type type, int kind, Type array[])
+    {
+        if (!isLibraryVisible(type.getClass()) || !isLibraryVisible(array))
+        {
+            return false;
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            return isLibraryVisible(parameterizedType.getRawType()) &&
+                isLibraryVisible(parameterizedType.getOwnerType());
+        }
+        if (type instanceof WildcardType)
+        {
+            // The other bounds are not obtained with the methods of this
+            // class, because these would again examine the given bounds
+            WildcardType wildcardType = (WildcardType)type;
+            int otherKind = kind == UPPER_BOUNDS ? LOWER_BOUNDS : UPPER_BOUNDS;
+            Type otherBounds[] = lookup(wildcardType, otherKind);
+            if (otherBounds == null)
+            {
+                otherBounds = fetch(wildcardType, otherKind);
+            }
+            return isLibraryVisible(otherBounds);
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            return isDeclarationVisible(typeVariable.getGenericDeclaration());
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether the given type, and all types that it refers to,
+     * only consist of classes that are loaded by the class loader of
+     * this library or one of its parents, as determined with
+     * {@link #isLibraryVisible(Type, int, Type[])}
+     * 
+     * @param type The type
+     * @return Whether the type only refers to classes of this library
+     */
+    private static boolean isLibraryVisible(Type type)
+    {
+        if (type == null)
+        {
+            return true;
+        }
+        if (type instanceof Class<?>)
+        {
+            return isLibraryVisible((Class<?>)type);
+        }
+        if (!isLibraryVisible(type.getClass()))
+        {
+            return false;
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            return isLibraryVisible(parameterizedType, TYPE_ARGUMENTS, 
+                typeArguments(parameterizedType));
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            return isLibraryVisible(wildcardType, UPPER_BOUNDS, 
+                upperBounds(wildcardType));
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            return isLibraryVisible(
+                genericArrayType.getGenericComponentType());
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            return isDeclarationVisible(typeVariable.getGenericDeclaration());
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether the given generic declaration of a type variable 
+     * is visible, as determined with {@link #isLibraryVisible(Type)}
+     * 
+     * @param genericDeclaration The generic declaration
+     * @return Whether the declaration is visible
+     */
+    private static boolean isDeclarationVisible(
+        GenericDeclaration genericDeclaration)
+    {
+        if (genericDeclaration == null)
+        {
+            return true;
+        }
+        if (genericDeclaration instanceof Class<?>)
+        {
+            return isLibraryVisible((Class<?>)genericDeclaration);
+        }
+        if (genericDeclaration instanceof Member)
+        {
+            Member member = (Member)genericDeclaration;
+            if (!isLibraryVisible(member.getDeclaringClass()))
+            {
+                return false;
+            }
+        }
+        return isLibraryVisible(genericDeclaration.getClass());
+    }
+    
+    /**
+     * Returns whether all of the given types are visible, as determined 
+     * with {@link #isLibraryVisible(Type)}
+     * 
+     * @param types The types
+     * @return Whether all types are visible
+     */
+    private static boolean isLibraryVisible(Type types[])
+    {
+        for (Type type : types)
+        {
+            if (!isLibraryVisible(type))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether the given class is loaded by the class loader of 
+     * this library or one of its parents
+     * 
+     * @param c The class
+     * @return Whether the class is visible
+     */
+    static boolean isLibraryVisible(Class<?> c)
+    {
+        return LIBRARY_VISIBLE.get(c);
+    }
+    
+    /**
+     * Returns whether the given parent class loader is the given class
+     * loader, or one of its parents. The <code>null</code> class loader
+     * is the bootstrap class loader, which is a parent of all class 
+     * loaders.
+     * 
+     * @param classLoader The class loader
+     * @param parent The parent class loader
+     * @return Whether the parent is the class loader or one of its parents
+     */
+    static boolean isParentOrSelf(ClassLoader classLoader, ClassLoader parent)
+    {
+        if (parent == null)
+        {
+            return true;
+        }
+        ClassLoader current = classLoader;
+        while (current != null)
+        {
+            if (current == parent)
+            {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+    
+    /**
+     * Returns the cache index for the given type and kind
+     * 
+     * @param type The type
+     * @param kind The kind
+     * @return The index
+     */
+    private static int index(Type type, int kind)
+    {
+        int h = System.identityHashCode(type) * 0x9E3779B9;
+        return ((h >>> 22) ^ kind) & (CACHE_SIZE - 1);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeViews()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -26,16 +26,20 @@
  */
 package de.javagl.types;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -289,18 +293,18 @@ public final class Types
     }
     
     /**
-     * Returns an unmodifiable list with the same contents as the
-     * given array
+     * Returns an unmodifiable list that is backed by the given array.
+     * The given array must be one of the shared arrays that are returned
+     * by the {@link TypeViews} methods, which are never modified.
      * 
      * @param <T> The element type
      * @param array The array
      * @return The list
      * @throws NullPointerException If the given array is <code>null</code>
      */
-    private static <T> List<T> unmodifiableCopy(T array[])
+    private static <T> List<T> unmodifiableView(T array[])
     {
-        return Collections.unmodifiableList(
-            new ArrayList<T>(Arrays.asList(array)));
+        return Collections.unmodifiableList(Arrays.asList(array));
     }
     
     
@@ -338,7 +342,7 @@ public final class Types
             return null;
         }
         ParameterizedType parameterizedType = (ParameterizedType)type;
-        return unmodifiableCopy(parameterizedType.getActualTypeArguments());
+        return unmodifiableView(TypeViews.typeArguments(parameterizedType));
     }
     
 
@@ -377,7 +381,7 @@ public final class Types
             return null;
         }
         WildcardType wildcardType = (WildcardType)type;
-        return unmodifiableCopy(wildcardType.getUpperBounds());
+        return unmodifiableView(TypeViews.upperBounds(wildcardType));
     }
 
     /**
@@ -400,7 +404,7 @@ public final class Types
             return null;
         }
         WildcardType wildcardType = (WildcardType)type;
-        return unmodifiableCopy(wildcardType.getLowerBounds());
+        return unmodifiableView(TypeViews.lowerBounds(wildcardType));
     }
 
     /**
@@ -453,7 +457,7 @@ public final class Types
             return null;
         }
         TypeVariable<?> typeVariable = (TypeVariable<?>)type;
-        return unmodifiableCopy(typeVariable.getBounds());
+        return unmodifiableView(TypeViews.bounds(typeVariable));
     }
 
     /**
@@ -614,6 +618,248 @@ public final class Types
         return TYPE_ASSIGNABILITY_TESTER.isAssignable(to, from);
     }
     
+    /**
+     * Initializes the internal tables and caches of this library, so that
+     * the first calls to the main methods of this class do not have to 
+     * pay for the class initialization and the computation of reflective
+     * information. This includes the initialization of the classes that 
+     * are involved in {@link #parse(String)}, 
+     * {@link #isAssignable(Type, Type)} and 
+     * {@link Supertypes#computeSupertypes(Type)}, and the computation 
+     * of the cached supertype information of the given classes.<br>
+     * <br>
+     * This method may be called at startup, for the classes that are
+     * expected to be used later. It may be called multiple times, and
+     * from multiple threads.
+     * 
+     * @param classes The classes
+     * @throws NullPointerException If the given array is <code>null</code>
+     * or contains <code>null</code> elements
+     */
+    public static void preload(Class<?> ... classes)
+    {
+        Preloading.preload(classes);
+    }
+    
+    /**
+     * Infer the types of the type variables that appear in the given
+     * target type, so that the target type is assignable from the given
+     * source type.<br>
+     * <br>
+     * For example, for the target type 
+     * <code>Map&lt;K, ? extends List&lt;V&gt;&gt;</code> and the source
+     * type <code>HashMap&lt;String, ArrayList&lt;Integer&gt;&gt;</code>,
+     * the returned map will contain <code>K := String</code> and 
+     * <code>V := Integer</code>. A type variable that appears as a 
+     * type argument may also be mapped to a wildcard type: For the
+     * target type <code>List&lt;T&gt;</code> and the source type
+     * <code>List&lt;? extends Number&gt;</code>, the type variable
+     * <code>T</code> is mapped to <code>? extends Number</code>.<br>
+     * <br>
+     * The inferred types are checked against the declared bounds of 
+     * the type variables. Type variables that are not constrained by
+     * the source type are not contained in the returned map. The 
+     * iteration order of the map is the order in which the type 
+     * variables appear in the target type.<br>
+     * <br>
+     * The results of this method are cached.
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return An unmodifiable map from type variables to the inferred
+     * types, or <code>null</code> if the target type is not assignable 
+     * from the source type for any types of the type variables
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static Map<TypeVariable<?>, Type> inferTypeVariables(
+        Type to, Type from)
+    {
+        return TypeVariableInference.inferMap(to, from);
+    }
+    
+    /**
+     * Computes the least upper bound of the given types, as described
+     * in the JLS, section 4.10.4, "Least Upper Bound".<br>
+     * <br>
+     * The least upper bound may be an intersection type. It is returned 
+     * as a list of types, where the first element is a class, if the 
+     * intersection contains a class other than <code>Object</code>,
+     * and the remaining elements are interfaces. For example, the least 
+     * upper bound of <code>ArrayList&lt;Integer&gt;</code> and 
+     * <code>LinkedList&lt;Long&gt;</code> contains 
+     * <code>AbstractList&lt;? extends Number &amp; Comparable&lt;?
+     * extends ...&gt;&gt;</code>, as well as the common interfaces
+     * <code>Cloneable</code> and <code>Serializable</code>. Since the 
+     * least upper bound of types with recursive bounds is infinite, the 
+     * nesting depth of the type arguments is limited: Beyond this depth, 
+     * unbounded wildcards are used.<br>
+     * <br>
+     * Primitive types are boxed, and type variables and wildcard types are
+     * replaced by their upper bounds. 
+     * 
+     * @param types The types
+     * @return An unmodifiable list containing the conjuncts of the least
+     * upper bound
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     * @throws IllegalArgumentException If the given collection is empty
+     */
+    public static List<Type> leastUpperBound(Collection<? extends Type> types)
+    {
+        return TypeLattice.leastUpperBound(types);
+    }
+    
+    /**
+     * Computes the greatest lower bound of the given types, which is the
+     * intersection of the given types. The returned list contains the 
+     * given types, except for the types that are supertypes of other 
+     * types in the list.  
+     * 
+     * @param types The types
+     * @return An unmodifiable list containing the conjuncts of the 
+     * greatest lower bound
+     * @throws NullPointerException If the given collection is 
+     * <code>null</code> or contains <code>null</code> elements
+     * @throws IllegalArgumentException If the given collection is empty
+     */
+    public static List<Type> greatestLowerBound(
+        Collection<? extends Type> types)
+    {
+        return TypeLattice.greatestLowerBound(types);
+    }
+    
+    /**
+     * Returns whether the given types are equivalent modulo the renaming
+     * of type variables. This is the case when the types are structurally
+     * equal, and there is a one-to-one correspondence between their type 
+     * variables, so that corresponding type variables have equivalent 
+     * bounds. The names and generic declarations of the type variables 
+     * are ignored.<br>
+     * <br>
+     * For example, the types <code>List&lt;T extends Number&gt;</code>
+     * and <code>List&lt;U extends Number&gt;</code> that are created by
+     * two different {@link TypeParser} instances are equivalent, 
+     * although they are not equal. The types 
+     * <code>Map&lt;K, V&gt;</code> and <code>Map&lt;T, T&gt;</code>
+     * are not equivalent. 
+     * 
+     * @param type0 The first type
+     * @param type1 The second type
+     * @return Whether the types are equivalent
+     */
+    public static boolean areEquivalent(Type type0, Type type1)
+    {
+        return TypeEquivalence.areEquivalent(type0, type1);
+    }
+    
+    /**
+     * Computes a hash code for the given type that is consistent with
+     * {@link #areEquivalent(Type, Type)}: Equivalent types have equal
+     * hash codes.
+     * 
+     * @param type The type
+     * @return The hash code
+     */
+    public static int equivalenceHashCode(Type type)
+    {
+        return TypeEquivalence.equivalenceHashCode(type);
+    }
+    
+    /**
+     * Returns a key object for the given type, whose <code>equals</code>
+     * and <code>hashCode</code> methods are implemented based on 
+     * {@link #areEquivalent(Type, Type)} and 
+     * {@link #equivalenceHashCode(Type)}. This may be used for storing 
+     * types in hash maps, so that equivalent types are mapped to the 
+     * same entry.
+     * 
+     * @param type The type
+     * @return The key
+     */
+    public static Object equivalenceKey(Type type)
+    {
+        return TypeEquivalence.equivalenceKey(type);
+    }
+    
+    /**
+     * Resolves the given type of a member of a generic class against 
+     * the given owner type. The type variables of the owner type and 
+     * its supertypes (and, for inner classes, of its owner types) are
+     * replaced with the corresponding type arguments of the owner type.
+     * For example, for the owner type <code>ArrayList&lt;String&gt;</code>
+     * and the member type <code>List&lt;E&gt;</code>, where 
+     * <code>E</code> is the type parameter of <code>List</code>, the 
+     * result will be <code>List&lt;String&gt;</code>.<br>
+     * <br>
+     * When a type variable is assigned a wildcard type, then it is 
+     * replaced by this wildcard type when it appears as a type argument, 
+     * and by the upper bound of the wildcard type otherwise. For the 
+     * owner type <code>List&lt;? extends Number&gt;</code>, the member
+     * type <code>E[]</code> is resolved to <code>Number[]</code>, and 
+     * <code>List&lt;E&gt;</code> is resolved to 
+     * <code>List&lt;? extends Number&gt;</code>. Type variables that
+     * are not assigned a type remain unresolved.<br>
+     * <br>
+     * The results of this method are cached.
+     * 
+     * @param owner The owner type
+     * @param memberType The member type
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static Type resolve(Type owner, Type memberType)
+    {
+        return MemberTypes.resolve(owner, memberType);
+    }
+    
+    /**
+     * Resolves the generic type of the given field against the given 
+     * owner type, as described in {@link #resolve(Type, Type)}. 
+     * 
+     * @param owner The owner type
+     * @param field The field
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the field is not declared in
+     * the owner type or one of its supertypes
+     */
+    public static Type resolveFieldType(Type owner, Field field)
+    {
+        return MemberTypes.resolveFieldType(owner, field);
+    }
+    
+    /**
+     * Resolves the generic return type of the given method against the 
+     * given owner type, as described in {@link #resolve(Type, Type)}. 
+     * 
+     * @param owner The owner type
+     * @param method The method
+     * @return The resolved type
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the method is not declared in
+     * the owner type or one of its supertypes
+     */
+    public static Type resolveReturnType(Type owner, Method method)
+    {
+        return MemberTypes.resolveReturnType(owner, method);
+    }
+    
+    /**
+     * Resolves the generic parameter types of the given method against 
+     * the given owner type, as described in {@link #resolve(Type, Type)}. 
+     * 
+     * @param owner The owner type
+     * @param method The method
+     * @return The resolved types
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the method is not declared in
+     * the owner type or one of its supertypes
+     */
+    public static Type[] resolveParameterTypes(Type owner, Method method)
+    {
+        return MemberTypes.resolveParameterTypes(owner, method);
+    }
+    
     /**
      * Returns the raw type of the given parameterized type as a class.
      * 
@@ -677,6 +923,11 @@ public final class Types
     public static Type asParameterizedType(Class<?> c)
     {
         Objects.requireNonNull(c, "The class is null");
+        TypeMetadata typeMetadata = ClassHierarchy.getTypeMetadata(c);
+        if (typeMetadata != null)
+        {
+            return typeMetadata.getParameterizedType();
+        }
         Type typeParameters[] = c.getTypeParameters();
         if (typeParameters.length == 0)
         {
@@ -703,6 +954,44 @@ public final class Types
         return TypesToString.stringFor(type);
     }
 
+    /**
+     * Appends the string representation of the given type, as it is
+     * returned by {@link #stringFor(Type)}, to the given
+     * <code>StringBuilder</code>.
+     *
+     * @param sb The <code>StringBuilder</code>
+     * @param type The type
+     * @return The given <code>StringBuilder</code>
+     * @throws NullPointerException If the given <code>StringBuilder</code>
+     * is <code>null</code>
+     */
+    public static StringBuilder appendStringFor(StringBuilder sb, Type type)
+    {
+        Objects.requireNonNull(sb, "The StringBuilder is null");
+        return TypesToString.appendStringFor(sb, type);
+    }
+
+    /**
+     * Appends the string representation of the given type, as it is
+     * returned by {@link #stringFor(Type)}, to the given
+     * <code>Appendable</code>.
+     *
+     * @param <A> The type of the <code>Appendable</code>
+     * @param appendable The <code>Appendable</code>
+     * @param type The type
+     * @return The given <code>Appendable</code>
+     * @throws NullPointerException If the given <code>Appendable</code>
+     * is <code>null</code>
+     * @throws IOException If the <code>Appendable</code> throws an
+     * <code>IOException</code>
+     */
+    public static <A extends Appendable> A appendStringFor(
+        A appendable, Type type) throws IOException
+    {
+        Objects.requireNonNull(appendable, "The Appendable is null");
+        return TypesToString.appendStringFor(appendable, type);
+    }
+
     /**
      * Creates an elaborate string representation of the given type,
      * including bounds and generic declarations of type variables 
@@ -26,40 +26,233 @@
  */
 package de.javagl.types;
 
+import java.io.IOException;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Utility methods for the conversion of types into strings. Used by the 
  * {@link Types#stringFor(Type)} and {@link Types#debugStringFor(Type)}
- * methods.
+ * methods.<br>
+ * <br>
+ * All strings are written into a <code>StringBuilder</code>. The 
+ * <code>StringBuilder</code> and the set of visited type variables that 
+ * are required for creating a string are taken from a per-thread 
+ * {@link Context}, so that creating a string does not allocate any 
+ * intermediate objects.
  */
 class TypesToString
 {
+    /**
+     * The maximum capacity of the buffer of a {@link Context} that is 
+     * retained between calls. If a buffer grows beyond this size, it
+     * will be discarded and replaced by a new one after the call.
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 4096;
+    
+    /**
+     * The per-thread {@link Context} instances
+     */
+    private static final ThreadLocal<Context> CONTEXTS = 
+        new ThreadLocal<Context>()
+    {
+        @Override
+        protected Context initialValue()
+        {
+            return new Context();
+        }
+    };
+    
+    /**
+     * The state that is required for creating the string of a type
+     */
+    private static final class Context
+    {
+        /**
+         * The buffer that the string is written into
+         */
+        private StringBuilder buffer = new StringBuilder();
+        
+        /**
+         * The type variables that have already been visited. See
+         * {@link TypesToString#append(StringBuilder, Type, Set, boolean)}
+         */
+        private final Set<Type> visitedTypeVariables = new HashSet<Type>();
+        
+        /**
+         * Whether this context is currently in use. This is used for 
+         * detecting re-entrant calls (for example, when the 
+         * <code>toString</code> method of an unknown type implementation
+         * calls {@link Types#stringFor(Type)})
+         */
+        private boolean inUse;
+    }
+    
+    /**
+     * Obtain a {@link Context} for the current thread. If the per-thread
+     * context is already in use, then a new context will be returned.
+     * The returned context must be passed to {@link #release(Context)} 
+     * after it was used.
+     * 
+     * @return The {@link Context}
+     */
+    private static Context acquire()
+    {
+        Context context = CONTEXTS.get();
+        if (context.inUse)
+        {
+            return new Context();
+        }
+        context.inUse = true;
+        return context;
+    }
+    
+    /**
+     * Release the given {@link Context} that was obtained with 
+     * {@link #acquire()}
+     * 
+     * @param context The {@link Context}
+     */
+    private static void release(Context context)
+    {
+        context.visitedTypeVariables.clear();
+        if (context.buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY)
+        {
+            context.buffer = new StringBuilder();
+        }
+        else
+        {
+            context.buffer.setLength(0);
+        }
+        context.inUse = false;
+    }
+    
     /**
      * Creates a string representation of the given type, including bounds 
-     * of type variables and other details.
+     * of type variables and other details.<br>
+     * <br>
+     * The string representations of the default implementations of 
+     * the type interfaces are cached in the respective instances. 
      * 
      * @param type The type
      * @return The string for the type
      */
     static String stringFor(Type type)
     {
-        return stringFor(type, new LinkedHashSet<Type>(), false);
+        if (type instanceof DefaultParameterizedType ||
+            type instanceof DefaultWildcardType ||
+            type instanceof DefaultGenericArrayType)
+        {
+            return type.toString();
+        }
+        return createString(type);
+    }
+    
+    /**
+     * Creates a string representation of the given type, including bounds 
+     * of type variables and other details. In contrast to 
+     * {@link #stringFor(Type)}, this method will never use cached strings.
+     * It is called by the default type implementations for creating 
+     * the string that they cache.
+     * 
+     * @param type The type
+     * @return The string for the type
+     */
+    static String createString(Type type)
+    {
+        return createString(type, false);
+    }
+    
+    /**
+     * Creates a string representation of the given type
+     * 
+     * @param type The type
+     * @param debug Whether debug information should be included
+     * @return The string for the type
+     */
+    private static String createString(Type type, boolean debug)
+    {
+        Context context = acquire();
+        try
+        {
+            StringBuilder sb = context.buffer;
+            append(sb, type, context.visitedTypeVariables, debug);
+            return sb.toString();
+        }
+        finally
+        {
+            release(context);
+        }
+    }
+    
+    /**
+     * Appends the string representation of the given type, as it would
+     * be created by {@link #stringFor(Type)}, to the given 
+     * <code>StringBuilder</code>
+     * 
+     * @param sb The <code>StringBuilder</code>
+     * @param type The type
+     * @return The given <code>StringBuilder</code>
+     */
+    static StringBuilder appendStringFor(StringBuilder sb, Type type)
+    {
+        Context context = acquire();
+        try
+        {
+            append(sb, type, context.visitedTypeVariables, false);
+            return sb;
+        }
+        finally
+        {
+            release(context);
+        }
+    }
+    
+    /**
+     * Appends the string representation of the given type, as it would
+     * be created by {@link #stringFor(Type)}, to the given 
+     * <code>Appendable</code>
+     * 
+     * @param <A> The type of the appendable
+     * @param appendable The <code>Appendable</code>
+     * @param type The type
+     * @return The given <code>Appendable</code>
+     * @throws IOException If the <code>Appendable</code> throws
+     */
+    static <A extends Appendable> A appendStringFor(A appendable, Type type) 
+        throws IOException
+    {
+        if (appendable instanceof StringBuilder)
+        {
+            appendStringFor((StringBuilder)appendable, type);
+            return appendable;
+        }
+        Context context = acquire();
+        try
+        {
+            StringBuilder sb = context.buffer;
+            append(sb, type, context.visitedTypeVariables, false);
+            appendable.append(sb);
+            return appendable;
+        }
+        finally
+        {
+            release(context);
+        }
     }
 
     /**
      * Implementation for {@link #stringFor(Type)} and 
      * {@link #debugStringFor(Type)}
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param type The type to create the string for
      * @param visitedTypeVariables The type variables that have already been
      * visited during the creation of the String. For a type like <code>
@@ -68,233 +261,190 @@ class TypesToString
      * String like <code>T extends Comparable&lt;T extends 
      * Comparable&lt;T ... </code>
      * @param debug Whether debug information should be included
-     * @return The string for the type
      */
-    private static String stringFor(
+    private static void append(StringBuilder sb,
         Type type, Set<Type> visitedTypeVariables, boolean debug)
     {
         if (type == null)
         {
-            return "null";
+            sb.append("null");
         }
         else if (type instanceof Class)
         {
             Class<?> c = (Class<?>)type;
-            return c.getName();
+            sb.append(c.getName());
         }
         else if (type instanceof ParameterizedType)
         {
             ParameterizedType parameterizedType = (ParameterizedType)type;
-            return stringForParameterizedType(
+            appendParameterizedType(sb,
                 parameterizedType, visitedTypeVariables, debug);
         }
         else if (type instanceof WildcardType)
         {
             WildcardType wildcardType = (WildcardType)type;
-            return stringForWildcardType(
+            appendWildcardType(sb,
                 wildcardType, visitedTypeVariables, debug);
         }
         else if (type instanceof TypeVariable<?>)
         {
             TypeVariable<?> typeVariable = (TypeVariable<?>)type;
-            return stringForTypeVariable(
+            appendTypeVariable(sb,
                 typeVariable, visitedTypeVariables, debug);
         }
         else if (type instanceof GenericArrayType)
         {
             GenericArrayType genericArrayType = (GenericArrayType)type;
-            return stringForGenericArrayType(
+            appendGenericArrayType(sb,
                 genericArrayType, visitedTypeVariables, debug);
         }
-        return String.valueOf(type);
+        else
+        {
+            sb.append(String.valueOf(type));
+        }
     }
 
 
     /**
      * The implementation of {@link #stringFor(Type)} for parameterized types
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param parameterizedType The parameterized type
      * @param visitedTypeVariables The visited type variables
      * @param debug Whether debug information should be included
-     * @return The string for the type
      */
-    private static String stringForParameterizedType(
+    private static void appendParameterizedType(StringBuilder sb,
         ParameterizedType parameterizedType,
         Set<Type> visitedTypeVariables, boolean debug)
     {
         Type rawType = parameterizedType.getRawType();
-        StringBuilder sb = new StringBuilder();
-        sb.append(stringFor(rawType, visitedTypeVariables, debug));
+        append(sb, rawType, visitedTypeVariables, debug);
         sb.append("<");
         Type[] typeArguments = parameterizedType.getActualTypeArguments();
         for (int i=0; i<typeArguments.length; i++)
         {
             Type typeArgument = typeArguments[i];
-            sb.append(stringFor(typeArgument, visitedTypeVariables, debug));
+            append(sb, typeArgument, visitedTypeVariables, debug);
             if (i < typeArguments.length - 1)
             {
                 sb.append(", ");
             }
         }
         sb.append(">");
-        return sb.toString();
     }
     
     
     /**
      * The implementation of {@link #stringFor(Type)} for wildcard types
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param wildcardType The wildcard type
      * @param visitedTypeVariables The visited type variables
      * @param debug Whether debug information should be included
-     * @return The string for the type
      */
-    private static String stringForWildcardType(WildcardType wildcardType,
-        Set<Type> visitedTypeVariables, boolean debug)
+    private static void appendWildcardType(StringBuilder sb, 
+        WildcardType wildcardType, Set<Type> visitedTypeVariables, 
+        boolean debug)
     {
-        StringBuilder sb = new StringBuilder();
         sb.append("?");
         Type lowerBounds[] = wildcardType.getLowerBounds();
-        sb.append(createLowerBoundsString(
-            lowerBounds, visitedTypeVariables, debug));
+        appendBounds(sb, lowerBounds, false, 
+            "super", visitedTypeVariables, debug);
         Type upperBounds[] = wildcardType.getUpperBounds();
-        sb.append(createUpperBoundsString(
-            upperBounds, visitedTypeVariables, debug));
-        return sb.toString();
+        appendBounds(sb, upperBounds, true, 
+            "extends", visitedTypeVariables, debug);
     }
     
     
     /**
      * The implementation of {@link #stringFor(Type)} for type variables
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param typeVariable The type variable
      * @param visitedTypeVariables The visited type variables
      * @param debug Whether debug information should be included
-     * @return The string for the type
      */
-    private static String stringForTypeVariable(TypeVariable<?> typeVariable,
-        Set<Type> visitedTypeVariables, boolean debug)
+    private static void appendTypeVariable(StringBuilder sb, 
+        TypeVariable<?> typeVariable, Set<Type> visitedTypeVariables, 
+        boolean debug)
     {
-        StringBuilder sb = new StringBuilder();
         sb.append(typeVariable.getName());
         if (debug)
         {
-            sb.append(" (of "+typeVariable.getGenericDeclaration()+")");
+            sb.append(" (of ");
+            sb.append(typeVariable.getGenericDeclaration());
+            sb.append(")");
         }
-        if (!visitedTypeVariables.contains(typeVariable))
+        if (visitedTypeVariables.add(typeVariable))
         {
-            visitedTypeVariables.add(typeVariable);
-            sb.append(createUpperBoundsString(
-                typeVariable.getBounds(), visitedTypeVariables, debug));
+            appendBounds(sb, typeVariable.getBounds(), true, 
+                "extends", visitedTypeVariables, debug);
         }
-        return sb.toString();
     }
     
     
     /**
      * The implementation of {@link #stringFor(Type)} for generic array types
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param genericArrayType The generic array type
      * @param visitedTypeVariables The visited type variables
      * @param debug Whether debug information should be included
-     * @return The string for the type
      */
-    private static String stringForGenericArrayType(
+    private static void appendGenericArrayType(StringBuilder sb,
         GenericArrayType genericArrayType, Set<Type> visitedTypeVariables,
         boolean debug)
     {
         Type componentType = genericArrayType.getGenericComponentType();
-        String componentString = 
-            stringFor(componentType, visitedTypeVariables, debug);
         if (debug)
         {
-            return "("+componentString+")[]";
+            sb.append("(");
+            append(sb, componentType, visitedTypeVariables, debug);
+            sb.append(")[]");
         }
-        return componentString+"[]";
-    }
-    
-    /**
-     * Returns a string for the given lower bounds
-     * 
-     * @param lowerBounds The lower bounds
-     * @param visitedTypeVariables The type variables that have already been
-     * visited. See {@link #stringFor(Type, Set, boolean)}.
-     * @param debug Whether debug information should be included
-     * @return The string
-     */
-    private static String createLowerBoundsString(
-        Type lowerBounds[], Set<Type> visitedTypeVariables, boolean debug)
-    {
-        return createBoundsString(Arrays.asList(lowerBounds), 
-            "super", visitedTypeVariables, debug);
-    }
-
-    /**
-     * Returns a string for the given upper bounds
-     * 
-     * @param upperBounds The upper bounds
-     * @param visitedTypeVariables The type variables that have already been
-     * visited. See {@link #stringFor(Type, Set, boolean)}.
-     * @param debug Whether debug information should be included
-     * @return The string
-     */
-    private static String createUpperBoundsString(
-        Type upperBounds[], Set<Type> visitedTypeVariables, boolean debug)
-    {
-        return createBoundsString(boundsWithoutObject(upperBounds), 
-            "extends", visitedTypeVariables, debug);
-    }
-    
-    /**
-     * Returns a list containing the given types except for the
-     * type 'Object.class'
-     * 
-     * @param upperBounds The input
-     * @return The list
-     */
-    private static List<Type> boundsWithoutObject(Type upperBounds[])
-    {
-        List<Type> bounds = new ArrayList<Type>();
-        for (Type type : upperBounds)
+        else
         {
-            if (!type.equals(Object.class))
-            {
-                bounds.add(type);
-            }
+            append(sb, componentType, visitedTypeVariables, debug);
+            sb.append("[]");
         }
-        return bounds;
     }
-
+    
     /**
-     * Returns a string for the given bounds.
+     * Appends the string for the given bounds to the given 
+     * <code>StringBuilder</code>. If the bounds are empty, nothing 
+     * will be appended.
      * 
+     * @param sb The <code>StringBuilder</code> to append to
      * @param bounds The bounds
+     * @param skipObject Whether the type <code>Object.class</code> should
+     * be omitted from the bounds. This is the case for upper bounds.
      * @param relation The relation, either "super" or "extends"
      * @param visitedTypeVariables The type variables that have already been
-     * visited. See {@link #stringFor(Type, Set, boolean)}.
+     * visited. See {@link #append(StringBuilder, Type, Set, boolean)}.
      * @param debug Whether debug information should be included
-     * @return The string
      */
-    private static String createBoundsString(
-        List<Type> bounds, String relation, Set<Type> visitedTypeVariables, 
-        boolean debug)
+    private static void appendBounds(StringBuilder sb, 
+        Type bounds[], boolean skipObject, String relation, 
+        Set<Type> visitedTypeVariables, boolean debug)
     {
-        if (!bounds.isEmpty())
+        boolean first = true;
+        for (Type bound : bounds)
         {
-            StringBuilder sb = new StringBuilder();
-            sb.append(" "+relation+" ");
-            for (int i=0; i<bounds.size(); i++)
+            if (skipObject && bound.equals(Object.class))
             {
-                sb.append(stringFor(
-                    bounds.get(i), visitedTypeVariables, debug));
-                if (i < bounds.size()-1)
-                {
-                    sb.append(" & ");
-                }
+                continue;
             }
-            return sb.toString();
+            if (first)
+            {
+                sb.append(" ").append(relation).append(" ");
+                first = false;
+            }
+            else
+            {
+                sb.append(" & ");
+            }
+            append(sb, bound, visitedTypeVariables, debug);
         }
-        return "";
     }
     
     /**
@@ -308,7 +458,7 @@ class TypesToString
      */
     static String debugStringFor(Type type)
     {
-        return stringFor(type, new LinkedHashSet<Type>(), true);
+        return createString(type, true);
     }
 
     /**
@@ -0,0 +1,588 @@
+/*
+ * www.javagl.de - Types
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.types.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import de.javagl.types.GenerateTypeMetadata;
+import de.javagl.types.TypeMetadata;
+
+/**
+ * An annotation processor that generates the {@link TypeMetadata} for 
+ * classes that are annotated with {@link GenerateTypeMetadata}.<br>
+ * <br>
+ * The generated metadata only describes the declaration of the annotated
+ * class itself. The metadata of its supertypes is obtained at runtime, 
+ * from their own generated metadata or via reflection. This ensures that
+ * the metadata remains valid when the supertypes are changed, for example,
+ * when running on a different version of the JDK.<br>
+ * <br>
+ * The processor is not registered as a service, and thus, has to be 
+ * enabled explicitly, for example, with
+ * <pre><code>
+ * javac -processor de.javagl.types.processor.TypeMetadataProcessor ...
+ * </code></pre>
+ */
+@SupportedAnnotationTypes("de.javagl.types.GenerateTypeMetadata")
+public class TypeMetadataProcessor extends AbstractProcessor
+{
+    /**
+     * The suffix of the simple names of the generated classes
+     */
+    private static final String SUFFIX = "_TypeMetadata";
+    
+    /**
+     * The fully qualified name of the <code>Types</code> class
+     */
+    private static final String TYPES = "de.javagl.types.Types";
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public boolean process(
+        Set<? extends TypeElement> annotations, 
+        RoundEnvironment roundEnvironment)
+    {
+        for (Element element : 
+            roundEnvironment.getElementsAnnotatedWith(
+                GenerateTypeMetadata.class))
+        {
+            TypeElement typeElement = (TypeElement)element;
+            NestingKind nestingKind = typeElement.getNestingKind();
+            if ((nestingKind != NestingKind.TOP_LEVEL && 
+                 nestingKind != NestingKind.MEMBER) || 
+                !isAccessible(typeElement, getPackage(typeElement)))
+            {
+                error("The type metadata can only be generated for " + 
+                    "top-level classes and non-private member classes", 
+                    typeElement);
+                continue;
+            }
+            try
+            {
+                generate(typeElement);
+            }
+            catch (IllegalArgumentException e)
+            {
+                error(e.getMessage(), typeElement);
+            }
+            catch (IOException e)
+            {
+                error("Could not generate the type metadata: " + 
+                    e.getMessage(), typeElement);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Generate the source file containing the {@link TypeMetadata} for
+     * the given type element
+     * 
+     * @param typeElement The type element
+     * @throws IllegalArgumentException If the supertypes of the given 
+     * type element contain a type that can not be represented 
+     * @throws IOException If the source file can not be written
+     */
+    private void generate(TypeElement typeElement) throws IOException
+    {
+        PackageElement packageElement = getPackage(typeElement);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils()
+            .getBinaryName(typeElement).toString();
+        String simpleName = binaryName.substring(
+            binaryName.lastIndexOf('.') + 1).replace('$', '_') + SUFFIX;
+        
+        List<String> directRawSupertypes = new ArrayList<String>();
+        List<String> directGenericSupertypes = new ArrayList<String>();
+        List<TypeMirror> supertypes = new ArrayList<TypeMirror>();
+        if (typeElement.getSuperclass().getKind() != TypeKind.NONE)
+        {
+            supertypes.add(typeElement.getSuperclass());
+        }
+        supertypes.addAll(typeElement.getInterfaces());
+        for (TypeMirror supertype : supertypes)
+        {
+            TypeElement supertypeElement = (TypeElement)
+                processingEnv.getTypeUtils().asElement(supertype);
+            if (supertypeElement == null)
+            {
+                throw new IllegalArgumentException(
+                    "Unsupported supertype: " + supertype);
+            }
+            directRawSupertypes.add(
+                classExpression(supertypeElement, packageElement));
+            directGenericSupertypes.add(
+                typeExpression(supertype, packageElement));
+        }
+        String describedClass = 
+            classExpression(typeElement, packageElement);
+        String parameterizedType = describedClass;
+        int n = typeElement.getTypeParameters().size();
+        if (n > 0)
+        {
+            String ownerType = "null";
+            if (typeElement.getNestingKind() == NestingKind.MEMBER)
+            {
+                ownerType = classExpression(
+                    (TypeElement)typeElement.getEnclosingElement(), 
+                    packageElement);
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(TYPES).append(".createParameterizedType(");
+            sb.append(describedClass).append(", ").append(ownerType);
+            for (int i = 0; i < n; i++)
+            {
+                sb.append(", typeVariable(");
+                sb.append(describedClass).append(", ").append(i);
+                sb.append(")");
+            }
+            sb.append(")");
+            parameterizedType = sb.toString();
+        }
+        
+        String qualifiedName = packageName.isEmpty() ? 
+            simpleName : packageName + "." + simpleName;
+        JavaFileObject sourceFile = processingEnv.getFiler()
+            .createSourceFile(qualifiedName, typeElement);
+        try (Writer writer = sourceFile.openWriter())
+        {
+            writer.write(createSource(packageName, simpleName, 
+                typeElement.getQualifiedName().toString(), describedClass, 
+                directRawSupertypes, directGenericSupertypes, 
+                parameterizedType));
+        }
+    }
+    
+    /**
+     * Create the source code of the generated class
+     * 
+     * @param packageName The package name
+     * @param simpleName The simple name of the generated class
+     * @param describedName The qualified name of the described class
+     * @param describedClass The expression for the described class
+     * @param directRawSupertypes The expressions for the direct raw 
+     * supertypes
+     * @param directGenericSupertypes The expressions for the direct 
+     * generic supertypes
+     * @param parameterizedType The expression for the parameterized type
+     * @return The source code
+     */
+    private static String createSource(String packageName, 
+        String simpleName, String describedName, String describedClass, 
+        List<String> directRawSupertypes, 
+        List<String> directGenericSupertypes, String parameterizedType)
+    {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty())
+        {
+            sb.append("package ").append(packageName).append(";" + nl);
+            sb.append(nl);
+        }
+        sb.append("/**" + nl);
+        sb.append(" * The type metadata of {@link ");
+        sb.append(describedName).append("}." + nl);
+        sb.append(" * Generated by " + 
+            TypeMetadataProcessor.class.getName() + nl);
+        sb.append(" */" + nl);
+        sb.append("public final class ").append(simpleName).append(nl);
+        sb.append("    implements " + TypeMetadata.class.getName() + nl);
+        sb.append("{" + nl);
+        sb.append("    private final java.util.List<java.lang.Class<?>> " + 
+            "directRawSupertypes = " + nl);
+        sb.append("        java.util.Collections.unmodifiableList(" + 
+            "java.util.Arrays.<java.lang.Class<?>>asList(");
+        appendList(sb, directRawSupertypes, nl);
+        sb.append("));" + nl);
+        sb.append(nl);
+        sb.append("    private final java.util.List<java.lang.reflect.Type> " + 
+            "directGenericSupertypes = " + nl);
+        sb.append("        java.util.Collections.unmodifiableList(" + 
+            "java.util.Arrays.<java.lang.reflect.Type>asList(");
+        appendList(sb, directGenericSupertypes, nl);
+        sb.append("));" + nl);
+        sb.append(nl);
+        sb.append("    private final java.lang.reflect.Type " + 
+            "parameterizedType = " + nl);
+        sb.append("        ").append(parameterizedType).append(";" + nl);
+        sb.append(nl);
+        appendGetter(sb, "java.lang.Class<?>", "getDescribedClass", 
+            describedClass, nl);
+        appendGetter(sb, "java.util.List<java.lang.Class<?>>", 
+            "getDirectRawSupertypes", "directRawSupertypes", nl);
+        appendGetter(sb, "java.util.List<java.lang.reflect.Type>", 
+            "getDirectGenericSupertypes", "directGenericSupertypes", nl);
+        appendGetter(sb, "java.lang.reflect.Type", 
+            "getParameterizedType", "parameterizedType", nl);
+        sb.append("    private static java.lang.reflect.Type typeVariable(" + 
+            "java.lang.Class<?> c, int index)" + nl);
+        sb.append("    {" + nl);
+        sb.append("        return c.getTypeParameters()[index];" + nl);
+        sb.append("    }" + nl);
+        sb.append(nl);
+        sb.append("    private static java.lang.Class<?> type(" + 
+            "java.lang.String name)" + nl);
+        sb.append("    {" + nl);
+        sb.append("        try" + nl);
+        sb.append("        {" + nl);
+        sb.append("            return java.lang.Class.forName(name, false, " + 
+            nl);
+        sb.append("                ").append(simpleName).append(
+            ".class.getClassLoader());" + nl);
+        sb.append("        }" + nl);
+        sb.append("        catch (java.lang.ClassNotFoundException e)" + nl);
+        sb.append("        {" + nl);
+        sb.append("            throw new java.lang.NoClassDefFoundError(" + 
+            "name);" + nl);
+        sb.append("        }" + nl);
+        sb.append("    }" + nl);
+        sb.append("}" + nl);
+        return sb.toString();
+    }
+    
+    /**
+     * Append the given expressions, separated by commas and line breaks,
+     * to the given string builder
+     * 
+     * @param sb The string builder
+     * @param expressions The expressions
+     * @param nl The line separator
+     */
+    private static void appendList(
+        StringBuilder sb, List<String> expressions, String nl)
+    {
+        for (int i = 0; i < expressions.size(); i++)
+        {
+            sb.append(i == 0 ? nl : "," + nl);
+            sb.append("            ").append(expressions.get(i));
+        }
+    }
+    
+    /**
+     * Append a getter method to the given string builder
+     * 
+     * @param sb The string builder
+     * @param type The return type
+     * @param name The method name
+     * @param expression The expression that is returned
+     * @param nl The line separator
+     */
+    private static void appendGetter(StringBuilder sb, 
+        String type, String name, String expression, String nl)
+    {
+        sb.append("    @Override" + nl);
+        sb.append("    public ").append(type).append(" ");
+        sb.append(name).append("()" + nl);
+        sb.append("    {" + nl);
+        sb.append("        return ").append(expression).append(";" + nl);
+        sb.append("    }" + nl);
+        sb.append(nl);
+    }
+    
+    /**
+     * Create the expression that evaluates to the <code>Type</code> that
+     * is returned via reflection for the given type, when it appears in
+     * the generic supertypes of a class.
+     * 
+     * @param type The type
+     * @param packageElement The package of the generated class
+     * @return The expression
+     * @throws IllegalArgumentException If the given type can not be 
+     * represented
+     */
+    private String typeExpression(
+        TypeMirror type, PackageElement packageElement)
+    {
+        switch (type.getKind())
+        {
+            case BOOLEAN:
+            case BYTE:
+            case CHAR:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return type.toString() + ".class";
+                
+            case DECLARED:
+            {
+                DeclaredType declaredType = (DeclaredType)type;
+                TypeElement element = 
+                    (TypeElement)declaredType.asElement();
+                String rawType = classExpression(element, packageElement);
+                if (!isParameterized(declaredType))
+                {
+                    return rawType;
+                }
+                String ownerType = "null";
+                TypeMirror enclosingType = declaredType.getEnclosingType();
+                if (enclosingType.getKind() == TypeKind.DECLARED && 
+                    isParameterized((DeclaredType)enclosingType))
+                {
+                    ownerType = typeExpression(enclosingType, packageElement);
+                }
+                else if (element.getNestingKind() == NestingKind.MEMBER)
+                {
+                    ownerType = classExpression(
+                        (TypeElement)element.getEnclosingElement(), 
+                        packageElement);
+                }
+                StringBuilder sb = new StringBuilder();
+                sb.append(TYPES).append(".createParameterizedType(");
+                sb.append(rawType).append(", ").append(ownerType);
+                for (TypeMirror typeArgument : 
+                    declaredType.getTypeArguments())
+                {
+                    sb.append(", ");
+                    sb.append(typeExpression(typeArgument, packageElement));
+                }
+                sb.append(")");
+                return sb.toString();
+            }
+            
+            case ARRAY:
+            {
+                TypeMirror componentType = 
+                    ((ArrayType)type).getComponentType();
+                String component = 
+                    typeExpression(componentType, packageElement);
+                if (!isClass(componentType))
+                {
+                    return TYPES + ".createGenericArrayType(" + 
+                        component + ")";
+                }
+                if (component.endsWith(".class"))
+                {
+                    return component.substring(
+                        0, component.length() - 6) + "[].class";
+                }
+                return "java.lang.reflect.Array.newInstance(" + 
+                    component + ", 0).getClass()";
+            }
+            
+            case TYPEVAR:
+            {
+                Element element = ((TypeVariable)type).asElement();
+                Element genericDeclaration = element.getEnclosingElement();
+                if (!(genericDeclaration instanceof TypeElement))
+                {
+                    throw new IllegalArgumentException(
+                        "Unsupported type variable: " + type);
+                }
+                TypeElement typeElement = (TypeElement)genericDeclaration;
+                int index = typeElement.getTypeParameters().indexOf(element);
+                return "typeVariable(" + 
+                    classExpression(typeElement, packageElement) + 
+                    ", " + index + ")";
+            }
+            
+            case WILDCARD:
+            {
+                WildcardType wildcardType = (WildcardType)type;
+                return TYPES + ".createWildcardType(" + 
+                    boundsExpression(
+                        wildcardType.getSuperBound(), packageElement) + 
+                    ", " + 
+                    boundsExpression(
+                        wildcardType.getExtendsBound(), packageElement) + 
+                    ")";
+            }
+            
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+    
+    /**
+     * Create the expression for the array of bounds of a wildcard type
+     * 
+     * @param bound The bound, or <code>null</code>
+     * @param packageElement The package of the generated class
+     * @return The expression
+     */
+    private String boundsExpression(
+        TypeMirror bound, PackageElement packageElement)
+    {
+        if (bound == null)
+        {
+            return "null";
+        }
+        return "new java.lang.reflect.Type[] { " + 
+            typeExpression(bound, packageElement) + " }";
+    }
+    
+    /**
+     * Create the expression that evaluates to the class for the given
+     * type element. If the class is not accessible from the given 
+     * package, then the class will be looked up by its name.
+     * 
+     * @param typeElement The type element
+     * @param packageElement The package of the generated class
+     * @return The expression
+     */
+    private String classExpression(
+        TypeElement typeElement, PackageElement packageElement)
+    {
+        if (isAccessible(typeElement, packageElement))
+        {
+            return typeElement.getQualifiedName() + ".class";
+        }
+        return "type(\"" + processingEnv.getElementUtils()
+            .getBinaryName(typeElement) + "\")";
+    }
+    
+    /**
+     * Returns whether the given type is represented by a 
+     * <code>Class</code> via reflection
+     * 
+     * @param type The type
+     * @return Whether the type is a class
+     */
+    private static boolean isClass(TypeMirror type)
+    {
+        if (type.getKind().isPrimitive())
+        {
+            return true;
+        }
+        if (type.getKind() == TypeKind.DECLARED)
+        {
+            return !isParameterized((DeclaredType)type);
+        }
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return isClass(((ArrayType)type).getComponentType());
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the given type is represented by a 
+     * <code>ParameterizedType</code> via reflection. This is the case 
+     * when it has type arguments, or its enclosing type is parameterized.
+     * 
+     * @param declaredType The type
+     * @return Whether the type is parameterized
+     */
+    private static boolean isParameterized(DeclaredType declaredType)
+    {
+        if (!declaredType.getTypeArguments().isEmpty())
+        {
+            return true;
+        }
+        TypeMirror enclosingType = declaredType.getEnclosingType();
+        return enclosingType.getKind() == TypeKind.DECLARED &&
+            isParameterized((DeclaredType)enclosingType);
+    }
+    
+    /**
+     * Returns whether the given type element may be referred to from
+     * a class in the given package. This is the case when the type 
+     * element and all its enclosing type elements are either 
+     * <code>public</code>, or not <code>private</code> and located in
+     * the given package.
+     * 
+     * @param typeElement The type element
+     * @param packageElement The package
+     * @return Whether the type element is accessible
+     */
+    private static boolean isAccessible(
+        TypeElement typeElement, PackageElement packageElement)
+    {
+        boolean samePackage = getPackage(typeElement).equals(packageElement);
+        Element element = typeElement;
+        while (element instanceof TypeElement)
+        {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC))
+            {
+                if (modifiers.contains(Modifier.PRIVATE) || !samePackage)
+                {
+                    return false;
+                }
+            }
+            element = element.getEnclosingElement();
+        }
+        return element instanceof PackageElement;
+    }
+    
+    /**
+     * Returns the package that contains the given element
+     * 
+     * @param element The element
+     * @return The package
+     */
+    private static PackageElement getPackage(Element element)
+    {
+        Element current = element;
+        while (!(current instanceof PackageElement))
+        {
+            current = current.getEnclosingElement();
+        }
+        return (PackageElement)current;
+    }
+    
+    /**
+     * Print the given error message for the given element
+     * 
+     * @param message The message
+     * @param element The element
+     */
+    private void error(String message, Element element)
+    {
+        processingEnv.getMessager().printMessage(
+            Diagnostic.Kind.ERROR, message, element);
+    }
+}
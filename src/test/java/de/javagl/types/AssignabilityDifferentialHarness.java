@@ -0,0 +1,327 @@
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A harness that compares the results of a {@link TypeAssignabilityTester}
+ * with the results of a reference implementation, for random pairs of
+ * types that are created with a {@link RandomTypeGenerator}.<br>
+ * <br>
+ * Two results are considered to be equal when both testers return the 
+ * same value, or both testers throw an exception of the same class.<br>
+ * <br>
+ * This class does not depend on a test framework. It may be used in 
+ * a unit test, or to validate an implementation in the setup of a 
+ * JMH benchmark.
+ */
+public class AssignabilityDifferentialHarness
+{
+    /**
+     * The default maximum number of mismatches that are recorded
+     */
+    private static final int DEFAULT_MAX_RECORDED_MISMATCHES = 100;
+    
+    /**
+     * The reference implementation
+     */
+    private final TypeAssignabilityTester reference;
+    
+    /**
+     * The implementation that is tested
+     */
+    private final TypeAssignabilityTester candidate;
+    
+    /**
+     * The maximum number of mismatches that are recorded
+     */
+    private int maxRecordedMismatches;
+    
+    /**
+     * Creates a new harness that compares the given candidate with the
+     * default {@link TypeAssignabilityTester}
+     * 
+     * @param candidate The implementation that is tested
+     */
+    public AssignabilityDifferentialHarness(
+        TypeAssignabilityTester candidate)
+    {
+        this(TypeAssignabilityTesters.create(), candidate);
+    }
+    
+    /**
+     * Creates a new harness
+     * 
+     * @param reference The reference implementation
+     * @param candidate The implementation that is tested
+     */
+    public AssignabilityDifferentialHarness(
+        TypeAssignabilityTester reference, 
+        TypeAssignabilityTester candidate)
+    {
+        this.reference = Objects.requireNonNull(
+            reference, "The reference is null");
+        this.candidate = Objects.requireNonNull(
+            candidate, "The candidate is null");
+        this.maxRecordedMismatches = DEFAULT_MAX_RECORDED_MISMATCHES;
+    }
+    
+    /**
+     * Set the maximum number of mismatches that are recorded in a 
+     * {@link Result}. The default value is 100. 
+     * 
+     * @param maxRecordedMismatches The maximum number
+     * @return This harness
+     */
+    public AssignabilityDifferentialHarness setMaxRecordedMismatches(
+        int maxRecordedMismatches)
+    {
+        this.maxRecordedMismatches = maxRecordedMismatches;
+        return this;
+    }
+    
+    /**
+     * Compare the testers for the given number of pairs of types that 
+     * are obtained from the given generator
+     * 
+     * @param generator The generator
+     * @param pairs The number of pairs
+     * @return The {@link Result}
+     */
+    public Result run(RandomTypeGenerator generator, long pairs)
+    {
+        Result result = new Result();
+        for (long i = 0; i < pairs; i++)
+        {
+            Type pair[] = generator.nextPair();
+            compare(pair[0], pair[1], result);
+        }
+        return result;
+    }
+    
+    /**
+     * Compare the testers for the given types, and store the outcome in
+     * the given result
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @param result The result
+     */
+    private void compare(Type to, Type from, Result result)
+    {
+        String expected = evaluate(reference, to, from);
+        String actual = evaluate(candidate, to, from);
+        result.pairs++;
+        if ("true".equals(expected))
+        {
+            result.assignable++;
+        }
+        else if (!"false".equals(expected))
+        {
+            result.exceptions++;
+        }
+        if (!expected.equals(actual))
+        {
+            result.mismatchCount++;
+            if (result.mismatches.size() < maxRecordedMismatches)
+            {
+                result.mismatches.add(
+                    new Mismatch(to, from, expected, actual));
+            }
+        }
+    }
+    
+    /**
+     * Evaluate the given tester for the given types
+     * 
+     * @param tester The tester
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return The string <code>"true"</code> or <code>"false"</code>, 
+     * or the name of the class of the exception that was thrown
+     */
+    private static String evaluate(
+        TypeAssignabilityTester tester, Type to, Type from)
+    {
+        try
+        {
+            return String.valueOf(tester.isAssignable(to, from));
+        }
+        catch (RuntimeException e)
+        {
+            return e.getClass().getName();
+        }
+    }
+    
+    /**
+     * The result of a {@link AssignabilityDifferentialHarness#run run}
+     */
+    public static final class Result
+    {
+        /**
+         * The number of pairs that have been compared
+         */
+        private long pairs;
+        
+        /**
+         * The number of pairs that are assignable according to the 
+         * reference implementation
+         */
+        private long assignable;
+        
+        /**
+         * The number of pairs for which the reference implementation
+         * threw an exception
+         */
+        private long exceptions;
+        
+        /**
+         * The number of mismatches
+         */
+        private long mismatchCount;
+        
+        /**
+         * The recorded mismatches
+         */
+        private final List<Mismatch> mismatches = new ArrayList<Mismatch>();
+        
+        /**
+         * Returns the number of pairs that have been compared
+         * 
+         * @return The number of pairs
+         */
+        public long getPairs()
+        {
+            return pairs;
+        }
+        
+        /**
+         * Returns the number of pairs that are assignable according to
+         * the reference implementation
+         * 
+         * @return The number of assignable pairs
+         */
+        public long getAssignable()
+        {
+            return assignable;
+        }
+        
+        /**
+         * Returns the number of pairs for which the reference 
+         * implementation threw an exception
+         * 
+         * @return The number of exceptions
+         */
+        public long getExceptions()
+        {
+            return exceptions;
+        }
+        
+        /**
+         * Returns the number of pairs for which the results differed
+         * 
+         * @return The number of mismatches
+         */
+        public long getMismatchCount()
+        {
+            return mismatchCount;
+        }
+        
+        /**
+         * Returns an unmodifiable list containing the first mismatches
+         * 
+         * @return The mismatches
+         */
+        public List<Mismatch> getMismatches()
+        {
+            return Collections.unmodifiableList(mismatches);
+        }
+        
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Result[pairs=").append(pairs);
+            sb.append(", assignable=").append(assignable);
+            sb.append(", exceptions=").append(exceptions);
+            sb.append(", mismatches=").append(mismatchCount).append("]");
+            for (Mismatch mismatch : mismatches)
+            {
+                sb.append("\n    ").append(mismatch);
+            }
+            return sb.toString();
+        }
+    }
+    
+    /**
+     * A pair of types for which the testers returned different results
+     */
+    public static final class Mismatch
+    {
+        /**
+         * The type to assign to
+         */
+        private final Type to;
+        
+        /**
+         * The type to assign from
+         */
+        private final Type from;
+        
+        /**
+         * The result of the reference implementation
+         */
+        private final String expected;
+        
+        /**
+         * The result of the tested implementation
+         */
+        private final String actual;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param to The type to assign to
+         * @param from The type to assign from
+         * @param expected The result of the reference implementation
+         * @param actual The result of the tested implementation
+         */
+        Mismatch(Type to, Type from, String expected, String actual)
+        {
+            this.to = to;
+            this.from = from;
+            this.expected = expected;
+            this.actual = actual;
+        }
+        
+        /**
+         * Returns the type to assign to
+         * 
+         * @return The type
+         */
+        public Type getTo()
+        {
+            return to;
+        }
+        
+        /**
+         * Returns the type to assign from
+         * 
+         * @return The type
+         */
+        public Type getFrom()
+        {
+            return from;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return Types.stringFor(to) + " <- " + Types.stringFor(from) + 
+                ": expected " + expected + ", but was " + actual;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package de.javagl.types;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A benchmark for the assignability of classes to classes.<br>
+ * <br>
+ * The fast path for classes,
+ * {@link DefaultTypeAssignabilityTester#isClassAssignable(Class, Class)},
+ * is compared to the generic path,
+ * {@link DefaultTypeAssignabilityTester#isAssignableType(
+ * java.lang.reflect.Type, java.lang.reflect.Type)},
+ * which was used for all types before. All pairs of classes from two
+ * pools are tested: One pool contains classes of the 
+ * <code>java.util</code> and <code>java.lang</code> packages and arrays
+ * of them. The other pool additionally contains boxed primitive types
+ * and primitive types, for which the fast path delegates to the generic
+ * path. The results of both paths are verified to be equal. The time
+ * and the number of bytes that were allocated per call are reported,
+ * if the JVM supports measuring the allocations. This is not a unit
+ * test, but a program that may be run from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.ClassAssignabilityBenchmark
+ * </code></pre>
+ */
+public class ClassAssignabilityBenchmark
+{
+    /**
+     * The names of the classes that the pool is created from
+     */
+    private static final String CLASS_NAMES[] =
+    {
+        "java.util.AbstractCollection", "java.util.AbstractList",
+        "java.util.AbstractMap", "java.util.ArrayList",
+        "java.util.Collection", "java.util.Deque", "java.util.HashMap",
+        "java.util.HashSet", "java.util.LinkedHashMap",
+        "java.util.LinkedList", "java.util.List", "java.util.Map",
+        "java.util.NavigableMap", "java.util.Queue",
+        "java.util.RandomAccess", "java.util.Set", "java.util.SortedMap",
+        "java.util.TreeMap", "java.lang.Object", "java.lang.Number",
+        "java.lang.String", "java.lang.CharSequence",
+        "java.lang.Comparable", "java.lang.Iterable",
+        "java.lang.Cloneable", "java.io.Serializable",
+        "java.lang.Exception", "java.lang.RuntimeException",
+        "java.lang.Throwable", "java.lang.Runnable"
+    };
+    
+    /**
+     * The boxed primitive types and primitive types that are contained
+     * in the pool. The <code>boolean</code> type is omitted, because
+     * the primitive assignability tests do not support it.
+     */
+    private static final Class<?> PRIMITIVE_CLASSES[] =
+    {
+        Integer.class, Long.class, Float.class, Double.class,
+        Character.class, Short.class, Byte.class,
+        int.class, long.class, float.class, double.class, char.class
+    };
+    
+    /**
+     * The number of passes over all pairs for the warmup
+     */
+    private static final int WARMUP_PASSES = 500;
+    
+    /**
+     * The number of passes over all pairs that are measured
+     */
+    private static final int PASSES = 1000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        DefaultTypeAssignabilityTester tester =
+            new DefaultTypeAssignabilityTester();
+        Map<String, List<Class<?>>> pools = 
+            new LinkedHashMap<String, List<Class<?>>>();
+        pools.put("classes", createPool(false));
+        pools.put("mixed", createPool(true));
+        for (Map.Entry<String, List<Class<?>>> entry : pools.entrySet())
+        {
+            List<Class<?>> pool = entry.getValue();
+            int mismatches = 0;
+            for (Class<?> to : pool)
+            {
+                for (Class<?> from : pool)
+                {
+                    if (tester.isClassAssignable(to, from) !=
+                        tester.isAssignableType(to, from))
+                    {
+                        mismatches++;
+                    }
+                }
+            }
+            System.out.printf(Locale.ENGLISH,
+                "Pool %s, size: %d, pairs: %d, mismatches: %d%n",
+                entry.getKey(), pool.size(), pool.size() * pool.size(), 
+                mismatches);
+            run(tester, pool, true, WARMUP_PASSES);
+            run(tester, pool, false, WARMUP_PASSES);
+        }
+        System.out.printf(Locale.ENGLISH, "%-10s %-10s %12s %14s%n",
+            "Pool", "Path", "ns/call", "Bytes/call");
+        for (Map.Entry<String, List<Class<?>>> entry : pools.entrySet())
+        {
+            for (boolean fast : new boolean[] { false, true })
+            {
+                double result[] = 
+                    run(tester, entry.getValue(), fast, PASSES);
+                String bytes = result[1] < 0 ? "n/a" :
+                    String.format(Locale.ENGLISH, "%.2f", result[1]);
+                System.out.printf(Locale.ENGLISH, 
+                    "%-10s %-10s %12.2f %14s%n", entry.getKey(), 
+                    fast ? "fast" : "generic", result[0], bytes);
+            }
+        }
+    }
+    
+    /**
+     * Tests all pairs of classes from the given pool for the given
+     * number of passes
+     * 
+     * @param tester The tester
+     * @param pool The pool
+     * @param fast Whether the fast path should be used, or the generic
+     * path
+     * @param passes The number of passes
+     * @return The average duration of a call, in nanoseconds, and the
+     * average number of bytes that were allocated per call, or a
+     * negative value if this can not be measured
+     */
+    private static double[] run(DefaultTypeAssignabilityTester tester,
+        List<Class<?>> pool, boolean fast, int passes)
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            allocationBean = (com.sun.management.ThreadMXBean)threadMXBean;
+        }
+        long id = Thread.currentThread().getId();
+        long allocatedBefore = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        long before = System.nanoTime();
+        long checksum = 0;
+        for (int p = 0; p < passes; p++)
+        {
+            for (Class<?> to : pool)
+            {
+                for (Class<?> from : pool)
+                {
+                    boolean assignable = fast ?
+                        tester.isClassAssignable(to, from) :
+                        tester.isAssignableType(to, from);
+                    if (assignable)
+                    {
+                        checksum++;
+                    }
+                }
+            }
+        }
+        long after = System.nanoTime();
+        long allocatedAfter = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        if (checksum == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        long calls = (long)passes * pool.size() * pool.size();
+        double nsPerCall = (double)(after - before) / calls;
+        double bytesPerCall = -1;
+        if (allocationBean != null)
+        {
+            bytesPerCall = (double)(allocatedAfter - allocatedBefore) / calls;
+        }
+        return new double[] { nsPerCall, bytesPerCall };
+    }
+    
+    /**
+     * Creates a pool of classes
+     * 
+     * @param primitive Whether the pool should contain boxed primitive 
+     * types and primitive types
+     * @return The pool
+     * @throws ClassNotFoundException If a class can not be found
+     */
+    private static List<Class<?>> createPool(boolean primitive) 
+        throws ClassNotFoundException
+    {
+        List<Class<?>> pool = new ArrayList<Class<?>>();
+        for (String className : CLASS_NAMES)
+        {
+            Class<?> c = Class.forName(className);
+            pool.add(c);
+            pool.add(Array.newInstance(c, 0).getClass());
+        }
+        if (primitive)
+        {
+            for (Class<?> c : PRIMITIVE_CLASSES)
+            {
+                pool.add(c);
+            }
+        }
+        return pool;
+    }
+}
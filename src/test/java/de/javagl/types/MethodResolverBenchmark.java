@@ -0,0 +1,187 @@
+package de.javagl.types;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A benchmark for the steady state of a {@link MethodResolver} that 
+ * is called with argument types that have been seen before.<br>
+ * <br>
+ * The resolver is called with a small number of argument types that 
+ * are answered from the inline cache, and with a larger number of 
+ * argument types, so that the inline cache is full and most lookups 
+ * are answered from the concurrent map. Each case is measured with 
+ * different numbers of threads. The elapsed time divided by the total
+ * number of calls of all threads is reported, and the number of bytes
+ * that were allocated per call, if the JVM supports measuring this. 
+ * This is not a unit test, but a program that may be run from the 
+ * test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.MethodResolverBenchmark
+ * </code></pre>
+ */
+public class MethodResolverBenchmark
+{
+    /**
+     * The numbers of distinct argument type tuples
+     */
+    private static final int TUPLE_COUNTS[] = { 4, 32 };
+    
+    /**
+     * The numbers of threads
+     */
+    private static final int THREAD_COUNTS[] = { 1, 4, 8 };
+    
+    /**
+     * The number of calls that each thread performs for the warmup
+     */
+    private static final int WARMUP_CALLS = 2000000;
+    
+    /**
+     * The number of calls that each thread performs for a measurement
+     */
+    private static final int CALLS = 10000000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        System.out.printf(Locale.ENGLISH, "%-8s %-8s %12s %14s%n", 
+            "Tuples", "Threads", "ns/call", "Bytes/call");
+        for (int tupleCount : TUPLE_COUNTS)
+        {
+            for (int threadCount : THREAD_COUNTS)
+            {
+                MethodResolver resolver = MethodResolvers.create(
+                    TestMethodResolver.Handler.class, "handle");
+                Type[][] tuples = createTuples(tupleCount);
+                run(resolver, tuples, threadCount, WARMUP_CALLS);
+                double result[] = 
+                    run(resolver, tuples, threadCount, CALLS);
+                System.out.printf(Locale.ENGLISH, 
+                    "%-8d %-8d %12.2f %14s%n", tupleCount, threadCount, 
+                    result[0], result[1] < 0 ? "n/a" : 
+                        String.format(Locale.ENGLISH, "%.3f", result[1]));
+            }
+        }
+    }
+    
+    /**
+     * Creates the given number of distinct argument type tuples, each
+     * of which can be resolved unambiguously
+     * 
+     * @param count The number of tuples
+     * @return The tuples
+     */
+    private static Type[][] createTuples(int count)
+    {
+        Class<?> types[] = 
+        {
+            int.class, long.class, short.class, byte.class, char.class,
+            float.class, double.class, boolean.class, Integer.class, 
+            Long.class, Short.class, Byte.class, Character.class, 
+            Float.class, Double.class, Boolean.class, String.class, 
+            Object.class, Number.class, Thread.class, Class.class, 
+            StringBuilder.class, Runnable.class, Exception.class
+        };
+        List<Type[]> tuples = new ArrayList<Type[]>();
+        for (Class<?> type : types)
+        {
+            tuples.add(new Type[] { type });
+            tuples.add(new Type[] { String.class, String.class, type });
+        }
+        return tuples.subList(0, count).toArray(new Type[0][]);
+    }
+    
+    /**
+     * Let the given number of threads call the resolver with the given 
+     * argument types
+     * 
+     * @param resolver The resolver
+     * @param tuples The argument types
+     * @param threadCount The number of threads
+     * @param calls The number of calls for each thread
+     * @return The elapsed time divided by the total number of calls, in 
+     * nanoseconds, and the average number of bytes that were allocated
+     * per call, or a negative value if this can not be measured
+     * @throws Exception If an error occurs
+     */
+    private static double[] run(MethodResolver resolver, Type[][] tuples,
+        int threadCount, int calls) throws Exception
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            allocationBean = (com.sun.management.ThreadMXBean)threadMXBean;
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong allocated = new AtomicLong();
+        AtomicLong checksum = new AtomicLong();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++)
+        {
+            int offset = t;
+            com.sun.management.ThreadMXBean bean = allocationBean;
+            Thread thread = new Thread(() -> 
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long id = Thread.currentThread().getId();
+                long before = bean == null ? 0 : 
+                    bean.getThreadAllocatedBytes(id);
+                long sum = 0;
+                for (int i = 0; i < calls; i++)
+                {
+                    Type argumentTypes[] = 
+                        tuples[(i + offset) % tuples.length];
+                    sum += resolver.resolve(argumentTypes)
+                        .getParameterCount();
+                }
+                long after = bean == null ? 0 : 
+                    bean.getThreadAllocatedBytes(id);
+                allocated.addAndGet(after - before);
+                checksum.addAndGet(sum);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long before = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        long after = System.nanoTime();
+        if (checksum.get() == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        double nsPerCall = 
+            (double)(after - before) / ((long)calls * threadCount);
+        double bytesPerCall = -1;
+        if (allocationBean != null)
+        {
+            bytesPerCall = 
+                (double)allocated.get() / ((long)calls * threadCount);
+        }
+        return new double[] { nsPerCall, bytesPerCall };
+    }
+}
@@ -0,0 +1,587 @@
+package de.javagl.types;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+/**
+ * A generator for random types, for benchmarks and differential tests.
+ * <br>
+ * <br>
+ * The generated types are reproducible: Two generators that are created
+ * with the same seed and configured in the same way will generate equal
+ * sequences of types. The types are composed of a pool of classes, 
+ * including classes with a wide arity, and of a pool of type variables,
+ * including type variables with recursive bounds, like the 
+ * <code>E extends Enum&lt;E&gt;</code> of <code>Enum</code>. The 
+ * probabilities for the different {@link Kind kinds} of types, and the 
+ * maximum nesting depth, may be configured.<br>
+ * <br>
+ * This class does not depend on a test framework. In a JMH benchmark,
+ * a corpus of types or pairs of types may be created in a 
+ * <code>@Setup</code> method of the benchmark state.
+ */
+public class RandomTypeGenerator
+{
+    /**
+     * The kinds of types that are generated
+     */
+    public enum Kind
+    {
+        /**
+         * A class that is not an array class
+         */
+        CLASS,
+        
+        /**
+         * A primitive type. These are not generated as type arguments.
+         */
+        PRIMITIVE,
+        
+        /**
+         * An array class
+         */
+        ARRAY,
+        
+        /**
+         * A parameterized type
+         */
+        PARAMETERIZED,
+        
+        /**
+         * A wildcard type, with an upper bound, a lower bound or 
+         * without bounds. These are only generated as type arguments.
+         */
+        WILDCARD,
+        
+        /**
+         * A type variable
+         */
+        TYPE_VARIABLE,
+        
+        /**
+         * A generic array type
+         */
+        GENERIC_ARRAY
+    }
+    
+    /**
+     * A class with a wide arity, for the generated types
+     * 
+     * @param <A> Unspecified
+     * @param <B> Unspecified
+     * @param <C> Unspecified
+     * @param <D> Unspecified
+     * @param <E> Unspecified
+     */
+    public static class Wide<A, B, C, D, E>
+    {
+        // Only used as a type
+    }
+    
+    /**
+     * A subclass of {@link Wide} that permutes the type arguments
+     * 
+     * @param <A> Unspecified
+     * @param <B> Unspecified
+     * @param <C> Unspecified
+     * @param <D> Unspecified
+     * @param <E> Unspecified
+     */
+    public static class PermutedWide<A, B, C, D, E> 
+        extends Wide<E, D, C, B, A>
+    {
+        // Only used as a type
+    }
+    
+    /**
+     * A subclass of {@link PermutedWide} that binds some of the type 
+     * arguments to nested types
+     * 
+     * @param <A> Unspecified
+     * @param <B> Unspecified
+     */
+    public static class PartialWide<A, B extends Comparable<B>> 
+        extends PermutedWide<A, List<B>, String, B[], Map<A, ? super B>>
+    {
+        // Only used as a type
+    }
+    
+    /**
+     * The primitive types
+     */
+    private static final List<Class<?>> PRIMITIVE_TYPES = 
+        Arrays.<Class<?>>asList(boolean.class, char.class, int.class, 
+            long.class, double.class);
+    
+    /**
+     * The default classes
+     */
+    private static final List<Class<?>> DEFAULT_CLASSES = 
+        Arrays.<Class<?>>asList(Object.class, String.class, Integer.class, 
+            Long.class, Number.class, CharSequence.class, Serializable.class,
+            Comparable.class, Iterable.class, Collection.class, List.class, 
+            ArrayList.class, Set.class, Map.class, HashMap.class, 
+            EnumMap.class, Map.Entry.class, Optional.class, 
+            Comparator.class, Function.class, Enum.class, 
+            Thread.State.class, BaseStream.class, Stream.class, 
+            Wide.class, PermutedWide.class, PartialWide.class);
+    
+    /**
+     * The random number generator
+     */
+    private final Random random;
+    
+    /**
+     * The weights of the kinds, indexed by their ordinal
+     */
+    private final int weights[];
+    
+    /**
+     * The maximum nesting depth
+     */
+    private int maxDepth;
+    
+    /**
+     * The classes that the types are composed of
+     */
+    private final List<Class<?>> classes;
+    
+    /**
+     * The generic classes among the {@link #classes}
+     */
+    private final List<Class<?>> genericClasses;
+    
+    /**
+     * The type variables that may appear in the types
+     */
+    private final List<TypeVariable<?>> typeVariables;
+    
+    /**
+     * Creates a new generator with the given seed. The default weights
+     * for the kinds of types are 
+     * <code>CLASS=6, PRIMITIVE=1, ARRAY=1, PARAMETERIZED=6, 
+     * WILDCARD=4, TYPE_VARIABLE=2, GENERIC_ARRAY=1</code>, and the default
+     * maximum nesting depth is 4.
+     * 
+     * @param seed The seed
+     */
+    public RandomTypeGenerator(long seed)
+    {
+        this.random = new Random(seed);
+        this.weights = new int[] { 6, 1, 1, 6, 4, 2, 1 };
+        this.maxDepth = 4;
+        this.classes = new ArrayList<Class<?>>();
+        this.genericClasses = new ArrayList<Class<?>>();
+        for (Class<?> c : DEFAULT_CLASSES)
+        {
+            addClass(c);
+        }
+        this.typeVariables = new ArrayList<TypeVariable<?>>();
+        TypeVariable<?> free[] = Types.createTypeVariables()
+            .add("T")
+            .add("N", Number.class)
+            .add("S", CharSequence.class, Types.createParameterizedType(
+                Comparable.class, null, String.class))
+            .build().getTypeParameters();
+        typeVariables.addAll(Arrays.asList(free));
+        typeVariables.add(Enum.class.getTypeParameters()[0]);
+        typeVariables.add(BaseStream.class.getTypeParameters()[1]);
+        try
+        {
+            typeVariables.add(Collections.class.getMethod(
+                "max", Collection.class).getTypeParameters()[0]);
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Set the weight for the given kind of types. The probability for 
+     * generating a type of the given kind is the weight of the kind,
+     * divided by the sum of the weights of all kinds that may appear 
+     * at the respective position.
+     * 
+     * @param kind The kind
+     * @param weight The weight
+     * @return This generator
+     * @throws IllegalArgumentException If the weight is negative
+     */
+    public RandomTypeGenerator setWeight(Kind kind, int weight)
+    {
+        if (weight < 0)
+        {
+            throw new IllegalArgumentException(
+                "The weight may not be negative, but is " + weight);
+        }
+        weights[kind.ordinal()] = weight;
+        return this;
+    }
+    
+    /**
+     * Set the maximum nesting depth of the generated types. At this 
+     * depth, only classes, primitive types and type variables are 
+     * generated.
+     * 
+     * @param maxDepth The maximum depth
+     * @return This generator
+     * @throws IllegalArgumentException If the depth is negative
+     */
+    public RandomTypeGenerator setMaxDepth(int maxDepth)
+    {
+        if (maxDepth < 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum depth may not be negative, but is " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+    
+    /**
+     * Add the given classes to the classes that the types are composed of
+     * 
+     * @param classes The classes
+     * @return This generator
+     */
+    public RandomTypeGenerator addClasses(Class<?> ... classes)
+    {
+        for (Class<?> c : classes)
+        {
+            addClass(c);
+        }
+        return this;
+    }
+    
+    /**
+     * Add the given class to the classes that the types are composed of
+     * 
+     * @param c The class
+     */
+    private void addClass(Class<?> c)
+    {
+        if (classes.contains(c))
+        {
+            return;
+        }
+        classes.add(c);
+        if (c.getTypeParameters().length > 0)
+        {
+            genericClasses.add(c);
+        }
+    }
+    
+    /**
+     * Generate the next random type
+     * 
+     * @return The type
+     */
+    public Type nextType()
+    {
+        return nextType(0, false);
+    }
+    
+    /**
+     * Generate the given number of random types
+     * 
+     * @param n The number of types
+     * @return The list of types
+     */
+    public List<Type> nextTypes(int n)
+    {
+        List<Type> result = new ArrayList<Type>();
+        for (int i = 0; i < n; i++)
+        {
+            result.add(nextType());
+        }
+        return result;
+    }
+    
+    /**
+     * Generate the next random pair of types, as an array containing the 
+     * type to assign to and the type to assign from. Since independent 
+     * random types are rarely assignable, the type to assign to is 
+     * usually derived from the type to assign from: It is a supertype,
+     * where some type arguments are replaced by wildcard types. 
+     * 
+     * @return The pair
+     */
+    public Type[] nextPair()
+    {
+        Type from = nextType();
+        Type to = null;
+        if (random.nextInt(4) == 0)
+        {
+            to = nextType();
+        }
+        else
+        {
+            to = generalize(from, 0);
+        }
+        return new Type[] { to, from };
+    }
+    
+    /**
+     * Generate a random type
+     * 
+     * @param depth The current depth
+     * @param argument Whether the type is a type argument
+     * @return The type
+     */
+    private Type nextType(int depth, boolean argument)
+    {
+        Kind kind = nextKind(depth, argument);
+        switch (kind)
+        {
+            case CLASS:
+                return pick(classes);
+                
+            case PRIMITIVE:
+                return pick(PRIMITIVE_TYPES);
+                
+            case ARRAY:
+            {
+                Class<?> componentType = random.nextBoolean() ? 
+                    pick(classes) : pick(PRIMITIVE_TYPES);
+                return Array.newInstance(componentType, 0).getClass();
+            }
+            
+            case PARAMETERIZED:
+                return nextParameterized(depth);
+                
+            case WILDCARD:
+            {
+                int type = random.nextInt(3);
+                if (type == 0)
+                {
+                    return Types.createWildcardType(null, null);
+                }
+                Type bound[] = { nextType(depth + 1, true) };
+                if (bound[0] instanceof WildcardType)
+                {
+                    return bound[0];
+                }
+                if (type == 1)
+                {
+                    return Types.createWildcardType(null, bound);
+                }
+                return Types.createWildcardType(bound, null);
+            }
+            
+            case TYPE_VARIABLE:
+                return pick(typeVariables);
+                
+            case GENERIC_ARRAY:
+            {
+                Type componentType = random.nextBoolean() ?
+                    pick(typeVariables) : nextParameterized(depth + 1);
+                return Types.createGenericArrayType(componentType);
+            }
+            
+            default:
+                break;
+        }
+        throw new AssertionError("Unknown kind: " + kind);
+    }
+    
+    /**
+     * Generate a random parameterized type, or a class if the maximum 
+     * depth is reached
+     * 
+     * @param depth The current depth
+     * @return The type
+     */
+    private Type nextParameterized(int depth)
+    {
+        if (depth >= maxDepth)
+        {
+            return pick(classes);
+        }
+        Class<?> rawType = pick(genericClasses);
+        int n = rawType.getTypeParameters().length;
+        Type typeArguments[] = new Type[n];
+        for (int i = 0; i < n; i++)
+        {
+            typeArguments[i] = nextType(depth + 1, true);
+        }
+        return Types.createParameterizedType(
+            rawType, rawType.getDeclaringClass(), typeArguments);
+    }
+    
+    /**
+     * Choose a random kind of type, based on the weights
+     * 
+     * @param depth The current depth
+     * @param argument Whether the type is a type argument
+     * @return The kind
+     */
+    private Kind nextKind(int depth, boolean argument)
+    {
+        Kind kinds[] = Kind.values();
+        int total = 0;
+        for (Kind kind : kinds)
+        {
+            if (isAllowed(kind, depth, argument))
+            {
+                total += weights[kind.ordinal()];
+            }
+        }
+        if (total == 0)
+        {
+            return Kind.CLASS;
+        }
+        int value = random.nextInt(total);
+        for (Kind kind : kinds)
+        {
+            if (isAllowed(kind, depth, argument))
+            {
+                value -= weights[kind.ordinal()];
+                if (value < 0)
+                {
+                    return kind;
+                }
+            }
+        }
+        throw new AssertionError("No kind was chosen");
+    }
+    
+    /**
+     * Returns whether the given kind of type may be generated at the 
+     * given position
+     * 
+     * @param kind The kind
+     * @param depth The current depth
+     * @param argument Whether the type is a type argument
+     * @return Whether the kind is allowed
+     */
+    private boolean isAllowed(Kind kind, int depth, boolean argument)
+    {
+        switch (kind)
+        {
+            case PRIMITIVE:
+                return !argument;
+                
+            case WILDCARD:
+                return argument && depth < maxDepth;
+                
+            case PARAMETERIZED:
+            case GENERIC_ARRAY:
+                return depth < maxDepth;
+                
+            default:
+                break;
+        }
+        return true;
+    }
+    
+    /**
+     * Create a type that is likely to be assignable from the given type
+     * 
+     * @param type The type
+     * @param depth The current depth
+     * @return The resulting type
+     */
+    private Type generalize(Type type, int depth)
+    {
+        if (type instanceof Class<?> && ((Class<?>)type).isPrimitive())
+        {
+            return pick(Arrays.<Type>asList(
+                type, long.class, double.class, Object.class, 
+                PrimitiveTypes.getBoxedType(type)));
+        }
+        Class<?> rawType = null;
+        if (type instanceof Class<?> && !((Class<?>)type).isArray())
+        {
+            rawType = (Class<?>)type;
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            rawType = Types.getRawType((ParameterizedType)type);
+        }
+        if (rawType == null)
+        {
+            return random.nextBoolean() ? type : Object.class;
+        }
+        List<Class<?>> supertypes = 
+            new ArrayList<Class<?>>(ClassHierarchy.getRawSupertypes(rawType));
+        Type supertype = 
+            Substitutions.asSupertype(type, pick(supertypes));
+        if (!(supertype instanceof ParameterizedType))
+        {
+            return supertype;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType)supertype;
+        Type typeArguments[] = parameterizedType.getActualTypeArguments();
+        for (int i = 0; i < typeArguments.length; i++)
+        {
+            typeArguments[i] = 
+                generalizeTypeArgument(typeArguments[i], depth + 1);
+        }
+        return Types.createParameterizedType(parameterizedType.getRawType(),
+            parameterizedType.getOwnerType(), typeArguments);
+    }
+    
+    /**
+     * Create a type argument that is likely to contain the given type
+     * argument
+     * 
+     * @param typeArgument The type argument
+     * @param depth The current depth
+     * @return The resulting type argument
+     */
+    private Type generalizeTypeArgument(Type typeArgument, int depth)
+    {
+        if (typeArgument instanceof WildcardType)
+        {
+            return typeArgument;
+        }
+        Type bound[] = { typeArgument };
+        switch (random.nextInt(5))
+        {
+            case 0:
+                return Types.createWildcardType(null, null);
+            case 1:
+                return Types.createWildcardType(null, bound);
+            case 2:
+                return Types.createWildcardType(bound, null);
+            case 3:
+                bound[0] = generalize(typeArgument, depth);
+                return Types.createWildcardType(null, bound);
+            default:
+                break;
+        }
+        return typeArgument;
+    }
+    
+    /**
+     * Returns a random element of the given list
+     * 
+     * @param <T> The element type
+     * @param list The list
+     * @return The element
+     */
+    private <T> T pick(List<T> list)
+    {
+        return list.get(random.nextInt(list.size()));
+    }
+}
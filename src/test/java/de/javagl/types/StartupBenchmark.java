@@ -0,0 +1,205 @@
+package de.javagl.types;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A benchmark for the latency of the first calls to the main entry 
+ * points, and for the time until these calls reach a steady state.<br>
+ * <br>
+ * Each measurement is performed in a fresh JVM, so that the class 
+ * initialization and the computation of reflective information are 
+ * included. Each entry point is measured with and without calling 
+ * {@link Types#preload(Class...)} before the timer starts. This is 
+ * not a unit test, but a program that may be run from the test 
+ * classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.StartupBenchmark
+ * </code></pre>
+ */
+public class StartupBenchmark
+{
+    /**
+     * The entry points that are measured
+     */
+    private static final List<String> ENTRY_POINTS = Arrays.asList(
+        "parse", "isAssignable", "computeSupertypes", "inferTypeVariables");
+    
+    /**
+     * The number of forked JVMs for each measurement
+     */
+    private static final int FORKS = 5;
+    
+    /**
+     * The number of calls in one batch for the steady state detection
+     */
+    private static final int BATCH_SIZE = 100;
+    
+    /**
+     * The maximum number of batches for the steady state detection
+     */
+    private static final int MAX_BATCHES = 1000;
+    
+    /**
+     * The entry point of this benchmark. When called without arguments,
+     * the measurements are started in forked JVMs. Otherwise, the
+     * arguments are the name of the entry point and whether the 
+     * preloading should be done, and a single measurement is performed.
+     * 
+     * @param args The arguments
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 2)
+        {
+            measure(args[0], Boolean.parseBoolean(args[1]));
+            return;
+        }
+        System.out.printf(Locale.ENGLISH, "%-20s %-8s %14s %14s%n", 
+            "Entry point", "Preload", "First call ms", "Steady ms");
+        for (String entryPoint : ENTRY_POINTS)
+        {
+            for (boolean preload : new boolean[] { false, true })
+            {
+                double first = 0;
+                double steady = 0;
+                for (int i = 0; i < FORKS; i++)
+                {
+                    double result[] = fork(entryPoint, preload);
+                    first += result[0] / FORKS;
+                    steady += result[1] / FORKS;
+                }
+                System.out.printf(Locale.ENGLISH, 
+                    "%-20s %-8s %14.3f %14.3f%n", 
+                    entryPoint, preload, first / 1e6, steady / 1e6);
+            }
+        }
+    }
+    
+    /**
+     * Performs a measurement in a forked JVM
+     * 
+     * @param entryPoint The entry point
+     * @param preload Whether preloading should be done
+     * @return The time of the first call and the time until the steady
+     * state was reached, in nanoseconds 
+     * @throws Exception If an error occurs
+     */
+    private static double[] fork(String entryPoint, boolean preload) 
+        throws Exception
+    {
+        String java = System.getProperty("java.home") + 
+            File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, 
+            "-cp", System.getProperty("java.class.path"), 
+            StartupBenchmark.class.getName(), 
+            entryPoint, String.valueOf(preload));
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream())))
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.add(line);
+            }
+        }
+        process.waitFor();
+        String tokens[] = lines.get(lines.size() - 1).split(" ");
+        return new double[] 
+        { 
+            Double.parseDouble(tokens[0]), 
+            Double.parseDouble(tokens[1]) 
+        };
+    }
+    
+    /**
+     * Performs a single measurement in this JVM, and prints the time of 
+     * the first call and the time until the steady state was reached, in
+     * nanoseconds
+     * 
+     * @param entryPoint The entry point
+     * @param preload Whether preloading should be done
+     */
+    private static void measure(String entryPoint, boolean preload)
+    {
+        if (preload)
+        {
+            Types.preload(Integer.class, Number.class, 
+                ArrayList.class, List.class);
+        }
+        long before = System.nanoTime();
+        int sink = call(entryPoint);
+        long first = System.nanoTime() - before;
+        
+        long previous = Long.MAX_VALUE;
+        int stableBatches = 0;
+        for (int b = 0; b < MAX_BATCHES && stableBatches < 3; b++)
+        {
+            long batchBefore = System.nanoTime();
+            for (int i = 0; i < BATCH_SIZE; i++)
+            {
+                sink += call(entryPoint);
+            }
+            long duration = System.nanoTime() - batchBefore;
+            if (Math.abs(duration - previous) < previous / 10)
+            {
+                stableBatches++;
+            }
+            else
+            {
+                stableBatches = 0;
+            }
+            previous = duration;
+        }
+        long steady = System.nanoTime() - before;
+        System.out.println(first + " " + steady + " " + (sink & 1));
+    }
+    
+    /**
+     * Calls the given entry point once
+     * 
+     * @param entryPoint The entry point
+     * @return A value depending on the result, to prevent dead code 
+     * elimination
+     */
+    private static int call(String entryPoint)
+    {
+        switch (entryPoint)
+        {
+            case "parse":
+                return Types.parse(
+                    "java.util.List<? extends java.lang.Number>").hashCode();
+            case "isAssignable":
+            {
+                Type to = Types.createParameterizedType(List.class, null, 
+                    Types.createWildcardType(null, 
+                        new Type[] { Number.class }));
+                Type from = Types.createParameterizedType(
+                    ArrayList.class, null, Integer.class);
+                return Types.isAssignable(to, from) ? 1 : 0;
+            }
+            case "computeSupertypes":
+                return Supertypes.computeSupertypes(
+                    Types.createParameterizedType(
+                        ArrayList.class, null, Integer.class)).size();
+            case "inferTypeVariables":
+                return Types.inferTypeVariables(
+                    Types.asParameterizedType(List.class),
+                    Types.createParameterizedType(
+                        ArrayList.class, null, Integer.class)).size();
+            default:
+                throw new IllegalArgumentException(
+                    "Unknown entry point: " + entryPoint);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package de.javagl.types;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A benchmark for the computation of all supertypes of parameterized
+ * types.<br>
+ * <br>
+ * The {@link Supertypes#computeSupertypes(Type)} method is compared to
+ * a reference implementation that only tracks the types that are in
+ * progress, and computes the generic supertypes, the mappings of type
+ * parameters to type arguments and the domains of the type arguments
+ * again whenever they are needed, which was the original implementation
+ * in {@link Supertypes}. The results of both implementations are
+ * verified to be equal, including their iteration order. The time and
+ * the number of bytes that were allocated per call are reported, if the
+ * JVM supports measuring the allocations. This is not a unit test, but 
+ * a program that may be run from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.SupertypesBenchmark
+ * </code></pre>
+ */
+public class SupertypesBenchmark
+{
+    /**
+     * Interface for the implementations that are compared
+     */
+    private interface Implementation
+    {
+        /**
+         * Compute the supertypes of the given type
+         * 
+         * @param type The type
+         * @return The supertypes
+         */
+        Set<Type> apply(Type type);
+    }
+    
+    /**
+     * The number of calls for the warmup
+     */
+    private static final int WARMUP_CALLS = 2000;
+    
+    /**
+     * The number of calls that are measured
+     */
+    private static final int CALLS = 5000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     */
+    public static void main(String[] args)
+    {
+        Map<String, Type> types = createTypes();
+        
+        Map<String, Implementation> implementations =
+            new LinkedHashMap<String, Implementation>();
+        implementations.put("reference", 
+            SupertypesBenchmark::referenceComputeSupertypes);
+        implementations.put("current", Supertypes::computeSupertypes);
+        
+        for (Map.Entry<String, Type> entry : types.entrySet())
+        {
+            Type type = entry.getValue();
+            List<Type> expected = 
+                new ArrayList<Type>(referenceComputeSupertypes(type));
+            List<Type> actual = 
+                new ArrayList<Type>(Supertypes.computeSupertypes(type));
+            if (!expected.equals(actual))
+            {
+                System.out.println("Results differ for " + entry.getKey());
+            }
+            System.out.printf(Locale.ENGLISH, "%-28s %6d supertypes%n", 
+                entry.getKey(), actual.size());
+        }
+        
+        System.out.printf(Locale.ENGLISH, "%-28s %-10s %10s %12s%n",
+            "Type", "Impl", "us/call", "KB/call");
+        for (Map.Entry<String, Type> entry : types.entrySet())
+        {
+            for (Map.Entry<String, Implementation> implementation :
+                implementations.entrySet())
+            {
+                run(implementation.getValue(), entry.getValue(),
+                    WARMUP_CALLS);
+                double result[] = run(implementation.getValue(),
+                    entry.getValue(), CALLS);
+                String kiloBytes = result[1] < 0 ? "n/a" :
+                    String.format(Locale.ENGLISH, "%.1f", result[1] / 1024);
+                System.out.printf(Locale.ENGLISH,
+                    "%-28s %-10s %10.1f %12s%n", entry.getKey(),
+                    implementation.getKey(), result[0] / 1000, kiloBytes);
+            }
+        }
+    }
+    
+    /**
+     * Creates the types for the benchmark
+     * 
+     * @return The types, with short descriptions
+     */
+    private static Map<String, Type> createTypes()
+    {
+        Map<String, Type> types = new LinkedHashMap<String, Type>();
+        types.put("HashMap<String,Float>", Types.create(HashMap.class)
+            .withType(String.class)
+            .withType(Float.class)
+            .build());
+        types.put("TreeMap<String,Integer>", Types.create(TreeMap.class)
+            .withType(String.class)
+            .withType(Integer.class)
+            .build());
+        types.put("HashMap<List<String>,Float>", Types.create(HashMap.class)
+            .withType(Types.create(List.class)
+                .withType(String.class)
+                .build())
+            .withType(Float.class)
+            .build());
+        types.put("ArrayList<Integer>", Types.create(ArrayList.class)
+            .withType(Integer.class)
+            .build());
+        return types;
+    }
+    
+    /**
+     * Calls the given implementation with the given type
+     * 
+     * @param implementation The implementation
+     * @param type The type
+     * @param calls The number of calls
+     * @return The average duration of a call, in nanoseconds, and the
+     * average number of bytes that were allocated per call, or a
+     * negative value if this can not be measured
+     */
+    private static double[] run(
+        Implementation implementation, Type type, int calls)
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            allocationBean = (com.sun.management.ThreadMXBean)threadMXBean;
+        }
+        long id = Thread.currentThread().getId();
+        long allocatedBefore = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        long before = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < calls; i++)
+        {
+            checksum += implementation.apply(type).size();
+        }
+        long after = System.nanoTime();
+        long allocatedAfter = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        if (checksum == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        double nsPerCall = (double)(after - before) / calls;
+        double bytesPerCall = -1;
+        if (allocationBean != null)
+        {
+            bytesPerCall = (double)(allocatedAfter - allocatedBefore) / calls;
+        }
+        return new double[] { nsPerCall, bytesPerCall };
+    }
+    
+    /**
+     * The reference implementation for computing all supertypes of the
+     * given type. The budget, the deadline and the events of the original
+     * implementation are omitted, because they do not affect the 
+     * computation without a budget.
+     * 
+     * @param type The type
+     * @return The supertypes
+     */
+    private static Set<Type> referenceComputeSupertypes(Type type)
+    {
+        Set<Type> result = new LinkedHashSet<Type>();
+        referenceCollectSupertypes(new LinkedHashSet<Type>(), type, result);
+        return Collections.unmodifiableSet(result);
+    }
+    
+    /**
+     * The reference implementation for computing all supertypes of the
+     * given type, using the given stack of types that are in progress
+     * 
+     * @param typeStack The types that are in progress
+     * @param type The type
+     * @return The supertypes
+     */
+    private static Set<Type> referenceCollectSupertypes(
+        Set<Type> typeStack, Type type)
+    {
+        Set<Type> result = new LinkedHashSet<Type>();
+        referenceCollectSupertypes(typeStack, type, result);
+        return Collections.unmodifiableSet(result);
+    }
+    
+    /**
+     * The reference implementation for collecting all supertypes of the
+     * given type in the given set
+     * 
+     * @param typeStack The types that are in progress
+     * @param type The type
+     * @param result The set storing all supertypes
+     */
+    private static void referenceCollectSupertypes(
+        Set<Type> typeStack, Type type, Set<Type> result)
+    {
+        if (type == null || typeStack.contains(type))
+        {
+            return;
+        }
+        result.add(type);
+        if (type instanceof Class<?>)
+        {
+            Class<?> c = (Class<?>)type;
+            for (Type supertype : ClassHierarchy.getDirectRawSupertypes(c))
+            {
+                referenceCollectSupertypes(typeStack, supertype, result);
+            }
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            typeStack.add(type);
+            referenceCollectSupertypesOfParameterizedType(
+                typeStack, (ParameterizedType)type, result);
+            typeStack.remove(type);
+        }
+        else if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            result.addAll(referenceComputeSupertypesOfUpperBoundedType(
+                typeStack, TypeViews.upperBounds(wildcardType)));
+        }
+        else if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            result.addAll(referenceComputeSupertypesOfUpperBoundedType(
+                typeStack, TypeViews.bounds(typeVariable)));
+        }
+        else if (type instanceof GenericArrayType)
+        {
+            result.add(Object.class);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown type: "+type);
+        }
+    }
+    
+    /**
+     * The reference implementation for collecting all supertypes of the
+     * given parameterized type in the given set
+     * 
+     * @param typeStack The types that are in progress
+     * @param parameterizedType The parameterized type
+     * @param result The set storing all supertypes
+     */
+    private static void referenceCollectSupertypesOfParameterizedType(
+        Set<Type> typeStack, ParameterizedType parameterizedType, 
+        Set<Type> result)
+    {
+        result.addAll(Supertypes.computeRawSupertypes(parameterizedType));
+        Map<Type, Type> typeParameterToTypeArgumentMap = 
+            referenceCreateTypeArgumentMap(parameterizedType);
+        for (ParameterizedType parameterizedSupertype : 
+            Supertypes.computeGenericSupertypes(parameterizedType))
+        {
+            Class<?> rawSupertype = Types.getRawType(parameterizedSupertype);
+            List<List<Type>> domain = new ArrayList<List<Type>>();
+            for (Type supertypeArgument : 
+                TypeViews.typeArguments(parameterizedSupertype))
+            {
+                Type instantiatedSupertypeArgument = supertypeArgument;
+                if (supertypeArgument instanceof TypeVariable<?>)
+                {
+                    instantiatedSupertypeArgument = 
+                        typeParameterToTypeArgumentMap.get(supertypeArgument);
+                }
+                domain.add(Collections.unmodifiableList(
+                    new ArrayList<Type>(
+                        referenceComputeSupertypesWithWildcards(
+                            typeStack, instantiatedSupertypeArgument))));
+            }
+            for (List<Type> combination : 
+                Iterables.cartesianProduct(domain))
+            {
+                result.add(Types.createParameterizedType(
+                    rawSupertype, null, combination.toArray(new Type[0])));
+            }
+        }
+    }
+    
+    /**
+     * The reference implementation for creating the map from the type
+     * parameters of all generic supertypes of the given type to the 
+     * actual type arguments
+     * 
+     * @param type The type
+     * @return The mapping of type parameters to type arguments
+     */
+    private static Map<Type, Type> referenceCreateTypeArgumentMap(
+        Type type)
+    {
+        Map<Type, Type> typeParameterToTypeArgument = 
+            new LinkedHashMap<Type, Type>();
+        for (ParameterizedType parameterizedSupertype : 
+            Supertypes.computeGenericSupertypes(type))
+        {
+            Type[] typeArguments = 
+                TypeViews.typeArguments(parameterizedSupertype);
+            Class<?> rawType = Types.getRawType(parameterizedSupertype);
+            TypeVariable<?>[] typeParameters = 
+                TypeViews.typeParameters(rawType);
+            for (int i = 0; i < typeParameters.length; i++)
+            {
+                Type typeArgument = typeArguments[i];
+                while (true)
+                {
+                    Type typeArgumentValue = 
+                        typeParameterToTypeArgument.get(typeArgument);
+                    if (typeArgumentValue == null)
+                    {
+                        break;
+                    }
+                    typeArgument = typeArgumentValue;
+                }
+                if (!Types.isTypeVariable(typeArgument))
+                {
+                    typeParameterToTypeArgument.put(
+                        typeParameters[i], typeArgument);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(typeParameterToTypeArgument);
+    }
+    
+    /**
+     * The reference implementation for computing all supertypes of the 
+     * given type, including wildcard types
+     * 
+     * @param typeStack The types that are in progress
+     * @param type The type
+     * @return The supertypes, including wildcard types
+     */
+    private static Set<Type> referenceComputeSupertypesWithWildcards(
+        Set<Type> typeStack, Type type)
+    {
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            return referenceComputeSupertypesOfUpperBoundedType(
+                typeStack, TypeViews.upperBounds(wildcardType));
+        }
+        else if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            return referenceComputeSupertypesOfUpperBoundedType(
+                typeStack, TypeViews.bounds(typeVariable));
+        }
+        Set<Type> supertypesWithWildcards = new LinkedHashSet<Type>();
+        for (Type supertype : referenceCollectSupertypes(typeStack, type))
+        {
+            if (supertype.equals(type))
+            {
+                supertypesWithWildcards.add(supertype);
+            }
+            else
+            {
+                supertypesWithWildcards.add(Types.createWildcardType(
+                    null, new Type[]{supertype}));
+            }
+        }
+        return Collections.unmodifiableSet(supertypesWithWildcards);
+    }
+    
+    /**
+     * The reference implementation for computing all supertypes of a 
+     * type with the given upper bounds, including wildcard types
+     * 
+     * @param typeStack The types that are in progress
+     * @param upperBounds The upper bounds of the type
+     * @return The supertypes, including wildcard types
+     */
+    private static Set<Type> referenceComputeSupertypesOfUpperBoundedType(
+        Set<Type> typeStack, Type upperBounds[])
+    {
+        Set<Type> allUpperBounds = new LinkedHashSet<Type>();
+        for (Type upperBound : upperBounds)
+        {
+            allUpperBounds.addAll(
+                referenceCollectSupertypes(typeStack, upperBound));
+        }
+        Set<Type> result = new LinkedHashSet<Type>();
+        for (Type upperBound : allUpperBounds)
+        {
+            result.add(Types.createWildcardType(
+                null, new Type[]{upperBound}));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
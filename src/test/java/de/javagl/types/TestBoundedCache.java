@@ -0,0 +1,78 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link BoundedCache}
+ */
+@RunWith(JUnit4.class)
+public class TestBoundedCache
+{
+    /**
+     * Test that the size of the cache does not exceed the maximum size
+     */
+    @Test
+    public void testMaximumSize()
+    {
+        BoundedCache<Integer, String> cache = 
+            new BoundedCache<Integer, String>(16);
+        for (int i = 0; i < 1000; i++)
+        {
+            cache.put(i, String.valueOf(i));
+            assertTrue(cache.size() <= 16);
+        }
+        assertEquals("999", cache.get(999));
+    }
+    
+    /**
+     * Test that entries that are accessed are kept, and entries that
+     * are not accessed are evicted
+     */
+    @Test
+    public void testAccessedEntriesAreKept()
+    {
+        BoundedCache<Integer, String> cache = 
+            new BoundedCache<Integer, String>(16);
+        cache.put(-1, "kept");
+        for (int i = 0; i < 1000; i++)
+        {
+            assertEquals("kept", cache.get(-1));
+            cache.put(i, String.valueOf(i));
+        }
+        assertEquals("kept", cache.get(-1));
+        assertNull(cache.get(0));
+    }
+    
+    /**
+     * Test that null values can be stored, and that the cache can be
+     * cleared
+     */
+    @Test
+    public void testNullValuesAndClear()
+    {
+        BoundedCache<Integer, String> cache = 
+            new BoundedCache<Integer, String>(4);
+        cache.put(1, null);
+        assertEquals(1, cache.size());
+        assertNull(cache.get(1));
+        cache.put(2, "2");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(2));
+    }
+    
+    /**
+     * Test that a non-positive maximum size causes an exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize()
+    {
+        new BoundedCache<Integer, String>(0);
+    }
+}
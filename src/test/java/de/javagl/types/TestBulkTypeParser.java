@@ -0,0 +1,98 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link BulkTypeParser}
+ */
+@RunWith(JUnit4.class)
+public class TestBulkTypeParser
+{
+    /**
+     * Test parsing lines with imports, type variables and errors
+     */
+    @Test
+    public void testParseLines()
+    {
+        BulkTypeParser parser = BulkTypeParsers.create()
+            .addImport("java.util.*")
+            .addTypeVariableName("T");
+        List<TypeParseResult> results = parser.parse(Stream.of(
+            "List<String>", 
+            "", 
+            "Map<String, ? extends Number>",
+            "com.example.DoesNotExist",
+            "List<T extends Number>"));
+        assertEquals(4, results.size());
+        
+        assertEquals(1, results.get(0).getLineNumber());
+        assertEquals(Types.create(List.class, String.class), 
+            results.get(0).getType());
+        
+        assertEquals(3, results.get(1).getLineNumber());
+        assertTrue(results.get(1).isSuccess());
+        
+        TypeParseResult failed = results.get(2);
+        assertEquals(4, failed.getLineNumber());
+        assertFalse(failed.isSuccess());
+        assertNull(failed.getType());
+        assertTrue(failed.getError() instanceof ClassNotFoundException);
+        
+        Type type = results.get(3).getType();
+        Type argument = Types.getTypeArguments(type).get(0);
+        assertTrue(argument instanceof TypeVariable<?>);
+    }
+    
+    /**
+     * Test that the results of parsing a file preserve the input order
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testParseFile() throws Exception
+    {
+        List<String> names = Arrays.asList(
+            "java.lang.Integer", "java.lang.Long", "java.lang.String",
+            "java.util.List<java.lang.Integer>");
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++)
+        {
+            lines.add(names.get(i % names.size()));
+        }
+        Path path = Files.createTempFile("types", ".txt");
+        try
+        {
+            Files.write(path, lines, StandardCharsets.UTF_8);
+            List<TypeParseResult> results = 
+                BulkTypeParsers.create().parse(path);
+            assertEquals(lines.size(), results.size());
+            for (int i = 0; i < lines.size(); i++)
+            {
+                TypeParseResult result = results.get(i);
+                assertEquals(i + 1, result.getLineNumber());
+                assertEquals(Types.parse(lines.get(i)), result.getType());
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+}
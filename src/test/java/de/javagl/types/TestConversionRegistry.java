@@ -0,0 +1,168 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link ConversionRegistry}
+ */
+@RunWith(JUnit4.class)
+public class TestConversionRegistry
+{
+    /**
+     * Registered converters are composed into the shortest chain
+     */
+    @Test
+    public void testRegisteredConvertersAreComposed()
+    {
+        ConversionRegistry registry = ConversionRegistries.create();
+        registry.register(String.class, Integer.class, 
+            s -> Integer.valueOf((String)s));
+        registry.register(Integer.class, Long.class, 
+            i -> Long.valueOf((Integer)i));
+        registry.register(Long.class, String.class, String::valueOf);
+        
+        ConversionChain chain = 
+            registry.getConversionChain(String.class, Long.class);
+        assertEquals(Arrays.<Type>asList(
+            String.class, Integer.class, Long.class), chain.getTypes());
+        assertEquals(2, chain.getConverterCount());
+        assertEquals(12L, chain.convert("12"));
+        assertSame(chain, 
+            registry.getConversionChain(String.class, Long.class));
+        
+        registry.register(String.class, Long.class, 
+            s -> Long.valueOf((String)s));
+        chain = registry.getConversionChain(String.class, Long.class);
+        assertEquals(1, chain.getConverterCount());
+        assertEquals(23L, registry.convert("23", String.class, Long.class));
+    }
+    
+    /**
+     * Registered converters are composed with widening, boxing and 
+     * assignability, also for types that no converter was registered for
+     */
+    @Test
+    public void testBuiltInConversionsAreComposed()
+    {
+        ConversionRegistry registry = ConversionRegistries.create();
+        registry.register(String.class, int.class, 
+            s -> Integer.parseInt((String)s));
+        
+        ConversionChain chain = 
+            registry.getConversionChain(String.class, long.class);
+        assertEquals(Arrays.<Type>asList(
+            String.class, int.class, long.class), chain.getTypes());
+        assertEquals(3L, chain.convert("3"));
+        
+        chain = registry.getConversionChain(CharSequence.class, 
+            Number.class);
+        assertNull(chain);
+        
+        registry.register(CharSequence.class, String.class, 
+            Object::toString);
+        chain = registry.getConversionChain(StringBuilder.class, 
+            double.class);
+        assertEquals(Arrays.<Type>asList(StringBuilder.class, 
+            CharSequence.class, String.class, int.class, double.class), 
+            chain.getTypes());
+        assertEquals(4.0, chain.convert(new StringBuilder("4")));
+        
+        chain = registry.getConversionChain(short.class, Object.class);
+        assertEquals(0, chain.getConverterCount());
+        chain = registry.getConversionChain(String.class, String.class);
+        assertEquals(Collections.<Type>singletonList(String.class), 
+            chain.getTypes());
+    }
+    
+    /**
+     * Converters with type variables are applied to the instantiations
+     * of their source type
+     */
+    @Test
+    public void testGenericConverters()
+    {
+        Type t = Types.createTypeVariable("T");
+        Type listOfT = Types.createParameterizedType(List.class, null, t);
+        Type setOfT = Types.createParameterizedType(Set.class, null, t);
+        Type listOfString = 
+            Types.createParameterizedType(List.class, null, String.class);
+        Type setOfString = 
+            Types.createParameterizedType(Set.class, null, String.class);
+        Type arrayListOfInteger = Types.createParameterizedType(
+            ArrayList.class, null, Integer.class);
+        Type setOfInteger = 
+            Types.createParameterizedType(Set.class, null, Integer.class);
+        
+        ConversionRegistry registry = ConversionRegistries.create();
+        registry.register(listOfT, setOfT, 
+            list -> new LinkedHashSet<Object>((List<?>)list));
+        registry.register(String.class, listOfString, 
+            s -> Arrays.asList(((String)s).split(",")));
+        
+        ConversionChain chain = 
+            registry.getConversionChain(arrayListOfInteger, setOfInteger);
+        assertEquals(Arrays.asList(arrayListOfInteger, setOfInteger), 
+            chain.getTypes());
+        
+        chain = registry.getConversionChain(String.class, setOfString);
+        assertEquals(Arrays.asList(String.class, listOfString, setOfString),
+            chain.getTypes());
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("a", "b")), 
+            chain.convert("a,b,a"));
+        
+        assertNull(registry.getConversionChain(String.class, setOfInteger));
+    }
+    
+    /**
+     * Unregistering a converter removes the chains that used it, and 
+     * converters with target type variables that do not appear in the 
+     * source type are rejected
+     */
+    @Test
+    public void testUnregisterAndInvalidConverters()
+    {
+        ConversionRegistry registry = ConversionRegistries.create();
+        registry.register(String.class, Integer.class, 
+            s -> Integer.valueOf((String)s));
+        registry.unregister(String.class, Integer.class);
+        assertNull(registry.getConversionChain(String.class, Integer.class));
+        try
+        {
+            registry.convert("1", String.class, Integer.class);
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Expected
+            return;
+        }
+        throw new AssertionError("Expected IllegalArgumentException");
+    }
+    
+    /**
+     * A converter whose target type contains type variables that do not
+     * appear in the source type can not be registered
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConverterWithUnboundTargetTypeVariable()
+    {
+        Type t = Types.createTypeVariable("T");
+        ConversionRegistry registry = ConversionRegistries.create();
+        registry.register(String.class, 
+            Types.createParameterizedType(List.class, null, t), 
+            s -> Collections.singletonList(s));
+    }
+}
@@ -0,0 +1,185 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link RandomTypeGenerator}, and differential tests of
+ * {@link TypeAssignabilityTester} implementations with the 
+ * {@link AssignabilityDifferentialHarness}.<br>
+ * <br>
+ * The number of pairs that are compared may be increased with the 
+ * system property <code>de.javagl.types.differentialPairs</code>.
+ */
+@RunWith(JUnit4.class)
+public class TestDifferentialAssignability
+{
+    /**
+     * The number of pairs that are compared in each differential test
+     */
+    private static final int PAIRS = 
+        Integer.getInteger("de.javagl.types.differentialPairs", 20000);
+    
+    /**
+     * The seed for the generators
+     */
+    private static final long SEED = 0;
+    
+    /**
+     * Generators with the same seed create equal types
+     */
+    @Test
+    public void testGeneratorIsReproducible()
+    {
+        List<String> expected = strings(
+            new RandomTypeGenerator(SEED).nextTypes(1000));
+        List<String> actual = strings(
+            new RandomTypeGenerator(SEED).nextTypes(1000));
+        assertEquals(expected, actual);
+    }
+    
+    /**
+     * The generator creates all kinds of types, including wildcards with
+     * lower bounds, generic arrays, type variables with recursive bounds,
+     * and deeply nested types
+     */
+    @Test
+    public void testGeneratorCreatesAllKinds()
+    {
+        RandomTypeGenerator generator = 
+            new RandomTypeGenerator(SEED).setMaxDepth(6);
+        boolean lowerBound = false;
+        boolean genericArray = false;
+        boolean recursiveBound = false;
+        int maxDepth = 0;
+        for (Type type : generator.nextTypes(5000))
+        {
+            String string = Types.stringFor(type);
+            lowerBound |= string.contains("? super ");
+            genericArray |= type instanceof GenericArrayType;
+            recursiveBound |= string.contains("E extends java.lang.Enum<E>");
+            maxDepth = Math.max(maxDepth, depth(type));
+        }
+        assertTrue(lowerBound);
+        assertTrue(genericArray);
+        assertTrue(recursiveBound);
+        assertTrue(maxDepth >= 5);
+    }
+    
+    /**
+     * The {@link TypeTable} agrees with the default tester
+     */
+    @Test
+    public void testTypeTable()
+    {
+        checkTypeTable(TypeTables.create());
+    }
+    
+    /**
+     * The {@link TypeTable} that stores the types outside of the Java 
+     * heap agrees with the default tester
+     */
+    @Test
+    public void testOffHeapTypeTable()
+    {
+        checkTypeTable(TypeTables.createOffHeap());
+    }
+    
+    /**
+     * Compare the given {@link TypeTable} with the default tester, and
+     * make sure that a sufficient number of the pairs is assignable
+     * 
+     * @param typeTable The {@link TypeTable}
+     */
+    private static void checkTypeTable(TypeTable typeTable)
+    {
+        AssignabilityDifferentialHarness.Result result = 
+            new AssignabilityDifferentialHarness((to, from) -> 
+                typeTable.isAssignable(
+                    typeTable.intern(to), typeTable.intern(from)))
+                .run(new RandomTypeGenerator(SEED), PAIRS);
+        assertEquals(result.toString(), 0, result.getMismatchCount());
+        assertTrue(result.getAssignable() > PAIRS / 10);
+    }
+    
+    /**
+     * The harness reports the mismatches of a wrong implementation
+     */
+    @Test
+    public void testHarnessReportsMismatches()
+    {
+        AssignabilityDifferentialHarness.Result result = 
+            new AssignabilityDifferentialHarness((to, from) -> true)
+                .setMaxRecordedMismatches(10)
+                .run(new RandomTypeGenerator(SEED), 1000);
+        assertEquals(1000, result.getPairs());
+        assertEquals(1000 - result.getAssignable(), 
+            result.getMismatchCount());
+        assertEquals(10, result.getMismatches().size());
+    }
+    
+    /**
+     * Returns the {@link Types#stringFor(Type) string representations}
+     * of the given types
+     * 
+     * @param types The types
+     * @return The strings
+     */
+    private static List<String> strings(List<Type> types)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Type type : types)
+        {
+            result.add(Types.stringFor(type));
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the nesting depth of the given type
+     * 
+     * @param type The type
+     * @return The depth
+     */
+    private static int depth(Type type)
+    {
+        int result = 0;
+        if (type instanceof ParameterizedType)
+        {
+            for (Type typeArgument : 
+                ((ParameterizedType)type).getActualTypeArguments())
+            {
+                result = Math.max(result, depth(typeArgument) + 1);
+            }
+        }
+        else if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            for (Type bound : wildcardType.getLowerBounds())
+            {
+                result = Math.max(result, depth(bound) + 1);
+            }
+            for (Type bound : wildcardType.getUpperBounds())
+            {
+                result = Math.max(result, depth(bound) + 1);
+            }
+        }
+        else if (type instanceof GenericArrayType)
+        {
+            result = depth(
+                ((GenericArrayType)type).getGenericComponentType()) + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the resolution of member types against owner types
+ */
+@RunWith(JUnit4.class)
+public class TestMemberTypes
+{
+    /**
+     * Test resolving methods of a parameterized supertype
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testResolveMethods() throws Exception
+    {
+        Type owner = Types.create(ArrayList.class, String.class);
+        Method get = List.class.getMethod("get", int.class);
+        assertEquals(String.class, Types.resolveReturnType(owner, get));
+        
+        Method subList = List.class.getMethod(
+            "subList", int.class, int.class);
+        assertEquals(Types.create(List.class, String.class),
+            Types.resolveReturnType(owner, subList));
+        
+        Method add = List.class.getMethod("add", Object.class);
+        Type parameterTypes[] = Types.resolveParameterTypes(owner, add);
+        assertEquals(1, parameterTypes.length);
+        assertEquals(String.class, parameterTypes[0]);
+    }
+    
+    /**
+     * Test resolving fields with generic arrays and wildcards
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testResolveFields() throws Exception
+    {
+        Type owner = Types.create(Box.class, Integer.class);
+        Field values = Box.class.getDeclaredField("values");
+        assertEquals(Integer[].class, Types.resolveFieldType(owner, values));
+        
+        Field list = Box.class.getDeclaredField("list");
+        assertEquals(Types.parse(
+            "java.util.List<? extends java.lang.Integer>"),
+            Types.resolveFieldType(owner, list));
+        
+        Field value = Box.class.getDeclaredField("value");
+        assertEquals(String.class, 
+            Types.resolveFieldType(StringBox.class, value));
+    }
+    
+    /**
+     * Test resolving members against owner types with wildcards
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testResolveWithWildcardOwner() throws Exception
+    {
+        Type owner = Types.parse("java.util.List<? extends java.lang.Number>");
+        Method get = List.class.getMethod("get", int.class);
+        assertEquals(Number.class, Types.resolveReturnType(owner, get));
+        
+        Method subList = List.class.getMethod(
+            "subList", int.class, int.class);
+        assertEquals(owner, Types.resolveReturnType(owner, subList));
+        
+        Type superOwner = Types.parse(
+            "java.util.List<? super java.lang.Number>");
+        assertEquals(Object.class, Types.resolveReturnType(superOwner, get));
+    }
+    
+    /**
+     * Test resolving members of inner classes through the owner type chain
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testResolveOwnerChain() throws Exception
+    {
+        Type owner = Samples.class.getDeclaredField("inner").getGenericType();
+        Field value = Outer.Inner.class.getDeclaredField("value");
+        assertEquals(Types.create(Map.class, String.class, Long.class), 
+            Types.resolveFieldType(owner, value));
+    }
+    
+    /**
+     * Test the caching and the validation of members
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testResolveInvalidMember() throws Exception
+    {
+        Type owner = Types.create(ArrayList.class, String.class);
+        Method get = List.class.getMethod("get", int.class);
+        assertSame(Types.resolveReturnType(owner, get), 
+            Types.resolveReturnType(owner, get));
+        
+        Method put = Map.class.getMethod("put", Object.class, Object.class);
+        Types.resolveReturnType(owner, put);
+    }
+    
+    /**
+     * Test that members of classes of other class loaders are resolved. 
+     * The results are cached, unless they refer to classes of unrelated
+     * class loaders.
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testResolveWithForeignClassLoaders() throws Exception
+    {
+        URL location = TestMemberTypes.class.getProtectionDomain()
+            .getCodeSource().getLocation();
+        try (URLClassLoader foreign = 
+                new URLClassLoader(new URL[] { location }, null);
+            URLClassLoader sibling = 
+                new URLClassLoader(new URL[] { location }, null))
+        {
+            Class<?> box = foreign.loadClass(ForeignBox.class.getName());
+            Class<?> element = 
+                sibling.loadClass(ForeignElement.class.getName());
+            Field list = box.getDeclaredField("list");
+            
+            Type owner = Types.create(box, String.class);
+            Type expected = Types.create(List.class, String.class);
+            assertEquals(expected, Types.resolveFieldType(owner, list));
+            assertSame(Types.resolveFieldType(owner, list), 
+                Types.resolveFieldType(owner, list));
+            
+            Type siblingOwner = Types.create(box, element);
+            Type siblingExpected = Types.create(List.class, element);
+            assertEquals(siblingExpected, 
+                Types.resolveFieldType(siblingOwner, list));
+            assertNotSame(Types.resolveFieldType(siblingOwner, list), 
+                Types.resolveFieldType(siblingOwner, list));
+        }
+    }
+    
+    /**
+     * A generic sample class that is loaded by a separate class loader
+     * 
+     * @param <T> The type parameter
+     */
+    @SuppressWarnings("javadoc")
+    public static class ForeignBox<T>
+    {
+        public List<T> list;
+    }
+    
+    /**
+     * A sample class that is loaded by a separate class loader
+     */
+    public static class ForeignElement
+    {
+        // Only used as a type argument
+    }
+    
+    /**
+     * A generic sample class
+     * 
+     * @param <T> The type parameter
+     */
+    @SuppressWarnings("unused")
+    private static class Box<T>
+    {
+        /**
+         * A sample field
+         */
+        T value;
+        
+        /**
+         * A sample field
+         */
+        T values[];
+        
+        /**
+         * A sample field
+         */
+        List<? extends T> list;
+    }
+    
+    /**
+     * A sample class extending a parameterized class
+     */
+    private static class StringBox extends Box<String>
+    {
+        // Only used for tests
+    }
+    
+    /**
+     * A generic sample class with an inner class
+     * 
+     * @param <K> The type parameter
+     */
+    private static class Outer<K>
+    {
+        /**
+         * A sample inner class
+         * 
+         * @param <V> The type parameter
+         */
+        @SuppressWarnings("unused")
+        class Inner<V>
+        {
+            /**
+             * A sample field
+             */
+            Map<K, V> value;
+        }
+    }
+    
+    /**
+     * A class containing a field with a type that has an owner type
+     */
+    @SuppressWarnings("unused")
+    private static class Samples
+    {
+        /**
+         * A sample field
+         */
+        Outer<String>.Inner<Long> inner;
+    }
+}
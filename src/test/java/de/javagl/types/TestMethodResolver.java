@@ -0,0 +1,231 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link MethodResolver} class
+ */
+@RunWith(JUnit4.class)
+public class TestMethodResolver
+{
+    /**
+     * Methods for the tests
+     */
+    @SuppressWarnings("javadoc")
+    public static class Handler
+    {
+        public void handle(long x) { /* For tests */ }
+        public void handle(Integer x) { /* For tests */ }
+        public void handle(Object x) { /* For tests */ }
+        public void handle(String x) { /* For tests */ }
+        public void handle(Collection<?> x) { /* For tests */ }
+        public void handle(List<? extends Number> x) { /* For tests */ }
+        public void handle(String x, Object ... y) { /* For tests */ }
+        public void handle(String x, String ... y) { /* For tests */ }
+        public void handle(Serializable x, String y) { /* For tests */ }
+        public void handle(String x, Serializable y) { /* For tests */ }
+    }
+    
+    /**
+     * Generic methods for the tests
+     */
+    @SuppressWarnings("javadoc")
+    public static class GenericHandler
+    {
+        public void g(Object x) { /* For tests */ }
+        public <T extends Number> void g(T x) { /* For tests */ }
+        public <T> void w(List<T> x, T y) { /* For tests */ }
+        public void c(Object x) { /* For tests */ }
+        public <T extends Comparable<T>> void c(T x) { /* For tests */ }
+        @SafeVarargs
+        public final <T extends Number> void v(T x, T ... y) 
+        { 
+            // For tests 
+        }
+    }
+    
+    /**
+     * The resolver for the tests
+     */
+    private final MethodResolver resolver = 
+        MethodResolvers.create(Handler.class, "handle");
+    
+    /**
+     * Test the resolution in the strict and loose phases
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testBoxingPhases() throws Exception
+    {
+        assertEquals(method(long.class), resolver.resolve(int.class));
+        assertEquals(method(long.class), resolver.resolve(long.class));
+        assertEquals(method(Integer.class), 
+            resolver.resolve(Integer.class));
+        assertEquals(method(Object.class), 
+            resolver.resolve(boolean.class));
+        assertEquals(method(Object.class), resolver.resolve(Short.class));
+        assertNull(resolver.resolve(float.class, float.class));
+    }
+    
+    /**
+     * Test the selection of the most specific method
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testMostSpecific() throws Exception
+    {
+        assertEquals(method(String.class), resolver.resolve(String.class));
+        
+        Type listOfInteger = 
+            Types.create(List.class).withType(Integer.class).build();
+        Type listOfString = 
+            Types.create(ArrayList.class).withType(String.class).build();
+        assertEquals(method(List.class), resolver.resolve(listOfInteger));
+        assertEquals(method(Collection.class), 
+            resolver.resolve(listOfString));
+    }
+    
+    /**
+     * Test the resolution of variable arity methods
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testVariableArity() throws Exception
+    {
+        Method objects = method(String.class, Object[].class);
+        Method strings = method(String.class, String[].class);
+        assertEquals(strings, resolver.resolve(String.class, String.class,
+            String.class));
+        assertEquals(objects, resolver.resolve(String.class, String.class,
+            Integer.class));
+        assertEquals(method(String.class, Serializable.class), 
+            resolver.resolve(String.class, int.class));
+        assertEquals(strings, 
+            resolver.resolve(String.class, String[].class));
+    }
+    
+    /**
+     * Test that the bounds of the type variables of generic methods
+     * are respected, and that the most specific method is selected
+     * by inferring the type variables
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testGenericBounds() throws Exception
+    {
+        MethodResolver g = 
+            MethodResolvers.create(GenericHandler.class, "g");
+        Method gObject = GenericHandler.class.getMethod("g", Object.class);
+        Method gNumber = GenericHandler.class.getMethod("g", Number.class);
+        assertEquals(gNumber, g.resolve(Integer.class));
+        assertEquals(gNumber, g.resolve(int.class));
+        assertEquals(gObject, g.resolve(String.class));
+        assertEquals(gObject, g.resolve(Object.class));
+        
+        MethodResolver c = 
+            MethodResolvers.create(GenericHandler.class, "c");
+        Method cObject = GenericHandler.class.getMethod("c", Object.class);
+        Method cComparable = 
+            GenericHandler.class.getMethod("c", Comparable.class);
+        assertEquals(cComparable, c.resolve(String.class));
+        assertEquals(cComparable, c.resolve(int.class));
+        assertEquals(cObject, c.resolve(Number.class));
+    }
+    
+    /**
+     * Test that the type variables of generic methods are inferred
+     * consistently from all arguments
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testGenericInference() throws Exception
+    {
+        MethodResolver w = 
+            MethodResolvers.create(GenericHandler.class, "w");
+        Method method = 
+            GenericHandler.class.getMethod("w", List.class, Object.class);
+        Type listOfString = 
+            Types.create(List.class).withType(String.class).build();
+        Type listOfNumber = 
+            Types.create(List.class).withType(Number.class).build();
+        assertNull(w.resolve(listOfString, Integer.class));
+        assertNull(w.resolve(listOfString, int.class));
+        assertEquals(method, w.resolve(listOfString, String.class));
+        assertEquals(method, w.resolve(listOfNumber, Integer.class));
+        assertEquals(method, w.resolve(listOfNumber, int.class));
+        assertEquals(method, w.resolve(listOfString, null));
+        
+        MethodResolver v = 
+            MethodResolvers.create(GenericHandler.class, "v");
+        Method varargs = GenericHandler.class.getMethod(
+            "v", Number.class, Number[].class);
+        assertEquals(varargs, v.resolve(Integer.class, Double.class));
+        assertEquals(varargs, v.resolve(int.class, long.class, int.class));
+        assertNull(v.resolve(Integer.class, String.class));
+    }
+    
+    /**
+     * Test that an ambiguous resolution causes an exception, also
+     * when the result is obtained from the cache
+     */
+    @Test
+    public void testAmbiguous()
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            assertAmbiguous(String.class, String.class);
+            assertAmbiguous((Type)null);
+        }
+    }
+    
+    /**
+     * Assert that the resolution for the given argument types is 
+     * ambiguous
+     * 
+     * @param argumentTypes The argument types
+     */
+    private void assertAmbiguous(Type ... argumentTypes)
+    {
+        try
+        {
+            resolver.resolve(argumentTypes);
+            fail("Expected an exception");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+    
+    /**
+     * Returns the method of the {@link Handler} class with the given
+     * parameter types
+     * 
+     * @param parameterTypes The parameter types
+     * @return The method
+     * @throws Exception Not expected
+     */
+    private static Method method(Class<?> ... parameterTypes) 
+        throws Exception
+    {
+        return Handler.class.getMethod("handle", parameterTypes);
+    }
+}
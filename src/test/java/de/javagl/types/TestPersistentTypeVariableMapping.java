@@ -0,0 +1,147 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link PersistentTypeVariableMapping} class
+ */
+@RunWith(JUnit4.class)
+public class TestPersistentTypeVariableMapping
+{
+    /**
+     * Test that earlier instances are not affected by creating new ones
+     */
+    @Test
+    public void testSnapshots()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T", "U");
+        PersistentTypeVariableMapping m0 = 
+            TypeVariableMappings.createPersistent();
+        PersistentTypeVariableMapping m1 = m0.with(tvs[0], String.class);
+        PersistentTypeVariableMapping m2 = m1.with(tvs[1], Integer.class);
+        PersistentTypeVariableMapping m3 = m2.with(tvs[0], Number.class);
+        
+        assertNull(m0.get(tvs[0]));
+        assertEquals(String.class, m1.get(tvs[0]));
+        assertNull(m1.get(tvs[1]));
+        assertEquals(String.class, m2.get(tvs[0]));
+        assertEquals(Integer.class, m2.get(tvs[1]));
+        assertEquals(Number.class, m3.get(tvs[0]));
+        
+        assertEquals(0, m0.size());
+        assertEquals(2, m2.size());
+        assertEquals(2, m3.size());
+        
+        assertSame(m3, m3.with(tvs[0], Number.class));
+        assertSame(m3, m3.with(tvs[0], tvs[0]));
+    }
+    
+    /**
+     * Test that chains of type variables are resolved, and that cycles
+     * resolve to <code>null</code>
+     */
+    @Test
+    public void testChains()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T", "U", "V");
+        PersistentTypeVariableMapping m = 
+            TypeVariableMappings.createPersistent()
+                .with(tvs[0], tvs[1])
+                .with(tvs[1], tvs[2]);
+        
+        assertNull(m.get(tvs[0]));
+        assertEquals(tvs[1], m.getDirect(tvs[0]));
+        
+        PersistentTypeVariableMapping resolved = m.with(tvs[2], Float.class);
+        assertEquals(Float.class, resolved.get(tvs[0]));
+        assertEquals(Float.class, resolved.get(tvs[1]));
+        assertEquals(Float.class, resolved.get(tvs[0]));
+        
+        PersistentTypeVariableMapping cyclic = m.with(tvs[2], tvs[0]);
+        assertNull(cyclic.get(tvs[0]));
+        assertNull(cyclic.get(tvs[2]));
+    }
+    
+    /**
+     * Test a larger number of type variables, including ones with
+     * equal hash codes
+     */
+    @Test
+    public void testManyTypeVariables()
+    {
+        // "Aa" and "BB" have the same hash code
+        String names[] = new String[1002];
+        for (int i = 0; i < 1000; i++)
+        {
+            names[i] = "T" + i;
+        }
+        names[1000] = "Aa";
+        names[1001] = "BB";
+        TypeVariable<?>[] tvs = createTypeVariables(names);
+        
+        PersistentTypeVariableMapping m = 
+            TypeVariableMappings.createPersistent();
+        for (int i = 0; i < tvs.length; i++)
+        {
+            m = m.with(tvs[i], i % 2 == 0 ? String.class : Integer.class);
+        }
+        assertEquals(tvs.length, m.size());
+        for (int i = 0; i < tvs.length; i++)
+        {
+            Type expected = i % 2 == 0 ? String.class : Integer.class;
+            assertEquals(expected, m.get(tvs[i]));
+        }
+        List<TypeVariable<?>> typeVariables = m.getTypeVariables();
+        assertEquals(tvs.length, typeVariables.size());
+        
+        PersistentTypeVariableMapping n = m.with(tvs[1001], Long.class);
+        assertEquals(Long.class, n.get(tvs[1001]));
+        assertEquals(String.class, n.get(tvs[1000]));
+        assertEquals(Integer.class, m.get(tvs[1001]));
+    }
+    
+    /**
+     * Test that the mapping is used by a type assignability tester
+     */
+    @Test
+    public void testAssignabilityTester()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T");
+        PersistentTypeVariableMapping m = 
+            TypeVariableMappings.createPersistent()
+                .with(tvs[0], Number.class);
+        TypeAssignabilityTester tester = TypeAssignabilityTesters.create(m);
+        assertTrue(tester.isAssignable(tvs[0], Number.class));
+        assertFalse(tester.isAssignable(tvs[0], String.class));
+    }
+    
+    /**
+     * Create type variables with the given names
+     * 
+     * @param names The names
+     * @return The type variables
+     */
+    private static TypeVariable<?>[] createTypeVariables(String ... names)
+    {
+        TypeVariableBuilder builder = Types.createTypeVariables();
+        for (String name : names)
+        {
+            builder.add(name);
+        }
+        GenericDeclaration genericDeclaration = builder.build();
+        return genericDeclaration.getTypeParameters();
+    }
+}
@@ -1,6 +1,8 @@
 package de.javagl.types;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
@@ -12,6 +14,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.RandomAccess;
 import java.util.Set;
 
@@ -168,6 +171,134 @@ public class TestSupertypes
         
     }
  
+    /**
+     * Test for the supertypes computation of a type where several type 
+     * arguments are the same parameterized type
+     */
+    @Test
+    public void testSupertypesWithSharedTypeArguments()
+    {
+        Type list = Types.create(List.class, Integer.class);
+        Type type = Types.create(Map.class, list, list); 
+        
+        Set<Type> actual = Supertypes.computeSupertypes(type);
+        assertTrue(actual.contains(Types.parse(
+            "java.util.Map<java.util.List<java.lang.Integer>, " + 
+            "? extends java.util.Collection<? extends java.lang.Number>>")));
+        assertTrue(actual.contains(Types.parse(
+            "java.util.Map<? extends java.lang.Iterable<?>, " + 
+            "java.util.List<java.lang.Integer>>")));
+        
+        // The domains of both type arguments are the same
+        Set<Type> firstArguments = new LinkedHashSet<Type>();
+        Set<Type> secondArguments = new LinkedHashSet<Type>();
+        for (Type supertype : actual)
+        {
+            if (supertype instanceof ParameterizedType)
+            {
+                Type typeArguments[] = 
+                    ((ParameterizedType)supertype).getActualTypeArguments();
+                firstArguments.add(typeArguments[0]);
+                secondArguments.add(typeArguments[1]);
+            }
+        }
+        assertEquals(firstArguments, secondArguments);
+        assertEquals(actual, Supertypes.computeSupertypes(type));
+    }
+    
+    /**
+     * Test for the supertypes computation of a type whose type argument
+     * refers to the type itself
+     */
+    @Test
+    public void testSupertypesOfRecursiveType()
+    {
+        Type type = Types.create(Enum.class, Thread.State.class); 
+        
+        Set<Type> actual = Supertypes.computeSupertypes(type);
+        assertTrue(actual.contains(
+            Types.create(Comparable.class, Thread.State.class)));
+        assertTrue(actual.contains(Types.parse(
+            "java.lang.Enum<? extends java.lang.Enum>")));
+        assertEquals(actual, Supertypes.computeSupertypes(
+            type, SupertypeBudget.unlimited()).getSupertypes());
+    }
+ 
+    /**
+     * Test for the supertype graph computation
+     */
+    @Test
+    public void testSupertypeGraph()
+    {
+        Type type = Types.create(Set.class, Integer.class); 
+        
+        SupertypeGraph graph = Supertypes.computeSupertypeGraph(type);
+        assertEquals(Supertypes.computeSupertypes(type), graph.getNodes());
+        
+        Set<Type> direct = graph.getDirectSupertypes(type);
+        assertTrue(direct.contains(Set.class));
+        assertTrue(direct.contains(
+            Types.parse("java.util.Collection<java.lang.Integer>")));
+        assertTrue(direct.contains(
+            Types.parse("java.util.Set<? extends java.lang.Number>")));
+        assertFalse(direct.contains(
+            Types.parse("java.util.Set<? extends java.io.Serializable>")));
+        assertFalse(direct.contains(
+            Types.parse("java.util.Set<?>")));
+        
+        for (Type node : graph.getNodes())
+        {
+            assertTrue(graph.getDistance(node) >= 0);
+        }
+        assertEquals(0, graph.getDistance(type));
+        assertEquals(1, graph.getDistance(Set.class));
+        assertEquals(2, graph.getDistance(Collection.class));
+        assertEquals(4, graph.getDistance(
+            Types.parse("java.lang.Iterable<?>")));
+        assertEquals(-1, graph.getDistance(List.class));
+        
+        Type collection = Types.parse(
+            "java.util.Collection<? extends java.lang.Number>");
+        Type iterable = Types.parse(
+            "java.lang.Iterable<? extends java.io.Serializable>");
+        assertEquals(2, graph.getDistance(collection, iterable));
+        assertEquals(-1, graph.getDistance(iterable, collection));
+        assertTrue(graph.getDirectSubtypes(iterable).contains(
+            Types.parse("java.lang.Iterable<? extends java.lang.Number>")));
+    }
+    
+    /**
+     * Test for the supertypes computation with a budget
+     */
+    @Test
+    public void testSupertypesWithBudget()
+    {
+        Type type = Types.create(Set.class, Integer.class); 
+        Set<Type> all = Supertypes.computeSupertypes(type);
+        
+        SupertypeResult unlimited = Supertypes.computeSupertypes(
+            type, SupertypeBudget.unlimited());
+        assertFalse(unlimited.isTruncated());
+        assertEquals(all, unlimited.getSupertypes());
+        
+        SupertypeResult limitedResults = Supertypes.computeSupertypes(
+            type, SupertypeBudget.unlimited().withMaxResults(10));
+        assertTrue(limitedResults.isTruncated());
+        assertEquals(10, limitedResults.getSupertypes().size());
+        assertTrue(all.containsAll(limitedResults.getSupertypes()));
+        
+        SupertypeResult limitedProduct = Supertypes.computeSupertypes(
+            type, SupertypeBudget.unlimited().withMaxDomainProductSize(2));
+        assertTrue(limitedProduct.isTruncated());
+        assertTrue(limitedProduct.getSupertypes().size() < all.size());
+        assertTrue(all.containsAll(limitedProduct.getSupertypes()));
+        
+        SupertypeResult sufficient = Supertypes.computeSupertypes(
+            type, SupertypeBudget.unlimited().withMaxResults(all.size()));
+        assertFalse(sufficient.isTruncated());
+        assertEquals(all, sufficient.getSupertypes());
+    }
+    
     /**
      * Prints debug information
      * @param message message
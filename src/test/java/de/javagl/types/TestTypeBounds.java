@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.io.Serializable;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -184,9 +185,92 @@ public class TestTypeBounds
         assertEqualContents(expected, result);
     }
     
+    /**
+     * Test {@link TypeBounds#mergeUpperBounds(Collection, Iterable)} 
+     * with parameterized types and arrays
+     * 
+     *    [? extends Object & Collection&lt;? extends Number&gt;] 
+     *  + [? extends List&lt;Integer&gt; & Iterable & Object[]]
+     *  = [? extends List&lt;Integer&gt; & Object[]] 
+     */
+    @Test
+    public void testMergeUpperBoundsWithParameterizedTypesAndArrays()
+    {
+        Type collection = Types.create(Collection.class)
+            .withSubtypeOf(Number.class).build();
+        Type list = Types.create(List.class)
+            .withType(Integer.class).build();
+        List<Type> result = 
+            TypeBounds.mergeUpperBounds(
+                Arrays.asList(Object.class, collection),
+                Arrays.asList(list, Iterable.class, Object[].class));
+        
+        List<? extends Type> expected =
+            Arrays.asList(list, Object[].class);
+            
+        assertEqualContents(expected, result);
+    }
     
     
     
+    
+    /**
+     * Test that wildcard types are created with normalized bounds
+     */
+    @Test
+    public void testWildcardBoundsNormalization()
+    {
+        Type w0 = Types.createWildcardType(null, new Type[] { 
+            Object.class, Serializable.class, Number.class, 
+            Serializable.class });
+        Type w1 = Types.createWildcardType(null, new Type[] { 
+            Number.class, Serializable.class });
+        assertEquals(w1, w0);
+        assertEquals(w1.hashCode(), w0.hashCode());
+        assertEquals(Arrays.asList(Number.class, Serializable.class), 
+            Types.getUpperBounds(w0));
+        
+        Type w2 = Types.createWildcardType(null, new Type[] { 
+            Object.class });
+        Type w3 = Types.createWildcardType(null, null);
+        assertEquals(w3, w2);
+    }
+
+    /**
+     * Test that duplicate bounds of type variables are removed, retaining
+     * the order of the bounds, and an explicit <code>Object</code> bound
+     */
+    @Test
+    public void testTypeVariableBoundsNormalization()
+    {
+        Type typeVariable = Types.createTypeVariable("T", 
+            Serializable.class, Number.class, Serializable.class);
+        assertEquals(Arrays.asList(Serializable.class, Number.class), 
+            Types.getVariableBounds(typeVariable));
+        
+        Type objectBounded = Types.createTypeVariable("T", 
+            Object.class, Comparable.class, Comparable.class);
+        assertEquals(Arrays.asList(Object.class, Comparable.class), 
+            Types.getVariableBounds(objectBounded));
+    }
+    
+    /**
+     * Test that wildcard bounds that only differ in type variables with
+     * the same name are brought into the same canonical order
+     */
+    @Test
+    public void testWildcardBoundsOrderForEqualNames()
+    {
+        TypeVariable<?> t0 = Types.createTypeVariables().add("T")
+            .build().getTypeParameters()[0];
+        TypeVariable<?> t1 = Types.createTypeVariables().add("T")
+            .build().getTypeParameters()[0];
+        Type w0 = Types.createWildcardType(null, new Type[] { t0, t1 });
+        Type w1 = Types.createWildcardType(null, new Type[] { t1, t0 });
+        assertEquals(w0, w1);
+        assertEquals(w0.hashCode(), w1.hashCode());
+    }
+    
     /**
      * Assert that the given collections have equal contents. That is,
      * they contain each element an equal number of times, regardless
@@ -0,0 +1,199 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypeComputationService}
+ */
+@RunWith(JUnit4.class)
+public class TestTypeComputationService
+{
+    /**
+     * An executor that only collects the tasks, so that they can be
+     * executed manually
+     */
+    private static class ManualExecutor implements Executor
+    {
+        /**
+         * The tasks
+         */
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        
+        @Override
+        public void execute(Runnable task)
+        {
+            tasks.add(task);
+        }
+        
+        /**
+         * Run all collected tasks
+         */
+        void runAll()
+        {
+            List<Runnable> current = new ArrayList<Runnable>(tasks);
+            tasks.clear();
+            for (Runnable task : current)
+            {
+                task.run();
+            }
+        }
+    }
+    
+    /**
+     * The results are the same as those of the synchronous methods
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testResults() throws Exception
+    {
+        TypeComputationService service = TypeComputationServices.create();
+        Type type = Types.create(List.class, Integer.class);
+        
+        assertEquals(Supertypes.computeSupertypes(type), 
+            service.computeSupertypes(type).get());
+        assertEquals(type, 
+            service.parse("java.util.List<java.lang.Integer>").get());
+        assertEquals(Types.inferTypeVariables(List.class, type),
+            service.inferTypeVariables(List.class, type).get());
+        assertEquals(Types.leastUpperBound(
+            Arrays.asList(Integer.class, Long.class)), 
+            service.leastUpperBound(
+                Arrays.asList(Integer.class, Long.class)).get());
+        assertNull(service.inferTypeVariables(
+            Types.create(List.class, String.class), type).get());
+    }
+    
+    /**
+     * Concurrent requests for the same computation are coalesced, and 
+     * the results are cached
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testCoalescing() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TypeComputationService service = TypeComputationServices.create(
+            executor, 16, 0, TimeUnit.SECONDS);
+        Type type = Types.create(List.class, Integer.class);
+        
+        CompletableFuture<Set<Type>> f0 = service.computeSupertypes(type);
+        CompletableFuture<Set<Type>> f1 = service.computeSupertypes(
+            Types.parse("java.util.List<java.lang.Integer>"));
+        assertEquals(1, executor.tasks.size());
+        assertFalse(f0.isDone());
+        
+        executor.runAll();
+        assertTrue(f0.isDone());
+        assertSame(f0.get(), f1.get());
+        
+        CompletableFuture<Set<Type>> f2 = service.computeSupertypes(type);
+        assertTrue(f2.isDone());
+        assertTrue(executor.tasks.isEmpty());
+        assertSame(f0.get(), f2.get());
+        
+        service.clearCache();
+        service.computeSupertypes(type);
+        assertEquals(1, executor.tasks.size());
+    }
+    
+    /**
+     * A computation is not performed when all requests for it have been
+     * cancelled, and cancelling one request does not affect the others
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testCancellation() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TypeComputationService service = TypeComputationServices.create(
+            executor, 16, 0, TimeUnit.SECONDS);
+        String string = "java.util.List<java.lang.Integer>";
+        
+        CompletableFuture<Type> f0 = service.parse(string);
+        CompletableFuture<Type> f1 = service.parse(string);
+        f0.cancel(false);
+        assertFalse(f1.isDone());
+        f1.cancel(false);
+        
+        CompletableFuture<Type> f2 = service.parse(string);
+        assertEquals(2, executor.tasks.size());
+        executor.runAll();
+        assertTrue(f0.isCancelled());
+        assertEquals(Types.parse(string), f2.get());
+    }
+    
+    /**
+     * Failed computations are reported, and not cached
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testFailure() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TypeComputationService service = TypeComputationServices.create(
+            executor, 16, 0, TimeUnit.SECONDS);
+        
+        CompletableFuture<Type> f0 = service.parse("NotAClass");
+        executor.runAll();
+        try
+        {
+            f0.get();
+            fail("Expected an exception");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof ClassNotFoundException);
+        }
+        service.parse("NotAClass");
+        assertEquals(1, executor.tasks.size());
+    }
+    
+    /**
+     * A request times out when its result is not available in time
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testTimeout() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TypeComputationService service = TypeComputationServices.create(
+            executor, 16, 10, TimeUnit.MILLISECONDS);
+        
+        CompletableFuture<Set<Type>> f0 = 
+            service.computeSupertypes(Integer.class);
+        try
+        {
+            f0.get(10, TimeUnit.SECONDS);
+            fail("Expected an exception");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+}
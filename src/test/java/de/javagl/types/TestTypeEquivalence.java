@@ -0,0 +1,201 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the equivalence of types modulo type variable renaming
+ */
+@RunWith(JUnit4.class)
+public class TestTypeEquivalence
+{
+    /**
+     * Test that independently parsed types with type variables are
+     * equivalent, but not equal
+     */
+    @Test
+    public void testParsedTypes()
+    {
+        Type t0 = parse("java.util.List<T extends java.lang.Number>");
+        Type t1 = parse("java.util.List<U extends java.lang.Number>");
+        assertNotEquals(t0, t1);
+        assertTrue(Types.areEquivalent(t0, t1));
+        assertEquals(
+            Types.equivalenceHashCode(t0), Types.equivalenceHashCode(t1));
+        
+        Type t2 = parse("java.util.List<T extends java.lang.Integer>");
+        assertFalse(Types.areEquivalent(t0, t2));
+    }
+    
+    /**
+     * Test that the correspondence between type variables has to be
+     * one-to-one
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testBijection() throws Exception
+    {
+        Type t0 = Samples.class.getDeclaredMethod("pair0")
+            .getGenericReturnType();
+        Type t1 = Samples.class.getDeclaredMethod("pair1")
+            .getGenericReturnType();
+        Type t2 = Samples.class.getDeclaredMethod("same")
+            .getGenericReturnType();
+        assertTrue(Types.areEquivalent(t0, t1));
+        assertFalse(Types.areEquivalent(t0, t2));
+        assertFalse(Types.areEquivalent(t2, t0));
+    }
+    
+    /**
+     * Test type variables with recursive bounds
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testRecursiveBounds() throws Exception
+    {
+        Method m0 = Samples.class.getDeclaredMethod("max0", Iterable.class);
+        Method m1 = Samples.class.getDeclaredMethod("max1", Iterable.class);
+        Method m2 = Samples.class.getDeclaredMethod("max2", Iterable.class);
+        Type t0 = m0.getGenericReturnType();
+        Type t1 = m1.getGenericReturnType();
+        Type t2 = m2.getGenericReturnType();
+        assertTrue(Types.areEquivalent(t0, t1));
+        assertEquals(
+            Types.equivalenceHashCode(t0), Types.equivalenceHashCode(t1));
+        assertFalse(Types.areEquivalent(t0, t2));
+        
+        Type p0 = m0.getGenericParameterTypes()[0];
+        Type p1 = m1.getGenericParameterTypes()[0];
+        assertTrue(Types.areEquivalent(p0, p1));
+    }
+    
+    /**
+     * Test the equivalence keys in a map
+     */
+    @Test
+    public void testEquivalenceKey()
+    {
+        Map<Object, String> map = new HashMap<Object, String>();
+        Type t0 = parse("java.util.List<T extends java.lang.Number>");
+        Type t1 = parse("java.util.List<U extends java.lang.Number>");
+        map.put(Types.equivalenceKey(t0), "A");
+        map.put(Types.equivalenceKey(t1), "B");
+        assertEquals(1, map.size());
+        assertEquals("B", map.get(Types.equivalenceKey(t0)));
+    }
+    
+    /**
+     * Parse the given string with a new type parser, where all single
+     * upper case letters are type variable names
+     * 
+     * @param string The string
+     * @return The type
+     */
+    private static Type parse(String string)
+    {
+        TypeParser typeParser = TypeParsers.create();
+        for (char c = 'A'; c <= 'Z'; c++)
+        {
+            typeParser.addTypeVariableName(String.valueOf(c));
+        }
+        try
+        {
+            return typeParser.parse(string);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+    
+    /**
+     * Sample methods with type variables that have recursive bounds
+     */
+    @SuppressWarnings("unused")
+    private static class Samples
+    {
+        /**
+         * Sample method
+         * 
+         * @param <T> The type
+         * @param elements The elements
+         * @return The result
+         */
+        <T extends Comparable<T>> T max0(Iterable<T> elements)
+        {
+            return null;
+        }
+        
+        /**
+         * Sample method
+         * 
+         * @param <U> The type
+         * @param elements The elements
+         * @return The result
+         */
+        <U extends Comparable<U>> U max1(Iterable<U> elements)
+        {
+            return null;
+        }
+        
+        /**
+         * Sample method
+         * 
+         * @param <T> The type
+         * @param elements The elements
+         * @return The result
+         */
+        <T extends Comparable<? super T>> T max2(Iterable<T> elements)
+        {
+            return null;
+        }
+        
+        /**
+         * Sample method
+         * 
+         * @param <K> The key type
+         * @param <V> The value type
+         * @return The result
+         */
+        <K, V> Map<K, V> pair0()
+        {
+            return null;
+        }
+        
+        /**
+         * Sample method
+         * 
+         * @param <A> The key type
+         * @param <B> The value type
+         * @return The result
+         */
+        <A, B> Map<A, B> pair1()
+        {
+            return null;
+        }
+        
+        /**
+         * Sample method
+         * 
+         * @param <T> The type
+         * @return The result
+         */
+        <T> Map<T, T> same()
+        {
+            return null;
+        }
+    }
+}
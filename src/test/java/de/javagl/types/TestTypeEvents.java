@@ -0,0 +1,99 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests for the JFR events that are emitted via {@link TypeEvents}
+ */
+@RunWith(JUnit4.class)
+public class TestTypeEvents
+{
+    /**
+     * The names of the events
+     */
+    private static final List<String> EVENT_NAMES = Arrays.asList(
+        "de.javagl.types.Assignability", 
+        "de.javagl.types.Supertypes", 
+        "de.javagl.types.Parse", 
+        "de.javagl.types.BoundsMerge");
+    
+    /**
+     * When the events are enabled without a threshold, then all 
+     * computations emit events with the string representations 
+     * of the types
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testEventsAreRecorded() throws Exception
+    {
+        Map<String, RecordedEvent> events = 
+            new HashMap<String, RecordedEvent>();
+        Path path = Files.createTempFile("TestTypeEvents", ".jfr");
+        try
+        {
+            try (Recording recording = new Recording())
+            {
+                for (String name : EVENT_NAMES)
+                {
+                    recording.enable(name).withThreshold(Duration.ZERO);
+                }
+                recording.start();
+                
+                Types.isAssignable(Number.class, Integer.class);
+                Supertypes.computeSupertypes(
+                    Types.create(List.class, Integer.class));
+                Types.parse("java.util.List<java.lang.String>");
+                TypeBounds.mergeUpperBounds(
+                    Arrays.asList(Number.class), 
+                    Arrays.asList(Integer.class));
+                
+                recording.stop();
+                recording.dump(path);
+            }
+            for (RecordedEvent event : RecordingFile.readAllEvents(path))
+            {
+                events.put(event.getEventType().getName(), event);
+            }
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+        assertTrue(events.keySet().containsAll(EVENT_NAMES));
+        
+        RecordedEvent supertypes = events.get("de.javagl.types.Supertypes");
+        assertEquals("java.util.List<java.lang.Integer>", 
+            supertypes.getString("type"));
+        assertTrue(supertypes.getInt("resultSize") > 1);
+        
+        RecordedEvent parse = events.get("de.javagl.types.Parse");
+        assertEquals("java.util.List<java.lang.String>", 
+            parse.getString("type"));
+        
+        RecordedEvent merge = events.get("de.javagl.types.BoundsMerge");
+        assertEquals("java.lang.Integer", merge.getString("bounds"));
+        assertEquals(1, merge.getInt("resultSize"));
+        
+        // No events are created after the recording was closed
+        assertNull(TypeEvents.beginAssignability());
+    }
+}
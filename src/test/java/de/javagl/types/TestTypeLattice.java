@@ -0,0 +1,122 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the least upper bound and greatest lower bound computations
+ */
+@RunWith(JUnit4.class)
+public class TestTypeLattice
+{
+    /**
+     * Test the least upper bound of parameterized types
+     */
+    @Test
+    public void testLeastUpperBoundOfParameterizedTypes()
+    {
+        Type arrayList = 
+            Types.create(ArrayList.class).withType(Integer.class).build();
+        Type linkedList = 
+            Types.create(LinkedList.class).withType(Long.class).build();
+        List<Type> lub = 
+            Types.leastUpperBound(Arrays.asList(arrayList, linkedList));
+        
+        ParameterizedType first = (ParameterizedType)lub.get(0);
+        assertEquals(AbstractList.class, first.getRawType());
+        WildcardType typeArgument = 
+            (WildcardType)first.getActualTypeArguments()[0];
+        assertEquals(Number.class, typeArgument.getUpperBounds()[0]);
+        assertTrue(lub.contains(Serializable.class));
+        assertTrue(lub.contains(Cloneable.class));
+    }
+    
+    /**
+     * Test the least upper bound of types with recursive bounds, and 
+     * that the nesting depth is limited
+     */
+    @Test
+    public void testLeastUpperBoundOfRecursiveTypes()
+    {
+        List<Type> lub = Types.leastUpperBound(
+            Arrays.asList(Integer.class, Long.class));
+        assertEquals(Number.class, lub.get(0));
+        
+        ParameterizedType comparable = (ParameterizedType)lub.get(1);
+        assertEquals(Comparable.class, comparable.getRawType());
+        int depth = 0;
+        Type type = comparable;
+        while (type instanceof ParameterizedType)
+        {
+            depth++;
+            WildcardType wildcardType = (WildcardType)
+                ((ParameterizedType)type).getActualTypeArguments()[0];
+            Type[] upperBounds = wildcardType.getUpperBounds();
+            type = upperBounds.length > 1 ? upperBounds[1] : null;
+        }
+        assertEquals(TypeLattice.MAX_DEPTH, depth);
+    }
+    
+    /**
+     * Test the least upper bound of equal types, primitive types and 
+     * array types
+     */
+    @Test
+    public void testLeastUpperBoundOfSpecialTypes()
+    {
+        assertEquals(Collections.singletonList(int.class), 
+            Types.leastUpperBound(Arrays.asList(int.class, int.class)));
+        assertEquals(Integer.class, Types.leastUpperBound(
+            Arrays.asList(int.class, Integer.class)).get(0));
+        assertEquals(Number[].class, Types.leastUpperBound(
+            Arrays.asList(Integer[].class, Long[].class)).get(0));
+        assertEquals(Collections.singletonList(Object.class), 
+            Types.leastUpperBound(Arrays.asList(Object.class, int[].class)));
+    }
+    
+    /**
+     * Test that the parallel reduction of many types yields the same
+     * result as the reduction of few types
+     */
+    @Test
+    public void testLeastUpperBoundOfManyTypes()
+    {
+        List<Type> types = new ArrayList<Type>();
+        for (int i = 0; i < 1000; i++)
+        {
+            types.add(i % 2 == 0 ? Integer.class : Long.class);
+        }
+        assertEquals(
+            Types.leastUpperBound(Arrays.asList(Integer.class, Long.class)),
+            Types.leastUpperBound(types));
+    }
+    
+    /**
+     * Test the greatest lower bound
+     */
+    @Test
+    public void testGreatestLowerBound()
+    {
+        assertEquals(Collections.singletonList(Integer.class), 
+            Types.greatestLowerBound(Arrays.asList(
+                Number.class, Integer.class, Comparable.class)));
+        assertEquals(Arrays.asList(Number.class, Runnable.class), 
+            Types.greatestLowerBound(Arrays.asList(
+                Number.class, Runnable.class)));
+    }
+}
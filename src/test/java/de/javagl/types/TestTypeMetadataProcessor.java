@@ -0,0 +1,340 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.types.processor.TypeMetadataProcessor;
+
+/**
+ * Tests for the {@link TypeMetadata} that is generated by the
+ * {@link TypeMetadataProcessor}. The sample classes are compiled
+ * with and without the processor, and the generated metadata is 
+ * compared to the information that is obtained via reflection.
+ */
+@RunWith(JUnit4.class)
+public class TestTypeMetadataProcessor
+{
+    /**
+     * The source code of the sample classes
+     */
+    private static final String[][] SOURCES = 
+    {
+        { "sample/Base.java", 
+            "package sample;\n" + 
+            "import java.util.*;\n" + 
+            "@de.javagl.types.GenerateTypeMetadata\n" + 
+            "public abstract class Base<A, B extends Number>\n" + 
+            "    extends AbstractMap<A, List<? super B>>\n" + 
+            "    implements Map.Entry<A, B[]>, Comparable<Base<A, ?>>,\n" +
+            "        java.io.Serializable {}\n" },
+        { "sample/Derived.java", 
+            "package sample;\n" + 
+            "import java.util.*;\n" + 
+            "@de.javagl.types.GenerateTypeMetadata\n" + 
+            "public abstract class Derived extends Base<String, Integer>\n" +
+            "    implements Iterable<int[][]>\n" + 
+            "{\n" + 
+            "    @de.javagl.types.GenerateTypeMetadata\n" + 
+            "    public abstract class Inner\n" + 
+            "        extends AbstractList<Map.Entry<String, ?>> {}\n" + 
+            "}\n" },
+        { "sample/Outer.java", 
+            "package sample;\n" + 
+            "import java.util.*;\n" + 
+            "public class Outer<T>\n" + 
+            "{\n" + 
+            "    @de.javagl.types.GenerateTypeMetadata\n" + 
+            "    public abstract class Inner<U> extends ArrayList<T[]>\n" + 
+            "        implements Comparable<Outer<T>.Inner<U>> {}\n" + 
+            "    @de.javagl.types.GenerateTypeMetadata\n" + 
+            "    interface Mapping<K> extends Map<K, Hidden[]> {}\n" + 
+            "    private static class Hidden {}\n" + 
+            "}\n" },
+        { "sample/Color.java", 
+            "package sample;\n" + 
+            "@de.javagl.types.GenerateTypeMetadata\n" + 
+            "public enum Color { RED }\n" },
+    };
+    
+    /**
+     * The binary names of the annotated sample classes
+     */
+    private static final List<String> ANNOTATED_CLASS_NAMES = Arrays.asList(
+        "sample.Base", "sample.Derived", "sample.Derived$Inner", 
+        "sample.Outer$Inner", "sample.Outer$Mapping", "sample.Color");
+    
+    /**
+     * The temporary folder for the compiled classes
+     */
+    @ClassRule
+    public static final TemporaryFolder FOLDER = new TemporaryFolder();
+    
+    /**
+     * The class loader for the classes compiled with the processor
+     */
+    private static ClassLoader withMetadata;
+    
+    /**
+     * The class loader for the classes compiled without the processor
+     */
+    private static ClassLoader withoutMetadata;
+    
+    /**
+     * Compile the sample classes with and without the processor
+     * 
+     * @throws IOException Not expected
+     */
+    @BeforeClass
+    public static void compileSamples() throws IOException
+    {
+        File with = FOLDER.newFolder("with");
+        assertTrue(compile(with, SOURCES, 
+            "-processor", TypeMetadataProcessor.class.getName()).isEmpty());
+        withMetadata = createClassLoader(with);
+        
+        File without = FOLDER.newFolder("without");
+        assertTrue(compile(without, SOURCES, "-proc:none").isEmpty());
+        withoutMetadata = createClassLoader(without);
+    }
+    
+    /**
+     * The generated metadata is equal to the information that is 
+     * obtained via reflection
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testMetadataMatchesReflection() throws Exception
+    {
+        for (String name : ANNOTATED_CLASS_NAMES)
+        {
+            Class<?> c = Class.forName(name, false, withMetadata);
+            TypeMetadata typeMetadata = ClassHierarchy.getTypeMetadata(c);
+            assertNotNull(name, typeMetadata);
+            assertSame(c, typeMetadata.getDescribedClass());
+            
+            List<Class<?>> rawSupertypes = new ArrayList<Class<?>>();
+            List<Type> genericSupertypes = new ArrayList<Type>();
+            if (c.getSuperclass() != null)
+            {
+                rawSupertypes.add(c.getSuperclass());
+                genericSupertypes.add(c.getGenericSuperclass());
+            }
+            rawSupertypes.addAll(Arrays.asList(c.getInterfaces()));
+            genericSupertypes.addAll(
+                Arrays.asList(c.getGenericInterfaces()));
+            assertEquals(rawSupertypes, 
+                typeMetadata.getDirectRawSupertypes());
+            assertEqualTypes(genericSupertypes, 
+                typeMetadata.getDirectGenericSupertypes());
+            
+            TypeBuilder typeBuilder = Types.create(c);
+            for (Type typeParameter : c.getTypeParameters())
+            {
+                typeBuilder.withType(typeParameter);
+            }
+            assertEqualTypes(
+                Collections.singletonList(typeBuilder.build()), 
+                Collections.singletonList(
+                    typeMetadata.getParameterizedType()));
+            assertSame(typeMetadata.getParameterizedType(), 
+                Types.asParameterizedType(c));
+        }
+    }
+    
+    /**
+     * The supertypes and the assignability are the same, regardless of
+     * whether the metadata was generated
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testResultsWithAndWithoutMetadata() throws Exception
+    {
+        for (String name : ANNOTATED_CLASS_NAMES)
+        {
+            Class<?> with = Class.forName(name, false, withMetadata);
+            Class<?> without = Class.forName(name, false, withoutMetadata);
+            assertNull(ClassHierarchy.getTypeMetadata(without));
+            assertEquals(
+                strings(Supertypes.computeSupertypes(without)), 
+                strings(Supertypes.computeSupertypes(with)));
+            assertEquals(
+                strings(Supertypes.computeGenericSupertypes(without)),
+                strings(Supertypes.computeGenericSupertypes(with)));
+        }
+        
+        List<Type> targets = Arrays.asList(
+            Types.parse("java.util.Map<java.lang.String, " + 
+                "java.util.List<? super java.lang.Integer>>"),
+            Types.parse("java.util.AbstractMap<java.lang.String, " + 
+                "java.util.List<? super java.lang.Integer>>"),
+            Types.parse("java.lang.Iterable<int[][]>"),
+            Types.parse("java.lang.Iterable<long[]>"),
+            Types.createParameterizedType(Map.Entry.class, 
+                Map.class, String.class, Integer[].class));
+        for (Type to : targets)
+        {
+            Class<?> with = Class.forName("sample.Derived", false, 
+                withMetadata);
+            Class<?> without = Class.forName("sample.Derived", false, 
+                withoutMetadata);
+            assertEquals(Types.isAssignable(to, without), 
+                Types.isAssignable(to, with));
+        }
+    }
+    
+    /**
+     * The processor reports an error for a private member class
+     * 
+     * @throws IOException Not expected
+     */
+    @Test
+    public void testPrivateClassIsRejected() throws IOException
+    {
+        String[][] sources = 
+        {
+            { "sample/Private.java", 
+                "package sample;\n" + 
+                "public class Private\n" + 
+                "{\n" + 
+                "    @de.javagl.types.GenerateTypeMetadata\n" + 
+                "    private static class Member {}\n" + 
+                "}\n" },
+        };
+        List<Diagnostic<? extends JavaFileObject>> errors = 
+            compile(FOLDER.newFolder("private"), sources, 
+                "-processor", TypeMetadataProcessor.class.getName());
+        assertEquals(1, errors.size());
+    }
+    
+    /**
+     * Returns the {@link Types#stringFor(Type) string representations}
+     * of the given types
+     * 
+     * @param types The types
+     * @return The strings
+     */
+    private static List<String> strings(Collection<? extends Type> types)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Type type : types)
+        {
+            result.add(Types.stringFor(type));
+        }
+        return result;
+    }
+    
+    /**
+     * Assert that the given lists contain equal types, with equal
+     * hash codes
+     * 
+     * @param expected The expected types
+     * @param actual The actual types
+     */
+    private static void assertEqualTypes(
+        List<? extends Type> expected, List<? extends Type> actual)
+    {
+        assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(actual.get(i), expected.get(i));
+            assertEquals(expected.get(i).hashCode(), 
+                actual.get(i).hashCode());
+        }
+    }
+    
+    /**
+     * Compile the given sources into the given directory
+     * 
+     * @param directory The directory
+     * @param sources The relative paths and contents of the sources
+     * @param options The compiler options
+     * @return The errors that have been reported
+     * @throws IOException If an IO error occurs
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> compile(
+        File directory, String[][] sources, String ... options) 
+        throws IOException
+    {
+        List<File> files = new ArrayList<File>();
+        for (String[] source : sources)
+        {
+            File file = new File(directory, source[0]);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), 
+                source[1].getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        List<String> allOptions = new ArrayList<String>(Arrays.asList(
+            "-d", directory.getPath(), 
+            "-classpath", System.getProperty("java.class.path")));
+        allOptions.addAll(Arrays.asList(options));
+        
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = 
+            new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager fileManager = 
+            compiler.getStandardFileManager(null, null, null))
+        {
+            compiler.getTask(null, fileManager, diagnostics, allOptions, 
+                null, fileManager.getJavaFileObjectsFromFiles(files)).call();
+        }
+        List<Diagnostic<? extends JavaFileObject>> errors = 
+            new ArrayList<Diagnostic<? extends JavaFileObject>>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : 
+            diagnostics.getDiagnostics())
+        {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+            {
+                errors.add(diagnostic);
+            }
+        }
+        return errors;
+    }
+    
+    /**
+     * Create a class loader for the classes in the given directory
+     * 
+     * @param directory The directory
+     * @return The class loader
+     * @throws IOException If an IO error occurs
+     */
+    private static ClassLoader createClassLoader(File directory) 
+        throws IOException
+    {
+        return new URLClassLoader(new URL[] { directory.toURI().toURL() }, 
+            TestTypeMetadataProcessor.class.getClassLoader());
+    }
+}
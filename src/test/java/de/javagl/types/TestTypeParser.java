@@ -270,7 +270,7 @@ public class TestTypeParser
         message += "should be     " + t0 + "\n";
         message += "was parsed to " + t1 + "\n";
         
-        boolean passed = TypesEquivalent.areEquivalent(t0, t1);
+        boolean passed = Types.areEquivalent(t0, t1);
         if (!passed || DEBUG)
         {
             PrintStream ps = System.out;
@@ -0,0 +1,162 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypeRegistry}
+ */
+@RunWith(JUnit4.class)
+public class TestTypeRegistry
+{
+    /**
+     * Test the lookup modes
+     */
+    @Test
+    public void testLookup()
+    {
+        TypeRegistry<String> registry = TypeRegistries.create();
+        Type listOfNumber = 
+            Types.parse("java.util.List<? extends java.lang.Number>");
+        Type collectionOfInteger = 
+            Types.create(Collection.class, Integer.class);
+        registry.register(Number.class, "number");
+        registry.register(Serializable.class, "serializable");
+        registry.register(listOfNumber, "listOfNumber");
+        registry.register(collectionOfInteger, "collectionOfInteger");
+        
+        assertEquals("number", registry.get(Number.class));
+        assertNull(registry.get(Integer.class));
+        assertEquals(Collections.emptyList(), 
+            registry.lookup(Integer.class, TypeRegistry.LookupMode.EXACT));
+        assertEquals(Arrays.asList("number", "serializable"), 
+            registry.lookup(Integer.class, 
+                TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+        
+        Type listOfInteger = Types.create(List.class, Integer.class);
+        assertEquals(Arrays.asList("listOfNumber", "collectionOfInteger"), 
+            registry.lookup(listOfInteger, 
+                TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+    }
+    
+    /**
+     * Test that cached lookup results are invalidated by modifications
+     */
+    @Test
+    public void testInvalidation()
+    {
+        TypeRegistry<String> registry = TypeRegistries.create();
+        registry.register(Number.class, "number");
+        List<String> first = registry.lookup(
+            Integer.class, TypeRegistry.LookupMode.ASSIGNABLE_FROM);
+        assertSame(first, registry.lookup(
+            Integer.class, TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+        
+        assertNull(registry.register(Comparable.class, "comparable"));
+        assertEquals(Arrays.asList("number", "comparable"), 
+            registry.lookup(Integer.class, 
+                TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+        
+        assertEquals("number", registry.unregister(Number.class));
+        assertNull(registry.unregister(Number.class));
+        assertEquals(Arrays.asList("comparable"), 
+            registry.lookup(Integer.class, 
+                TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+        assertEquals(1, registry.getSnapshot().size());
+    }
+    
+    /**
+     * Test that a value that is equal to the registered value, but not
+     * the same instance, replaces the registered value
+     */
+    @Test
+    public void testRegisterEqualValue()
+    {
+        TypeRegistry<String> registry = TypeRegistries.create();
+        String first = new String("number");
+        String second = new String("number");
+        assertNull(registry.register(Number.class, first));
+        assertSame(first, registry.register(Number.class, second));
+        assertSame(second, registry.get(Number.class));
+        Map<Type, String> snapshot = registry.getSnapshot();
+        assertSame(second, registry.register(Number.class, second));
+        assertSame(snapshot, registry.getSnapshot());
+    }
+    
+    /**
+     * Test lookups from many threads while the registry is modified. 
+     * Every lookup must observe a consistent snapshot: The value for 
+     * <code>Number</code> is always registered, and the value for 
+     * <code>Comparable</code> is registered and unregistered repeatedly.
+     * 
+     * @throws Exception If the test fails
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception
+    {
+        final TypeRegistry<String> registry = TypeRegistries.create();
+        registry.register(Number.class, "number");
+        
+        int numReaders = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numReaders);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch started = new CountDownLatch(numReaders);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < numReaders; i++)
+        {
+            futures.add(executor.submit(() -> 
+            {
+                started.countDown();
+                int lookups = 0;
+                while (running.get())
+                {
+                    List<String> values = registry.lookup(Integer.class,
+                        TypeRegistry.LookupMode.ASSIGNABLE_FROM);
+                    assertEquals("number", values.get(0));
+                    assertTrue(values.size() <= 2);
+                    lookups++;
+                }
+                return lookups;
+            }));
+        }
+        started.await();
+        for (int i = 0; i < 200; i++)
+        {
+            registry.register(Comparable.class, "comparable");
+            Thread.sleep(1);
+            registry.unregister(Comparable.class);
+        }
+        running.set(false);
+        int lookups = 0;
+        for (Future<Integer> future : futures)
+        {
+            lookups += future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(lookups > 0);
+        assertEquals(Arrays.asList("number"), registry.lookup(
+            Integer.class, TypeRegistry.LookupMode.ASSIGNABLE_FROM));
+    }
+}
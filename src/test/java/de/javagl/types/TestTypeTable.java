@@ -0,0 +1,310 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypeTable}
+ */
+@RunWith(JUnit4.class)
+public class TestTypeTable
+{
+    /**
+     * A sample field with types from the reflection implementation
+     */
+    @SuppressWarnings("unused")
+    private Map<? super Integer, List<? extends Number>[]> sample;
+    
+    /**
+     * Equal types receive the same handle, and can be converted back
+     */
+    @Test
+    public void testIntern()
+    {
+        TypeTable table = TypeTables.create();
+        int h0 = table.intern(Types.parse("java.util.List<java.lang.String>"));
+        int h1 = table.intern(Types.create(List.class, String.class));
+        int h2 = table.intern(Types.create(List.class, Integer.class));
+        assertEquals(h0, h1);
+        assertNotEquals(h0, h2);
+        assertEquals(Types.create(List.class, String.class), 
+            table.getType(h0));
+        
+        int size = table.size();
+        table.intern(Types.create(List.class, String.class));
+        assertEquals(size, table.size());
+    }
+    
+    /**
+     * The results of the assignability tests on handles are the same as
+     * those of {@link Types#isAssignable(Type, Type)}, including the 
+     * cases where exceptions are thrown
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testIsAssignable() throws Exception
+    {
+        checkIsAssignable(TypeTables.create());
+    }
+    
+    /**
+     * The results of the assignability tests on handles of an off-heap
+     * table are the same as those of 
+     * {@link Types#isAssignable(Type, Type)}
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testIsAssignableOffHeap() throws Exception
+    {
+        checkIsAssignable(TypeTables.createOffHeap());
+    }
+    
+    /**
+     * The types that are obtained from an off-heap table are equal to 
+     * the types that have been added
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testGetTypeOffHeap() throws Exception
+    {
+        TypeTable table = TypeTables.createOffHeap();
+        for (Type type : createSampleTypes())
+        {
+            int handle = table.intern(type);
+            assertEquals(type, table.getType(handle));
+            assertEquals(handle, table.intern(table.getType(handle)));
+        }
+    }
+    
+    /**
+     * The raw supertypes are the same as the ones that are computed
+     * from the classes
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testRawSupertypes() throws Exception
+    {
+        TypeTable heapTable = TypeTables.create();
+        TypeTable offHeapTable = TypeTables.createOffHeap();
+        for (Type type : createSampleTypes())
+        {
+            Set<Type> expected = new HashSet<Type>();
+            if (type instanceof Class<?>)
+            {
+                expected.addAll(
+                    ClassHierarchy.getRawSupertypes((Class<?>)type));
+            }
+            else if (type instanceof ParameterizedType)
+            {
+                expected.addAll(ClassHierarchy.getRawSupertypes(
+                    Types.getRawType((ParameterizedType)type)));
+            }
+            else
+            {
+                expected.add(Object.class);
+            }
+            assertEquals(expected, getRawSupertypes(heapTable, type));
+            assertEquals(expected, getRawSupertypes(offHeapTable, type));
+        }
+    }
+    
+    /**
+     * Check that the results of the assignability tests on handles of
+     * the given table are the same as those of 
+     * {@link Types#isAssignable(Type, Type)}, including the cases where 
+     * exceptions are thrown
+     * 
+     * @param table The table
+     * @throws Exception Not expected
+     */
+    private static void checkIsAssignable(TypeTable table) throws Exception
+    {
+        List<Type> types = createSampleTypes();
+        for (Type to : types)
+        {
+            int toHandle = table.intern(to);
+            for (Type from : types)
+            {
+                int fromHandle = table.intern(from);
+                Object expected = isAssignable(to, from);
+                Object actual = isAssignable(table, toHandle, fromHandle);
+                assertEquals("For " + to + " = " + from, expected, actual);
+            }
+        }
+    }
+    
+    /**
+     * Test the supertypes of a parameterized type
+     */
+    @Test
+    public void testSupertypes()
+    {
+        TypeTable table = TypeTables.create();
+        int handle = table.intern(Types.create(ArrayList.class, String.class));
+        Set<Type> supertypes = new HashSet<Type>();
+        for (int i = 0; i < table.getSupertypeCount(handle); i++)
+        {
+            supertypes.add(table.getType(table.getSupertype(handle, i)));
+        }
+        assertTrue(supertypes.contains(
+            Types.create(ArrayList.class, String.class)));
+        assertTrue(supertypes.contains(
+            Types.create(Collection.class, String.class)));
+        assertTrue(supertypes.contains(
+            Types.create(Iterable.class, String.class)));
+        assertTrue(supertypes.contains(RandomAccess.class));
+        assertTrue(supertypes.contains(Object.class));
+    }
+    
+    /**
+     * Invalid handles cause an exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHandle()
+    {
+        TypeTable table = TypeTables.create();
+        table.getType(table.size());
+    }
+    
+    /**
+     * Returns the raw supertypes of the given type, from the given table
+     * 
+     * @param table The table
+     * @param type The type
+     * @return The raw supertypes
+     */
+    private static Set<Type> getRawSupertypes(TypeTable table, Type type)
+    {
+        int handle = table.intern(type);
+        Set<Type> result = new HashSet<Type>();
+        int count = table.getRawSupertypeCount(handle);
+        for (int i = 0; i < count; i++)
+        {
+            result.add(table.getType(table.getRawSupertype(handle, i)));
+        }
+        assertEquals(count, result.size());
+        return result;
+    }
+    
+    /**
+     * Returns the result of {@link Types#isAssignable(Type, Type)}, or
+     * the class of the exception that it throws
+     * 
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return The result
+     */
+    private static Object isAssignable(Type to, Type from)
+    {
+        try
+        {
+            return Types.isAssignable(to, from);
+        }
+        catch (RuntimeException e)
+        {
+            return e.getClass();
+        }
+    }
+    
+    /**
+     * Returns the result of {@link TypeTable#isAssignable(int, int)}, or
+     * the class of the exception that it throws
+     * 
+     * @param table The table
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @return The result
+     */
+    private static Object isAssignable(TypeTable table, int to, int from)
+    {
+        try
+        {
+            return table.isAssignable(to, from);
+        }
+        catch (RuntimeException e)
+        {
+            return e.getClass();
+        }
+    }
+    
+    /**
+     * Creates a list of types covering all kinds of types
+     * 
+     * @return The types
+     * @throws Exception Not expected
+     */
+    private static List<Type> createSampleTypes() throws Exception
+    {
+        List<Type> types = new ArrayList<Type>();
+        types.add(Object.class);
+        types.add(Number.class);
+        types.add(Integer.class);
+        types.add(Long.class);
+        types.add(int.class);
+        types.add(long.class);
+        types.add(void.class);
+        types.add(String.class);
+        types.add(Serializable.class);
+        types.add(Object[].class);
+        types.add(Number[].class);
+        types.add(int[].class);
+        types.add(List.class);
+        types.add(ArrayList.class);
+        types.add(Types.create(List.class, Number.class));
+        types.add(Types.create(List.class, Integer.class));
+        types.add(Types.create(ArrayList.class, Integer.class));
+        types.add(Types.create(Collection.class, Integer.class));
+        types.add(Types.parse(
+            "java.util.List<? extends java.lang.Number>"));
+        types.add(Types.parse(
+            "java.util.List<? super java.lang.Integer>"));
+        types.add(Types.parse("java.util.List<?>"));
+        types.add(Types.parse(
+            "java.util.Map<java.lang.String, java.lang.Integer>"));
+        types.add(Types.createWildcardType(
+            null, new Type[] { Number.class }));
+        types.add(Types.createWildcardType(
+            new Type[] { Integer.class }, null));
+        types.add(Types.createGenericArrayType(
+            Types.create(List.class, Integer.class)));
+        types.add(Types.createGenericArrayType(
+            Types.create(List.class, Number.class)));
+        
+        TypeVariable<?> t = Types.createTypeVariable("T");
+        TypeVariable<?> n = Types.createTypeVariable("N", Number.class);
+        types.add(t);
+        types.add(n);
+        types.add(List.class.getTypeParameters()[0]);
+        types.add(Enum.class.getTypeParameters()[0]);
+        types.add(Types.create(List.class, t));
+        types.add(Types.create(List.class, n));
+        types.add(Types.createGenericArrayType(n));
+        
+        Type sample = TestTypeTable.class
+            .getDeclaredField("sample").getGenericType();
+        types.add(sample);
+        types.addAll(Types.getTypeArguments(sample));
+        return types;
+    }
+}
@@ -0,0 +1,97 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypeVariableBuilder} and the generic declarations
+ * that it creates
+ */
+@RunWith(JUnit4.class)
+public class TestTypeVariableBuilder
+{
+    /**
+     * Each call to build creates a new declaration with all variables
+     */
+    @Test
+    public void testBuildCreatesNewDeclarations()
+    {
+        TypeVariableBuilder builder = Types.createTypeVariables();
+        builder.add("T");
+        GenericDeclaration d0 = builder.build();
+        builder.add("U", Number.class);
+        GenericDeclaration d1 = builder.build();
+        
+        assertNotSame(d0, d1);
+        assertEquals(1, d0.getTypeParameters().length);
+        assertEquals(2, d1.getTypeParameters().length);
+        assertEquals("U", d1.getTypeParameters()[1].getName());
+        for (TypeVariable<?> typeVariable : d1.getTypeParameters())
+        {
+            assertSame(d1, typeVariable.getGenericDeclaration());
+        }
+    }
+    
+    /**
+     * Modifying the returned type parameters array has no effect
+     */
+    @Test
+    public void testTypeParametersAreCopies()
+    {
+        GenericDeclaration d = 
+            Types.createTypeVariables().add("T").add("U").build();
+        TypeVariable<?>[] typeParameters = d.getTypeParameters();
+        TypeVariable<?> t = typeParameters[0];
+        typeParameters[0] = null;
+        assertSame(t, d.getTypeParameters()[0]);
+    }
+    
+    /**
+     * Hash codes of type variables do not change
+     */
+    @Test
+    public void testHashCodeIsStable()
+    {
+        GenericDeclaration d = 
+            Types.createTypeVariables().add("T").add("U").build();
+        TypeVariable<?> t = d.getTypeParameters()[0];
+        int hashCode = t.hashCode();
+        assertEquals(hashCode, t.hashCode());
+        assertEquals(t, d.getTypeParameters()[0]);
+    }
+    
+    /**
+     * All type variables of one parsed type share one declaration
+     * 
+     * @throws ClassNotFoundException Not expected
+     */
+    @Test
+    public void testParsedTypeVariablesShareDeclaration() 
+        throws ClassNotFoundException
+    {
+        TypeParser typeParser = TypeParsers.create();
+        typeParser.addImport("java.util.*");
+        typeParser.addTypeVariableName("K");
+        typeParser.addTypeVariableName("V");
+        ParameterizedType type = 
+            (ParameterizedType)typeParser.parse("Map<K, V>");
+        Type[] typeArguments = type.getActualTypeArguments();
+        TypeVariable<?> k = (TypeVariable<?>)typeArguments[0];
+        TypeVariable<?> v = (TypeVariable<?>)typeArguments[1];
+        GenericDeclaration d = k.getGenericDeclaration();
+        assertSame(d, v.getGenericDeclaration());
+        assertEquals(2, d.getTypeParameters().length);
+        assertSame(k, d.getTypeParameters()[0]);
+        assertSame(v, d.getTypeParameters()[1]);
+    }
+}
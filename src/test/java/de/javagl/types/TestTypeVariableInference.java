@@ -0,0 +1,171 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the type variable inference
+ */
+@RunWith(JUnit4.class)
+public class TestTypeVariableInference
+{
+    /**
+     * Test the inference for nested parameterized types
+     */
+    @Test
+    public void testNestedParameterizedTypes()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("K", "V");
+        Type listOfV = Types.create(List.class).withType(tvs[1]).build();
+        Type to = Types.create(Map.class).withType(tvs[0])
+            .withSubtypeOf(listOfV).build();
+        Type arrayListOfInteger = 
+            Types.create(ArrayList.class).withType(Integer.class).build();
+        Type from = Types.create(HashMap.class).withType(String.class)
+            .withType(arrayListOfInteger).build();
+        
+        Map<TypeVariable<?>, Type> result = 
+            Types.inferTypeVariables(to, from);
+        assertEquals(2, result.size());
+        assertEquals(String.class, result.get(tvs[0]));
+        assertEquals(Integer.class, result.get(tvs[1]));
+        
+        assertSame(result, Types.inferTypeVariables(to, from));
+    }
+    
+    /**
+     * Test that type variables in invariant positions may be bound 
+     * to wildcard types, and that no solution is found for types 
+     * that are not assignable
+     */
+    @Test
+    public void testInvariantPositions()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T");
+        Type to = Types.create(List.class).withType(tvs[0]).build();
+        Type from = Types.create(ArrayList.class)
+            .withSubtypeOf(Number.class).build();
+        
+        Map<TypeVariable<?>, Type> result = 
+            Types.inferTypeVariables(to, from);
+        assertEquals(Types.createWildcardType(null, 
+            new Type[] { Number.class }), result.get(tvs[0]));
+        
+        Type listOfT = Types.create(List.class).withType(tvs[0]).build();
+        Type toMap = Types.create(Map.class).withType(tvs[0])
+            .withType(listOfT).build();
+        Type listOfInteger = 
+            Types.create(List.class).withType(Integer.class).build();
+        Type fromMap = Types.create(Map.class).withType(String.class)
+            .withType(listOfInteger).build();
+        assertNull(Types.inferTypeVariables(toMap, fromMap));
+    }
+    
+    /**
+     * Test the inference for top-level type variables, arrays and 
+     * primitive types
+     */
+    @Test
+    public void testTopLevel()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T");
+        assertEquals(Integer.class, 
+            Types.inferTypeVariables(tvs[0], int.class).get(tvs[0]));
+        
+        Type array = Types.createGenericArrayType(tvs[0]);
+        assertEquals(String.class, 
+            Types.inferTypeVariables(array, String[].class).get(tvs[0]));
+        assertNull(Types.inferTypeVariables(array, String.class));
+        
+        assertTrue(Types.inferTypeVariables(
+            List.class, ArrayList.class).isEmpty());
+    }
+    
+    /**
+     * Test that the declared bounds of the type variables are checked
+     */
+    @Test
+    public void testBounds()
+    {
+        TypeVariable<?> t = Types.createTypeVariable("T", Number.class);
+        Type to = Types.create(List.class).withType(t).build();
+        Type listOfInteger = 
+            Types.create(List.class).withType(Integer.class).build();
+        Type listOfString = 
+            Types.create(List.class).withType(String.class).build();
+        
+        assertEquals(Integer.class, 
+            Types.inferTypeVariables(to, listOfInteger).get(t));
+        assertNull(Types.inferTypeVariables(to, listOfString));
+    }
+    
+    /**
+     * Test the inference for lower bounds of wildcard types
+     */
+    @Test
+    public void testLowerBounds()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T");
+        Type to = Types.create(List.class).withSupertypeOf(tvs[0]).build();
+        Type from = Types.create(ArrayList.class)
+            .withType(Number.class).build();
+        assertEquals(Number.class, 
+            Types.inferTypeVariables(to, from).get(tvs[0]));
+    }
+
+    /**
+     * Test that a type variable with multiple lower bounds is bound to
+     * their least upper bound
+     */
+    @Test
+    public void testLeastUpperBound()
+    {
+        TypeVariable<?>[] tvs = createTypeVariables("T");
+        Type to = Types.create(Map.class).withSubtypeOf(tvs[0])
+            .withSubtypeOf(tvs[0]).build();
+        Type fromNumbers = Types.create(Map.class).withType(Integer.class)
+            .withType(Double.class).build();
+        assertEquals(Number.class, 
+            Types.inferTypeVariables(to, fromNumbers).get(tvs[0]));
+        
+        Type fromMixed = Types.create(Map.class).withType(Integer.class)
+            .withType(String.class).build();
+        Type mixed = Types.inferTypeVariables(to, fromMixed).get(tvs[0]);
+        assertTrue(Types.isAssignable(mixed, Integer.class));
+        assertTrue(Types.isAssignable(mixed, String.class));
+        
+        TypeVariable<?> t = Types.createTypeVariable("T", Number.class);
+        Type toBounded = Types.create(Map.class).withSubtypeOf(t)
+            .withSubtypeOf(t).build();
+        assertNull(Types.inferTypeVariables(toBounded, fromMixed));
+    }
+    
+    /**
+     * Create type variables with the given names
+     * 
+     * @param names The names
+     * @return The type variables
+     */
+    private static TypeVariable<?>[] createTypeVariables(String ... names)
+    {
+        TypeVariableBuilder builder = Types.createTypeVariables();
+        for (String name : names)
+        {
+            builder.add(name);
+        }
+        return builder.build().getTypeParameters();
+    }
+}
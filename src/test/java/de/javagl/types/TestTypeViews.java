@@ -0,0 +1,136 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypeViews} class
+ */
+@RunWith(JUnit4.class)
+public class TestTypeViews
+{
+    /**
+     * A sample field with a type from the reflection implementation
+     */
+    @SuppressWarnings("unused")
+    private Map<String, ? super List<? extends Number>> sample;
+    
+    /**
+     * The views of reflection types contain the same elements as 
+     * the arrays returned by the reflection methods, and are shared
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testReflectionTypes() throws Exception
+    {
+        ParameterizedType p = (ParameterizedType)TestTypeViews.class
+            .getDeclaredField("sample").getGenericType();
+        assertArrayEquals(p.getActualTypeArguments(), 
+            TypeViews.typeArguments(p));
+        assertSame(TypeViews.typeArguments(p), TypeViews.typeArguments(p));
+        
+        WildcardType w = (WildcardType)TypeViews.typeArgument(p, 1);
+        assertArrayEquals(w.getLowerBounds(), TypeViews.lowerBounds(w));
+        assertArrayEquals(w.getUpperBounds(), TypeViews.upperBounds(w));
+        assertSame(TypeViews.lowerBounds(w), TypeViews.lowerBounds(w));
+        assertSame(TypeViews.upperBounds(w), TypeViews.upperBounds(w));
+        
+        TypeVariable<?> t = Map.class.getTypeParameters()[0];
+        assertArrayEquals(t.getBounds(), TypeViews.bounds(t));
+        assertArrayEquals(Map.class.getTypeParameters(), 
+            TypeViews.typeParameters(Map.class));
+    }
+    
+    /**
+     * The views of the types of this package contain the same elements 
+     * as the arrays returned by the interface methods
+     */
+    @Test
+    public void testDefaultTypes()
+    {
+        ParameterizedType p = (ParameterizedType)Types.create(Map.class)
+            .withType(String.class)
+            .withSupertypeOf(Integer.class)
+            .build();
+        assertArrayEquals(p.getActualTypeArguments(), 
+            TypeViews.typeArguments(p));
+        assertEquals(2, TypeViews.typeArgumentCount(p));
+        
+        WildcardType w = (WildcardType)TypeViews.typeArgument(p, 1);
+        assertArrayEquals(w.getLowerBounds(), TypeViews.lowerBounds(w));
+        assertArrayEquals(w.getUpperBounds(), TypeViews.upperBounds(w));
+        
+        TypeVariable<?> t = Types.createTypeVariable("T", Number.class);
+        assertArrayEquals(t.getBounds(), TypeViews.bounds(t));
+    }
+    
+    /**
+     * A class that is loaded by a separate class loader in the test
+     */
+    @SuppressWarnings("javadoc")
+    public static class Foreign
+    {
+        public List<Foreign> field;
+        public Map<String, List<? extends Foreign>> nested;
+    }
+    
+    /**
+     * Types that refer to classes of other class loaders are not cached, 
+     * so that the cache does not keep the class loaders alive
+     * 
+     * @throws Exception Not expected
+     */
+    @Test
+    public void testForeignTypesAreNotCached() throws Exception
+    {
+        URL location = TestTypeViews.class.getProtectionDomain()
+            .getCodeSource().getLocation();
+        try (URLClassLoader classLoader = 
+            new URLClassLoader(new URL[] { location }, null))
+        {
+            Class<?> c = classLoader.loadClass(Foreign.class.getName());
+            assertNotSame(Foreign.class, c);
+            ParameterizedType p = (ParameterizedType)
+                c.getField("field").getGenericType();
+            assertArrayEquals(new Type[] { c }, TypeViews.typeArguments(p));
+            assertNotSame(TypeViews.typeArguments(p), 
+                TypeViews.typeArguments(p));
+            assertFalse(TypeViews.isLibraryVisible(c));
+            assertTrue(TypeViews.isLibraryVisible(String.class));
+            
+            ParameterizedType n = (ParameterizedType)
+                c.getField("nested").getGenericType();
+            assertNotSame(TypeViews.typeArguments(n), 
+                TypeViews.typeArguments(n));
+        }
+    }
+    
+    /**
+     * The lists returned by the accessor methods in the {@link Types}
+     * class can not be used to modify the types
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTypeArgumentListIsUnmodifiable()
+    {
+        Type type = Types.create(List.class).withType(String.class).build();
+        Types.getTypeArguments(type).set(0, Integer.class);
+    }
+}
@@ -109,6 +109,27 @@ public class TestTypesIsAssignable
         assertTrue (testIsAssignable(to, from2));
     }
     
+    /**
+     * Test cases like 
+     * Object = int, or int = Integer, involving primitive and boxed
+     * classes
+     */
+    @Test
+    public void test_ToClass_FromClass_Primitives()
+    {
+        assertTrue (testIsAssignable(int.class, int.class));
+        assertTrue (testIsAssignable(int.class, Integer.class));
+        assertTrue (testIsAssignable(Integer.class, int.class));
+        assertTrue (testIsAssignable(Number.class, int.class));
+        assertTrue (testIsAssignable(Object.class, int.class));
+        assertTrue (testIsAssignable(Object.class, Integer.class));
+        assertFalse(testIsAssignable(Integer.class, Object.class));
+        assertFalse(testIsAssignable(int.class, Object.class));
+        assertFalse(testIsAssignable(String.class, Integer.class));
+        assertTrue (testIsAssignable(Object[].class, String[].class));
+        assertFalse(testIsAssignable(Object[].class, int[].class));
+    }
+    
     /**
      * Test cases like 
      * List = ArrayList<? extends Integer>
@@ -938,4 +959,18 @@ public class TestTypesIsAssignable
     
     
 
+    /**
+     * Test that preloading classes does not affect the results
+     */
+    @Test
+    public void testPreload()
+    {
+        Types.preload(ArrayList.class, HashSet.class, Integer.class);
+        Type to = Types.create(Collection.class, Number.class);
+        assertTrue(Types.isAssignable(to, 
+            Types.create(ArrayList.class, Number.class)));
+        assertFalse(Types.isAssignable(to, 
+            Types.create(ArrayList.class, Integer.class)));
+    }
+    
 }
@@ -0,0 +1,96 @@
+package de.javagl.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for the {@link TypesToString} class
+ */
+@RunWith(JUnit4.class)
+public class TestTypesToString
+{
+    /**
+     * Test the string of a nested parameterized type with wildcards
+     */
+    @Test
+    public void testNestedParameterizedType()
+    {
+        Type listOfNumbers = Types.create(List.class)
+            .withSubtypeOf(Number.class).build();
+        Type type = Types.create(Map.class)
+            .withSupertypeOf(Integer.class)
+            .withType(listOfNumbers).build();
+        
+        String expected = "java.util.Map<? super java.lang.Integer, "
+            + "java.util.List<? extends java.lang.Number>>";
+        assertEquals(expected, Types.stringFor(type));
+        assertEquals(expected, type.toString());
+    }
+    
+    /**
+     * Test that the bounds of a type variable are only written for
+     * its first occurrence
+     */
+    @Test
+    public void testTypeVariableBounds()
+    {
+        GenericDeclaration genericDeclaration = 
+            Types.createTypeVariables().add("T", Number.class).build();
+        TypeVariable<?> typeVariable = 
+            genericDeclaration.getTypeParameters()[0];
+        assertEquals("T extends java.lang.Number", 
+            Types.stringFor(typeVariable));
+        
+        Type listOfT = Types.create(List.class).withType(typeVariable)
+            .build();
+        Type mapOfT = Types.create(Map.class).withType(typeVariable)
+            .withType(listOfT).build();
+        assertEquals("java.util.Map<T extends java.lang.Number, "
+            + "java.util.List<T>>", Types.stringFor(mapOfT));
+    }
+
+    /**
+     * Test that appending to a <code>StringBuilder</code> or another 
+     * <code>Appendable</code> creates the same string as 
+     * {@link Types#stringFor(Type)}
+     * 
+     * @throws IOException Not expected
+     */
+    @Test
+    public void testAppendStringFor() throws IOException
+    {
+        Type type = Types.parse(
+            "java.util.Map<java.lang.String, java.util.List<int[]>>");
+        String expected = Types.stringFor(type);
+        
+        StringBuilder sb = new StringBuilder("Type: ");
+        assertSame(sb, Types.appendStringFor(sb, type));
+        assertEquals("Type: " + expected, sb.toString());
+
+        StringWriter writer = new StringWriter();
+        Types.appendStringFor(writer, type);
+        assertEquals(expected, writer.toString());
+    }
+    
+    /**
+     * Test that the cached string of a type is returned
+     */
+    @Test
+    public void testCachedString()
+    {
+        Type type = Types.parse("java.util.List<java.lang.String>");
+        assertSame(Types.stringFor(type), Types.stringFor(type));
+    }
+}
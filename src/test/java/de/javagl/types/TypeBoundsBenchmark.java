@@ -0,0 +1,270 @@
+package de.javagl.types;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A benchmark for {@link TypeBounds#mergeUpperBounds(Collection, Iterable)}
+ * and {@link TypeBounds#mergeLowerBounds(Collection, Iterable)} with 
+ * large sets of bounds.<br>
+ * <br>
+ * The bounds are drawn from classes of the <code>java.util</code> and
+ * <code>java.lang</code> packages, parameterized types, arrays and 
+ * primitive types. The merge is compared to a reference implementation
+ * that copies the set of bounds for each added bound, and compares each
+ * added bound to all bounds, which was the original implementation in
+ * {@link TypeBounds}. The results of both implementations are verified
+ * to be equal. This is not a unit test, but a program that may be run
+ * from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.TypeBoundsBenchmark
+ * </code></pre>
+ */
+public class TypeBoundsBenchmark
+{
+    /**
+     * The names of the classes that the bounds are created from
+     */
+    private static final String CLASS_NAMES[] = 
+    {
+        "java.util.AbstractCollection", "java.util.AbstractList", 
+        "java.util.AbstractMap", "java.util.AbstractQueue", 
+        "java.util.AbstractSequentialList", "java.util.AbstractSet", 
+        "java.util.ArrayDeque", "java.util.ArrayList", "java.util.BitSet", 
+        "java.util.Calendar", "java.util.Collection", "java.util.Date", 
+        "java.util.Deque", "java.util.EnumMap", "java.util.EventObject",
+        "java.util.GregorianCalendar", "java.util.HashMap", 
+        "java.util.HashSet", "java.util.Hashtable", 
+        "java.util.IdentityHashMap", "java.util.Iterator", 
+        "java.util.LinkedHashMap", "java.util.LinkedHashSet", 
+        "java.util.LinkedList", "java.util.List", "java.util.ListIterator",
+        "java.util.Locale", "java.util.Map", "java.util.NavigableMap", 
+        "java.util.NavigableSet", "java.util.Optional", 
+        "java.util.PriorityQueue", "java.util.Properties", 
+        "java.util.Queue", "java.util.Random", "java.util.RandomAccess", 
+        "java.util.Set", "java.util.SortedMap", "java.util.SortedSet", 
+        "java.util.Stack", "java.util.TreeMap", "java.util.TreeSet", 
+        "java.util.Vector", "java.util.WeakHashMap", "java.lang.Object",
+        "java.lang.Number", "java.lang.Integer", "java.lang.Long", 
+        "java.lang.Double", "java.lang.String", "java.lang.CharSequence",
+        "java.lang.Comparable", "java.lang.Iterable", 
+        "java.lang.Cloneable", "java.io.Serializable", 
+        "java.lang.Exception", "java.lang.RuntimeException", 
+        "java.lang.Throwable", "java.lang.StringBuilder", 
+        "java.lang.Thread", "java.lang.Runnable", "java.lang.Enum"
+    };
+    
+    /**
+     * The primitive types that are contained in the bounds
+     */
+    private static final Class<?> PRIMITIVE_TYPES[] = 
+    {
+        int.class, long.class, float.class, double.class, char.class
+    };
+    
+    /**
+     * The number of old bounds, and the number of bounds to add
+     */
+    private static final int SIZE = 500;
+    
+    /**
+     * The number of merges for the warmup
+     */
+    private static final int WARMUP_RUNS = 10;
+    
+    /**
+     * The number of merges that are measured
+     */
+    private static final int RUNS = 20;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        List<Type> pool = createPool();
+        Random random = new Random(0);
+        List<List<Type>> olds = new ArrayList<List<Type>>();
+        List<List<Type>> adds = new ArrayList<List<Type>>();
+        for (int i = 0; i < WARMUP_RUNS + RUNS; i++)
+        {
+            olds.add(draw(pool, random, SIZE));
+            adds.add(draw(pool, random, SIZE));
+        }
+        System.out.printf(Locale.ENGLISH, 
+            "Pool size: %d, bounds: %d + %d%n", pool.size(), SIZE, SIZE);
+        System.out.printf(Locale.ENGLISH, "%-10s %-10s %12s%n", 
+            "Kind", "Impl", "ms/merge");
+        for (boolean upper : new boolean[] { true, false })
+        {
+            String kind = upper ? "upper" : "lower";
+            double reference = measure(olds, adds, upper, false);
+            double indexed = measure(olds, adds, upper, true);
+            System.out.printf(Locale.ENGLISH, "%-10s %-10s %12.3f%n", 
+                kind, "reference", reference);
+            System.out.printf(Locale.ENGLISH, "%-10s %-10s %12.3f%n", 
+                kind, "indexed", indexed);
+            for (int i = 0; i < olds.size(); i++)
+            {
+                Set<Type> expected = new HashSet<Type>(
+                    referenceMerge(olds.get(i), adds.get(i), upper));
+                Set<Type> actual = new HashSet<Type>(
+                    merge(olds.get(i), adds.get(i), upper));
+                if (!expected.equals(actual))
+                {
+                    System.out.println("Results differ for " + kind 
+                        + " bounds in merge " + i);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Performs the given merges, and returns the average duration of 
+     * the merges that are not part of the warmup
+     * 
+     * @param olds The old bounds
+     * @param adds The bounds to add
+     * @param upper Whether upper bounds are merged
+     * @param indexed Whether the {@link TypeBounds} methods should be
+     * used, or the reference implementation
+     * @return The average duration, in milliseconds
+     */
+    private static double measure(List<List<Type>> olds, 
+        List<List<Type>> adds, boolean upper, boolean indexed)
+    {
+        long total = 0;
+        int checksum = 0;
+        for (int i = 0; i < olds.size(); i++)
+        {
+            long before = System.nanoTime();
+            Collection<Type> result = indexed ?
+                merge(olds.get(i), adds.get(i), upper) :
+                referenceMerge(olds.get(i), adds.get(i), upper);
+            long after = System.nanoTime();
+            checksum += result.size();
+            if (i >= WARMUP_RUNS)
+            {
+                total += after - before;
+            }
+        }
+        if (checksum == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        return total / 1e6 / (olds.size() - WARMUP_RUNS);
+    }
+    
+    /**
+     * Calls the {@link TypeBounds} method for merging the given bounds
+     * 
+     * @param oldBounds The old bounds
+     * @param boundsToAdd The bounds to add
+     * @param upper Whether upper bounds are merged
+     * @return The merged bounds
+     */
+    private static List<Type> merge(
+        List<Type> oldBounds, List<Type> boundsToAdd, boolean upper)
+    {
+        if (upper)
+        {
+            return TypeBounds.mergeUpperBounds(oldBounds, boundsToAdd);
+        }
+        return TypeBounds.mergeLowerBounds(oldBounds, boundsToAdd);
+    }
+    
+    /**
+     * The reference implementation for merging bounds, which copies the
+     * set of bounds for each added bound, and compares the added bound
+     * to all bounds
+     * 
+     * @param oldBounds The old bounds
+     * @param boundsToAdd The bounds to add
+     * @param upper Whether upper bounds are merged
+     * @return The merged bounds
+     */
+    private static Set<Type> referenceMerge(
+        List<Type> oldBounds, List<Type> boundsToAdd, boolean upper)
+    {
+        Set<Type> result = new LinkedHashSet<Type>(oldBounds);
+        for (Type boundToAdd : boundsToAdd)
+        {
+            Set<Type> newBounds = new LinkedHashSet<Type>(result);
+            List<Type> obsoleteBounds = new ArrayList<Type>();
+            for (Type bound : newBounds)
+            {
+                Type general = upper ? bound : boundToAdd;
+                Type special = upper ? boundToAdd : bound;
+                if (Types.isAssignable(general, special) && 
+                    !general.equals(special))
+                {
+                    obsoleteBounds.add(bound);
+                }
+                if (Types.isAssignable(special, general) && 
+                    !special.equals(general))
+                {
+                    obsoleteBounds.add(boundToAdd);
+                }
+            }
+            newBounds.add(boundToAdd);
+            newBounds.removeAll(obsoleteBounds);
+            result = newBounds;
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the pool of types that the bounds are drawn from
+     * 
+     * @return The pool
+     * @throws ClassNotFoundException If a class can not be found
+     */
+    private static List<Type> createPool() throws ClassNotFoundException
+    {
+        List<Type> pool = new ArrayList<Type>();
+        for (String className : CLASS_NAMES)
+        {
+            Class<?> c = Class.forName(className);
+            pool.add(c);
+            pool.add(Types.create(List.class).withType(c).build());
+            pool.add(Types.create(Map.class).withType(String.class)
+                .withSubtypeOf(c).build());
+            pool.add(Array.newInstance(c, 0).getClass());
+        }
+        for (Class<?> primitiveType : PRIMITIVE_TYPES)
+        {
+            pool.add(primitiveType);
+        }
+        return pool;
+    }
+    
+    /**
+     * Draws the given number of types from the given pool
+     * 
+     * @param pool The pool
+     * @param random The random number generator
+     * @param count The number of types
+     * @return The types
+     */
+    private static List<Type> draw(List<Type> pool, Random random, int count)
+    {
+        List<Type> result = new ArrayList<Type>();
+        for (int i = 0; i < count; i++)
+        {
+            result.add(pool.get(random.nextInt(pool.size())));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,207 @@
+package de.javagl.types;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import de.javagl.types.processor.TypeMetadataProcessor;
+
+/**
+ * A benchmark for the cold start of computations on model classes, 
+ * with and without the {@link TypeMetadata} that is generated by the
+ * {@link TypeMetadataProcessor}.<br>
+ * <br>
+ * A set of annotated model classes is compiled with and without the 
+ * processor. Each measurement is performed in a fresh JVM, and includes
+ * the first calls to {@link Types#asParameterizedType(Class)}, 
+ * {@link Supertypes#computeGenericSupertypes(Type)} and 
+ * {@link Types#isAssignable(Type, Type)} for all model classes. This 
+ * is not a unit test, but a program that may be run from the test 
+ * classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.TypeMetadataBenchmark
+ * </code></pre>
+ */
+public class TypeMetadataBenchmark
+{
+    /**
+     * The number of model classes
+     */
+    private static final int MODEL_CLASSES = 200;
+    
+    /**
+     * The number of forked JVMs for each measurement
+     */
+    private static final int FORKS = 5;
+    
+    /**
+     * The entry point of this benchmark. When called without arguments,
+     * the model classes are compiled, and the measurements are started 
+     * in forked JVMs. Otherwise, a single measurement is performed.
+     * 
+     * @param args The arguments
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 1)
+        {
+            measure();
+            return;
+        }
+        File directory = Files.createTempDirectory(
+            TypeMetadataBenchmark.class.getSimpleName()).toFile();
+        File with = new File(directory, "with");
+        compile(with, "-processor", TypeMetadataProcessor.class.getName());
+        File without = new File(directory, "without");
+        compile(without, "-proc:none");
+        
+        System.out.printf(Locale.ENGLISH, "%-10s %14s%n", 
+            "Metadata", "First calls ms");
+        for (int i = 0; i < 2; i++)
+        {
+            boolean metadata = (i == 1);
+            double total = 0;
+            for (int f = 0; f < FORKS; f++)
+            {
+                total += fork(metadata ? with : without) / FORKS;
+            }
+            System.out.printf(Locale.ENGLISH, "%-10s %14.3f%n", 
+                metadata, total / 1e6);
+        }
+    }
+    
+    /**
+     * Compile the model classes into the given directory
+     * 
+     * @param directory The directory
+     * @param options The additional compiler options
+     * @throws Exception If an error occurs
+     */
+    private static void compile(File directory, String ... options) 
+        throws Exception
+    {
+        File sourceDirectory = new File(directory, "model");
+        sourceDirectory.mkdirs();
+        List<String> arguments = new ArrayList<String>(Arrays.asList(
+            "-d", directory.getPath(), 
+            "-classpath", System.getProperty("java.class.path")));
+        arguments.addAll(Arrays.asList(options));
+        String base = 
+            "package model;\n" + 
+            "@de.javagl.types.GenerateTypeMetadata\n" + 
+            "public abstract class Base<A, B extends Comparable<B>>\n" + 
+            "    extends java.util.AbstractMap<A, java.util.List<B>>\n" + 
+            "    implements Comparable<B> {}\n";
+        arguments.add(write(sourceDirectory, "Base", base));
+        for (int i = 0; i < MODEL_CLASSES; i++)
+        {
+            String name = "Model" + i;
+            String source = 
+                "package model;\n" + 
+                "@de.javagl.types.GenerateTypeMetadata\n" + 
+                "public abstract class " + name + "<T>\n" + 
+                "    extends Base<T, " + name + "<T>>\n" + 
+                "    implements java.util.Map.Entry<T, String[]>, \n" + 
+                "        java.util.function.Supplier<java.util.List<" + 
+                "? extends T>>, java.io.Serializable {}\n";
+            arguments.add(write(sourceDirectory, name, source));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, 
+            arguments.toArray(new String[0]));
+        if (result != 0)
+        {
+            throw new IllegalStateException("Compilation failed");
+        }
+    }
+    
+    /**
+     * Write the given source code into a file in the given directory
+     * 
+     * @param directory The directory
+     * @param name The class name
+     * @param source The source code
+     * @return The path of the file
+     * @throws Exception If an error occurs
+     */
+    private static String write(File directory, String name, String source)
+        throws Exception
+    {
+        File file = new File(directory, name + ".java");
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+    
+    /**
+     * Performs a measurement in a forked JVM
+     * 
+     * @param directory The directory containing the model classes
+     * @return The duration of the first calls, in nanoseconds 
+     * @throws Exception If an error occurs
+     */
+    private static double fork(File directory) throws Exception
+    {
+        String java = System.getProperty("java.home") + 
+            File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, 
+            "-cp", System.getProperty("java.class.path") + 
+                File.pathSeparator + directory.getPath(), 
+            TypeMetadataBenchmark.class.getName(), "measure");
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream())))
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.add(line);
+            }
+        }
+        process.waitFor();
+        String tokens[] = lines.get(lines.size() - 1).split(" ");
+        return Double.parseDouble(tokens[0]);
+    }
+    
+    /**
+     * Performs a single measurement in this JVM, and prints the duration 
+     * of the first calls, in nanoseconds. The model classes are loaded 
+     * before the timer starts.
+     * 
+     * @throws Exception If an error occurs
+     */
+    private static void measure() throws Exception
+    {
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        for (int i = 0; i < MODEL_CLASSES; i++)
+        {
+            classes.add(Class.forName("model.Model" + i));
+        }
+        Type target = Types.parse(
+            "java.util.Map<java.lang.Object, " + 
+            "java.util.List<? extends java.lang.Comparable<?>>>");
+        
+        long before = System.nanoTime();
+        int sink = 0;
+        for (Class<?> c : classes)
+        {
+            sink += Types.asParameterizedType(c).hashCode();
+            sink += Supertypes.computeGenericSupertypes(c).size();
+            sink += Types.isAssignable(target, c) ? 1 : 0;
+        }
+        long duration = System.nanoTime() - before;
+        System.out.println(duration + " " + (sink & 1));
+    }
+}
@@ -0,0 +1,210 @@
+package de.javagl.types;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A benchmark for the lookups in a {@link TypeRegistry} while the 
+ * registry is modified at a low rate.<br>
+ * <br>
+ * A number of reader threads perform lookups in both lookup modes, 
+ * while a single writer thread registers and unregisters a value in 
+ * fixed intervals. The total number of lookups per second and the 
+ * number of writes per second are reported for different numbers of 
+ * reader threads. This is not a unit test, but a program that may be 
+ * run from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.TypeRegistryBenchmark
+ * </code></pre>
+ */
+public class TypeRegistryBenchmark
+{
+    /**
+     * The numbers of reader threads
+     */
+    private static final int READER_COUNTS[] = { 1, 2, 4, 8 };
+    
+    /**
+     * The names of the classes for which values are registered
+     */
+    private static final String CLASS_NAMES[] = 
+    {
+        "java.lang.Object", "java.lang.Number", "java.lang.Comparable", 
+        "java.lang.CharSequence", "java.lang.Iterable", 
+        "java.lang.Runnable", "java.lang.Cloneable", "java.io.Serializable",
+        "java.util.Collection", "java.util.List", "java.util.Set", 
+        "java.util.Map", "java.util.Queue", "java.util.Deque", 
+        "java.util.RandomAccess", "java.util.AbstractList", 
+        "java.util.AbstractCollection", "java.util.ArrayList", 
+        "java.util.LinkedList", "java.util.HashMap"
+    };
+    
+    /**
+     * The interval between two writes, in milliseconds
+     */
+    private static final long WRITE_INTERVAL_MS = 10;
+    
+    /**
+     * The duration of the warmup, in milliseconds
+     */
+    private static final long WARMUP_MS = 1000;
+    
+    /**
+     * The duration of a measurement, in milliseconds
+     */
+    private static final long DURATION_MS = 2000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        TypeRegistry<String> registry = TypeRegistries.create();
+        for (String className : CLASS_NAMES)
+        {
+            Class<?> c = Class.forName(className);
+            registry.register(c, className);
+            registry.register(Types.create(List.class, c), "List" + c);
+        }
+        Type queries[] = 
+        {
+            Integer.class, String.class, 
+            Types.create(ArrayList.class, Integer.class), 
+            Types.parse("java.util.List<? extends java.lang.Number>"), 
+            Thread.class 
+        };
+        System.out.printf(Locale.ENGLISH, "Entries: %d, query types: %d%n",
+            registry.getSnapshot().size(), queries.length);
+        System.out.printf(Locale.ENGLISH, "%-8s %16s %12s%n", 
+            "Readers", "Lookups/s", "Writes/s");
+        for (int readerCount : READER_COUNTS)
+        {
+            run(registry, queries, readerCount, WARMUP_MS);
+            double result[] = 
+                run(registry, queries, readerCount, DURATION_MS);
+            System.out.printf(Locale.ENGLISH, "%-8d %16.0f %12.1f%n", 
+                readerCount, result[0], result[1]);
+        }
+    }
+    
+    /**
+     * Let the given number of reader threads perform lookups in the 
+     * given registry, while it is modified by a writer thread
+     * 
+     * @param registry The registry
+     * @param queries The types for the lookups
+     * @param readerCount The number of reader threads
+     * @param durationMs The duration, in milliseconds
+     * @return The number of lookups per second, and the number of
+     * writes per second
+     * @throws Exception If an error occurs
+     */
+    private static double[] run(TypeRegistry<String> registry, 
+        Type queries[], int readerCount, long durationMs) throws Exception
+    {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lookups = new AtomicLong();
+        AtomicLong checksum = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int r = 0; r < readerCount; r++)
+        {
+            int offset = r;
+            Thread reader = new Thread(() -> 
+            {
+                awaitQuietly(start);
+                long count = 0;
+                long sum = 0;
+                while (running.get())
+                {
+                    Type query = queries[(int)((count + offset) 
+                        % queries.length)];
+                    TypeRegistry.LookupMode lookupMode = (count & 1) == 0 ?
+                        TypeRegistry.LookupMode.EXACT : 
+                        TypeRegistry.LookupMode.ASSIGNABLE_FROM;
+                    sum += registry.lookup(query, lookupMode).size();
+                    count++;
+                }
+                lookups.addAndGet(count);
+                checksum.addAndGet(sum);
+            });
+            threads.add(reader);
+        }
+        AtomicLong writes = new AtomicLong();
+        Thread writer = new Thread(() -> 
+        {
+            awaitQuietly(start);
+            while (running.get())
+            {
+                if ((writes.get() & 1) == 0)
+                {
+                    registry.register(Thread.class, "thread");
+                }
+                else
+                {
+                    registry.unregister(Thread.class);
+                }
+                writes.incrementAndGet();
+                try
+                {
+                    Thread.sleep(WRITE_INTERVAL_MS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        });
+        threads.add(writer);
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+        long before = System.nanoTime();
+        start.countDown();
+        Thread.sleep(durationMs);
+        running.set(false);
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        long after = System.nanoTime();
+        if (checksum.get() == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        double seconds = (after - before) / 1e9;
+        return new double[] 
+        { 
+            lookups.get() / seconds, 
+            writes.get() / seconds 
+        };
+    }
+    
+    /**
+     * Wait for the given latch, returning if the thread is interrupted
+     * 
+     * @param latch The latch
+     */
+    private static void awaitQuietly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
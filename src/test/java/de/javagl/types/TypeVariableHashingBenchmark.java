@@ -0,0 +1,265 @@
+package de.javagl.types;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Locale;
+
+/**
+ * A benchmark for hashing and equality of types that contain many type
+ * variables.<br>
+ * <br>
+ * The type is a nested <code>Map</code> type that contains 16 type
+ * variables, which are created by a {@link TypeParser} and therefore
+ * share one generic declaration. The hash code of the type is compared
+ * to a reference implementation that computes the hash code of each
+ * generic declaration from the names of all its type parameters, which
+ * was the original implementation in {@link DefaultGenericDeclaration}.
+ * The equality is measured for the type and an equal type that was
+ * created separately. The equality of generic declarations was already
+ * based on their identity, so there is no reference implementation for
+ * the equality. This is not a unit test, but a program that may be run
+ * from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.TypeVariableHashingBenchmark
+ * </code></pre>
+ */
+public class TypeVariableHashingBenchmark
+{
+    /**
+     * The number of pairs of type variables in the type
+     */
+    private static final int PAIRS = 8;
+    
+    /**
+     * The number of calls for the warmup
+     */
+    private static final int WARMUP_CALLS = 1000000;
+    
+    /**
+     * The number of calls that are measured
+     */
+    private static final int CALLS = 5000000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Type type = createType();
+        Type copy = copy(type);
+        if (!type.equals(copy) || type.hashCode() != copy.hashCode())
+        {
+            System.out.println("The copy is not equal to the type");
+        }
+        System.out.println("Type: " + Types.stringFor(type));
+        System.out.printf(Locale.ENGLISH, "%-10s %-10s %12s%n",
+            "Operation", "Impl", "ns/call");
+        for (int i = 0; i < 2; i++)
+        {
+            boolean print = i > 0;
+            measureHashCode(type, false, print);
+            measureHashCode(type, true, print);
+            measureEquals(type, copy, print);
+        }
+    }
+    
+    /**
+     * Measure the computation of the hash code of the given type
+     * 
+     * @param type The type
+     * @param reference Whether the reference implementation should be
+     * used
+     * @param print Whether the result should be printed
+     */
+    private static void measureHashCode(
+        Type type, boolean reference, boolean print)
+    {
+        run(WARMUP_CALLS, type, reference);
+        long before = System.nanoTime();
+        run(CALLS, type, reference);
+        long after = System.nanoTime();
+        if (print)
+        {
+            System.out.printf(Locale.ENGLISH, "%-10s %-10s %12.1f%n",
+                "hashCode", reference ? "reference" : "current",
+                (double)(after - before) / CALLS);
+        }
+    }
+    
+    /**
+     * Compute the hash code of the given type for the given number of
+     * times
+     * 
+     * @param calls The number of calls
+     * @param type The type
+     * @param reference Whether the reference implementation should be
+     * used
+     */
+    private static void run(int calls, Type type, boolean reference)
+    {
+        int checksum = 0;
+        for (int i = 0; i < calls; i++)
+        {
+            checksum += reference ? referenceHashCode(type) : type.hashCode();
+        }
+        if (checksum == 42)
+        {
+            System.out.println("Unexpected checksum");
+        }
+    }
+    
+    /**
+     * Measure the equality of the given types
+     * 
+     * @param type The type
+     * @param copy The copy
+     * @param print Whether the result should be printed
+     */
+    private static void measureEquals(Type type, Type copy, boolean print)
+    {
+        int checksum = 0;
+        for (int i = 0; i < WARMUP_CALLS; i++)
+        {
+            checksum += type.equals(copy) ? 1 : 0;
+        }
+        long before = System.nanoTime();
+        for (int i = 0; i < CALLS; i++)
+        {
+            checksum += type.equals(copy) ? 1 : 0;
+        }
+        long after = System.nanoTime();
+        if (checksum == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        if (print)
+        {
+            System.out.printf(Locale.ENGLISH, "%-10s %-10s %12.1f%n",
+                "equals", "current", (double)(after - before) / CALLS);
+        }
+    }
+    
+    /**
+     * Creates the type, which is
+     * <code>Map&lt;K0, Map&lt;V0, Map&lt;K1, ... Map&lt;K7, V7&gt; ...
+     * &gt;</code>
+     * 
+     * @return The type
+     * @throws ClassNotFoundException Not expected
+     */
+    private static Type createType() throws ClassNotFoundException
+    {
+        TypeParser typeParser = TypeParsers.create();
+        StringBuilder sb = new StringBuilder();
+        StringBuilder closing = new StringBuilder();
+        for (int i = 0; i < PAIRS; i++)
+        {
+            typeParser.addTypeVariableName("K" + i);
+            typeParser.addTypeVariableName("V" + i);
+            if (i < PAIRS - 1)
+            {
+                sb.append("java.util.Map<K" + i + ", ");
+                sb.append("java.util.Map<V" + i + ", ");
+                closing.append(">>");
+            }
+            else
+            {
+                sb.append("java.util.Map<K" + i + ", V" + i + ">");
+            }
+        }
+        return typeParser.parse(sb.toString() + closing);
+    }
+    
+    /**
+     * Creates a copy of the given type, with new instances of all
+     * parameterized types, and the same type variables
+     * 
+     * @param type The type
+     * @return The copy
+     */
+    private static Type copy(Type type)
+    {
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type arguments[] = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++)
+            {
+                arguments[i] = copy(arguments[i]);
+            }
+            return Types.createParameterizedType(
+                parameterizedType.getRawType(),
+                parameterizedType.getOwnerType(), arguments);
+        }
+        return type;
+    }
+    
+    /**
+     * The reference implementation for the hash code of the given type,
+     * which computes the hash code of generic declarations from the
+     * names of their type parameters. Only the types that are created
+     * in this benchmark are supported.
+     * 
+     * @param type The type
+     * @return The hash code
+     */
+    private static int referenceHashCode(Type type)
+    {
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type arguments[] = TypeViews.typeArguments(parameterizedType);
+            int result = 1;
+            for (Type argument : arguments)
+            {
+                result = 31 * result + referenceHashCode(argument);
+            }
+            Type ownerType = parameterizedType.getOwnerType();
+            Type rawType = parameterizedType.getRawType();
+            return result ^
+                (ownerType == null ? 0 : referenceHashCode(ownerType)) ^
+                (rawType == null ? 0 : rawType.hashCode());
+        }
+        if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            return referenceHashCode(typeVariable.getGenericDeclaration())
+                ^ typeVariable.getName().hashCode();
+        }
+        return type.hashCode();
+    }
+    
+    /**
+     * The reference implementation for the hash code of the given
+     * generic declaration, which combines the names of all its type
+     * parameters. The original implementation iterated over a list,
+     * and did not create the copy of the array that is created here.
+     * 
+     * @param genericDeclaration The generic declaration
+     * @return The hash code
+     */
+    private static int referenceHashCode(
+        GenericDeclaration genericDeclaration)
+    {
+        final int prime = 31;
+        int result = 1;
+        for (TypeVariable<?> typeParameter :
+            genericDeclaration.getTypeParameters())
+        {
+            if (typeParameter != null)
+            {
+                String name = typeParameter.getName();
+                if (name != null)
+                {
+                    result = prime * result + name.hashCode();
+                }
+            }
+        }
+        return result;
+    }
+}
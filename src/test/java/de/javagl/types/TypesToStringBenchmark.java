@@ -0,0 +1,358 @@
+package de.javagl.types;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A benchmark for the creation of the string representations of nested
+ * parameterized types.<br>
+ * <br>
+ * The uncached {@link TypesToString#createString(Type)} and the
+ * {@link TypesToString#appendStringFor(StringBuilder, Type)} method
+ * that appends to a reused <code>StringBuilder</code> are compared to
+ * a reference implementation that creates and concatenates one string
+ * for each part of the type, which was the original implementation in
+ * {@link TypesToString}. The types are taken from the reflection API,
+ * and created with the methods of this library. The results of all
+ * implementations are verified to be equal. The time and the number
+ * of bytes that were allocated per call are reported, if the JVM
+ * supports measuring the allocations. This is not a unit test, but a
+ * program that may be run from the test classpath:
+ * <pre><code>
+ * java -cp target/classes:target/test-classes de.javagl.types.TypesToStringBenchmark
+ * </code></pre>
+ */
+public class TypesToStringBenchmark
+{
+    /**
+     * A sample field with a type from the reflection implementation
+     */
+    @SuppressWarnings("unused")
+    private Map<String, List<Map<Integer, Set<? extends Number>>>> nested;
+    
+    /**
+     * A sample field with a type from the reflection implementation
+     */
+    @SuppressWarnings("unused")
+    private Map<? super Integer, List<? extends Comparable<String>>[]> mixed;
+    
+    /**
+     * A sample method with a type variable that has a recursive bound
+     * 
+     * @param <T> The type parameter
+     * @param list The parameter
+     */
+    @SuppressWarnings("unused")
+    private static <T extends Comparable<? super T>> void sample(
+        List<Map<String, T>> list)
+    {
+        // Only used for the parameter type
+    }
+    
+    /**
+     * Interface for the implementations that are compared
+     */
+    private interface Implementation
+    {
+        /**
+         * Create the string representation of the given type
+         * 
+         * @param type The type
+         * @return The length of the string representation
+         */
+        int apply(Type type);
+    }
+    
+    /**
+     * The number of calls for the warmup
+     */
+    private static final int WARMUP_CALLS = 1000000;
+    
+    /**
+     * The number of calls that are measured
+     */
+    private static final int CALLS = 2000000;
+    
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws Exception If an error occurs
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, Type> types = createTypes();
+        
+        StringBuilder sb = new StringBuilder();
+        Map<String, Implementation> implementations =
+            new LinkedHashMap<String, Implementation>();
+        implementations.put("reference",
+            type -> referenceStringFor(type).length());
+        implementations.put("createString",
+            type -> TypesToString.createString(type).length());
+        implementations.put("appendStringFor", type ->
+        {
+            sb.setLength(0);
+            return TypesToString.appendStringFor(sb, type).length();
+        });
+        
+        for (Map.Entry<String, Type> entry : types.entrySet())
+        {
+            Type type = entry.getValue();
+            String expected = referenceStringFor(type);
+            String created = TypesToString.createString(type);
+            sb.setLength(0);
+            String appended =
+                TypesToString.appendStringFor(sb, type).toString();
+            if (!expected.equals(created) || !expected.equals(appended))
+            {
+                System.out.println("Results differ for " + expected);
+            }
+        }
+        
+        System.out.printf(Locale.ENGLISH, "%-14s %-16s %12s %14s%n",
+            "Type", "Impl", "ns/call", "Bytes/call");
+        for (Map.Entry<String, Type> entry : types.entrySet())
+        {
+            for (Map.Entry<String, Implementation> implementation :
+                implementations.entrySet())
+            {
+                run(implementation.getValue(), entry.getValue(),
+                    WARMUP_CALLS);
+                double result[] = run(implementation.getValue(),
+                    entry.getValue(), CALLS);
+                String bytes = result[1] < 0 ? "n/a" :
+                    String.format(Locale.ENGLISH, "%.1f", result[1]);
+                System.out.printf(Locale.ENGLISH,
+                    "%-14s %-16s %12.1f %14s%n", entry.getKey(),
+                    implementation.getKey(), result[0], bytes);
+            }
+        }
+    }
+    
+    /**
+     * Creates the types for the benchmark
+     * 
+     * @return The types, with short descriptions
+     * @throws Exception If a field or method can not be found
+     */
+    private static Map<String, Type> createTypes() throws Exception
+    {
+        Map<String, Type> types = new LinkedHashMap<String, Type>();
+        types.put("reflection", TypesToStringBenchmark.class
+            .getDeclaredField("nested").getGenericType());
+        types.put("reflection2", TypesToStringBenchmark.class
+            .getDeclaredField("mixed").getGenericType());
+        types.put("typeVariable", TypesToStringBenchmark.class
+            .getDeclaredMethod("sample", List.class)
+            .getGenericParameterTypes()[0]);
+        types.put("default", Types.create(Map.class)
+            .withType(String.class)
+            .withType(Types.create(List.class)
+                .withType(Types.create(Map.class)
+                    .withType(Integer.class)
+                    .withType(Types.create(Set.class)
+                        .withSubtypeOf(Number.class)
+                        .build())
+                    .build())
+                .build())
+            .build());
+        return types;
+    }
+    
+    /**
+     * Calls the given implementation with the given type
+     * 
+     * @param implementation The implementation
+     * @param type The type
+     * @param calls The number of calls
+     * @return The average duration of a call, in nanoseconds, and the
+     * average number of bytes that were allocated per call, or a
+     * negative value if this can not be measured
+     */
+    private static double[] run(
+        Implementation implementation, Type type, int calls)
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            allocationBean = (com.sun.management.ThreadMXBean)threadMXBean;
+        }
+        long id = Thread.currentThread().getId();
+        long allocatedBefore = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        long before = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < calls; i++)
+        {
+            checksum += implementation.apply(type);
+        }
+        long after = System.nanoTime();
+        long allocatedAfter = allocationBean == null ? 0 :
+            allocationBean.getThreadAllocatedBytes(id);
+        if (checksum == 0)
+        {
+            System.out.println("Unexpected checksum");
+        }
+        double nsPerCall = (double)(after - before) / calls;
+        double bytesPerCall = -1;
+        if (allocationBean != null)
+        {
+            bytesPerCall = (double)(allocatedAfter - allocatedBefore) / calls;
+        }
+        return new double[] { nsPerCall, bytesPerCall };
+    }
+    
+    /**
+     * The reference implementation for creating the string representation
+     * of a type, which creates one string for each part of the type
+     * 
+     * @param type The type
+     * @return The string for the type
+     */
+    private static String referenceStringFor(Type type)
+    {
+        return referenceStringFor(type, new LinkedHashSet<Type>());
+    }
+    
+    /**
+     * The reference implementation for creating the string representation
+     * of a type
+     * 
+     * @param type The type
+     * @param visitedTypeVariables The visited type variables
+     * @return The string for the type
+     */
+    private static String referenceStringFor(
+        Type type, Set<Type> visitedTypeVariables)
+    {
+        if (type == null)
+        {
+            return "null";
+        }
+        else if (type instanceof Class)
+        {
+            Class<?> c = (Class<?>)type;
+            return c.getName();
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            StringBuilder sb = new StringBuilder();
+            sb.append(referenceStringFor(
+                parameterizedType.getRawType(), visitedTypeVariables));
+            sb.append("<");
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            for (int i=0; i<typeArguments.length; i++)
+            {
+                sb.append(referenceStringFor(
+                    typeArguments[i], visitedTypeVariables));
+                if (i < typeArguments.length - 1)
+                {
+                    sb.append(", ");
+                }
+            }
+            sb.append(">");
+            return sb.toString();
+        }
+        else if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            StringBuilder sb = new StringBuilder();
+            sb.append("?");
+            sb.append(referenceBoundsString(
+                Arrays.asList(wildcardType.getLowerBounds()),
+                "super", visitedTypeVariables));
+            sb.append(referenceBoundsString(
+                referenceBoundsWithoutObject(wildcardType.getUpperBounds()),
+                "extends", visitedTypeVariables));
+            return sb.toString();
+        }
+        else if (type instanceof TypeVariable<?>)
+        {
+            TypeVariable<?> typeVariable = (TypeVariable<?>)type;
+            StringBuilder sb = new StringBuilder();
+            sb.append(typeVariable.getName());
+            if (!visitedTypeVariables.contains(typeVariable))
+            {
+                visitedTypeVariables.add(typeVariable);
+                sb.append(referenceBoundsString(
+                    referenceBoundsWithoutObject(typeVariable.getBounds()),
+                    "extends", visitedTypeVariables));
+            }
+            return sb.toString();
+        }
+        else if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            Type componentType = genericArrayType.getGenericComponentType();
+            return referenceStringFor(componentType, visitedTypeVariables)
+                + "[]";
+        }
+        return String.valueOf(type);
+    }
+    
+    /**
+     * The reference implementation for the list of the given upper
+     * bounds, except for <code>Object.class</code>
+     * 
+     * @param upperBounds The upper bounds
+     * @return The list
+     */
+    private static List<Type> referenceBoundsWithoutObject(
+        Type upperBounds[])
+    {
+        List<Type> bounds = new ArrayList<Type>();
+        for (Type type : upperBounds)
+        {
+            if (!type.equals(Object.class))
+            {
+                bounds.add(type);
+            }
+        }
+        return bounds;
+    }
+    
+    /**
+     * The reference implementation for the string of the given bounds
+     * 
+     * @param bounds The bounds
+     * @param relation The relation, either "super" or "extends"
+     * @param visitedTypeVariables The visited type variables
+     * @return The string
+     */
+    private static String referenceBoundsString(List<Type> bounds,
+        String relation, Set<Type> visitedTypeVariables)
+    {
+        if (!bounds.isEmpty())
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(" "+relation+" ");
+            for (int i=0; i<bounds.size(); i++)
+            {
+                sb.append(referenceStringFor(
+                    bounds.get(i), visitedTypeVariables));
+                if (i < bounds.size()-1)
+                {
+                    sb.append(" & ");
+                }
+            }
+            return sb.toString();
+        }
+        return "";
+    }
+}